@@ -0,0 +1,133 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.bodyrecomp.benchmarks;
+
+import com.io7m.bodyrecomp.cmdline.Main;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the time taken from launching a new JVM running the
+ * "macros" command to the first byte of output.
+ */
+
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 20)
+public class BRCommandStartupBenchmark
+{
+  /**
+   * The launch path: {@code fast} uses the plain command line accepted by
+   * the fast launch path, {@code full} adds an option that forces the full
+   * command line parser.
+   */
+
+  @Param({"fast", "full"})
+  protected String path;
+
+  private ProcessBuilder processBuilder;
+
+  /**
+   * Construct a benchmark.
+   */
+
+  public BRCommandStartupBenchmark()
+  {
+
+  }
+
+  /**
+   * Set up the benchmark state.
+   */
+
+  @Setup
+  public final void setup()
+  {
+    final var java =
+      Paths.get(System.getProperty("java.home"), "bin", "java");
+
+    final List<String> command = new ArrayList<>();
+    command.add(java.toString());
+    command.add("-cp");
+    command.add(System.getProperty("java.class.path"));
+    command.add(Main.class.getName());
+    command.add("macros");
+    command.add("--gender");
+    command.add("MALE");
+    command.add("--height-cm");
+    command.add("180");
+    command.add("--weight-kg");
+    command.add("80");
+    command.add("--age");
+    command.add("30");
+    command.add("--body-fat-percent");
+    command.add("20");
+    command.add("--activity-level");
+    command.add("SEDENTARY");
+    command.add("--caloric-adjustment");
+    command.add("MAINTENANCE");
+    if ("full".equals(this.path)) {
+      command.add("--verbose");
+      command.add("info");
+    }
+
+    this.processBuilder =
+      new ProcessBuilder(command)
+        .redirectError(ProcessBuilder.Redirect.DISCARD);
+  }
+
+  /**
+   * Launch the command and wait for the first byte of output.
+   *
+   * @return The first byte of output
+   *
+   * @throws IOException          On errors
+   * @throws InterruptedException On interruption
+   */
+
+  @Benchmark
+  public final int timeToFirstOutput()
+    throws IOException, InterruptedException
+  {
+    final var process = this.processBuilder.start();
+    try (var output = process.getInputStream()) {
+      return output.read();
+    } finally {
+      process.destroyForcibly();
+      process.waitFor();
+    }
+  }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.bodyrecomp.benchmarks;
+
+import com.io7m.bodyrecomp.core.internal.BRCoreMessageKey;
+import com.io7m.bodyrecomp.core.internal.BRCoreMessages;
+import com.io7m.bodyrecomp.strings.api.BRAbstractStrings;
+import com.io7m.bodyrecomp.strings.api.BRStringsArguments;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for {@link BRAbstractStrings}.
+ */
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class BRStringsBenchmark
+{
+  private BRAbstractStrings<BRCoreMessageKey> strings;
+  private BRStringsArguments arguments;
+  private StringBuilder text;
+
+  /**
+   * Construct a benchmark.
+   */
+
+  public BRStringsBenchmark()
+  {
+
+  }
+
+  /**
+   * Set up the benchmark state.
+   */
+
+  @Setup
+  public final void setup()
+  {
+    this.strings = BRCoreMessages.create(Locale.ROOT);
+    this.arguments = BRStringsArguments.create();
+    this.text = new StringBuilder(256);
+  }
+
+  /**
+   * Format a short message with a single argument.
+   *
+   * @return The formatted message
+   */
+
+  @Benchmark
+  public final String formatShort()
+  {
+    return this.strings.format(BRCoreMessageKey.SURPLUS, Double.valueOf(10.0));
+  }
+
+  /**
+   * Format a long message with several arguments.
+   *
+   * @return The formatted message
+   */
+
+  @Benchmark
+  public final String formatLong()
+  {
+    return this.strings.format(
+      BRCoreMessageKey.EXPLAIN_SUMMARY,
+      Integer.valueOf(2200),
+      Integer.valueOf(180),
+      Integer.valueOf(70),
+      Integer.valueOf(220)
+    );
+  }
+
+  /**
+   * Format a long message with several arguments into a reused builder,
+   * passing the arguments as primitive values.
+   *
+   * @return The builder containing the formatted message
+   */
+
+  @Benchmark
+  public final StringBuilder formatLongPrimitive()
+  {
+    this.text.setLength(0);
+    this.arguments.clear()
+      .addLong(2200L)
+      .addLong(180L)
+      .addLong(70L)
+      .addLong(220L);
+    this.strings.formatTo(this.text, BRCoreMessageKey.EXPLAIN_SUMMARY, this.arguments);
+    return this.text;
+  }
+
+  /**
+   * Fetch the messages for a locale.
+   *
+   * @return The messages
+   */
+
+  @Benchmark
+  public final BRAbstractStrings<BRCoreMessageKey> create()
+  {
+    return BRCoreMessages.create(Locale.ROOT);
+  }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.bodyrecomp.benchmarks;
+
+import com.io7m.bodyrecomp.core.BodyDefinition;
+import com.io7m.bodyrecomp.core.GeneralCoefficient;
+import com.io7m.bodyrecomp.core.NormalCoefficient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tech.units.indriya.quantity.Quantities;
+
+import javax.measure.Quantity;
+import javax.measure.quantity.Length;
+import javax.measure.quantity.Mass;
+import javax.measure.quantity.Time;
+import java.util.concurrent.TimeUnit;
+
+import static tech.units.indriya.unit.Units.KILOGRAM;
+import static tech.units.indriya.unit.Units.METRE;
+import static tech.units.indriya.unit.Units.YEAR;
+
+/**
+ * Benchmarks for {@link BodyDefinition} construction.
+ */
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class BodyDefinitionBenchmark
+{
+  private BodyDefinition body;
+  private Quantity<Length> height;
+  private Quantity<Mass> weight;
+  private Quantity<Time> age;
+  private NormalCoefficient bodyFat;
+  private GeneralCoefficient adjustment;
+  private double heightMetres;
+  private double weightKilograms;
+  private int ageYears;
+  private double bodyFatCoefficient;
+
+  /**
+   * Construct a benchmark.
+   */
+
+  public BodyDefinitionBenchmark()
+  {
+
+  }
+
+  /**
+   * Set up the benchmark state.
+   */
+
+  @Setup
+  public final void setup()
+  {
+    this.body = ExampleBodies.typical();
+    this.height = this.body.bodyHeight();
+    this.weight = this.body.bodyWeight();
+    this.age = this.body.age();
+    this.bodyFat = this.body.bodyFatCoefficient();
+    this.adjustment = this.body.caloricAdjustment();
+    this.heightMetres = this.height.getValue().doubleValue();
+    this.weightKilograms = this.weight.getValue().doubleValue();
+    this.ageYears = this.age.getValue().intValue();
+    this.bodyFatCoefficient = this.bodyFat.value();
+  }
+
+  /**
+   * Build a body definition from existing quantities and coefficients.
+   *
+   * @return The body definition
+   */
+
+  @Benchmark
+  public final BodyDefinition buildFromQuantities()
+  {
+    return BodyDefinition.builder()
+      .setGender(this.body.gender())
+      .setActivity(this.body.activity())
+      .setCaloricAdjustment(this.adjustment)
+      .setAge(this.age)
+      .setBodyHeight(this.height)
+      .setBodyFatCoefficient(this.bodyFat)
+      .setBodyWeight(this.weight)
+      .build();
+  }
+
+  /**
+   * Build a body definition from primitive values, including the
+   * construction of all quantities and coefficients.
+   *
+   * @return The body definition
+   */
+
+  @Benchmark
+  public final BodyDefinition buildFromPrimitives()
+  {
+    return BodyDefinition.builder()
+      .setGender(this.body.gender())
+      .setActivity(this.body.activity())
+      .setCaloricAdjustment(this.adjustment)
+      .setAge(Quantities.getQuantity(Integer.valueOf(this.ageYears), YEAR))
+      .setBodyHeight(
+        Quantities.getQuantity(Double.valueOf(this.heightMetres), METRE))
+      .setBodyFatCoefficient(NormalCoefficient.of(this.bodyFatCoefficient))
+      .setBodyWeight(
+        Quantities.getQuantity(Double.valueOf(this.weightKilograms), KILOGRAM))
+      .build();
+  }
+}
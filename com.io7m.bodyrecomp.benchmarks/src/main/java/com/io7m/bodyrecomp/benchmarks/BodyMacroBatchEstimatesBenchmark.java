@@ -0,0 +1,146 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.bodyrecomp.benchmarks;
+
+import com.io7m.bodyrecomp.core.ActivityCoefficient;
+import com.io7m.bodyrecomp.core.BiologicalGender;
+import com.io7m.bodyrecomp.core.BodyDefinitionColumns;
+import com.io7m.bodyrecomp.core.BodyMacroBatchEstimates;
+import com.io7m.bodyrecomp.core.BodyMacroEstimates;
+import com.io7m.bodyrecomp.core.BodyMacrosColumns;
+import com.io7m.bodyrecomp.core.CaloricAdjustment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static com.io7m.bodyrecomp.core.BodyMacroEstimates.OUTPUT_SIZE;
+
+/**
+ * Benchmarks for {@link BodyMacroBatchEstimates}, compared against calling
+ * the primitive {@link BodyMacroEstimates} function once per body.
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class BodyMacroBatchEstimatesBenchmark
+{
+  /**
+   * The number of bodies in the population.
+   */
+
+  @Param({"1000", "100000"})
+  protected int size;
+
+  private BodyDefinitionColumns input;
+  private BodyMacrosColumns output;
+  private double[] scalarOutput;
+  private BiologicalGender[] genders;
+  private ActivityCoefficient[] activities;
+
+  /**
+   * Construct a benchmark.
+   */
+
+  public BodyMacroBatchEstimatesBenchmark()
+  {
+
+  }
+
+  /**
+   * Set up the benchmark state.
+   */
+
+  @Setup
+  public final void setup()
+  {
+    final var random = new Random(0x5eedL);
+    this.genders = BiologicalGender.values();
+    this.activities = ActivityCoefficient.values();
+    final var adjustments = CaloricAdjustment.values();
+
+    this.input = BodyDefinitionColumns.create(this.size);
+    this.output = BodyMacrosColumns.create(this.size);
+    this.scalarOutput = new double[this.size * OUTPUT_SIZE];
+
+    for (int index = 0; index < this.size; ++index) {
+      this.input.set(
+        index,
+        this.genders[random.nextInt(this.genders.length)],
+        this.activities[random.nextInt(this.activities.length)],
+        1.4 + random.nextDouble() * 0.7,
+        40.0 + random.nextDouble() * 100.0,
+        18.0 + random.nextDouble() * 60.0,
+        random.nextDouble() * 0.5,
+        adjustments[random.nextInt(adjustments.length)].coefficient().value()
+      );
+    }
+  }
+
+  /**
+   * Estimate macronutrients for the population one body at a time.
+   *
+   * @return The output array
+   */
+
+  @Benchmark
+  public final double[] estimateScalar()
+  {
+    final var in = this.input;
+    for (int index = 0; index < this.size; ++index) {
+      BodyMacroEstimates.estimateFor(
+        this.genders[in.genders()[index]],
+        this.activities[in.activities()[index]],
+        in.heightMetres()[index],
+        in.weightKilograms()[index],
+        in.ageYears()[index],
+        in.bodyFatCoefficients()[index],
+        in.caloricAdjustments()[index],
+        this.scalarOutput,
+        index * OUTPUT_SIZE
+      );
+    }
+    return this.scalarOutput;
+  }
+
+  /**
+   * Estimate macronutrients for the population in columns.
+   *
+   * @return The output columns
+   */
+
+  @Benchmark
+  public final BodyMacrosColumns estimateBatch()
+  {
+    BodyMacroBatchEstimates.estimateFor(this.input, this.output);
+    return this.output;
+  }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.bodyrecomp.benchmarks;
+
+import com.io7m.bodyrecomp.core.ActivityCoefficient;
+import com.io7m.bodyrecomp.core.BiologicalGender;
+import com.io7m.bodyrecomp.core.BodyDefinitionColumns;
+import com.io7m.bodyrecomp.core.BodyMacroBatchKernelType;
+import com.io7m.bodyrecomp.core.BodyMacroBatchKernels;
+import com.io7m.bodyrecomp.core.BodyMacrosColumns;
+import com.io7m.bodyrecomp.core.CaloricAdjustment;
+import com.io7m.bodyrecomp.vector.BodyMacroVectorKernelProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks comparing the scalar batch kernel against the Vector API
+ * batch kernel.
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class BodyMacroBatchKernelsBenchmark
+{
+  /**
+   * The number of bodies in the population.
+   */
+
+  @Param({"1000", "100000"})
+  protected int size;
+
+  private BodyDefinitionColumns input;
+  private BodyMacrosColumns output;
+  private BodyMacroBatchKernelType scalar;
+  private BodyMacroBatchKernelType vector;
+
+  /**
+   * Construct a benchmark.
+   */
+
+  public BodyMacroBatchKernelsBenchmark()
+  {
+
+  }
+
+  /**
+   * Set up the benchmark state.
+   */
+
+  @Setup
+  public final void setup()
+  {
+    final var random = new Random(0x5eedL);
+    final var genders = BiologicalGender.values();
+    final var activities = ActivityCoefficient.values();
+    final var adjustments = CaloricAdjustment.values();
+
+    this.input = BodyDefinitionColumns.create(this.size);
+    this.output = BodyMacrosColumns.create(this.size);
+
+    for (int index = 0; index < this.size; ++index) {
+      this.input.set(
+        index,
+        genders[random.nextInt(genders.length)],
+        activities[random.nextInt(activities.length)],
+        1.4 + random.nextDouble() * 0.7,
+        40.0 + random.nextDouble() * 100.0,
+        18.0 + random.nextDouble() * 60.0,
+        random.nextDouble() * 0.5,
+        adjustments[random.nextInt(adjustments.length)].coefficient().value()
+      );
+    }
+
+    this.scalar =
+      BodyMacroBatchKernels.scalar();
+    this.vector =
+      new BodyMacroVectorKernelProvider()
+        .create()
+        .orElseThrow(() -> {
+          return new IllegalStateException(
+            "The vector kernel is not supported on this platform");
+        });
+  }
+
+  /**
+   * Estimate macronutrients with the scalar kernel.
+   *
+   * @return The output columns
+   */
+
+  @Benchmark
+  public final BodyMacrosColumns estimateScalar()
+  {
+    this.scalar.estimateFor(this.input, this.output);
+    return this.output;
+  }
+
+  /**
+   * Estimate macronutrients with the vector kernel.
+   *
+   * @return The output columns
+   */
+
+  @Benchmark
+  public final BodyMacrosColumns estimateVector()
+  {
+    this.vector.estimateFor(this.input, this.output);
+    return this.output;
+  }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.bodyrecomp.benchmarks;
+
+import com.io7m.bodyrecomp.core.ActivityCoefficient;
+import com.io7m.bodyrecomp.core.BiologicalGender;
+import com.io7m.bodyrecomp.core.BodyDefinition;
+import com.io7m.bodyrecomp.core.BodyMacroEstimateCache;
+import com.io7m.bodyrecomp.core.BodyMacroEstimateCacheConfiguration;
+import com.io7m.bodyrecomp.core.BodyMacroEstimateCacheEvictionPolicy;
+import com.io7m.bodyrecomp.core.BodyMacroEstimates;
+import com.io7m.bodyrecomp.core.BodyMacros;
+import com.io7m.bodyrecomp.core.CaloricAdjustment;
+import com.io7m.bodyrecomp.core.NormalCoefficient;
+import com.io7m.jaffirm.core.PreconditionViolationException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tech.units.indriya.quantity.Quantities;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static tech.units.indriya.unit.Units.KILOGRAM;
+import static tech.units.indriya.unit.Units.METRE;
+import static tech.units.indriya.unit.Units.YEAR;
+
+/**
+ * Benchmarks for {@link BodyMacroEstimateCache} under repetitive traffic
+ * drawn from a fixed population of bodies.
+ */
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class BodyMacroEstimateCacheBenchmark
+{
+  private static final int POPULATION = 1024;
+
+  @Param({"LEAST_RECENTLY_USED", "LEAST_FREQUENTLY_USED"})
+  protected BodyMacroEstimateCacheEvictionPolicy policy;
+
+  private BodyDefinition[] bodies;
+  private BodyMacroEstimateCache cache;
+  private int next;
+
+  /**
+   * Construct a benchmark.
+   */
+
+  public BodyMacroEstimateCacheBenchmark()
+  {
+
+  }
+
+  /**
+   * Set up the benchmark state.
+   */
+
+  @Setup
+  public final void setup()
+  {
+    final var random = new Random(0x5eedL);
+    this.bodies = new BodyDefinition[POPULATION];
+    int index = 0;
+    while (index < POPULATION) {
+      final int heightCm = 150 + random.nextInt(50);
+      final int weightKg = 50 + random.nextInt(70);
+      final int age = 18 + random.nextInt(60);
+      final int bodyFat = 10 + random.nextInt(25);
+      final var body =
+        BodyDefinition.builder()
+          .setGender(BiologicalGender.values()[random.nextInt(2)])
+          .setActivity(ActivityCoefficient.SEDENTARY)
+          .setCaloricAdjustment(CaloricAdjustment.MAINTENANCE.coefficient())
+          .setAge(Quantities.getQuantity(Integer.valueOf(age), YEAR))
+          .setBodyHeight(
+            Quantities.getQuantity(Double.valueOf(heightCm / 100.0), METRE))
+          .setBodyFatCoefficient(NormalCoefficient.of(bodyFat / 100.0))
+          .setBodyWeight(
+            Quantities.getQuantity(Integer.valueOf(weightKg), KILOGRAM))
+          .build();
+
+      /*
+       * A small fraction of bodies are rejected by the BodyMacros
+       * precondition checks; leave them out of the population.
+       */
+
+      try {
+        BodyMacroEstimates.estimateFor(body);
+        this.bodies[index] = body;
+        ++index;
+      } catch (final PreconditionViolationException e) {
+        continue;
+      }
+    }
+
+    this.cache =
+      BodyMacroEstimateCache.create(
+        BodyMacroEstimateCacheConfiguration.builder()
+          .setMaximumSize(POPULATION * 2)
+          .setEvictionPolicy(this.policy)
+          .build());
+  }
+
+  private BodyDefinition nextBody()
+  {
+    final var body = this.bodies[this.next];
+    this.next = (this.next + 1) & (POPULATION - 1);
+    return body;
+  }
+
+  /**
+   * Estimate macronutrients through the cache.
+   *
+   * @return The estimated macronutrients
+   */
+
+  @Benchmark
+  public final BodyMacros estimateCached()
+  {
+    return this.cache.estimateFor(this.nextBody());
+  }
+
+  /**
+   * Estimate macronutrients without a cache.
+   *
+   * @return The estimated macronutrients
+   */
+
+  @Benchmark
+  public final BodyMacros estimateUncached()
+  {
+    return BodyMacroEstimates.estimateFor(this.nextBody());
+  }
+}
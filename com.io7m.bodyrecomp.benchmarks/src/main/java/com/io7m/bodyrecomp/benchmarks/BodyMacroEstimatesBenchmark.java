@@ -0,0 +1,130 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.bodyrecomp.benchmarks;
+
+import com.io7m.bodyrecomp.core.BodyDefinition;
+import com.io7m.bodyrecomp.core.BodyMacroEstimateOptions;
+import com.io7m.bodyrecomp.core.BodyMacroEstimates;
+import com.io7m.bodyrecomp.core.BodyMacros;
+import com.io7m.bodyrecomp.core.BodyMacrosMutable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for {@link BodyMacroEstimates}.
+ */
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class BodyMacroEstimatesBenchmark
+{
+  private BodyDefinition body;
+  private BodyMacroEstimateOptions withoutExplanations;
+  private BodyMacrosMutable sink;
+  private double heightMetres;
+  private double weightKilograms;
+  private double ageYears;
+
+  /**
+   * Construct a benchmark.
+   */
+
+  public BodyMacroEstimatesBenchmark()
+  {
+
+  }
+
+  /**
+   * Set up the benchmark state.
+   */
+
+  @Setup
+  public final void setup()
+  {
+    this.body = ExampleBodies.typical();
+
+    this.withoutExplanations =
+      BodyMacroEstimateOptions.builder()
+        .setExplanations(false)
+        .build();
+
+    this.sink = new BodyMacrosMutable();
+    this.heightMetres = this.body.bodyHeight().getValue().doubleValue();
+    this.weightKilograms = this.body.bodyWeight().getValue().doubleValue();
+    this.ageYears = this.body.age().getValue().doubleValue();
+  }
+
+  /**
+   * Estimate macronutrients, producing explanations.
+   *
+   * @return The estimated macronutrients
+   */
+
+  @Benchmark
+  public final BodyMacros estimateWithExplanations()
+  {
+    return BodyMacroEstimates.estimateFor(this.body);
+  }
+
+  /**
+   * Estimate macronutrients without producing explanations.
+   *
+   * @return The estimated macronutrients
+   */
+
+  @Benchmark
+  public final BodyMacros estimateWithoutExplanations()
+  {
+    return BodyMacroEstimates.estimateFor(this.body, this.withoutExplanations);
+  }
+
+  /**
+   * Estimate macronutrients from primitive values into a reused sink.
+   *
+   * @return The estimated calories
+   */
+
+  @Benchmark
+  public final double estimateIntoSink()
+  {
+    BodyMacroEstimates.estimateFor(
+      this.body.gender(),
+      this.body.activity(),
+      this.heightMetres,
+      this.weightKilograms,
+      this.ageYears,
+      this.body.bodyFatCoefficient().value(),
+      this.body.caloricAdjustment().value(),
+      this.sink
+    );
+    return this.sink.calories();
+  }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.bodyrecomp.benchmarks;
+
+import com.io7m.bodyrecomp.core.ActivityCoefficient;
+import com.io7m.bodyrecomp.core.BodyDefinition;
+import com.io7m.bodyrecomp.core.BodyMacroEstimates;
+import com.io7m.bodyrecomp.core.BodyMacroGrid;
+import com.io7m.bodyrecomp.core.BodyMacroGridEstimates;
+import com.io7m.bodyrecomp.core.BodyMacrosMutable;
+import com.io7m.bodyrecomp.core.CaloricAdjustment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for {@link BodyMacroGridEstimates}, compared against
+ * estimating each cell of the grid separately.
+ */
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class BodyMacroGridEstimatesBenchmark
+{
+  private static final ActivityCoefficient[] ACTIVITIES =
+    ActivityCoefficient.values();
+  private static final CaloricAdjustment[] ADJUSTMENTS =
+    CaloricAdjustment.values();
+
+  private BodyDefinition body;
+  private BodyMacroGrid grid;
+  private BodyMacrosMutable sink;
+  private double heightMetres;
+  private double weightKilograms;
+  private double ageYears;
+  private double bodyFatCoefficient;
+
+  /**
+   * Construct a benchmark.
+   */
+
+  public BodyMacroGridEstimatesBenchmark()
+  {
+
+  }
+
+  /**
+   * Set up the benchmark state.
+   */
+
+  @Setup
+  public final void setup()
+  {
+    this.body = ExampleBodies.typical();
+    this.grid = new BodyMacroGrid();
+    this.sink = new BodyMacrosMutable();
+    this.heightMetres = this.body.bodyHeight().getValue().doubleValue();
+    this.weightKilograms = this.body.bodyWeight().getValue().doubleValue();
+    this.ageYears = this.body.age().getValue().doubleValue();
+    this.bodyFatCoefficient = this.body.bodyFatCoefficient().value();
+  }
+
+  /**
+   * Estimate the whole grid for a body into a reused grid.
+   *
+   * @return The grid
+   */
+
+  @Benchmark
+  public final BodyMacroGrid grid()
+  {
+    BodyMacroGridEstimates.estimateFor(
+      this.body.gender(),
+      this.heightMetres,
+      this.weightKilograms,
+      this.ageYears,
+      this.bodyFatCoefficient,
+      this.grid
+    );
+    return this.grid;
+  }
+
+  /**
+   * Estimate the whole grid for a body, allocating a new grid.
+   *
+   * @return The grid
+   */
+
+  @Benchmark
+  public final BodyMacroGrid gridAllocating()
+  {
+    return BodyMacroGridEstimates.estimateFor(this.body);
+  }
+
+  /**
+   * Estimate every cell of the grid separately into a reused sink.
+   *
+   * @return The sum of the estimated calories
+   */
+
+  @Benchmark
+  public final double cellByCell()
+  {
+    double sum = 0.0;
+    for (final var activity : ACTIVITIES) {
+      for (final var adjustment : ADJUSTMENTS) {
+        BodyMacroEstimates.estimateFor(
+          this.body.gender(),
+          activity,
+          this.heightMetres,
+          this.weightKilograms,
+          this.ageYears,
+          this.bodyFatCoefficient,
+          adjustment.coefficient().value(),
+          this.sink
+        );
+        sum += this.sink.calories();
+      }
+    }
+    return sum;
+  }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.bodyrecomp.benchmarks;
+
+import com.io7m.bodyrecomp.core.BodyDefinition;
+import com.io7m.bodyrecomp.core.BodyMacroEstimates;
+import com.io7m.bodyrecomp.core.BodyMacroIncrementalEstimator;
+import com.io7m.bodyrecomp.core.BodyMacrosMutable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for {@link BodyMacroIncrementalEstimator}, compared against
+ * full estimates of the same sequence of bodies.
+ */
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class BodyMacroIncrementalEstimatorBenchmark
+{
+  private BodyDefinition body;
+  private BodyMacroIncrementalEstimator estimator;
+  private BodyMacrosMutable sink;
+  private double heightMetres;
+  private double weightKilograms;
+  private double ageYears;
+  private double bodyFatCoefficient;
+  private int step;
+
+  /**
+   * Construct a benchmark.
+   */
+
+  public BodyMacroIncrementalEstimatorBenchmark()
+  {
+
+  }
+
+  /**
+   * Set up the benchmark state.
+   */
+
+  @Setup
+  public final void setup()
+  {
+    this.body = ExampleBodies.typical();
+    this.estimator = new BodyMacroIncrementalEstimator();
+    this.sink = new BodyMacrosMutable();
+    this.heightMetres = this.body.bodyHeight().getValue().doubleValue();
+    this.weightKilograms = this.body.bodyWeight().getValue().doubleValue();
+    this.ageYears = this.body.age().getValue().doubleValue();
+    this.bodyFatCoefficient = this.body.bodyFatCoefficient().value();
+  }
+
+  private double nextAdjustment()
+  {
+    this.step = (this.step + 1) & 3;
+    return 0.8 + this.step * 0.1;
+  }
+
+  private double nextAge()
+  {
+    this.step = (this.step + 1) & 3;
+    return this.ageYears + this.step;
+  }
+
+  /**
+   * Re-estimate with a different caloric adjustment each time, incrementally.
+   *
+   * @return The estimated calories
+   */
+
+  @Benchmark
+  public final double adjustmentIncremental()
+  {
+    this.estimator.estimateFor(
+      this.body.gender(),
+      this.body.activity(),
+      this.heightMetres,
+      this.weightKilograms,
+      this.ageYears,
+      this.bodyFatCoefficient,
+      this.nextAdjustment(),
+      this.sink
+    );
+    return this.sink.calories();
+  }
+
+  /**
+   * Re-estimate with a different caloric adjustment each time, in full.
+   *
+   * @return The estimated calories
+   */
+
+  @Benchmark
+  public final double adjustmentFull()
+  {
+    BodyMacroEstimates.estimateFor(
+      this.body.gender(),
+      this.body.activity(),
+      this.heightMetres,
+      this.weightKilograms,
+      this.ageYears,
+      this.bodyFatCoefficient,
+      this.nextAdjustment(),
+      this.sink
+    );
+    return this.sink.calories();
+  }
+
+  /**
+   * Re-estimate with a different age each time, incrementally.
+   *
+   * @return The estimated calories
+   */
+
+  @Benchmark
+  public final double ageIncremental()
+  {
+    this.estimator.estimateFor(
+      this.body.gender(),
+      this.body.activity(),
+      this.heightMetres,
+      this.weightKilograms,
+      this.nextAge(),
+      this.bodyFatCoefficient,
+      this.body.caloricAdjustment().value(),
+      this.sink
+    );
+    return this.sink.calories();
+  }
+
+  /**
+   * Re-estimate with a different age each time, in full.
+   *
+   * @return The estimated calories
+   */
+
+  @Benchmark
+  public final double ageFull()
+  {
+    BodyMacroEstimates.estimateFor(
+      this.body.gender(),
+      this.body.activity(),
+      this.heightMetres,
+      this.weightKilograms,
+      this.nextAge(),
+      this.bodyFatCoefficient,
+      this.body.caloricAdjustment().value(),
+      this.sink
+    );
+    return this.sink.calories();
+  }
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.bodyrecomp.benchmarks;
+
+import com.io7m.bodyrecomp.core.ActivityCoefficient;
+import com.io7m.bodyrecomp.core.BiologicalGender;
+import com.io7m.bodyrecomp.core.BodyDefinition;
+import com.io7m.bodyrecomp.core.BodyDefinitionColumns;
+import com.io7m.bodyrecomp.core.BodyMacroBatchKernelType;
+import com.io7m.bodyrecomp.core.BodyMacroBatchKernels;
+import com.io7m.bodyrecomp.core.BodyMacroEstimateOptions;
+import com.io7m.bodyrecomp.core.BodyMacroEstimates;
+import com.io7m.bodyrecomp.core.BodyMacroParallelEstimates;
+import com.io7m.bodyrecomp.core.BodyMacros;
+import com.io7m.bodyrecomp.core.BodyMacrosColumns;
+import com.io7m.bodyrecomp.core.CaloricAdjustment;
+import com.io7m.bodyrecomp.core.NormalCoefficient;
+import com.io7m.jaffirm.core.PreconditionViolationException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import tech.units.indriya.quantity.Quantities;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import static tech.units.indriya.unit.Units.KILOGRAM;
+import static tech.units.indriya.unit.Units.METRE;
+import static tech.units.indriya.unit.Units.YEAR;
+
+/**
+ * Scaling benchmarks for {@link BodyMacroParallelEstimates}. Run with
+ * increasing values of the {@code threads} parameter to observe how the
+ * estimation scales, for example {@code -p threads=1,2,4,8,16,32,64}.
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class BodyMacroParallelEstimatesBenchmark
+{
+  private static final int OBJECT_BODIES = 10_000;
+  private static final int COLUMN_BODIES = 1_000_000;
+
+  /**
+   * The number of threads in the pool.
+   */
+
+  @Param({"1", "2", "4", "8"})
+  protected int threads;
+
+  private ForkJoinPool pool;
+  private List<BodyDefinition> bodies;
+  private BodyMacroEstimateOptions options;
+  private BodyDefinitionColumns input;
+  private BodyMacrosColumns output;
+  private BodyMacroBatchKernelType kernel;
+
+  /**
+   * Construct a benchmark.
+   */
+
+  public BodyMacroParallelEstimatesBenchmark()
+  {
+
+  }
+
+  /**
+   * Set up the benchmark state.
+   */
+
+  @Setup
+  public final void setup()
+  {
+    final var random = new Random(0x5eedL);
+    final var genders = BiologicalGender.values();
+    final var activities = ActivityCoefficient.values();
+    final var adjustments = CaloricAdjustment.values();
+
+    this.options =
+      BodyMacroEstimateOptions.builder()
+        .setExplanations(false)
+        .build();
+
+    this.bodies = new ArrayList<>(OBJECT_BODIES);
+    while (this.bodies.size() < OBJECT_BODIES) {
+      final var body =
+        BodyDefinition.builder()
+          .setGender(genders[random.nextInt(genders.length)])
+          .setActivity(activities[random.nextInt(activities.length)])
+          .setCaloricAdjustment(
+            adjustments[random.nextInt(adjustments.length)].coefficient())
+          .setAge(Quantities.getQuantity(
+            Integer.valueOf(18 + random.nextInt(60)), YEAR))
+          .setBodyHeight(Quantities.getQuantity(
+            Double.valueOf(1.5 + random.nextInt(50) / 100.0), METRE))
+          .setBodyFatCoefficient(
+            NormalCoefficient.of(0.08 + random.nextInt(30) / 100.0))
+          .setBodyWeight(Quantities.getQuantity(
+            Double.valueOf(50.0 + random.nextInt(70)), KILOGRAM))
+          .build();
+
+      /*
+       * A small number of bodies produce rounding errors that fail the
+       * BodyMacros precondition checks; leave them out of the population.
+       */
+
+      try {
+        BodyMacroEstimates.estimateFor(body, this.options);
+        this.bodies.add(body);
+      } catch (final PreconditionViolationException e) {
+        continue;
+      }
+    }
+
+    this.input = BodyDefinitionColumns.create(COLUMN_BODIES);
+    this.output = BodyMacrosColumns.create(COLUMN_BODIES);
+    for (int index = 0; index < COLUMN_BODIES; ++index) {
+      this.input.set(index, this.bodies.get(index % OBJECT_BODIES));
+    }
+
+    this.kernel = BodyMacroBatchKernels.best();
+    this.pool = new ForkJoinPool(this.threads);
+  }
+
+  /**
+   * Shut down the pool.
+   */
+
+  @TearDown
+  public final void tearDown()
+  {
+    this.pool.shutdown();
+  }
+
+  /**
+   * Estimate macronutrients for a list of body definitions.
+   *
+   * @return The estimated macronutrients
+   */
+
+  @Benchmark
+  public final List<BodyMacros> estimateObjects()
+  {
+    return BodyMacroParallelEstimates.estimateFor(
+      this.pool,
+      this.bodies,
+      this.options
+    );
+  }
+
+  /**
+   * Estimate macronutrients for a set of columns.
+   *
+   * @return The output columns
+   */
+
+  @Benchmark
+  public final BodyMacrosColumns estimateColumns()
+  {
+    BodyMacroParallelEstimates.estimateFor(
+      this.pool,
+      this.kernel,
+      this.input,
+      this.output
+    );
+    return this.output;
+  }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.bodyrecomp.benchmarks;
+
+import com.io7m.bodyrecomp.core.ActivityCoefficient;
+import com.io7m.bodyrecomp.core.BiologicalGender;
+import com.io7m.bodyrecomp.core.BodyDefinitionColumns;
+import com.io7m.bodyrecomp.core.BodyWeightSimulationConfiguration;
+import com.io7m.bodyrecomp.core.BodyWeightSimulationObserverType;
+import com.io7m.bodyrecomp.core.BodyWeightSimulations;
+import com.io7m.bodyrecomp.core.CaloricAdjustment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for {@link BodyWeightSimulations}, simulating a population
+ * for a year.
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class BodyWeightSimulationsBenchmark
+{
+  private static final BodyWeightSimulationObserverType IGNORE =
+    (day, bodies, offset, count) -> {
+    };
+
+  /**
+   * The number of bodies in the population.
+   */
+
+  @Param({"100000"})
+  protected int size;
+
+  /**
+   * The number of days simulated.
+   */
+
+  @Param({"365"})
+  protected int days;
+
+  private BodyDefinitionColumns initial;
+  private BodyDefinitionColumns bodies;
+  private BodyWeightSimulationConfiguration configuration;
+
+  /**
+   * Construct a benchmark.
+   */
+
+  public BodyWeightSimulationsBenchmark()
+  {
+
+  }
+
+  /**
+   * Set up the benchmark state.
+   */
+
+  @Setup
+  public final void setup()
+  {
+    final var random = new Random(0x5eedL);
+    final var genders = BiologicalGender.values();
+    final var activities = ActivityCoefficient.values();
+    final var adjustments = CaloricAdjustment.values();
+
+    this.configuration = BodyWeightSimulationConfiguration.builder().build();
+    this.initial = BodyDefinitionColumns.create(this.size);
+    this.bodies = BodyDefinitionColumns.create(this.size);
+
+    for (int index = 0; index < this.size; ++index) {
+      this.initial.set(
+        index,
+        genders[random.nextInt(genders.length)],
+        activities[random.nextInt(activities.length)],
+        1.4 + random.nextDouble() * 0.7,
+        40.0 + random.nextDouble() * 100.0,
+        18.0 + random.nextDouble() * 60.0,
+        0.05 + random.nextDouble() * 0.45,
+        adjustments[random.nextInt(adjustments.length)].coefficient().value()
+      );
+    }
+  }
+
+  /**
+   * Restore the population to its initial state before each simulation.
+   */
+
+  @Setup(Level.Invocation)
+  public final void reset()
+  {
+    System.arraycopy(
+      this.initial.genders(), 0, this.bodies.genders(), 0, this.size);
+    System.arraycopy(
+      this.initial.activities(), 0, this.bodies.activities(), 0, this.size);
+    System.arraycopy(
+      this.initial.heightMetres(), 0, this.bodies.heightMetres(), 0, this.size);
+    System.arraycopy(
+      this.initial.weightKilograms(), 0, this.bodies.weightKilograms(), 0, this.size);
+    System.arraycopy(
+      this.initial.ageYears(), 0, this.bodies.ageYears(), 0, this.size);
+    System.arraycopy(
+      this.initial.bodyFatCoefficients(), 0, this.bodies.bodyFatCoefficients(), 0, this.size);
+    System.arraycopy(
+      this.initial.caloricAdjustments(), 0, this.bodies.caloricAdjustments(), 0, this.size);
+  }
+
+  /**
+   * Simulate the population on the current thread.
+   *
+   * @return The simulated bodies
+   */
+
+  @Benchmark
+  public final BodyDefinitionColumns simulate()
+  {
+    BodyWeightSimulations.simulate(
+      this.configuration,
+      this.bodies,
+      0,
+      this.size,
+      this.days,
+      IGNORE
+    );
+    return this.bodies;
+  }
+
+  /**
+   * Simulate the population on the common pool.
+   *
+   * @return The simulated bodies
+   */
+
+  @Benchmark
+  public final BodyDefinitionColumns simulateParallel()
+  {
+    BodyWeightSimulations.simulate(
+      ForkJoinPool.commonPool(),
+      this.configuration,
+      this.bodies,
+      this.days,
+      IGNORE
+    );
+    return this.bodies;
+  }
+}
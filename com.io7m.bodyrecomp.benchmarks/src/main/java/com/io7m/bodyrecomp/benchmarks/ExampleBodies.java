@@ -0,0 +1,57 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.bodyrecomp.benchmarks;
+
+import com.io7m.bodyrecomp.core.ActivityCoefficient;
+import com.io7m.bodyrecomp.core.BiologicalGender;
+import com.io7m.bodyrecomp.core.BodyDefinition;
+import com.io7m.bodyrecomp.core.CaloricAdjustment;
+import com.io7m.bodyrecomp.core.NormalCoefficient;
+import tech.units.indriya.quantity.Quantities;
+
+import static tech.units.indriya.unit.Units.KILOGRAM;
+import static tech.units.indriya.unit.Units.METRE;
+import static tech.units.indriya.unit.Units.YEAR;
+
+/**
+ * Example bodies shared between benchmarks.
+ */
+
+final class ExampleBodies
+{
+  private ExampleBodies()
+  {
+
+  }
+
+  /**
+   * @return A typical body
+   */
+
+  static BodyDefinition typical()
+  {
+    return BodyDefinition.builder()
+      .setGender(BiologicalGender.MALE)
+      .setActivity(ActivityCoefficient.SEDENTARY)
+      .setCaloricAdjustment(CaloricAdjustment.SMALL_DEFICIT.coefficient())
+      .setAge(Quantities.getQuantity(Integer.valueOf(35), YEAR))
+      .setBodyHeight(Quantities.getQuantity(Double.valueOf(1.72), METRE))
+      .setBodyFatCoefficient(NormalCoefficient.of(0.2))
+      .setBodyWeight(Quantities.getQuantity(Double.valueOf(81.3), KILOGRAM))
+      .build();
+  }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.bodyrecomp.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * <p>The benchmark entry point.</p>
+ *
+ * <p>This accepts the same arguments as the standard JMH launcher, but
+ * always enables the GC profiler so that the allocation rate per operation
+ * ({@code gc.alloc.rate.norm}) is reported alongside throughput. The
+ * listing and help options are passed through to the standard launcher.</p>
+ */
+
+public final class Main
+{
+  private Main()
+  {
+
+  }
+
+  /**
+   * The main entry point.
+   *
+   * @param args Command-line arguments
+   *
+   * @throws CommandLineOptionException On invalid arguments
+   * @throws RunnerException            On benchmark failures
+   * @throws IOException                On I/O errors
+   */
+
+  public static void main(
+    final String[] args)
+    throws CommandLineOptionException, RunnerException, IOException
+  {
+    final var commandLine = new CommandLineOptions(args);
+    if (isInformational(commandLine)) {
+      org.openjdk.jmh.Main.main(args);
+      return;
+    }
+
+    final var builder = new OptionsBuilder().parent(commandLine);
+    final var gcProfilerRequested =
+      commandLine.getProfilers()
+        .stream()
+        .anyMatch(p -> isGCProfiler(p.getKlass()));
+
+    if (!gcProfilerRequested) {
+      builder.addProfiler(GCProfiler.class);
+    }
+
+    new Runner(builder.build()).run();
+  }
+
+  private static boolean isGCProfiler(
+    final String name)
+  {
+    return Objects.equals(name, "gc")
+           || Objects.equals(name, GCProfiler.class.getName());
+  }
+
+  private static boolean isInformational(
+    final CommandLineOptions commandLine)
+  {
+    if (commandLine.shouldHelp() || commandLine.shouldList()) {
+      return true;
+    }
+    if (commandLine.shouldListWithParams()) {
+      return true;
+    }
+    return commandLine.shouldListProfilers()
+           || commandLine.shouldListResultFormats();
+  }
+}
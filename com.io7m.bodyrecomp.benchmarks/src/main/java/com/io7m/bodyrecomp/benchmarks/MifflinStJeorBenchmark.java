@@ -0,0 +1,113 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.bodyrecomp.benchmarks;
+
+import com.io7m.bodyrecomp.core.BodyDefinition;
+import com.io7m.bodyrecomp.core.MifflinStJeor;
+import com.io7m.bodyrecomp.core.MifflinStJeorInput;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.measure.Quantity;
+import javax.measure.quantity.Energy;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for {@link MifflinStJeor}.
+ */
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class MifflinStJeorBenchmark
+{
+  private BodyDefinition body;
+  private MifflinStJeorInput input;
+  private double heightMetres;
+  private double weightKilograms;
+  private double ageYears;
+
+  /**
+   * Construct a benchmark.
+   */
+
+  public MifflinStJeorBenchmark()
+  {
+
+  }
+
+  /**
+   * Set up the benchmark state.
+   */
+
+  @Setup
+  public final void setup()
+  {
+    this.body = ExampleBodies.typical();
+    this.input =
+      MifflinStJeorInput.builder()
+        .setGender(this.body.gender())
+        .setHeight(this.body.bodyHeight())
+        .setBodyWeight(this.body.bodyWeight())
+        .setAge(this.body.age())
+        .build();
+
+    this.heightMetres = this.body.bodyHeight().getValue().doubleValue();
+    this.weightKilograms = this.body.bodyWeight().getValue().doubleValue();
+    this.ageYears = this.body.age().getValue().doubleValue();
+  }
+
+  /**
+   * Calculate the basal metabolic rate from quantities.
+   *
+   * @return The basal metabolic rate
+   */
+
+  @Benchmark
+  public final Quantity<Energy> basalMetabolicRateQuantity()
+  {
+    return MifflinStJeor.basalMetabolicRate(this.input);
+  }
+
+  /**
+   * Calculate the basal metabolic rate from primitive values.
+   *
+   * @return The basal metabolic rate
+   */
+
+  @Benchmark
+  public final double basalMetabolicRatePrimitive()
+  {
+    return MifflinStJeor.basalMetabolicRate(
+      this.body.gender(),
+      this.heightMetres,
+      this.weightKilograms,
+      this.ageYears
+    );
+  }
+}
@@ -16,13 +16,19 @@
 
 package com.io7m.bodyrecomp.cmdline;
 
+import com.io7m.bodyrecomp.cmdline.internal.BRCommandEvent;
 import com.io7m.bodyrecomp.cmdline.internal.BRCommandMacros;
+import com.io7m.bodyrecomp.cmdline.internal.BRCommandMacrosBatch;
+import com.io7m.bodyrecomp.cmdline.internal.BRCommandServe;
+import com.io7m.bodyrecomp.cmdline.internal.BRCommandShell;
 import com.io7m.bodyrecomp.cmdline.internal.BRCommandVersion;
+import com.io7m.bodyrecomp.cmdline.internal.BRFastMacros;
 import com.io7m.claypot.core.CLPApplicationConfiguration;
 import com.io7m.claypot.core.CLPCommandConstructorType;
 import com.io7m.claypot.core.CLPCommandType;
 import com.io7m.claypot.core.Claypot;
 import com.io7m.claypot.core.ClaypotType;
+import jdk.jfr.FlightRecorder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -38,10 +44,9 @@ import java.util.stream.Stream;
 
 public final class Main implements Runnable
 {
-  private static final Logger LOG = LoggerFactory.getLogger(Main.class);
-
   private final String[] args;
-  private final ClaypotType claypot;
+  private ClaypotType claypot;
+  private int exitCode;
 
   /**
    * The main entry point.
@@ -54,23 +59,40 @@ public final class Main implements Runnable
   {
     this.args =
       Objects.requireNonNull(inArgs, "Command line arguments");
+  }
 
-    final List<CLPCommandConstructorType> commands =
-      List.of(
-        BRCommandMacros::new,
-        BRCommandVersion::new
-      );
-
-    final var configuration =
-      CLPApplicationConfiguration.builder()
-        .setLogger(LOG)
-        .setProgramName("bodyrecomp")
-        .setCommands(commands)
-        .setDocumentationURI(URI.create(
-          "https://www.io7m.com/software/bodyrecomp/"))
-        .build();
-
-    this.claypot = Claypot.create(configuration);
+  /*
+   * The Claypot instance (and therefore JCommander, the command instances,
+   * and the logging configuration) is only created when the fast launch path
+   * declines the command line, or when the commands are explicitly requested.
+   */
+
+  private ClaypotType claypot()
+  {
+    if (this.claypot == null) {
+      final Logger logger = LoggerFactory.getLogger(Main.class);
+
+      final List<CLPCommandConstructorType> commands =
+        List.of(
+          BRCommandMacros::new,
+          BRCommandMacrosBatch::new,
+          BRCommandServe::new,
+          BRCommandShell::new,
+          BRCommandVersion::new
+        );
+
+      final var configuration =
+        CLPApplicationConfiguration.builder()
+          .setLogger(logger)
+          .setProgramName("bodyrecomp")
+          .setCommands(commands)
+          .setDocumentationURI(URI.create(
+            "https://www.io7m.com/software/bodyrecomp/"))
+          .build();
+
+      this.claypot = Claypot.create(configuration);
+    }
+    return this.claypot;
   }
 
   /**
@@ -92,13 +114,35 @@ public final class Main implements Runnable
 
   public int exitCode()
   {
-    return this.claypot.exitCode();
+    return this.exitCode;
   }
 
   @Override
   public void run()
   {
-    this.claypot.execute(this.args);
+    final BRCommandEvent event;
+    if (FlightRecorder.isInitialized()) {
+      event = new BRCommandEvent();
+      event.begin();
+    } else {
+      event = null;
+    }
+
+    if (BRFastMacros.execute(this.args, System.out)) {
+      this.exitCode = 0;
+    } else {
+      final var parser = this.claypot();
+      parser.execute(this.args);
+      this.exitCode = parser.exitCode();
+    }
+
+    if (event != null) {
+      event.end();
+      if (event.shouldCommit()) {
+        event.set(List.of(this.args), this.exitCode);
+        event.commit();
+      }
+    }
   }
 
   /**
@@ -118,7 +162,7 @@ public final class Main implements Runnable
 
   public SortedMap<String, CLPCommandType> commands()
   {
-    return this.claypot.commands();
+    return this.claypot().commands();
   }
 
   @Override
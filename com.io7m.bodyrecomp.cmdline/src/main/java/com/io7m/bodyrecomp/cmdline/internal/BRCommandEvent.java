@@ -0,0 +1,81 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.bodyrecomp.cmdline.internal;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.util.List;
+
+/**
+ * A flight recorder event describing the execution of a command line. The
+ * event is disabled by default.
+ */
+
+@Name(BRCommandEvent.NAME)
+@Label("Command Execution")
+@Description("The execution of a bodyrecomp command line.")
+@Category("bodyrecomp")
+@Enabled(false)
+@StackTrace(false)
+public final class BRCommandEvent extends Event
+{
+  /**
+   * The name of the event type.
+   */
+
+  public static final String NAME = "com.io7m.bodyrecomp.Command";
+
+  @Label("Command")
+  private String command;
+
+  @Label("Arguments")
+  private String arguments;
+
+  @Label("Exit Code")
+  private int exitCode;
+
+  /**
+   * Construct an event.
+   */
+
+  public BRCommandEvent()
+  {
+
+  }
+
+  /**
+   * Set the command line and its result.
+   *
+   * @param inArguments The command line arguments
+   * @param inExitCode  The exit code
+   */
+
+  public void set(
+    final List<String> inArguments,
+    final int inExitCode)
+  {
+    this.command = inArguments.isEmpty() ? "" : inArguments.get(0);
+    this.arguments = String.join(" ", inArguments);
+    this.exitCode = inExitCode;
+  }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.bodyrecomp.cmdline.internal;
+
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.Parameters;
+import com.io7m.bodyrecomp.core.BodyMacroBatchKernels;
+import com.io7m.claypot.core.CLPAbstractCommand;
+import com.io7m.claypot.core.CLPCommandContextType;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static com.io7m.claypot.core.CLPCommandType.Status.SUCCESS;
+
+/**
+ * The "macros-batch" command.
+ */
+
+@Parameters(commandDescription = "Calculate macronutrients for a CSV file of bodies.")
+public final class BRCommandMacrosBatch extends CLPAbstractCommand
+{
+  @Parameter(
+    names = "--input",
+    required = true,
+    description = "The input CSV file."
+  )
+  private Path input;
+
+  @Parameter(
+    names = "--output",
+    required = true,
+    description = "The output CSV file."
+  )
+  private Path output;
+
+  @Parameter(
+    names = "--batch-size",
+    required = false,
+    description = "The number of rows processed at a time."
+  )
+  private int batchSize = 4096;
+
+  @Parameter(
+    names = "--progress-interval",
+    required = false,
+    description = "The number of rows processed between progress reports."
+  )
+  private long progressInterval = 1_000_000L;
+
+  /**
+   * Construct a command.
+   *
+   * @param inContext The command context
+   */
+
+  public BRCommandMacrosBatch(
+    final CLPCommandContextType inContext)
+  {
+    super(inContext);
+  }
+
+  @Override
+  public String extendedHelp()
+  {
+    return BRMessages.create().format(BRMessageKey.HELP_CMD_MACROS_BATCH);
+  }
+
+  @Override
+  protected Status executeActual()
+    throws IOException
+  {
+    final var messages = BRMessages.create();
+    final var logger = this.logger();
+    final var kernel = BodyMacroBatchKernels.best();
+    final var processor =
+      new BRMacrosCSVProcessor(messages, kernel, this.batchSize);
+
+    logger.debug("kernel: {}", kernel.name());
+
+    final long timeStart = System.nanoTime();
+    final long[] nextReport = {Math.max(1L, this.progressInterval)};
+
+    final long rows;
+    try (var reader =
+           Files.newBufferedReader(this.input, StandardCharsets.UTF_8);
+         var writer =
+           Files.newBufferedWriter(this.output, StandardCharsets.UTF_8)) {
+      rows = processor.process(reader, writer, processed -> {
+        if (processed >= nextReport[0]) {
+          nextReport[0] = processed + Math.max(1L, this.progressInterval);
+          logger.info(
+            "processed {} rows ({} rows/s)",
+            Long.valueOf(processed),
+            Long.valueOf(rowsPerSecond(processed, timeStart)));
+        }
+      });
+    }
+
+    final long timeEnd = System.nanoTime();
+    logger.info(
+      "processed {} rows in {} ms ({} rows/s)",
+      Long.valueOf(rows),
+      Long.valueOf((timeEnd - timeStart) / 1_000_000L),
+      Long.valueOf(rowsPerSecond(rows, timeStart)));
+    return SUCCESS;
+  }
+
+  private static long rowsPerSecond(
+    final long rows,
+    final long timeStart)
+  {
+    final long elapsed = Math.max(1L, System.nanoTime() - timeStart);
+    return (long) (rows / (elapsed / 1_000_000_000.0));
+  }
+
+  @Override
+  public String name()
+  {
+    return "macros-batch";
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.bodyrecomp.cmdline.internal;
+
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.Parameters;
+import com.io7m.claypot.core.CLPAbstractCommand;
+import com.io7m.claypot.core.CLPCommandContextType;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.CountDownLatch;
+
+import static com.io7m.claypot.core.CLPCommandType.Status.SUCCESS;
+
+/**
+ * The "serve" command.
+ */
+
+@Parameters(commandDescription = "Run an HTTP macronutrient estimation service.")
+public final class BRCommandServe extends CLPAbstractCommand
+{
+  @Parameter(
+    names = "--address",
+    required = false,
+    description = "The address to which the server will bind."
+  )
+  private String address = "localhost";
+
+  @Parameter(
+    names = "--port",
+    required = false,
+    description = "The port to which the server will bind."
+  )
+  private int port = 20000;
+
+  @Parameter(
+    names = "--backlog",
+    required = false,
+    description = "The socket backlog (0 selects the system default)."
+  )
+  private int backlog;
+
+  @Parameter(
+    names = "--cache-size",
+    required = false,
+    description = "The maximum number of cached estimates."
+  )
+  private int cacheSize = 65536;
+
+  /**
+   * Construct a command.
+   *
+   * @param inContext The command context
+   */
+
+  public BRCommandServe(
+    final CLPCommandContextType inContext)
+  {
+    super(inContext);
+  }
+
+  @Override
+  public String extendedHelp()
+  {
+    return BRMessages.create().format(BRMessageKey.HELP_CMD_SERVE);
+  }
+
+  @Override
+  protected Status executeActual()
+    throws Exception
+  {
+    final var messages = BRMessages.create();
+    final var logger = this.logger();
+    final var stopped = new CountDownLatch(1);
+
+    final var server =
+      BREstimationServer.create(
+        messages,
+        new InetSocketAddress(this.address, this.port),
+        this.backlog,
+        this.cacheSize
+      );
+
+    Runtime.getRuntime().addShutdownHook(Thread.ofPlatform().unstarted(() -> {
+      logger.info("shutting down");
+      server.close();
+      stopped.countDown();
+    }));
+
+    logger.info(
+      "listening on http://{}:{}{}",
+      server.address().getHostString(),
+      Integer.valueOf(server.address().getPort()),
+      BREstimationServer.PATH);
+
+    stopped.await();
+    return SUCCESS;
+  }
+
+  @Override
+  public String name()
+  {
+    return "serve";
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.bodyrecomp.cmdline.internal;
+
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.Parameters;
+import com.io7m.claypot.core.CLPAbstractCommand;
+import com.io7m.claypot.core.CLPCommandContextType;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+
+import static com.io7m.claypot.core.CLPCommandType.Status.SUCCESS;
+
+/**
+ * The "shell" command.
+ */
+
+@Parameters(commandDescription = "Calculate macronutrients for requests read from standard input.")
+public final class BRCommandShell extends CLPAbstractCommand
+{
+  @Parameter(
+    names = "--format",
+    required = false,
+    description = "The output format of requests that do not specify one (CSV or JSON)."
+  )
+  private BRMacrosFormat format = BRMacrosFormat.JSON;
+
+  /**
+   * Construct a command.
+   *
+   * @param inContext The command context
+   */
+
+  public BRCommandShell(
+    final CLPCommandContextType inContext)
+  {
+    super(inContext);
+  }
+
+  @Override
+  public String extendedHelp()
+  {
+    return BRMessages.create().format(BRMessageKey.HELP_CMD_SHELL);
+  }
+
+  @Override
+  protected Status executeActual()
+    throws IOException
+  {
+    final var messages = BRMessages.create();
+    if (this.format == BRMacrosFormat.TEXT) {
+      throw new IllegalArgumentException(messages.format(BRMessageKey.ERROR_SHELL_OUTPUT));
+    }
+
+    final var input =
+      new BufferedReader(new InputStreamReader(System.in, Charset.defaultCharset()));
+    final var output =
+      BRMacrosOutput.buffered(System.out);
+    final var shell =
+      new BRMacrosShell(messages, this.format);
+
+    final long requests = shell.run(input, output);
+    this.logger().debug("answered {} requests", Long.valueOf(requests));
+    return SUCCESS;
+  }
+
+  @Override
+  public String name()
+  {
+    return "shell";
+  }
+}
@@ -0,0 +1,431 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.bodyrecomp.cmdline.internal;
+
+import com.io7m.bodyrecomp.core.ActivityCoefficient;
+import com.io7m.bodyrecomp.core.BiologicalGender;
+import com.io7m.bodyrecomp.core.BodyMacroEstimateCache;
+import com.io7m.bodyrecomp.core.BodyMacroEstimateCacheConfiguration;
+import com.io7m.bodyrecomp.core.BodyMacroEstimateOptions;
+import com.io7m.bodyrecomp.core.BodyMacros;
+import com.io7m.bodyrecomp.core.CaloricAdjustment;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * <p>An HTTP service that estimates macronutrients.</p>
+ *
+ * <p>Each request is a {@code POST} to {@code /macros} with a flat JSON
+ * object describing one body, using the same field names and values as
+ * the columns accepted by the "macros-batch" command, plus an optional
+ * boolean {@code explanations} member (default {@code false}). Each
+ * request is handled on its own virtual thread. Estimates are served from
+ * bounded caches, so repeated requests for the same body do not repeat
+ * the estimation.</p>
+ */
+
+public final class BREstimationServer implements Closeable
+{
+  /**
+   * The path at which estimates are served.
+   */
+
+  public static final String PATH = "/macros";
+
+  private static final Logger LOG =
+    LoggerFactory.getLogger(BREstimationServer.class);
+
+  private static final int MAXIMUM_REQUEST_SIZE = 4096;
+
+  /*
+   * Generous bounds on plausible human measurements. Values outside of
+   * these are rejected as bad requests rather than being allowed to
+   * overflow the estimate.
+   */
+
+  private static final double MAXIMUM_HEIGHT_CM = 300.0;
+  private static final double MAXIMUM_WEIGHT_KG = 1000.0;
+  private static final double MAXIMUM_AGE = 150.0;
+
+  private static final String NODELAY_PROPERTY =
+    "sun.net.httpserver.nodelay";
+
+  private final BRMessages messages;
+  private final HttpServer server;
+  private final ExecutorService executor;
+  private final BodyMacroEstimateCache cacheWithExplanations;
+  private final BodyMacroEstimateCache cacheWithoutExplanations;
+
+  private BREstimationServer(
+    final BRMessages inMessages,
+    final HttpServer inServer,
+    final ExecutorService inExecutor,
+    final int cacheSize)
+  {
+    this.messages =
+      Objects.requireNonNull(inMessages, "messages");
+    this.server =
+      Objects.requireNonNull(inServer, "server");
+    this.executor =
+      Objects.requireNonNull(inExecutor, "executor");
+
+    this.cacheWithExplanations =
+      BodyMacroEstimateCache.create(
+        BodyMacroEstimateCacheConfiguration.builder()
+          .setMaximumSize(cacheSize)
+          .setOptions(
+            BodyMacroEstimateOptions.builder()
+              .setExplanations(true)
+              .build())
+          .build());
+
+    this.cacheWithoutExplanations =
+      BodyMacroEstimateCache.create(
+        BodyMacroEstimateCacheConfiguration.builder()
+          .setMaximumSize(cacheSize)
+          .setOptions(
+            BodyMacroEstimateOptions.builder()
+              .setExplanations(false)
+              .build())
+          .build());
+  }
+
+  /**
+   * Create and start a server.
+   *
+   * @param messages  The string resources
+   * @param address   The address to which the server will bind
+   * @param backlog   The socket backlog (or {@code 0} for a system default)
+   * @param cacheSize The maximum number of cached estimates
+   *
+   * @return A running server
+   *
+   * @throws IOException On I/O errors
+   */
+
+  public static BREstimationServer create(
+    final BRMessages messages,
+    final InetSocketAddress address,
+    final int backlog,
+    final int cacheSize)
+    throws IOException
+  {
+    Objects.requireNonNull(address, "address");
+
+    /*
+     * Responses are written as separate header and body segments. Without
+     * TCP_NODELAY, Nagle's algorithm interacts with delayed acknowledgements
+     * on the client and adds tens of milliseconds to every request. The
+     * property is read when the server implementation is first loaded.
+     */
+
+    if (System.getProperty(NODELAY_PROPERTY) == null) {
+      System.setProperty(NODELAY_PROPERTY, "true");
+    }
+
+    final var httpServer = HttpServer.create(address, backlog);
+    final var executor = Executors.newVirtualThreadPerTaskExecutor();
+    httpServer.setExecutor(executor);
+
+    final var server =
+      new BREstimationServer(messages, httpServer, executor, cacheSize);
+    httpServer.createContext(PATH, server::handle);
+    httpServer.start();
+    return server;
+  }
+
+  /**
+   * @return The address to which the server is bound
+   */
+
+  public InetSocketAddress address()
+  {
+    return this.server.getAddress();
+  }
+
+  /**
+   * @return The cache used for requests that include explanations
+   */
+
+  public BodyMacroEstimateCache cacheWithExplanations()
+  {
+    return this.cacheWithExplanations;
+  }
+
+  /**
+   * @return The cache used for requests that exclude explanations
+   */
+
+  public BodyMacroEstimateCache cacheWithoutExplanations()
+  {
+    return this.cacheWithoutExplanations;
+  }
+
+  private void handle(
+    final HttpExchange exchange)
+    throws IOException
+  {
+    try (exchange) {
+      if (!Objects.equals(exchange.getRequestMethod(), "POST")) {
+        exchange.getResponseHeaders().add("Allow", "POST");
+        this.sendError(exchange, 405, this.messages.format(BRMessageKey.ERROR_HTTP_METHOD));
+        return;
+      }
+
+      final var data =
+        exchange.getRequestBody().readNBytes(MAXIMUM_REQUEST_SIZE + 1);
+      if (data.length > MAXIMUM_REQUEST_SIZE) {
+        this.sendError(
+          exchange,
+          413,
+          this.messages.format(
+            BRMessageKey.ERROR_HTTP_TOO_LARGE, Integer.valueOf(MAXIMUM_REQUEST_SIZE)));
+        return;
+      }
+
+      final String response;
+      try {
+        response = this.estimate(
+          StandardCharsets.UTF_8.decode(ByteBuffer.wrap(data)).toString());
+      } catch (final BRJSONException e) {
+        this.sendError(
+          exchange,
+          400,
+          this.messages.format(
+            BRMessageKey.ERROR_JSON_SYNTAX, Integer.valueOf(e.offset()), e.getMessage()));
+        return;
+      } catch (final IllegalArgumentException e) {
+        this.sendError(exchange, 400, e.getMessage());
+        return;
+      } catch (final RuntimeException e) {
+        LOG.error("estimation failed: ", e);
+        this.sendError(exchange, 500, e.getMessage());
+        return;
+      }
+
+      send(exchange, 200, response);
+    }
+  }
+
+  private String estimate(
+    final String request)
+    throws BRJSONException
+  {
+    final var members = BRJSON.parseFlatObject(request);
+
+    final var gender =
+      this.enumMember(members, "gender", BiologicalGender.class);
+    final var activity =
+      this.enumMember(members, "activity", ActivityCoefficient.class);
+    final var adjustment =
+      this.enumMember(members, "caloric_adjustment", CaloricAdjustment.class);
+    final double heightCm =
+      this.positiveMember(members, "height_cm", MAXIMUM_HEIGHT_CM);
+    final double weightKg =
+      this.positiveMember(members, "weight_kg", MAXIMUM_WEIGHT_KG);
+    final double age =
+      this.positiveMember(members, "age", MAXIMUM_AGE);
+    final double bodyFat =
+      this.numberMember(members, "body_fat_percent");
+    final boolean explanations =
+      this.booleanMember(members, "explanations");
+
+    if (!(bodyFat >= 0.0 && bodyFat <= 100.0)) {
+      throw new IllegalArgumentException(
+        this.messages.format(BRMessageKey.ERROR_INVALID_FAT_RANGE));
+    }
+
+    final var cache =
+      explanations
+        ? this.cacheWithExplanations
+        : this.cacheWithoutExplanations;
+
+    final var macros =
+      cache.estimateFor(
+        gender,
+        activity,
+        heightCm / 100.0,
+        weightKg,
+        age,
+        bodyFat / 100.0,
+        adjustment.coefficient().value()
+      );
+
+    return serialize(macros, explanations);
+  }
+
+  private static String serialize(
+    final BodyMacros macros,
+    final boolean explanations)
+  {
+    final var output = new StringBuilder(explanations ? 4096 : 128);
+    BRMacrosOutput.appendJSON(output, macros, explanations);
+    return output.toString();
+  }
+
+  private Object member(
+    final Map<String, Object> members,
+    final String name)
+  {
+    final var value = members.get(name);
+    if (value == null) {
+      throw new IllegalArgumentException(
+        this.messages.format(BRMessageKey.ERROR_JSON_MISSING_FIELD, name));
+    }
+    return value;
+  }
+
+  private <E extends Enum<E>> E enumMember(
+    final Map<String, Object> members,
+    final String name,
+    final Class<E> type)
+  {
+    /*
+     * Names are matched exactly, as they are by the "macros" and
+     * "macros-batch" commands, so a request is accepted or rejected in the
+     * same way by every entry point.
+     */
+
+    final var value = this.member(members, name);
+    if (value instanceof String) {
+      final var text = (String) value;
+      for (final var constant : type.getEnumConstants()) {
+        if (constant.name().equals(text)) {
+          return constant;
+        }
+      }
+    }
+    throw new IllegalArgumentException(
+      this.messages.format(
+        BRMessageKey.ERROR_JSON_FIELD_VALUE, name, validValues(type)));
+  }
+
+  private static String validValues(
+    final Class<? extends Enum<?>> type)
+  {
+    final var names = new StringBuilder(64);
+    for (final var constant : type.getEnumConstants()) {
+      if (!names.isEmpty()) {
+        names.append(", ");
+      }
+      names.append(constant.name());
+    }
+    return names.toString();
+  }
+
+  private double numberMember(
+    final Map<String, Object> members,
+    final String name)
+  {
+    final var value = this.member(members, name);
+    if (value instanceof Double) {
+      return ((Double) value).doubleValue();
+    }
+    throw new IllegalArgumentException(
+      this.messages.format(BRMessageKey.ERROR_JSON_FIELD_TYPE, name, "number"));
+  }
+
+  private double positiveMember(
+    final Map<String, Object> members,
+    final String name,
+    final double maximum)
+  {
+    final double value = this.numberMember(members, name);
+    if (value > 0.0 && value <= maximum) {
+      return value;
+    }
+    throw new IllegalArgumentException(
+      this.messages.format(
+        BRMessageKey.ERROR_JSON_FIELD_RANGE, name, Double.valueOf(maximum)));
+  }
+
+  private boolean booleanMember(
+    final Map<String, Object> members,
+    final String name)
+  {
+    final var value = members.get(name);
+    if (value == null) {
+      return false;
+    }
+    if (value instanceof Boolean) {
+      return ((Boolean) value).booleanValue();
+    }
+    throw new IllegalArgumentException(
+      this.messages.format(BRMessageKey.ERROR_JSON_FIELD_TYPE, name, "boolean"));
+  }
+
+  private void sendError(
+    final HttpExchange exchange,
+    final int status,
+    final String message)
+    throws IOException
+  {
+    final var output = new StringBuilder(128);
+    output.append("{\"error\":");
+    BRJSON.appendString(output, String.valueOf(message));
+    output.append('}');
+    send(exchange, status, output.toString());
+  }
+
+  private static void send(
+    final HttpExchange exchange,
+    final int status,
+    final String text)
+    throws IOException
+  {
+    final var bytes = text.getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders()
+      .add("Content-Type", "application/json; charset=utf-8");
+    exchange.sendResponseHeaders(status, bytes.length);
+    try (var output = exchange.getResponseBody()) {
+      output.write(bytes);
+    }
+  }
+
+  /**
+   * Stop the server, waiting up to one second for in-flight requests to
+   * complete.
+   */
+
+  @Override
+  public void close()
+  {
+    this.server.stop(1);
+    this.executor.close();
+  }
+
+  @Override
+  public String toString()
+  {
+    return String.format(
+      "[BREstimationServer 0x%s]",
+      Long.toUnsignedString(System.identityHashCode(this), 16)
+    );
+  }
+}
@@ -0,0 +1,341 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.bodyrecomp.cmdline.internal;
+
+import com.io7m.bodyrecomp.core.ActivityCoefficient;
+import com.io7m.bodyrecomp.core.BiologicalGender;
+import com.io7m.bodyrecomp.core.CaloricAdjustment;
+
+import java.io.PrintStream;
+import java.util.Objects;
+
+/**
+ * A start-up-optimized launch path for the "macros" command.
+ *
+ * The path recognizes only the plain {@code --option value} form of the
+ * command with valid values, and does not touch Claypot, JCommander, or the
+ * logging configuration. Anything it does not recognize (help, logging
+ * options, malformed or missing values, unknown options) is declined, and the
+ * caller is expected to fall back to the full command line parser, which
+ * will produce the usual diagnostics.
+ */
+
+public final class BRFastMacros
+{
+  private BiologicalGender gender;
+  private ActivityCoefficient activity;
+  private CaloricAdjustment caloricAdjustment;
+  private int heightCm = -1;
+  private int weightKg = -1;
+  private int ageYears = -1;
+  private int bodyFatPercentage = -1;
+  private boolean grid;
+  private boolean summaryOnly;
+  private BRMacrosFormat format;
+
+  private BRFastMacros()
+  {
+
+  }
+
+  /**
+   * Try to execute the given command line using the fast path. Nothing is
+   * written to {@code out} unless the command completes successfully.
+   *
+   * @param args The command line arguments
+   * @param out  The output stream
+   *
+   * @return {@code true} if the command was executed successfully, {@code
+   * false} if the command line must be handled by the full parser
+   */
+
+  public static boolean execute(
+    final String[] args,
+    final PrintStream out)
+  {
+    Objects.requireNonNull(args, "args");
+    Objects.requireNonNull(out, "out");
+
+    if (args.length == 0 || !"macros".equals(args[0])) {
+      return false;
+    }
+
+    final var command = new BRFastMacros();
+    if (!command.parse(args, 1, BRMacrosFormat.TEXT)) {
+      return false;
+    }
+    return command.run(out);
+  }
+
+  /**
+   * Try to answer a request of the "shell" command using the fast path. The
+   * arguments are the options of the "macros" command, without the command
+   * name. Requests that cannot be answered with a single line of output are
+   * declined. Nothing is written to {@code out} unless the request is
+   * answered.
+   *
+   * @param args          The request arguments
+   * @param defaultFormat The format used if the request does not specify one
+   * @param out           The output
+   *
+   * @return {@code true} if the request was answered, {@code false} if the
+   * request must be handled by the full parser
+   */
+
+  static boolean respond(
+    final String[] args,
+    final BRMacrosFormat defaultFormat,
+    final StringBuilder out)
+  {
+    final var command = new BRFastMacros();
+    if (!command.parse(args, 0, defaultFormat)) {
+      return false;
+    }
+    if (command.grid || command.format == BRMacrosFormat.TEXT) {
+      return false;
+    }
+
+    try {
+      final var macros =
+        BRMacrosOutput.estimate(
+          command.gender,
+          command.heightCm,
+          command.weightKg,
+          command.ageYears,
+          command.bodyFatPercentage,
+          command.activity,
+          command.caloricAdjustment,
+          BRMacrosParameters.needsExplanation(command.format, command.summaryOnly)
+        );
+      if (command.format == BRMacrosFormat.CSV) {
+        BRMacrosOutput.appendCSV(out, macros);
+      } else {
+        BRMacrosOutput.appendJSON(out, macros, !command.summaryOnly);
+      }
+      return true;
+    } catch (final RuntimeException e) {
+      return false;
+    }
+  }
+
+  private static int parseNonNegative(
+    final String text)
+  {
+    try {
+      return Math.max(Integer.parseInt(text), -1);
+    } catch (final NumberFormatException e) {
+      return -1;
+    }
+  }
+
+  private static <E extends Enum<E>> E parseEnum(
+    final Class<E> clazz,
+    final String text)
+  {
+    try {
+      return Enum.valueOf(clazz, text);
+    } catch (final IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  private boolean parse(
+    final String[] args,
+    final int start,
+    final BRMacrosFormat defaultFormat)
+  {
+    int index = start;
+    while (index < args.length) {
+      final var name = args[index];
+      if ("--grid".equals(name)) {
+        if (this.grid) {
+          return false;
+        }
+        this.grid = true;
+        ++index;
+        continue;
+      }
+      if ("--summary-only".equals(name)) {
+        if (this.summaryOnly) {
+          return false;
+        }
+        this.summaryOnly = true;
+        ++index;
+        continue;
+      }
+
+      if (index + 1 >= args.length) {
+        return false;
+      }
+      if (!this.parseOption(name, args[index + 1])) {
+        return false;
+      }
+      index += 2;
+    }
+    return this.isComplete(defaultFormat);
+  }
+
+  private boolean isComplete(
+    final BRMacrosFormat defaultFormat)
+  {
+    if (this.gender == null) {
+      return false;
+    }
+    if (this.heightCm < 0 || this.weightKg < 0 || this.ageYears < 0) {
+      return false;
+    }
+    if (this.bodyFatPercentage < 0 || this.bodyFatPercentage > 100) {
+      return false;
+    }
+    if (this.format == null) {
+      this.format = defaultFormat;
+    }
+    if (this.grid) {
+      return this.format == BRMacrosFormat.TEXT;
+    }
+    return this.activity != null && this.caloricAdjustment != null;
+  }
+
+  private boolean parseOption(
+    final String name,
+    final String value)
+  {
+    switch (name) {
+      case "--gender": {
+        if (this.gender != null) {
+          return false;
+        }
+        this.gender = parseEnum(BiologicalGender.class, value);
+        return this.gender != null;
+      }
+      case "--activity-level": {
+        if (this.activity != null) {
+          return false;
+        }
+        this.activity = parseEnum(ActivityCoefficient.class, value);
+        return this.activity != null;
+      }
+      case "--caloric-adjustment": {
+        if (this.caloricAdjustment != null) {
+          return false;
+        }
+        this.caloricAdjustment = parseEnum(CaloricAdjustment.class, value);
+        return this.caloricAdjustment != null;
+      }
+      case "--format": {
+        if (this.format != null) {
+          return false;
+        }
+        this.format = parseEnum(BRMacrosFormat.class, value);
+        return this.format != null;
+      }
+      default: {
+        return this.parseNumericOption(name, value);
+      }
+    }
+  }
+
+  private boolean parseNumericOption(
+    final String name,
+    final String value)
+  {
+    switch (name) {
+      case "--height-cm": {
+        if (this.heightCm >= 0) {
+          return false;
+        }
+        this.heightCm = parseNonNegative(value);
+        return this.heightCm >= 0;
+      }
+      case "--weight-kg": {
+        if (this.weightKg >= 0) {
+          return false;
+        }
+        this.weightKg = parseNonNegative(value);
+        return this.weightKg >= 0;
+      }
+      case "--age": {
+        if (this.ageYears >= 0) {
+          return false;
+        }
+        this.ageYears = parseNonNegative(value);
+        return this.ageYears >= 0;
+      }
+      case "--body-fat-percent": {
+        if (this.bodyFatPercentage >= 0) {
+          return false;
+        }
+        this.bodyFatPercentage = parseNonNegative(value);
+        return this.bodyFatPercentage >= 0;
+      }
+      default: {
+        return false;
+      }
+    }
+  }
+
+  private boolean run(
+    final PrintStream out)
+  {
+    /*
+     * The results are computed in full before anything is written, so that
+     * a failure leaves the full parser free to report the error without any
+     * partial output having been produced.
+     */
+
+    try {
+      if (this.grid) {
+        final var macros =
+          BRMacrosOutput.estimateGrid(
+            this.gender,
+            this.heightCm,
+            this.weightKg,
+            this.ageYears,
+            this.bodyFatPercentage
+          );
+        BRMacrosOutput.printGrid(out, macros);
+        return true;
+      }
+
+      final var macros =
+        BRMacrosOutput.estimate(
+          this.gender,
+          this.heightCm,
+          this.weightKg,
+          this.ageYears,
+          this.bodyFatPercentage,
+          this.activity,
+          this.caloricAdjustment,
+          BRMacrosParameters.needsExplanation(this.format, this.summaryOnly)
+        );
+      BRMacrosOutput.writeMacros(out, macros, this.format, this.summaryOnly);
+      return true;
+    } catch (final RuntimeException e) {
+      return false;
+    }
+  }
+
+  @Override
+  public String toString()
+  {
+    return String.format(
+      "[BRFastMacros 0x%s]",
+      Long.toUnsignedString(System.identityHashCode(this), 16)
+    );
+  }
+}
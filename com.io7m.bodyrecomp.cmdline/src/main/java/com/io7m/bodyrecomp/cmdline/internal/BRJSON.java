@@ -0,0 +1,301 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.bodyrecomp.cmdline.internal;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * <p>Minimal JSON support for the estimation service.</p>
+ *
+ * <p>Requests are single, flat JSON objects: members may be strings,
+ * numbers, booleans, or {@code null}, but nested objects and arrays are
+ * rejected. This is sufficient for the service protocol, and avoids a
+ * dependency on a general-purpose JSON library.</p>
+ */
+
+public final class BRJSON
+{
+  private BRJSON()
+  {
+
+  }
+
+  /**
+   * Parse a flat JSON object. Strings are returned as {@link String},
+   * numbers as {@link Double}, booleans as {@link Boolean}, and
+   * {@code null} as {@code null}.
+   *
+   * @param text The JSON text
+   *
+   * @return The members of the object
+   *
+   * @throws BRJSONException On syntax errors
+   */
+
+  public static Map<String, Object> parseFlatObject(
+    final String text)
+    throws BRJSONException
+  {
+    Objects.requireNonNull(text, "text");
+    return new Parser(text).parseObject();
+  }
+
+  /**
+   * Append {@code text} to {@code output} as a quoted JSON string.
+   *
+   * @param output The output
+   * @param text   The string
+   *
+   * @return {@code output}
+   */
+
+  public static StringBuilder appendString(
+    final StringBuilder output,
+    final String text)
+  {
+    output.append('"');
+    for (int index = 0; index < text.length(); ++index) {
+      final char c = text.charAt(index);
+      switch (c) {
+        case '"' -> output.append("\\\"");
+        case '\\' -> output.append("\\\\");
+        case '\n' -> output.append("\\n");
+        case '\r' -> output.append("\\r");
+        case '\t' -> output.append("\\t");
+        default -> {
+          if (c < 0x20) {
+            output.append(String.format("\\u%04x", Integer.valueOf(c)));
+          } else {
+            output.append(c);
+          }
+        }
+      }
+    }
+    output.append('"');
+    return output;
+  }
+
+  private static final class Parser
+  {
+    private final String text;
+    private int position;
+
+    Parser(
+      final String inText)
+    {
+      this.text = inText;
+      this.position = 0;
+    }
+
+    private BRJSONException error(
+      final String message)
+    {
+      return new BRJSONException(this.position, message);
+    }
+
+    private void skipWhitespace()
+    {
+      while (this.position < this.text.length()) {
+        final char c = this.text.charAt(this.position);
+        if (c != ' ' && c != '\t' && c != '\n' && c != '\r') {
+          return;
+        }
+        ++this.position;
+      }
+    }
+
+    private char peek()
+      throws BRJSONException
+    {
+      this.skipWhitespace();
+      if (this.position >= this.text.length()) {
+        throw this.error("Unexpected end of input");
+      }
+      return this.text.charAt(this.position);
+    }
+
+    private void expect(
+      final char expected)
+      throws BRJSONException
+    {
+      if (this.peek() != expected) {
+        throw this.error(String.format("Expected '%c'", Character.valueOf(expected)));
+      }
+      ++this.position;
+    }
+
+    Map<String, Object> parseObject()
+      throws BRJSONException
+    {
+      final var members = new HashMap<String, Object>();
+      this.expect('{');
+
+      if (this.peek() == '}') {
+        ++this.position;
+      } else {
+        while (true) {
+          if (this.peek() != '"') {
+            throw this.error("Expected a member name");
+          }
+          final var name = this.parseString();
+          this.expect(':');
+          if (members.containsKey(name)) {
+            throw this.error(String.format("Duplicate member \"%s\"", name));
+          }
+          members.put(name, this.parseValue());
+
+          if (this.peek() == ',') {
+            ++this.position;
+            continue;
+          }
+          this.expect('}');
+          break;
+        }
+      }
+
+      this.skipWhitespace();
+      if (this.position != this.text.length()) {
+        throw this.error("Unexpected trailing content");
+      }
+      return members;
+    }
+
+    private Object parseValue()
+      throws BRJSONException
+    {
+      final char c = this.peek();
+      return switch (c) {
+        case '"' -> this.parseString();
+        case 't' -> this.parseLiteral("true", Boolean.TRUE);
+        case 'f' -> this.parseLiteral("false", Boolean.FALSE);
+        case 'n' -> this.parseLiteral("null", null);
+        case '{', '[' -> throw this.error("Nested values are not supported");
+        default -> this.parseNumber();
+      };
+    }
+
+    private Object parseLiteral(
+      final String literal,
+      final Object value)
+      throws BRJSONException
+    {
+      if (!this.text.startsWith(literal, this.position)) {
+        throw this.error("Unrecognized value");
+      }
+      this.position += literal.length();
+      return value;
+    }
+
+    private Double parseNumber()
+      throws BRJSONException
+    {
+      final int start = this.position;
+      while (this.position < this.text.length()) {
+        final char c = this.text.charAt(this.position);
+        if ((c >= '0' && c <= '9') || isNumberSymbol(c)) {
+          ++this.position;
+        } else {
+          break;
+        }
+      }
+
+      if (start == this.position) {
+        throw this.error("Unrecognized value");
+      }
+
+      try {
+        return Double.valueOf(
+          Double.parseDouble(this.text.substring(start, this.position)));
+      } catch (final NumberFormatException e) {
+        this.position = start;
+        throw this.error("Malformed number");
+      }
+    }
+
+    private static boolean isNumberSymbol(
+      final char c)
+    {
+      return switch (c) {
+        case '-', '+', '.', 'e', 'E' -> true;
+        default -> false;
+      };
+    }
+
+    private String parseString()
+      throws BRJSONException
+    {
+      this.expect('"');
+
+      final var output = new StringBuilder(16);
+      while (true) {
+        if (this.position >= this.text.length()) {
+          throw this.error("Unterminated string");
+        }
+
+        final char c = this.text.charAt(this.position);
+        ++this.position;
+
+        if (c == '"') {
+          return output.toString();
+        }
+        if (c == '\\') {
+          this.parseEscape(output);
+        } else if (c < 0x20) {
+          throw this.error("Control character in string");
+        } else {
+          output.append(c);
+        }
+      }
+    }
+
+    private void parseEscape(
+      final StringBuilder output)
+      throws BRJSONException
+    {
+      if (this.position >= this.text.length()) {
+        throw this.error("Unterminated string");
+      }
+
+      final char c = this.text.charAt(this.position);
+      ++this.position;
+
+      switch (c) {
+        case '"', '\\', '/' -> output.append(c);
+        case 'b' -> output.append('\b');
+        case 'f' -> output.append('\f');
+        case 'n' -> output.append('\n');
+        case 'r' -> output.append('\r');
+        case 't' -> output.append('\t');
+        case 'u' -> {
+          if (this.position + 4 > this.text.length()) {
+            throw this.error("Malformed unicode escape");
+          }
+          try {
+            output.append((char) Integer.parseInt(
+              this.text.substring(this.position, this.position + 4), 16));
+          } catch (final NumberFormatException e) {
+            throw this.error("Malformed unicode escape");
+          }
+          this.position += 4;
+        }
+        default -> throw this.error("Unrecognized escape");
+      }
+    }
+  }
+}
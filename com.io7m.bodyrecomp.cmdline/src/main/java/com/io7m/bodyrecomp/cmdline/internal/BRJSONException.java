@@ -0,0 +1,52 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.bodyrecomp.cmdline.internal;
+
+/**
+ * A JSON syntax error.
+ */
+
+public final class BRJSONException extends Exception
+{
+  private static final long serialVersionUID = 1L;
+
+  private final int offset;
+
+  /**
+   * Construct an exception.
+   *
+   * @param inOffset The character offset of the error
+   * @param message  The error message
+   */
+
+  public BRJSONException(
+    final int inOffset,
+    final String message)
+  {
+    super(message);
+    this.offset = inOffset;
+  }
+
+  /**
+   * @return The character offset of the error
+   */
+
+  public int offset()
+  {
+    return this.offset;
+  }
+}
@@ -0,0 +1,348 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.bodyrecomp.cmdline.internal;
+
+import com.io7m.bodyrecomp.core.ActivityCoefficient;
+import com.io7m.bodyrecomp.core.BiologicalGender;
+import com.io7m.bodyrecomp.core.BodyDefinitionColumns;
+import com.io7m.bodyrecomp.core.BodyMacroBatchKernelType;
+import com.io7m.bodyrecomp.core.BodyMacrosColumns;
+import com.io7m.bodyrecomp.core.CaloricAdjustment;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.LongConsumer;
+
+/**
+ * <p>A streaming processor that reads bodies from CSV, and writes each input
+ * row back out with estimated macronutrients appended.</p>
+ *
+ * <p>The input must begin with a header row naming (at least) the columns in
+ * {@link #INPUT_COLUMNS}, in any order. Any other columns (such as
+ * identifiers) are copied to the output untouched. Fields are separated by
+ * commas, and quoting is not supported.</p>
+ *
+ * <p>Rows are processed in fixed-size batches, so memory use is bounded by
+ * the batch size regardless of the size of the input.</p>
+ */
+
+public final class BRMacrosCSVProcessor
+{
+  /**
+   * The columns required in the input.
+   */
+
+  public static final List<String> INPUT_COLUMNS =
+    List.of(
+      "gender",
+      "activity",
+      "height_cm",
+      "weight_kg",
+      "age",
+      "body_fat_percent",
+      "caloric_adjustment"
+    );
+
+  /**
+   * The columns appended to the output.
+   */
+
+  public static final List<String> OUTPUT_COLUMNS =
+    List.of(
+      "calories",
+      "protein_grams",
+      "fat_grams",
+      "carbohydrate_grams"
+    );
+
+  private static final int COLUMN_GENDER = 0;
+  private static final int COLUMN_ACTIVITY = 1;
+  private static final int COLUMN_HEIGHT = 2;
+  private static final int COLUMN_WEIGHT = 3;
+  private static final int COLUMN_AGE = 4;
+  private static final int COLUMN_BODY_FAT = 5;
+  private static final int COLUMN_ADJUSTMENT = 6;
+
+  private final BRMessages messages;
+  private final BodyMacroBatchKernelType kernel;
+  private final BodyDefinitionColumns input;
+  private final BodyMacrosColumns output;
+  private final String[] lines;
+  private final StringBuilder outputLine;
+  private int[] columnIndices;
+  private String[] fields;
+  private long lineNumber;
+
+  /**
+   * Construct a processor.
+   *
+   * @param inMessages  The string resources
+   * @param inKernel    The batch kernel
+   * @param inBatchSize The number of rows processed at a time
+   */
+
+  public BRMacrosCSVProcessor(
+    final BRMessages inMessages,
+    final BodyMacroBatchKernelType inKernel,
+    final int inBatchSize)
+  {
+    this.messages =
+      Objects.requireNonNull(inMessages, "messages");
+    this.kernel =
+      Objects.requireNonNull(inKernel, "kernel");
+
+    if (inBatchSize <= 0) {
+      throw new IllegalArgumentException(
+        this.messages.format(BRMessageKey.ERROR_BATCH_SIZE, Integer.valueOf(inBatchSize)));
+    }
+
+    this.input = BodyDefinitionColumns.create(inBatchSize);
+    this.output = BodyMacrosColumns.create(inBatchSize);
+    this.lines = new String[inBatchSize];
+    this.outputLine = new StringBuilder(256);
+  }
+
+  /**
+   * Process all rows from {@code reader}, writing the results to
+   * {@code writer}.
+   *
+   * @param reader  The input
+   * @param writer  The output
+   * @param onBatch A function called with the total number of rows
+   *                processed so far, after each batch
+   *
+   * @return The total number of rows processed
+   *
+   * @throws IOException On I/O errors
+   */
+
+  public long process(
+    final BufferedReader reader,
+    final Writer writer,
+    final LongConsumer onBatch)
+    throws IOException
+  {
+    Objects.requireNonNull(reader, "reader");
+    Objects.requireNonNull(writer, "writer");
+    Objects.requireNonNull(onBatch, "onBatch");
+
+    this.lineNumber = 1L;
+    final var header = reader.readLine();
+    if (header == null) {
+      throw new IllegalArgumentException(this.messages.format(BRMessageKey.ERROR_CSV_EMPTY));
+    }
+    this.processHeader(header, writer);
+
+    long rows = 0L;
+    int count = 0;
+    while (true) {
+      final var line = reader.readLine();
+      if (line == null) {
+        break;
+      }
+      ++this.lineNumber;
+      if (line.isBlank()) {
+        continue;
+      }
+
+      this.parseRow(line, count);
+      ++count;
+
+      if (count == this.lines.length) {
+        this.flushBatch(writer, count);
+        rows += count;
+        count = 0;
+        onBatch.accept(rows);
+      }
+    }
+
+    if (count > 0) {
+      this.flushBatch(writer, count);
+      rows += count;
+      onBatch.accept(rows);
+    }
+
+    writer.flush();
+    return rows;
+  }
+
+  private void processHeader(
+    final String header,
+    final Writer writer)
+    throws IOException
+  {
+    final var names = header.split(",", -1);
+    this.fields = new String[names.length];
+    this.columnIndices = new int[INPUT_COLUMNS.size()];
+
+    for (int column = 0; column < INPUT_COLUMNS.size(); ++column) {
+      final var name = INPUT_COLUMNS.get(column);
+      this.columnIndices[column] = -1;
+      for (int index = 0; index < names.length; ++index) {
+        if (Objects.equals(names[index].trim(), name)) {
+          this.columnIndices[column] = index;
+          break;
+        }
+      }
+      if (this.columnIndices[column] == -1) {
+        throw new IllegalArgumentException(
+          this.messages.format(BRMessageKey.ERROR_CSV_MISSING_COLUMN, name));
+      }
+    }
+
+    writer.write(header);
+    for (final var name : OUTPUT_COLUMNS) {
+      writer.write(',');
+      writer.write(name);
+    }
+    writer.write(System.lineSeparator());
+  }
+
+  private void splitFields(
+    final String line)
+  {
+    int start = 0;
+    int field = 0;
+    while (true) {
+      final int comma = line.indexOf(',', start);
+      if (field >= this.fields.length) {
+        throw this.rowError(
+          this.messages.format(
+            BRMessageKey.ERROR_CSV_FIELD_COUNT, Integer.valueOf(this.fields.length)));
+      }
+      if (comma == -1) {
+        this.fields[field] = line.substring(start).trim();
+        ++field;
+        break;
+      }
+      this.fields[field] = line.substring(start, comma).trim();
+      ++field;
+      start = comma + 1;
+    }
+
+    if (field != this.fields.length) {
+      throw this.rowError(
+        this.messages.format(
+          BRMessageKey.ERROR_CSV_FIELD_COUNT, Integer.valueOf(this.fields.length)));
+    }
+  }
+
+  private String field(
+    final int column)
+  {
+    return this.fields[this.columnIndices[column]];
+  }
+
+  private void parseRow(
+    final String line,
+    final int index)
+  {
+    this.splitFields(line);
+
+    try {
+      final var gender =
+        BiologicalGender.valueOf(this.field(COLUMN_GENDER));
+      final var activity =
+        ActivityCoefficient.valueOf(this.field(COLUMN_ACTIVITY));
+      final var adjustment =
+        CaloricAdjustment.valueOf(this.field(COLUMN_ADJUSTMENT));
+      final double heightCm =
+        Double.parseDouble(this.field(COLUMN_HEIGHT));
+      final double weightKg =
+        Double.parseDouble(this.field(COLUMN_WEIGHT));
+      final double age =
+        Double.parseDouble(this.field(COLUMN_AGE));
+      final double bodyFat =
+        Double.parseDouble(this.field(COLUMN_BODY_FAT));
+
+      if (!(bodyFat >= 0.0 && bodyFat <= 100.0)) {
+        throw this.rowError(this.messages.format(BRMessageKey.ERROR_INVALID_FAT_RANGE));
+      }
+
+      this.input.set(
+        index,
+        gender,
+        activity,
+        heightCm / 100.0,
+        weightKg,
+        age,
+        bodyFat / 100.0,
+        adjustment.coefficient().value()
+      );
+      this.lines[index] = line;
+    } catch (final IllegalArgumentException e) {
+      if (e instanceof BRMacrosCSVException) {
+        throw e;
+      }
+      throw this.rowError(e.getMessage());
+    }
+  }
+
+  private BRMacrosCSVException rowError(
+    final String message)
+  {
+    return new BRMacrosCSVException(
+      this.messages.format(
+        BRMessageKey.ERROR_CSV_ROW,
+        Long.valueOf(this.lineNumber),
+        message)
+    );
+  }
+
+  private void flushBatch(
+    final Writer writer,
+    final int count)
+    throws IOException
+  {
+    this.kernel.estimateFor(this.input, this.output, 0, count);
+
+    final var calories = this.output.calories();
+    final var protein = this.output.proteinGrams();
+    final var fat = this.output.fatGrams();
+    final var carbohydrates = this.output.carbohydrateGrams();
+    final var line = this.outputLine;
+    final var separator = System.lineSeparator();
+
+    for (int index = 0; index < count; ++index) {
+      line.setLength(0);
+      line.append(this.lines[index]);
+      line.append(',');
+      line.append(calories[index]);
+      line.append(',');
+      line.append(protein[index]);
+      line.append(',');
+      line.append(fat[index]);
+      line.append(',');
+      line.append(carbohydrates[index]);
+      line.append(separator);
+      writer.append(line);
+      this.lines[index] = null;
+    }
+  }
+
+  @Override
+  public String toString()
+  {
+    return String.format(
+      "[BRMacrosCSVProcessor 0x%s]",
+      Long.toUnsignedString(System.identityHashCode(this), 16)
+    );
+  }
+}
@@ -0,0 +1,407 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.bodyrecomp.cmdline.internal;
+
+import com.io7m.bodyrecomp.core.ActivityCoefficient;
+import com.io7m.bodyrecomp.core.BiologicalGender;
+import com.io7m.bodyrecomp.core.BodyDefinition;
+import com.io7m.bodyrecomp.core.BodyMacroEstimateOptions;
+import com.io7m.bodyrecomp.core.BodyMacroEstimates;
+import com.io7m.bodyrecomp.core.BodyMacroExplanationStep;
+import com.io7m.bodyrecomp.core.BodyMacroGrid;
+import com.io7m.bodyrecomp.core.BodyMacroGridEstimates;
+import com.io7m.bodyrecomp.core.BodyMacros;
+import com.io7m.bodyrecomp.core.CaloricAdjustment;
+import com.io7m.bodyrecomp.core.NormalCoefficient;
+import tech.units.indriya.quantity.Quantities;
+
+import java.io.BufferedOutputStream;
+import java.io.PrintStream;
+import java.util.Locale;
+
+import static com.io7m.bodyrecomp.core.BodyUnits.KILOGRAM;
+import static com.io7m.bodyrecomp.core.BodyUnits.METRE;
+import static com.io7m.bodyrecomp.core.BodyUnits.YEAR;
+
+/**
+ * Functions to calculate and print the output of the "macros" command. These
+ * are shared between the full command and the fast launch path, and only
+ * use the metric units of the core SI system; heights are converted from
+ * centimetres arithmetically rather than through a unit system lookup.
+ */
+
+public final class BRMacrosOutput
+{
+  private static final BodyMacroEstimateOptions WITH_EXPLANATIONS =
+    BodyMacroEstimateOptions.builder()
+      .setExplanations(true)
+      .build();
+
+  private static final BodyMacroEstimateOptions WITHOUT_EXPLANATIONS =
+    BodyMacroEstimateOptions.builder()
+      .setExplanations(false)
+      .build();
+
+  private static final String CSV_HEADER =
+    "calories,protein_grams,fat_grams,carbohydrate_grams";
+
+  private BRMacrosOutput()
+  {
+
+  }
+
+  /**
+   * Convert a height in centimetres to metres.
+   *
+   * @param heightCm The height in centimetres
+   *
+   * @return The height in metres
+   */
+
+  public static double heightMetres(
+    final int heightCm)
+  {
+    return heightCm / 100.0;
+  }
+
+  /**
+   * Calculate macros for the given body.
+   *
+   * @param gender            The gender
+   * @param heightCm          The height in centimetres
+   * @param weightKg          The weight in kilograms
+   * @param ageYears          The age in years
+   * @param bodyFatPercentage The body fat percentage
+   * @param activity          The activity level
+   * @param caloricAdjustment The caloric adjustment
+   *
+   * @return The estimated macros, including explanations
+   */
+
+  public static BodyMacros estimate(
+    final BiologicalGender gender,
+    final int heightCm,
+    final int weightKg,
+    final int ageYears,
+    final int bodyFatPercentage,
+    final ActivityCoefficient activity,
+    final CaloricAdjustment caloricAdjustment)
+  {
+    return estimate(
+      gender,
+      heightCm,
+      weightKg,
+      ageYears,
+      bodyFatPercentage,
+      activity,
+      caloricAdjustment,
+      true
+    );
+  }
+
+  /**
+   * Calculate macros for the given body.
+   *
+   * @param gender            The gender
+   * @param heightCm          The height in centimetres
+   * @param weightKg          The weight in kilograms
+   * @param ageYears          The age in years
+   * @param bodyFatPercentage The body fat percentage
+   * @param activity          The activity level
+   * @param caloricAdjustment The caloric adjustment
+   * @param explanations      {@code true} if explanations are required
+   *
+   * @return The estimated macros
+   */
+
+  public static BodyMacros estimate(
+    final BiologicalGender gender,
+    final int heightCm,
+    final int weightKg,
+    final int ageYears,
+    final int bodyFatPercentage,
+    final ActivityCoefficient activity,
+    final CaloricAdjustment caloricAdjustment,
+    final boolean explanations)
+  {
+    final BodyDefinition person =
+      BodyDefinition.builder()
+        .setActivity(activity)
+        .setAge(Quantities.getQuantity(Integer.valueOf(ageYears), YEAR))
+        .setBodyHeight(
+          Quantities.getQuantity(Double.valueOf(heightMetres(heightCm)), METRE))
+        .setBodyWeight(Quantities.getQuantity(Integer.valueOf(weightKg), KILOGRAM))
+        .setCaloricAdjustment(caloricAdjustment.coefficient())
+        .setGender(gender)
+        .setBodyFatCoefficient(NormalCoefficient.of(bodyFatPercentage / 100.0))
+        .build();
+
+    return BodyMacroEstimates.estimateFor(
+      person,
+      explanations ? WITH_EXPLANATIONS : WITHOUT_EXPLANATIONS
+    );
+  }
+
+  /**
+   * Calculate macros for every activity level and caloric adjustment.
+   *
+   * @param gender            The gender
+   * @param heightCm          The height in centimetres
+   * @param weightKg          The weight in kilograms
+   * @param ageYears          The age in years
+   * @param bodyFatPercentage The body fat percentage
+   *
+   * @return The estimated grid
+   */
+
+  public static BodyMacroGrid estimateGrid(
+    final BiologicalGender gender,
+    final int heightCm,
+    final int weightKg,
+    final int ageYears,
+    final int bodyFatPercentage)
+  {
+    final BodyMacroGrid macros = new BodyMacroGrid();
+    BodyMacroGridEstimates.estimateFor(
+      gender,
+      heightMetres(heightCm),
+      weightKg,
+      ageYears,
+      NormalCoefficient.of(bodyFatPercentage / 100.0).value(),
+      macros
+    );
+    return macros;
+  }
+
+  /**
+   * Create a buffered stream that writes to {@code out}. Unlike
+   * {@link System#out}, the stream does not flush on every line, and must
+   * be flushed explicitly once all output has been written.
+   *
+   * @param out The underlying output stream
+   *
+   * @return A buffered stream using the same character set as {@code out}
+   */
+
+  public static PrintStream buffered(
+    final PrintStream out)
+  {
+    return new PrintStream(
+      new BufferedOutputStream(out, 8192),
+      false,
+      out.charset()
+    );
+  }
+
+  /**
+   * Write the given macros to the given stream. For the TEXT format, each
+   * step of the explanation is rendered and written in turn, so that
+   * no step is held in memory longer than it takes to write it.
+   *
+   * @param out         The output stream
+   * @param macros      The macros
+   * @param format      The output format
+   * @param summaryOnly {@code true} if only the summary should be written
+   */
+
+  public static void writeMacros(
+    final PrintStream out,
+    final BodyMacros macros,
+    final BRMacrosFormat format,
+    final boolean summaryOnly)
+  {
+    final var output = buffered(out);
+    switch (format) {
+      case TEXT -> writeText(output, macros, summaryOnly);
+      case CSV -> writeCSV(output, macros);
+      case JSON -> {
+        final var text = new StringBuilder(summaryOnly ? 128 : 4096);
+        appendJSON(text, macros, !summaryOnly);
+        output.append(text);
+        output.println();
+      }
+    }
+    output.flush();
+  }
+
+  private static void writeText(
+    final PrintStream out,
+    final BodyMacros macros,
+    final boolean summaryOnly)
+  {
+    final var explanation =
+      macros.explanation().orElseThrow();
+    final var locale =
+      Locale.getDefault(Locale.Category.FORMAT);
+    final var text =
+      new StringBuilder(1024);
+
+    for (final var step : BodyMacroExplanationStep.values()) {
+      if (summaryOnly && step != BodyMacroExplanationStep.SUMMARY) {
+        continue;
+      }
+      text.setLength(0);
+      explanation.renderTo(text, step, locale);
+      out.append(text);
+      out.println();
+    }
+  }
+
+  private static void writeCSV(
+    final PrintStream out,
+    final BodyMacros macros)
+  {
+    final var text = new StringBuilder(128);
+    appendCSV(text, macros);
+
+    out.println(CSV_HEADER);
+    out.append(text);
+    out.println();
+  }
+
+  /**
+   * Append the summary of the given macros as a single CSV row (without a
+   * header).
+   *
+   * @param text   The output
+   * @param macros The macros
+   */
+
+  public static void appendCSV(
+    final StringBuilder text,
+    final BodyMacros macros)
+  {
+    text.append(macros.calories().getValue().doubleValue());
+    text.append(',');
+    text.append(macros.proteinGrams().getValue().doubleValue());
+    text.append(',');
+    text.append(macros.fatGrams().getValue().doubleValue());
+    text.append(',');
+    text.append(macros.carbohydrateGrams().getValue().doubleValue());
+  }
+
+  /**
+   * Append an error message as a single CSV row (without a header) of the
+   * form {@code error,<message>}. The message is quoted if necessary, and
+   * line breaks are replaced with spaces so that the row is a single line.
+   *
+   * @param text    The output
+   * @param message The error message
+   */
+
+  public static void appendCSVError(
+    final StringBuilder text,
+    final String message)
+  {
+    text.append("error,");
+
+    final var single = message.replace('\r', ' ').replace('\n', ' ');
+    if (single.indexOf(',') < 0 && single.indexOf('"') < 0) {
+      text.append(single);
+      return;
+    }
+
+    text.append('"');
+    text.append(single.replace("\"", "\"\""));
+    text.append('"');
+  }
+
+  /**
+   * Append the given macros as a JSON object.
+   *
+   * @param output       The output
+   * @param macros       The macros
+   * @param explanations {@code true} if explanations should be included
+   */
+
+  public static void appendJSON(
+    final StringBuilder output,
+    final BodyMacros macros,
+    final boolean explanations)
+  {
+    output.append("{\"calories\":");
+    output.append(macros.calories().getValue().doubleValue());
+    output.append(",\"protein_grams\":");
+    output.append(macros.proteinGrams().getValue().doubleValue());
+    output.append(",\"fat_grams\":");
+    output.append(macros.fatGrams().getValue().doubleValue());
+    output.append(",\"carbohydrate_grams\":");
+    output.append(macros.carbohydrateGrams().getValue().doubleValue());
+
+    if (explanations) {
+      output.append(",\"explanations\":[");
+      final var lines = macros.explanations();
+      for (int index = 0; index < lines.size(); ++index) {
+        if (index > 0) {
+          output.append(',');
+        }
+        BRJSON.appendString(output, lines.get(index));
+      }
+      output.append(']');
+    }
+
+    output.append('}');
+  }
+
+  /**
+   * Print the given grid as a table.
+   *
+   * @param out    The output stream
+   * @param macros The grid
+   */
+
+  public static void printGrid(
+    final PrintStream out,
+    final BodyMacroGrid macros)
+  {
+    final var output = buffered(out);
+    writeGrid(output, macros);
+    output.flush();
+  }
+
+  private static void writeGrid(
+    final PrintStream out,
+    final BodyMacroGrid macros)
+  {
+    final var format = "%-17s  %-18s  %8s  %13s  %9s  %18s%n";
+    out.printf(
+      format,
+      "activity",
+      "caloric_adjustment",
+      "calories",
+      "protein_grams",
+      "fat_grams",
+      "carbohydrate_grams"
+    );
+
+    final var protein = Integer.valueOf((int) macros.proteinGrams());
+    for (final var a : ActivityCoefficient.values()) {
+      for (final var c : CaloricAdjustment.values()) {
+        out.printf(
+          format,
+          a,
+          c,
+          Integer.valueOf((int) macros.calories(a, c)),
+          protein,
+          Integer.valueOf((int) macros.fatGrams(a, c)),
+          Integer.valueOf((int) macros.carbohydrateGrams(a, c))
+        );
+      }
+    }
+  }
+}
@@ -0,0 +1,246 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.bodyrecomp.cmdline.internal;
+
+import com.beust.jcommander.Parameter;
+import com.io7m.bodyrecomp.core.ActivityCoefficient;
+import com.io7m.bodyrecomp.core.BiologicalGender;
+import com.io7m.bodyrecomp.core.BodyMacroGrid;
+import com.io7m.bodyrecomp.core.BodyMacros;
+import com.io7m.bodyrecomp.core.CaloricAdjustment;
+
+import java.util.Objects;
+
+/**
+ * The options of a macros request. These are shared between the "macros"
+ * command and the requests read by the "shell" command.
+ */
+
+final class BRMacrosParameters
+{
+  @Parameter(
+    names = "--activity-level",
+    required = false,
+    description = "Your non-exercise activity level (required unless --grid is used)."
+  )
+  private ActivityCoefficient activity;
+
+  @Parameter(
+    names = "--height-cm",
+    required = true,
+    description = "Your height in centimeters."
+  )
+  private int heightCm;
+
+  @Parameter(
+    names = "--weight-kg",
+    required = true,
+    description = "Your weight in kilograms."
+  )
+  private int weightKg;
+
+  @Parameter(
+    names = "--age",
+    required = true,
+    description = "Your age in years."
+  )
+  private int ageYears;
+
+  @Parameter(
+    names = "--caloric-adjustment",
+    required = false,
+    description = "Your intended caloric adjustment (required unless --grid is used)."
+  )
+  private CaloricAdjustment caloricAdjustment;
+
+  @Parameter(
+    names = "--gender",
+    required = true,
+    description = "Your biological gender."
+  )
+  private BiologicalGender gender;
+
+  @Parameter(
+    names = "--body-fat-percent",
+    required = true,
+    description = "Your body fat percentage."
+  )
+  private int bodyFatPercentage;
+
+  @Parameter(
+    names = "--grid",
+    required = false,
+    description = "Show macros for every activity level and caloric adjustment."
+  )
+  private boolean grid;
+
+  @Parameter(
+    names = "--summary-only",
+    required = false,
+    description = "Show only the summary, without explaining each step."
+  )
+  private boolean summaryOnly;
+
+  @Parameter(
+    names = "--format",
+    required = false,
+    description = "The output format."
+  )
+  private BRMacrosFormat format = BRMacrosFormat.TEXT;
+
+  BRMacrosParameters()
+  {
+
+  }
+
+  /**
+   * @return {@code true} if the grid of estimates was requested
+   */
+
+  boolean grid()
+  {
+    return this.grid;
+  }
+
+  /**
+   * @return {@code true} if only the summary is shown
+   */
+
+  boolean summaryOnly()
+  {
+    return this.summaryOnly;
+  }
+
+  /**
+   * @return The output format
+   */
+
+  BRMacrosFormat format()
+  {
+    return this.format;
+  }
+
+  /**
+   * Set the output format. This is used to provide a default before the
+   * options are parsed.
+   *
+   * @param inFormat The output format
+   */
+
+  void setFormat(
+    final BRMacrosFormat inFormat)
+  {
+    this.format = Objects.requireNonNull(inFormat, "format");
+  }
+
+  private void checkBodyFat(
+    final BRMessages messages)
+  {
+    if (this.bodyFatPercentage < 0 || this.bodyFatPercentage > 100) {
+      throw new IllegalArgumentException(messages.format(BRMessageKey.ERROR_INVALID_FAT_RANGE));
+    }
+  }
+
+  /**
+   * Estimate macros for every activity level and caloric adjustment.
+   *
+   * @param messages The string resources
+   *
+   * @return The grid of estimates
+   *
+   * @throws IllegalArgumentException On invalid options
+   */
+
+  BodyMacroGrid estimateGrid(
+    final BRMessages messages)
+  {
+    this.checkBodyFat(messages);
+    if (this.format != BRMacrosFormat.TEXT) {
+      throw new IllegalArgumentException(messages.format(BRMessageKey.ERROR_GRID_FORMAT));
+    }
+    return BRMacrosOutput.estimateGrid(
+      this.gender,
+      this.heightCm,
+      this.weightKg,
+      this.ageYears,
+      this.bodyFatPercentage
+    );
+  }
+
+  /**
+   * Estimate macros for the selected activity level and caloric adjustment.
+   * Explanations are produced only if the selected output shows them.
+   *
+   * @param messages The string resources
+   *
+   * @return The estimate
+   *
+   * @throws IllegalArgumentException On invalid or missing options
+   */
+
+  BodyMacros estimate(
+    final BRMessages messages)
+  {
+    this.checkBodyFat(messages);
+    if (this.activity == null) {
+      throw new IllegalArgumentException(
+        messages.format(BRMessageKey.ERROR_MISSING_OPTION, "--activity-level"));
+    }
+    if (this.caloricAdjustment == null) {
+      throw new IllegalArgumentException(
+        messages.format(BRMessageKey.ERROR_MISSING_OPTION, "--caloric-adjustment"));
+    }
+    return BRMacrosOutput.estimate(
+      this.gender,
+      this.heightCm,
+      this.weightKg,
+      this.ageYears,
+      this.bodyFatPercentage,
+      this.activity,
+      this.caloricAdjustment,
+      needsExplanation(this.format, this.summaryOnly)
+    );
+  }
+
+  /**
+   * @param format      The output format
+   * @param summaryOnly {@code true} if only the summary is shown
+   *
+   * @return {@code true} if the given output needs an explanation
+   */
+
+  static boolean needsExplanation(
+    final BRMacrosFormat format,
+    final boolean summaryOnly)
+  {
+    return switch (format) {
+      case TEXT -> true;
+      case CSV -> false;
+      case JSON -> !summaryOnly;
+    };
+  }
+
+  @Override
+  public String toString()
+  {
+    return String.format(
+      "[BRMacrosParameters 0x%s]",
+      Long.toUnsignedString(System.identityHashCode(this), 16)
+    );
+  }
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.bodyrecomp.cmdline.internal;
+
+import com.beust.jcommander.JCommander;
+import com.beust.jcommander.ParameterException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+/**
+ * The request loop of the "shell" command. Each non-blank input line is a
+ * macros request using the options of the "macros" command, and produces
+ * exactly one output line. Output is flushed whenever no further input is
+ * immediately available, so interactive clients see each response at once
+ * while piped input is written in large blocks.
+ */
+
+final class BRMacrosShell
+{
+  private static final Logger LOG =
+    LoggerFactory.getLogger(BRMacrosShell.class);
+
+  private static final Pattern WHITESPACE =
+    Pattern.compile("\\s+");
+
+  private final BRMessages messages;
+  private final BRMacrosFormat format;
+  private final StringBuilder text;
+
+  /**
+   * Construct a shell.
+   *
+   * @param inMessages The string resources
+   * @param inFormat   The format used by requests that do not specify one
+   */
+
+  BRMacrosShell(
+    final BRMessages inMessages,
+    final BRMacrosFormat inFormat)
+  {
+    this.messages =
+      Objects.requireNonNull(inMessages, "messages");
+    this.format =
+      Objects.requireNonNull(inFormat, "format");
+    this.text =
+      new StringBuilder(4096);
+  }
+
+  /**
+   * Answer requests until the end of the input.
+   *
+   * @param input  The input
+   * @param output The output
+   *
+   * @return The number of requests answered
+   *
+   * @throws IOException On I/O errors
+   */
+
+  long run(
+    final BufferedReader input,
+    final PrintStream output)
+    throws IOException
+  {
+    long requests = 0L;
+    while (true) {
+      final var line = input.readLine();
+      if (line == null) {
+        break;
+      }
+      if (this.respond(line)) {
+        output.append(this.text);
+        output.println();
+        ++requests;
+      }
+      if (!input.ready()) {
+        output.flush();
+      }
+    }
+    output.flush();
+    return requests;
+  }
+
+  /**
+   * Answer a single request.
+   *
+   * @param line The request line
+   *
+   * @return {@code false} if the line was blank and produced no response
+   */
+
+  boolean respond(
+    final String line)
+  {
+    this.text.setLength(0);
+    if (line.isBlank()) {
+      return false;
+    }
+
+    final var arguments = arguments(line);
+    if (BRFastMacros.respond(arguments, this.format, this.text)) {
+      return true;
+    }
+
+    /*
+     * The fast path declined the request; the full parser either answers
+     * it or produces the usual diagnostics.
+     */
+
+    this.text.setLength(0);
+    final var request = new BRMacrosParameters();
+    request.setFormat(this.format);
+    try {
+      JCommander.newBuilder()
+        .addObject(request)
+        .expandAtSign(false)
+        .build()
+        .parse(arguments);
+      this.respondTo(request);
+    } catch (final ParameterException | IllegalArgumentException e) {
+      this.error(request.format(), String.valueOf(e.getMessage()));
+    } catch (final RuntimeException e) {
+      LOG.error("estimation failed: {}", e.toString());
+      LOG.debug("estimation failed: ", e);
+      this.error(
+        request.format(),
+        this.messages.format(BRMessageKey.ERROR_SHELL_INTERNAL));
+    }
+    return true;
+  }
+
+  /**
+   * Report an error in the format of the request, if the request managed to
+   * select a format the shell supports, or in the default format otherwise.
+   */
+
+  private void error(
+    final BRMacrosFormat requested,
+    final String message)
+  {
+    this.text.setLength(0);
+
+    final var errorFormat =
+      requested == BRMacrosFormat.TEXT ? this.format : requested;
+
+    switch (errorFormat) {
+      case CSV -> BRMacrosOutput.appendCSVError(this.text, message);
+      case JSON, TEXT -> {
+        this.text.append("{\"error\":");
+        BRJSON.appendString(this.text, message);
+        this.text.append('}');
+      }
+    }
+  }
+
+  private void respondTo(
+    final BRMacrosParameters request)
+  {
+    if (request.grid() || request.format() == BRMacrosFormat.TEXT) {
+      throw new IllegalArgumentException(
+        this.messages.format(BRMessageKey.ERROR_SHELL_OUTPUT));
+    }
+
+    final var macros = request.estimate(this.messages);
+    switch (request.format()) {
+      case CSV -> BRMacrosOutput.appendCSV(this.text, macros);
+      case JSON -> BRMacrosOutput.appendJSON(this.text, macros, !request.summaryOnly());
+      case TEXT -> throw new IllegalStateException();
+    }
+  }
+
+  private static String[] arguments(
+    final String line)
+  {
+    final var arguments = WHITESPACE.split(line.strip());
+    if ("macros".equals(arguments[0])) {
+      final var rest = new String[arguments.length - 1];
+      System.arraycopy(arguments, 1, rest, 0, rest.length);
+      return rest;
+    }
+    return arguments;
+  }
+
+  @Override
+  public String toString()
+  {
+    return String.format(
+      "[BRMacrosShell 0x%s]",
+      Long.toUnsignedString(System.identityHashCode(this), 16)
+    );
+  }
+}
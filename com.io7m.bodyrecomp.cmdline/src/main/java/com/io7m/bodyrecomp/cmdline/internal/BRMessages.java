@@ -17,19 +17,21 @@
 package com.io7m.bodyrecomp.cmdline.internal;
 
 import com.io7m.bodyrecomp.strings.api.BRAbstractStrings;
-
-import java.util.ResourceBundle;
+import com.io7m.bodyrecomp.strings.api.BRStringsCatalog;
 
 /**
- * String resources.
+ * String resources. Message patterns are compiled from {@code Messages.xml}
+ * into {@link BRMessageKey} at build time.
  */
 
-public final class BRMessages extends BRAbstractStrings
+@BRStringsCatalog(
+  resource = "/com/io7m/bodyrecomp/cmdline/internal/Messages.xml",
+  keyType = "BRMessageKey")
+public final class BRMessages extends BRAbstractStrings<BRMessageKey>
 {
-  private BRMessages(
-    final ResourceBundle inResources)
+  private BRMessages()
   {
-    super(inResources);
+    super();
   }
 
   /**
@@ -38,11 +40,7 @@ public final class BRMessages extends BRAbstractStrings
 
   public static BRMessages create()
   {
-    return new BRMessages(
-      ofXMLResource(
-        BRMessages.class,
-        "/com/io7m/bodyrecomp/cmdline/internal/Messages.xml")
-    );
+    return new BRMessages();
   }
 
   @Override
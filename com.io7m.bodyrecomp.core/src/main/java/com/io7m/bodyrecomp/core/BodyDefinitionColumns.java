@@ -0,0 +1,266 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.bodyrecomp.core;
+
+import java.util.Objects;
+
+/**
+ * <p>A set of body definitions stored as parallel primitive arrays (one
+ * array per field, rather than one object per body). The arrays are
+ * used directly and are not copied.</p>
+ *
+ * <p>Genders are stored as {@link BiologicalGender#ordinal()} values, and
+ * activity levels are stored as {@link ActivityCoefficient#ordinal()}
+ * values. Heights are in metres, weights are in kilograms, ages are in
+ * years, body fat is stored as a coefficient in the range {@code [0, 1]},
+ * and caloric adjustments are stored as coefficients in the range
+ * {@code [0, ∞]}.</p>
+ *
+ * @see BodyMacroBatchEstimates
+ */
+
+public final class BodyDefinitionColumns
+{
+  private final byte[] genders;
+  private final byte[] activities;
+  private final double[] heightMetres;
+  private final double[] weightKilograms;
+  private final double[] ageYears;
+  private final double[] bodyFatCoefficients;
+  private final double[] caloricAdjustments;
+
+  /**
+   * Construct a set of columns from existing arrays. All arrays must be
+   * the same length.
+   *
+   * @param inGenders             The genders
+   * @param inActivities          The activity levels
+   * @param inHeightMetres        The heights in metres
+   * @param inWeightKilograms     The weights in kilograms
+   * @param inAgeYears            The ages in years
+   * @param inBodyFatCoefficients The body fat coefficients
+   * @param inCaloricAdjustments  The caloric adjustment coefficients
+   */
+
+  public BodyDefinitionColumns(
+    final byte[] inGenders,
+    final byte[] inActivities,
+    final double[] inHeightMetres,
+    final double[] inWeightKilograms,
+    final double[] inAgeYears,
+    final double[] inBodyFatCoefficients,
+    final double[] inCaloricAdjustments)
+  {
+    this.genders =
+      Objects.requireNonNull(inGenders, "genders");
+    this.activities =
+      Objects.requireNonNull(inActivities, "activities");
+    this.heightMetres =
+      Objects.requireNonNull(inHeightMetres, "heightMetres");
+    this.weightKilograms =
+      Objects.requireNonNull(inWeightKilograms, "weightKilograms");
+    this.ageYears =
+      Objects.requireNonNull(inAgeYears, "ageYears");
+    this.bodyFatCoefficients =
+      Objects.requireNonNull(inBodyFatCoefficients, "bodyFatCoefficients");
+    this.caloricAdjustments =
+      Objects.requireNonNull(inCaloricAdjustments, "caloricAdjustments");
+
+    final int size = this.genders.length;
+    checkLength(size, this.activities.length);
+    checkLength(size, this.heightMetres.length);
+    checkLength(size, this.weightKilograms.length);
+    checkLength(size, this.ageYears.length);
+    checkLength(size, this.bodyFatCoefficients.length);
+    checkLength(size, this.caloricAdjustments.length);
+  }
+
+  private static void checkLength(
+    final int expected,
+    final int received)
+  {
+    if (received != expected) {
+      throw new IllegalArgumentException(
+        String.format(
+          "All columns must be the same length (expected %d, received %d)",
+          Integer.valueOf(expected),
+          Integer.valueOf(received))
+      );
+    }
+  }
+
+  /**
+   * Allocate a new set of columns.
+   *
+   * @param size The number of bodies
+   *
+   * @return A set of columns
+   */
+
+  public static BodyDefinitionColumns create(
+    final int size)
+  {
+    return new BodyDefinitionColumns(
+      new byte[size],
+      new byte[size],
+      new double[size],
+      new double[size],
+      new double[size],
+      new double[size],
+      new double[size]
+    );
+  }
+
+  /**
+   * @return The number of bodies
+   */
+
+  public int size()
+  {
+    return this.genders.length;
+  }
+
+  /**
+   * Set the body at {@code index} to the values of the given body definition.
+   *
+   * @param index The index
+   * @param body  The body definition
+   */
+
+  public void set(
+    final int index,
+    final BodyDefinition body)
+  {
+    Objects.requireNonNull(body, "body");
+
+    this.set(
+      index,
+      body.gender(),
+      body.activity(),
+      body.bodyHeight().getValue().doubleValue(),
+      body.bodyWeight().getValue().doubleValue(),
+      body.age().getValue().doubleValue(),
+      body.bodyFatCoefficient().value(),
+      body.caloricAdjustment().value()
+    );
+  }
+
+  /**
+   * Set the body at {@code index} to the given values.
+   *
+   * @param index              The index
+   * @param gender             The biological gender
+   * @param activity           The activity level
+   * @param height             The height in metres
+   * @param weight             The weight in kilograms
+   * @param age                The age in years
+   * @param bodyFatCoefficient The body fat coefficient
+   * @param caloricAdjustment  The caloric adjustment coefficient
+   */
+
+  public void set(
+    final int index,
+    final BiologicalGender gender,
+    final ActivityCoefficient activity,
+    final double height,
+    final double weight,
+    final double age,
+    final double bodyFatCoefficient,
+    final double caloricAdjustment)
+  {
+    this.genders[index] = (byte) gender.ordinal();
+    this.activities[index] = (byte) activity.ordinal();
+    this.heightMetres[index] = height;
+    this.weightKilograms[index] = weight;
+    this.ageYears[index] = age;
+    this.bodyFatCoefficients[index] = bodyFatCoefficient;
+    this.caloricAdjustments[index] = caloricAdjustment;
+  }
+
+  /**
+   * @return The genders, as {@link BiologicalGender#ordinal()} values
+   */
+
+  public byte[] genders()
+  {
+    return this.genders;
+  }
+
+  /**
+   * @return The activity levels, as {@link ActivityCoefficient#ordinal()} values
+   */
+
+  public byte[] activities()
+  {
+    return this.activities;
+  }
+
+  /**
+   * @return The heights in metres
+   */
+
+  public double[] heightMetres()
+  {
+    return this.heightMetres;
+  }
+
+  /**
+   * @return The weights in kilograms
+   */
+
+  public double[] weightKilograms()
+  {
+    return this.weightKilograms;
+  }
+
+  /**
+   * @return The ages in years
+   */
+
+  public double[] ageYears()
+  {
+    return this.ageYears;
+  }
+
+  /**
+   * @return The body fat coefficients
+   */
+
+  public double[] bodyFatCoefficients()
+  {
+    return this.bodyFatCoefficients;
+  }
+
+  /**
+   * @return The caloric adjustment coefficients
+   */
+
+  public double[] caloricAdjustments()
+  {
+    return this.caloricAdjustments;
+  }
+
+  @Override
+  public String toString()
+  {
+    return String.format(
+      "[BodyDefinitionColumns 0x%s %d]",
+      Long.toUnsignedString(System.identityHashCode(this), 16),
+      Integer.valueOf(this.size())
+    );
+  }
+}
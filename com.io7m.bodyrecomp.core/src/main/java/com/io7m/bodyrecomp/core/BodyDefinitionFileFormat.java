@@ -0,0 +1,129 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.bodyrecomp.core;
+
+/**
+ * <p>The binary population file format.</p>
+ *
+ * <p>A population file consists of a fixed-size header followed by a
+ * sequence of fixed-size records, one per body. All values are stored in
+ * little-endian byte order. The header is laid out as follows:</p>
+ *
+ * <table>
+ *   <caption>Header</caption>
+ *   <tr><th>Offset</th><th>Type</th><th>Value</th></tr>
+ *   <tr><td>0</td><td>int32</td><td>{@link #MAGIC}</td></tr>
+ *   <tr><td>4</td><td>int32</td><td>{@link #VERSION}</td></tr>
+ *   <tr><td>8</td><td>int32</td><td>{@link #RECORD_SIZE}</td></tr>
+ *   <tr><td>12</td><td>int32</td><td>Reserved (zero)</td></tr>
+ *   <tr><td>16</td><td>int64</td><td>The number of records</td></tr>
+ *   <tr><td>24</td><td>int64</td><td>Reserved (zero)</td></tr>
+ * </table>
+ *
+ * <p>Each record holds the fields of a body definition, using the same
+ * units and encodings as {@link BodyDefinitionColumns}. The two leading
+ * bytes are followed by padding so that every {@code double} field is
+ * naturally aligned.</p>
+ *
+ * <table>
+ *   <caption>Record</caption>
+ *   <tr><th>Offset</th><th>Type</th><th>Value</th></tr>
+ *   <tr><td>0</td><td>int8</td><td>Gender ordinal</td></tr>
+ *   <tr><td>1</td><td>int8</td><td>Activity ordinal</td></tr>
+ *   <tr><td>2</td><td>-</td><td>Padding (zero)</td></tr>
+ *   <tr><td>8</td><td>float64</td><td>Height (metres)</td></tr>
+ *   <tr><td>16</td><td>float64</td><td>Weight (kilograms)</td></tr>
+ *   <tr><td>24</td><td>float64</td><td>Age (years)</td></tr>
+ *   <tr><td>32</td><td>float64</td><td>Body fat coefficient</td></tr>
+ *   <tr><td>40</td><td>float64</td><td>Caloric adjustment</td></tr>
+ * </table>
+ *
+ * @see BodyDefinitionFileReader
+ * @see BodyDefinitionFileWriter
+ */
+
+public final class BodyDefinitionFileFormat
+{
+  /**
+   * The file magic number ({@code "BRPD"} in ASCII).
+   */
+
+  public static final int MAGIC = 0x42525044;
+
+  /**
+   * The current format version.
+   */
+
+  public static final int VERSION = 1;
+
+  /**
+   * The size of the header in bytes.
+   */
+
+  public static final int HEADER_SIZE = 32;
+
+  /**
+   * The size of a record in bytes.
+   */
+
+  public static final int RECORD_SIZE = 48;
+
+  static final int HEADER_OFFSET_MAGIC = 0;
+  static final int HEADER_OFFSET_VERSION = 4;
+  static final int HEADER_OFFSET_RECORD_SIZE = 8;
+  static final int HEADER_OFFSET_COUNT = 16;
+
+  static final int RECORD_OFFSET_GENDER = 0;
+  static final int RECORD_OFFSET_ACTIVITY = 1;
+  static final int RECORD_OFFSET_HEIGHT = 8;
+  static final int RECORD_OFFSET_WEIGHT = 16;
+  static final int RECORD_OFFSET_AGE = 24;
+  static final int RECORD_OFFSET_BODY_FAT = 32;
+  static final int RECORD_OFFSET_CALORIC_ADJUSTMENT = 40;
+
+  /**
+   * The maximum number of records that can be stored in a file.
+   */
+
+  public static final long MAXIMUM_RECORDS =
+    (Long.MAX_VALUE - HEADER_SIZE) / RECORD_SIZE;
+
+  private BodyDefinitionFileFormat()
+  {
+
+  }
+
+  /**
+   * @param records The number of records
+   *
+   * @return The size in bytes of a file containing {@code records} records
+   */
+
+  public static long fileSize(
+    final long records)
+  {
+    if (records < 0L || records > MAXIMUM_RECORDS) {
+      throw new IllegalArgumentException(
+        String.format(
+          "Record count must be in the range [0, %d] (received %d)",
+          Long.valueOf(MAXIMUM_RECORDS),
+          Long.valueOf(records))
+      );
+    }
+    return HEADER_SIZE + records * RECORD_SIZE;
+  }
+}
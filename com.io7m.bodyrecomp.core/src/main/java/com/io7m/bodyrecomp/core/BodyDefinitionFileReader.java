@@ -0,0 +1,256 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.bodyrecomp.core;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+import static com.io7m.bodyrecomp.core.BodyDefinitionFileFormat.HEADER_OFFSET_COUNT;
+import static com.io7m.bodyrecomp.core.BodyDefinitionFileFormat.HEADER_OFFSET_MAGIC;
+import static com.io7m.bodyrecomp.core.BodyDefinitionFileFormat.HEADER_OFFSET_RECORD_SIZE;
+import static com.io7m.bodyrecomp.core.BodyDefinitionFileFormat.HEADER_OFFSET_VERSION;
+import static com.io7m.bodyrecomp.core.BodyDefinitionFileFormat.HEADER_SIZE;
+import static com.io7m.bodyrecomp.core.BodyDefinitionFileFormat.MAGIC;
+import static com.io7m.bodyrecomp.core.BodyDefinitionFileFormat.MAXIMUM_RECORDS;
+import static com.io7m.bodyrecomp.core.BodyDefinitionFileFormat.RECORD_OFFSET_ACTIVITY;
+import static com.io7m.bodyrecomp.core.BodyDefinitionFileFormat.RECORD_OFFSET_AGE;
+import static com.io7m.bodyrecomp.core.BodyDefinitionFileFormat.RECORD_OFFSET_BODY_FAT;
+import static com.io7m.bodyrecomp.core.BodyDefinitionFileFormat.RECORD_OFFSET_CALORIC_ADJUSTMENT;
+import static com.io7m.bodyrecomp.core.BodyDefinitionFileFormat.RECORD_OFFSET_GENDER;
+import static com.io7m.bodyrecomp.core.BodyDefinitionFileFormat.RECORD_OFFSET_HEIGHT;
+import static com.io7m.bodyrecomp.core.BodyDefinitionFileFormat.RECORD_OFFSET_WEIGHT;
+import static com.io7m.bodyrecomp.core.BodyDefinitionFileFormat.RECORD_SIZE;
+import static com.io7m.bodyrecomp.core.BodyDefinitionFileFormat.VERSION;
+
+/**
+ * <p>A reader for memory-mapped population files.</p>
+ *
+ * <p>Records are read directly from the mapped file into
+ * {@link BodyDefinitionColumns}, with no parsing and no per-record
+ * allocation. Any range of records can be read, so separate workers can
+ * each process their own range of a file. Readers are safe to use from
+ * multiple threads concurrently.</p>
+ *
+ * <p>The file is mapped for the lifetime of the reader, and is unmapped
+ * when the reader becomes unreachable.</p>
+ *
+ * @see BodyDefinitionFileFormat
+ */
+
+public final class BodyDefinitionFileReader
+{
+  private final BodyDefinitionFileSegments segments;
+
+  private BodyDefinitionFileReader(
+    final BodyDefinitionFileSegments inSegments)
+  {
+    this.segments = Objects.requireNonNull(inSegments, "segments");
+  }
+
+  /**
+   * Open a population file for reading.
+   *
+   * @param file The file
+   *
+   * @return A reader
+   *
+   * @throws IOException If the file cannot be read, or is not a valid
+   *                     population file
+   */
+
+  public static BodyDefinitionFileReader open(
+    final Path file)
+    throws IOException
+  {
+    Objects.requireNonNull(file, "file");
+
+    try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      final long count = readHeader(file, channel);
+      return new BodyDefinitionFileReader(
+        BodyDefinitionFileSegments.map(
+          channel, FileChannel.MapMode.READ_ONLY, count)
+      );
+    }
+  }
+
+  private static long readHeader(
+    final Path file,
+    final FileChannel channel)
+    throws IOException
+  {
+    final var header =
+      ByteBuffer.allocate(HEADER_SIZE)
+        .order(ByteOrder.LITTLE_ENDIAN);
+
+    while (header.hasRemaining()) {
+      if (channel.read(header, header.position()) == -1) {
+        throw new IOException(
+          String.format("%s: File is too short to contain a header", file));
+      }
+    }
+
+    final int magic = header.getInt(HEADER_OFFSET_MAGIC);
+    if (magic != MAGIC) {
+      throw new IOException(
+        String.format(
+          "%s: Bad magic number (expected 0x%08x, received 0x%08x)",
+          file,
+          Integer.valueOf(MAGIC),
+          Integer.valueOf(magic))
+      );
+    }
+
+    final int version = header.getInt(HEADER_OFFSET_VERSION);
+    if (version != VERSION) {
+      throw new IOException(
+        String.format(
+          "%s: Unsupported version (expected %d, received %d)",
+          file,
+          Integer.valueOf(VERSION),
+          Integer.valueOf(version))
+      );
+    }
+
+    final int recordSize = header.getInt(HEADER_OFFSET_RECORD_SIZE);
+    if (recordSize != RECORD_SIZE) {
+      throw new IOException(
+        String.format(
+          "%s: Unsupported record size (expected %d, received %d)",
+          file,
+          Integer.valueOf(RECORD_SIZE),
+          Integer.valueOf(recordSize))
+      );
+    }
+
+    final long count = header.getLong(HEADER_OFFSET_COUNT);
+    if (count < 0L || count > MAXIMUM_RECORDS) {
+      throw new IOException(
+        String.format(
+          "%s: Invalid record count %d", file, Long.valueOf(count)));
+    }
+
+    final long expectedSize = BodyDefinitionFileFormat.fileSize(count);
+    final long actualSize = channel.size();
+    if (actualSize < expectedSize) {
+      throw new IOException(
+        String.format(
+          "%s: File is truncated (expected %d bytes, received %d)",
+          file,
+          Long.valueOf(expectedSize),
+          Long.valueOf(actualSize))
+      );
+    }
+    return count;
+  }
+
+  /**
+   * @return The number of records in the file
+   */
+
+  public long size()
+  {
+    return this.segments.size();
+  }
+
+  /**
+   * Read {@code count} records, starting at record {@code index}, into
+   * {@code output} starting at {@code outputOffset}.
+   *
+   * @param index        The index of the first record
+   * @param output       The output columns
+   * @param outputOffset The index of the first output body
+   * @param count        The number of records
+   */
+
+  public void read(
+    final long index,
+    final BodyDefinitionColumns output,
+    final int outputOffset,
+    final int count)
+  {
+    Objects.requireNonNull(output, "output");
+    Objects.checkFromIndexSize(index, count, this.segments.size());
+    Objects.checkFromIndexSize(outputOffset, count, output.size());
+
+    long record = index;
+    int target = outputOffset;
+    int remaining = count;
+    while (remaining > 0) {
+      final int run =
+        BodyDefinitionFileSegments.runLength(record, remaining);
+      readRun(
+        this.segments.segmentOf(record),
+        BodyDefinitionFileSegments.indexInSegment(record),
+        output,
+        target,
+        run
+      );
+      record += run;
+      target += run;
+      remaining -= run;
+    }
+  }
+
+  private static void readRun(
+    final ByteBuffer segment,
+    final int first,
+    final BodyDefinitionColumns output,
+    final int outputOffset,
+    final int count)
+  {
+    final var genders = output.genders();
+    final var activities = output.activities();
+    final var heights = output.heightMetres();
+    final var weights = output.weightKilograms();
+    final var ages = output.ageYears();
+    final var bodyFats = output.bodyFatCoefficients();
+    final var adjustments = output.caloricAdjustments();
+
+    for (int index = 0; index < count; ++index) {
+      final int base = (first + index) * RECORD_SIZE;
+      final int target = outputOffset + index;
+      genders[target] =
+        segment.get(base + RECORD_OFFSET_GENDER);
+      activities[target] =
+        segment.get(base + RECORD_OFFSET_ACTIVITY);
+      heights[target] =
+        segment.getDouble(base + RECORD_OFFSET_HEIGHT);
+      weights[target] =
+        segment.getDouble(base + RECORD_OFFSET_WEIGHT);
+      ages[target] =
+        segment.getDouble(base + RECORD_OFFSET_AGE);
+      bodyFats[target] =
+        segment.getDouble(base + RECORD_OFFSET_BODY_FAT);
+      adjustments[target] =
+        segment.getDouble(base + RECORD_OFFSET_CALORIC_ADJUSTMENT);
+    }
+  }
+
+  @Override
+  public String toString()
+  {
+    return String.format(
+      "[BodyDefinitionFileReader 0x%s]",
+      Long.toUnsignedString(System.identityHashCode(this), 16)
+    );
+  }
+}
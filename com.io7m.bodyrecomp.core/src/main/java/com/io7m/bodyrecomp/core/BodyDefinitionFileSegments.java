@@ -0,0 +1,109 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.bodyrecomp.core;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import static com.io7m.bodyrecomp.core.BodyDefinitionFileFormat.HEADER_SIZE;
+import static com.io7m.bodyrecomp.core.BodyDefinitionFileFormat.RECORD_SIZE;
+
+/**
+ * The records of a population file, mapped into memory. A single
+ * {@link MappedByteBuffer} cannot exceed 2GiB, so the records are mapped
+ * as a series of segments, each holding a fixed number of whole records.
+ */
+
+final class BodyDefinitionFileSegments
+{
+  static final int RECORDS_PER_SEGMENT_BITS = 24;
+  static final int RECORDS_PER_SEGMENT = 1 << RECORDS_PER_SEGMENT_BITS;
+  static final int RECORDS_PER_SEGMENT_MASK = RECORDS_PER_SEGMENT - 1;
+
+  private final MappedByteBuffer[] segments;
+  private final long size;
+
+  private BodyDefinitionFileSegments(
+    final MappedByteBuffer[] inSegments,
+    final long inSize)
+  {
+    this.segments = inSegments;
+    this.size = inSize;
+  }
+
+  static BodyDefinitionFileSegments map(
+    final FileChannel channel,
+    final FileChannel.MapMode mode,
+    final long size)
+    throws IOException
+  {
+    final long segmentCount =
+      (size + RECORDS_PER_SEGMENT - 1L) >>> RECORDS_PER_SEGMENT_BITS;
+
+    if (segmentCount > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException(
+        String.format("Too many records to map (%d)", Long.valueOf(size)));
+    }
+
+    final var segments = new MappedByteBuffer[(int) segmentCount];
+    for (int index = 0; index < segments.length; ++index) {
+      final long first = (long) index << RECORDS_PER_SEGMENT_BITS;
+      final long records = Math.min(RECORDS_PER_SEGMENT, size - first);
+      final var buffer =
+        channel.map(
+          mode,
+          HEADER_SIZE + first * RECORD_SIZE,
+          records * RECORD_SIZE);
+      buffer.order(ByteOrder.LITTLE_ENDIAN);
+      segments[index] = buffer;
+    }
+    return new BodyDefinitionFileSegments(segments, size);
+  }
+
+  long size()
+  {
+    return this.size;
+  }
+
+  MappedByteBuffer segmentOf(
+    final long record)
+  {
+    return this.segments[(int) (record >>> RECORDS_PER_SEGMENT_BITS)];
+  }
+
+  static int indexInSegment(
+    final long record)
+  {
+    return (int) (record & RECORDS_PER_SEGMENT_MASK);
+  }
+
+  static int runLength(
+    final long record,
+    final int remaining)
+  {
+    return Math.min(remaining, RECORDS_PER_SEGMENT - indexInSegment(record));
+  }
+
+  void force()
+  {
+    for (final var segment : this.segments) {
+      segment.force();
+    }
+  }
+}
@@ -0,0 +1,261 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.bodyrecomp.core;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+import static com.io7m.bodyrecomp.core.BodyDefinitionFileFormat.HEADER_OFFSET_COUNT;
+import static com.io7m.bodyrecomp.core.BodyDefinitionFileFormat.HEADER_OFFSET_MAGIC;
+import static com.io7m.bodyrecomp.core.BodyDefinitionFileFormat.HEADER_OFFSET_RECORD_SIZE;
+import static com.io7m.bodyrecomp.core.BodyDefinitionFileFormat.HEADER_OFFSET_VERSION;
+import static com.io7m.bodyrecomp.core.BodyDefinitionFileFormat.HEADER_SIZE;
+import static com.io7m.bodyrecomp.core.BodyDefinitionFileFormat.MAGIC;
+import static com.io7m.bodyrecomp.core.BodyDefinitionFileFormat.RECORD_OFFSET_ACTIVITY;
+import static com.io7m.bodyrecomp.core.BodyDefinitionFileFormat.RECORD_OFFSET_AGE;
+import static com.io7m.bodyrecomp.core.BodyDefinitionFileFormat.RECORD_OFFSET_BODY_FAT;
+import static com.io7m.bodyrecomp.core.BodyDefinitionFileFormat.RECORD_OFFSET_CALORIC_ADJUSTMENT;
+import static com.io7m.bodyrecomp.core.BodyDefinitionFileFormat.RECORD_OFFSET_GENDER;
+import static com.io7m.bodyrecomp.core.BodyDefinitionFileFormat.RECORD_OFFSET_HEIGHT;
+import static com.io7m.bodyrecomp.core.BodyDefinitionFileFormat.RECORD_OFFSET_WEIGHT;
+import static com.io7m.bodyrecomp.core.BodyDefinitionFileFormat.RECORD_SIZE;
+import static com.io7m.bodyrecomp.core.BodyDefinitionFileFormat.VERSION;
+
+/**
+ * <p>A writer for memory-mapped population files.</p>
+ *
+ * <p>The number of records is fixed when the file is created, and records
+ * may then be written in any order. Writes to disjoint ranges of records
+ * may be performed from multiple threads concurrently. Closing the writer
+ * forces all written records to storage.</p>
+ *
+ * @see BodyDefinitionFileFormat
+ */
+
+public final class BodyDefinitionFileWriter implements Closeable
+{
+  private final BodyDefinitionFileSegments segments;
+
+  private BodyDefinitionFileWriter(
+    final BodyDefinitionFileSegments inSegments)
+  {
+    this.segments = Objects.requireNonNull(inSegments, "segments");
+  }
+
+  /**
+   * Create a population file with space for {@code size} records. Any
+   * existing file is replaced. All records are initially zero.
+   *
+   * @param file The file
+   * @param size The number of records
+   *
+   * @return A writer
+   *
+   * @throws IOException On I/O errors
+   */
+
+  public static BodyDefinitionFileWriter create(
+    final Path file,
+    final long size)
+    throws IOException
+  {
+    Objects.requireNonNull(file, "file");
+
+    final long fileSize = BodyDefinitionFileFormat.fileSize(size);
+    try (var channel = FileChannel.open(
+      file,
+      StandardOpenOption.CREATE,
+      StandardOpenOption.TRUNCATE_EXISTING,
+      StandardOpenOption.READ,
+      StandardOpenOption.WRITE)) {
+
+      final var header =
+        ByteBuffer.allocate(HEADER_SIZE)
+          .order(ByteOrder.LITTLE_ENDIAN);
+      header.putInt(HEADER_OFFSET_MAGIC, MAGIC);
+      header.putInt(HEADER_OFFSET_VERSION, VERSION);
+      header.putInt(HEADER_OFFSET_RECORD_SIZE, RECORD_SIZE);
+      header.putLong(HEADER_OFFSET_COUNT, size);
+
+      while (header.hasRemaining()) {
+        channel.write(header, header.position());
+      }
+
+      /*
+       * Extend the file to its full size up front, so that the mapped
+       * segments never refer to space beyond the end of the file.
+       */
+
+      channel.write(ByteBuffer.allocate(1), fileSize - 1L);
+
+      return new BodyDefinitionFileWriter(
+        BodyDefinitionFileSegments.map(
+          channel, FileChannel.MapMode.READ_WRITE, size)
+      );
+    }
+  }
+
+  /**
+   * @return The number of records in the file
+   */
+
+  public long size()
+  {
+    return this.segments.size();
+  }
+
+  /**
+   * Write the record at {@code index}.
+   *
+   * @param index              The record index
+   * @param gender             The gender
+   * @param activity           The activity level
+   * @param height             The height in metres
+   * @param weight             The weight in kilograms
+   * @param age                The age in years
+   * @param bodyFatCoefficient The body fat coefficient
+   * @param caloricAdjustment  The caloric adjustment coefficient
+   */
+
+  public void write(
+    final long index,
+    final BiologicalGender gender,
+    final ActivityCoefficient activity,
+    final double height,
+    final double weight,
+    final double age,
+    final double bodyFatCoefficient,
+    final double caloricAdjustment)
+  {
+    Objects.requireNonNull(gender, "gender");
+    Objects.requireNonNull(activity, "activity");
+    Objects.checkIndex(index, this.segments.size());
+
+    final var segment = this.segments.segmentOf(index);
+    final int base =
+      BodyDefinitionFileSegments.indexInSegment(index) * RECORD_SIZE;
+
+    segment.put(base + RECORD_OFFSET_GENDER, (byte) gender.ordinal());
+    segment.put(base + RECORD_OFFSET_ACTIVITY, (byte) activity.ordinal());
+    segment.putDouble(base + RECORD_OFFSET_HEIGHT, height);
+    segment.putDouble(base + RECORD_OFFSET_WEIGHT, weight);
+    segment.putDouble(base + RECORD_OFFSET_AGE, age);
+    segment.putDouble(base + RECORD_OFFSET_BODY_FAT, bodyFatCoefficient);
+    segment.putDouble(
+      base + RECORD_OFFSET_CALORIC_ADJUSTMENT, caloricAdjustment);
+  }
+
+  /**
+   * Write {@code count} bodies from {@code input}, starting at
+   * {@code inputOffset}, to the records starting at record {@code index}.
+   *
+   * @param index       The index of the first record
+   * @param input       The input columns
+   * @param inputOffset The index of the first input body
+   * @param count       The number of records
+   */
+
+  public void write(
+    final long index,
+    final BodyDefinitionColumns input,
+    final int inputOffset,
+    final int count)
+  {
+    Objects.requireNonNull(input, "input");
+    Objects.checkFromIndexSize(index, count, this.segments.size());
+    Objects.checkFromIndexSize(inputOffset, count, input.size());
+
+    long record = index;
+    int source = inputOffset;
+    int remaining = count;
+    while (remaining > 0) {
+      final int run =
+        BodyDefinitionFileSegments.runLength(record, remaining);
+      writeRun(
+        this.segments.segmentOf(record),
+        BodyDefinitionFileSegments.indexInSegment(record),
+        input,
+        source,
+        run
+      );
+      record += run;
+      source += run;
+      remaining -= run;
+    }
+  }
+
+  private static void writeRun(
+    final ByteBuffer segment,
+    final int first,
+    final BodyDefinitionColumns input,
+    final int inputOffset,
+    final int count)
+  {
+    final var genders = input.genders();
+    final var activities = input.activities();
+    final var heights = input.heightMetres();
+    final var weights = input.weightKilograms();
+    final var ages = input.ageYears();
+    final var bodyFats = input.bodyFatCoefficients();
+    final var adjustments = input.caloricAdjustments();
+
+    for (int index = 0; index < count; ++index) {
+      final int base = (first + index) * RECORD_SIZE;
+      final int source = inputOffset + index;
+      segment.put(
+        base + RECORD_OFFSET_GENDER, genders[source]);
+      segment.put(
+        base + RECORD_OFFSET_ACTIVITY, activities[source]);
+      segment.putDouble(
+        base + RECORD_OFFSET_HEIGHT, heights[source]);
+      segment.putDouble(
+        base + RECORD_OFFSET_WEIGHT, weights[source]);
+      segment.putDouble(
+        base + RECORD_OFFSET_AGE, ages[source]);
+      segment.putDouble(
+        base + RECORD_OFFSET_BODY_FAT, bodyFats[source]);
+      segment.putDouble(
+        base + RECORD_OFFSET_CALORIC_ADJUSTMENT, adjustments[source]);
+    }
+  }
+
+  /**
+   * Force all written records to storage. The file remains mapped until
+   * the writer becomes unreachable.
+   */
+
+  @Override
+  public void close()
+  {
+    this.segments.force();
+  }
+
+  @Override
+  public String toString()
+  {
+    return String.format(
+      "[BodyDefinitionFileWriter 0x%s]",
+      Long.toUnsignedString(System.identityHashCode(this), 16)
+    );
+  }
+}
@@ -26,9 +26,9 @@ import javax.measure.quantity.Mass;
 import javax.measure.quantity.Time;
 import java.util.Objects;
 
-import static tech.units.indriya.unit.Units.KILOGRAM;
-import static tech.units.indriya.unit.Units.METRE;
-import static tech.units.indriya.unit.Units.YEAR;
+import static com.io7m.bodyrecomp.core.BodyUnits.KILOGRAM;
+import static com.io7m.bodyrecomp.core.BodyUnits.METRE;
+import static com.io7m.bodyrecomp.core.BodyUnits.YEAR;
 
 /**
  * The definition of a body.
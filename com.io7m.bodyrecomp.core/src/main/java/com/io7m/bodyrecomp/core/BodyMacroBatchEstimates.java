@@ -0,0 +1,279 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.bodyrecomp.core;
+
+import com.io7m.bodyrecomp.core.internal.BodyMacroBatchSupport;
+import com.io7m.bodyrecomp.core.internal.Clamp;
+
+import java.util.Objects;
+
+import static com.io7m.bodyrecomp.core.internal.BodyMacroBatchSupport.FAT_COEFFICIENT_FEMALE;
+import static com.io7m.bodyrecomp.core.internal.BodyMacroBatchSupport.FAT_COEFFICIENT_MALE;
+import static com.io7m.bodyrecomp.core.internal.BodyMacroBatchSupport.GRAMS_PER_POUND_FEMALE;
+import static com.io7m.bodyrecomp.core.internal.BodyMacroBatchSupport.GRAMS_PER_POUND_MALE;
+import static com.io7m.bodyrecomp.core.DietaryProteinEstimates.POUNDS_PER_KILOGRAM;
+
+/**
+ * <p>Functions to estimate macronutrients for many bodies at once.</p>
+ *
+ * <p>The estimates produced are identical to those produced by the
+ * primitive {@code estimateFor} function in {@link BodyMacroEstimates}
+ * for each individual body, but the bodies are processed column-wise in a
+ * few short loops with no per-body allocation or branching. This allows
+ * the JIT compiler to unroll and vectorize the loops.</p>
+ *
+ * @see BodyDefinitionColumns
+ * @see BodyMacrosColumns
+ */
+
+public final class BodyMacroBatchEstimates
+{
+  /*
+   * The segments of the curves are held in constants, which the JIT
+   * compiler folds into the loops rather than keeping in registers.
+   * BodyMacroCurveSegment guarantees that each curve has exactly one
+   * segment, and so evaluating it inline is exact.
+   */
+
+  private static final double PROTEIN_START_MALE =
+    GRAMS_PER_POUND_MALE.start();
+  private static final double PROTEIN_START_FEMALE =
+    GRAMS_PER_POUND_FEMALE.start();
+  private static final double PROTEIN_OUTPUT_MALE =
+    GRAMS_PER_POUND_MALE.output();
+  private static final double PROTEIN_OUTPUT_FEMALE =
+    GRAMS_PER_POUND_FEMALE.output();
+  private static final double PROTEIN_SLOPE_MALE =
+    GRAMS_PER_POUND_MALE.slope();
+  private static final double PROTEIN_SLOPE_FEMALE =
+    GRAMS_PER_POUND_FEMALE.slope();
+
+  private static final double FAT_START_MALE =
+    FAT_COEFFICIENT_MALE.start();
+  private static final double FAT_START_FEMALE =
+    FAT_COEFFICIENT_FEMALE.start();
+  private static final double FAT_OUTPUT_MALE =
+    FAT_COEFFICIENT_MALE.output();
+  private static final double FAT_OUTPUT_FEMALE =
+    FAT_COEFFICIENT_FEMALE.output();
+  private static final double FAT_SLOPE_MALE =
+    FAT_COEFFICIENT_MALE.slope();
+  private static final double FAT_SLOPE_FEMALE =
+    FAT_COEFFICIENT_FEMALE.slope();
+  private static final double FAT_LOW_MALE =
+    FAT_COEFFICIENT_MALE.lowest();
+  private static final double FAT_LOW_FEMALE =
+    FAT_COEFFICIENT_FEMALE.lowest();
+  private static final double FAT_HIGH_MALE =
+    FAT_COEFFICIENT_MALE.highest();
+  private static final double FAT_HIGH_FEMALE =
+    FAT_COEFFICIENT_FEMALE.highest();
+
+  private BodyMacroBatchEstimates()
+  {
+
+  }
+
+  /**
+   * Estimate the macronutrients required for every body in {@code input},
+   * writing the results to the same indices in {@code output}.
+   *
+   * @param input  The bodies
+   * @param output The output estimates
+   *
+   * @see #estimateFor(BodyDefinitionColumns, BodyMacrosColumns, int, int)
+   */
+
+  public static void estimateFor(
+    final BodyDefinitionColumns input,
+    final BodyMacrosColumns output)
+  {
+    Objects.requireNonNull(input, "input");
+    estimateFor(input, output, 0, input.size());
+  }
+
+  /**
+   * Estimate the macronutrients required for the {@code count} bodies in
+   * {@code input} starting at {@code offset}, writing the results to the same
+   * indices in {@code output}.
+   *
+   * @param input  The bodies
+   * @param output The output estimates
+   * @param offset The index of the first body
+   * @param count  The number of bodies
+   */
+
+  public static void estimateFor(
+    final BodyDefinitionColumns input,
+    final BodyMacrosColumns output,
+    final int offset,
+    final int count)
+  {
+    Objects.requireNonNull(input, "input");
+    Objects.requireNonNull(output, "output");
+    Objects.checkFromIndexSize(offset, count, input.size());
+    Objects.checkFromIndexSize(offset, count, output.size());
+
+    BodyMacroBatchSupport.decodeAndCheck(input, output, offset, count);
+    estimateCalories(input, output, offset, count);
+    estimateProtein(input, output, offset, count);
+    estimateFatAndCarbohydrates(input, output, offset, count);
+  }
+
+  /*
+   * The remaining passes perform their operations in exactly the same order
+   * as the scalar estimation functions, so that the results are bit-for-bit
+   * identical. Gender-specific constants are selected by blending with the
+   * gender ordinal (0 for MALE, 1 for FEMALE) rather than by branching;
+   * multiplying by exactly zero or one is exact.
+   *
+   * The work is split into several short loops rather than one long one:
+   * C2 only unrolls (and therefore only vectorizes) loops with small bodies.
+   */
+
+  private static void estimateCalories(
+    final BodyDefinitionColumns input,
+    final BodyMacrosColumns output,
+    final int offset,
+    final int count)
+  {
+    final double[] heights = input.heightMetres();
+    final double[] weights = input.weightKilograms();
+    final double[] ages = input.ageYears();
+    final double[] adjustments = input.caloricAdjustments();
+    final double[] genders = output.fatGrams();
+    final double[] calories = output.calories();
+
+    final int end = offset + count;
+    for (int index = offset; index < end; ++index) {
+      final double g = genders[index];
+      final double m = 1.0 - g;
+      final double bmr =
+        MifflinStJeor.basalMetabolicRate(
+          MifflinStJeor.MALE_CONSTANT * m + MifflinStJeor.FEMALE_CONSTANT * g,
+          heights[index],
+          weights[index],
+          ages[index]
+        );
+
+      calories[index] = (bmr * calories[index]) * adjustments[index];
+    }
+  }
+
+  private static void estimateProtein(
+    final BodyDefinitionColumns input,
+    final BodyMacrosColumns output,
+    final int offset,
+    final int count)
+  {
+    final double[] weights = input.weightKilograms();
+    final double[] fat = input.bodyFatCoefficients();
+    final double[] genders = output.fatGrams();
+    final double[] protein = output.proteinGrams();
+
+    final int end = offset + count;
+    for (int index = offset; index < end; ++index) {
+      final double g = genders[index];
+      final double m = 1.0 - g;
+      final double f = fat[index];
+      final double start =
+        PROTEIN_START_MALE * m + PROTEIN_START_FEMALE * g;
+      final double slope =
+        PROTEIN_SLOPE_MALE * m + PROTEIN_SLOPE_FEMALE * g;
+      final double gramsPerPound =
+        (PROTEIN_OUTPUT_MALE * m + PROTEIN_OUTPUT_FEMALE * g)
+          + slope * (f * 100.0 - start);
+
+      protein[index] =
+        Math.ceil(
+          (weights[index] * (1.0 - f))
+            * (gramsPerPound * POUNDS_PER_KILOGRAM));
+    }
+  }
+
+  private static void estimateFatAndCarbohydrates(
+    final BodyDefinitionColumns input,
+    final BodyMacrosColumns output,
+    final int offset,
+    final int count)
+  {
+    final double[] fat = input.bodyFatCoefficients();
+    final double[] calories = output.calories();
+    final double[] protein = output.proteinGrams();
+    final double[] genders = output.fatGrams();
+    final var sink = new ColumnSink(output);
+
+    final int end = offset + count;
+    for (int index = offset; index < end; ++index) {
+      final double g = genders[index];
+      final double m = 1.0 - g;
+      final double start =
+        FAT_START_MALE * m + FAT_START_FEMALE * g;
+      final double slope =
+        FAT_SLOPE_MALE * m + FAT_SLOPE_FEMALE * g;
+      final double fatCoefficient =
+        Clamp.clamp(
+          FAT_LOW_MALE * m + FAT_LOW_FEMALE * g,
+          FAT_HIGH_MALE * m + FAT_HIGH_FEMALE * g,
+          (FAT_OUTPUT_MALE * m + FAT_OUTPUT_FEMALE * g)
+            + slope * (fat[index] * 100.0 - start));
+
+      sink.index = index;
+      BodyMacroEstimates.divideCalories(
+        calories[index],
+        protein[index],
+        fatCoefficient,
+        sink
+      );
+    }
+  }
+
+  /**
+   * A sink that writes a single row of a set of output columns.
+   */
+
+  private static final class ColumnSink implements BodyMacroSinkType
+  {
+    private final double[] calories;
+    private final double[] proteinGrams;
+    private final double[] fatGrams;
+    private final double[] carbohydrateGrams;
+    private int index;
+
+    ColumnSink(
+      final BodyMacrosColumns output)
+    {
+      this.calories = output.calories();
+      this.proteinGrams = output.proteinGrams();
+      this.fatGrams = output.fatGrams();
+      this.carbohydrateGrams = output.carbohydrateGrams();
+    }
+
+    @Override
+    public void receive(
+      final double inCalories,
+      final double inProteinGrams,
+      final double inFatGrams,
+      final double inCarbohydrateGrams)
+    {
+      this.calories[this.index] = inCalories;
+      this.proteinGrams[this.index] = inProteinGrams;
+      this.fatGrams[this.index] = inFatGrams;
+      this.carbohydrateGrams[this.index] = inCarbohydrateGrams;
+    }
+  }
+}
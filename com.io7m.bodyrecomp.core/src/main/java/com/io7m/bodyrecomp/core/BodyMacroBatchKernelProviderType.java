@@ -0,0 +1,41 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.bodyrecomp.core;
+
+import java.util.Optional;
+
+/**
+ * <p>A provider of batch kernels, registered with {@link java.util.ServiceLoader}.</p>
+ *
+ * <p>Kernels frequently depend on optional platform features (such as
+ * incubator modules or particular instruction sets). Providers are expected
+ * to check for such features without loading any classes that depend upon
+ * them, and to return nothing if the features are unavailable.</p>
+ *
+ * @see BodyMacroBatchKernels#best()
+ */
+
+public interface BodyMacroBatchKernelProviderType
+{
+  /**
+   * Create a kernel, if the current platform supports it.
+   *
+   * @return A kernel, or nothing if the kernel is unsupported
+   */
+
+  Optional<BodyMacroBatchKernelType> create();
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.bodyrecomp.core;
+
+/**
+ * <p>A kernel that estimates macronutrients for many bodies at once.</p>
+ *
+ * <p>Kernels must produce exactly the same results as
+ * {@link BodyMacroBatchEstimates}, and must be safe to use from multiple
+ * threads at once.</p>
+ *
+ * @see BodyMacroBatchKernels
+ */
+
+public interface BodyMacroBatchKernelType
+{
+  /**
+   * @return A short, human-readable name for the kernel
+   */
+
+  String name();
+
+  /**
+   * Estimate the macronutrients required for the {@code count} bodies in
+   * {@code input} starting at {@code offset}, writing the results to the same
+   * indices in {@code output}.
+   *
+   * @param input  The bodies
+   * @param output The output estimates
+   * @param offset The index of the first body
+   * @param count  The number of bodies
+   */
+
+  void estimateFor(
+    BodyDefinitionColumns input,
+    BodyMacrosColumns output,
+    int offset,
+    int count);
+
+  /**
+   * Estimate the macronutrients required for every body in {@code input},
+   * writing the results to the same indices in {@code output}.
+   *
+   * @param input  The bodies
+   * @param output The output estimates
+   */
+
+  default void estimateFor(
+    final BodyDefinitionColumns input,
+    final BodyMacrosColumns output)
+  {
+    this.estimateFor(input, output, 0, input.size());
+  }
+}
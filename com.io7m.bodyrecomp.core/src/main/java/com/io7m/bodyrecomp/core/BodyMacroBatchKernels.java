@@ -0,0 +1,62 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.bodyrecomp.core;
+
+import java.util.ServiceLoader;
+
+/**
+ * Functions to obtain batch kernels.
+ */
+
+public final class BodyMacroBatchKernels
+{
+  private BodyMacroBatchKernels()
+  {
+
+  }
+
+  /**
+   * @return The portable scalar kernel, which is always available
+   */
+
+  public static BodyMacroBatchKernelType scalar()
+  {
+    return BodyMacroScalarBatchKernel.INSTANCE;
+  }
+
+  /**
+   * Find the first kernel provided by a {@link BodyMacroBatchKernelProviderType}
+   * registered with {@link ServiceLoader} that supports the current platform.
+   * If no such kernel exists, return the {@link #scalar()} kernel.
+   *
+   * @return The best available kernel
+   */
+
+  public static BodyMacroBatchKernelType best()
+  {
+    final var providers =
+      ServiceLoader.load(BodyMacroBatchKernelProviderType.class);
+
+    for (final var provider : providers) {
+      final var kernelOpt = provider.create();
+      if (kernelOpt.isPresent()) {
+        return kernelOpt.get();
+      }
+    }
+    return scalar();
+  }
+}
@@ -0,0 +1,588 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.bodyrecomp.core;
+
+import tech.units.indriya.quantity.Quantities;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.io7m.bodyrecomp.core.BodyUnits.KILOGRAM;
+import static com.io7m.bodyrecomp.core.BodyUnits.METRE;
+import static com.io7m.bodyrecomp.core.BodyUnits.YEAR;
+
+/**
+ * <p>A bounded, memoizing cache of macronutrient estimates.</p>
+ *
+ * <p>Estimates are keyed by the primitive values of a body definition
+ * (the gender and activity ordinals and the raw bits of the numeric
+ * fields), so lookups never call the comparatively expensive
+ * {@code equals} and {@code hashCode} methods of the underlying
+ * quantities.</p>
+ *
+ * <p>The cache is divided into a number of independently locked segments,
+ * so concurrent requests only contend when they happen to select the
+ * same segment. Estimates are computed outside of any lock; if two threads
+ * miss on the same key at the same time, both compute the (identical)
+ * estimate and the first to finish is retained.</p>
+ */
+
+public final class BodyMacroEstimateCache
+{
+  private final BodyMacroEstimateCacheConfiguration configuration;
+  private final Segment[] segments;
+  private final int segmentMask;
+  private final LongAdder hits;
+  private final LongAdder misses;
+  private final LongAdder evictions;
+
+  private BodyMacroEstimateCache(
+    final BodyMacroEstimateCacheConfiguration inConfiguration)
+  {
+    this.configuration =
+      Objects.requireNonNull(inConfiguration, "configuration");
+
+    this.hits = new LongAdder();
+    this.misses = new LongAdder();
+    this.evictions = new LongAdder();
+
+    final int maximumSize = this.configuration.maximumSize();
+    final int segmentCount =
+      Integer.highestOneBit(
+        Math.min(this.configuration.concurrencyLevel(), maximumSize));
+
+    this.segmentMask = segmentCount - 1;
+    this.segments = new Segment[segmentCount];
+    for (int index = 0; index < segmentCount; ++index) {
+      final int capacity =
+        maximumSize / segmentCount
+          + (index < maximumSize % segmentCount ? 1 : 0);
+      this.segments[index] =
+        createSegment(this.configuration.evictionPolicy(), capacity);
+    }
+  }
+
+  private static Segment createSegment(
+    final BodyMacroEstimateCacheEvictionPolicy policy,
+    final int capacity)
+  {
+    return switch (policy) {
+      case LEAST_RECENTLY_USED -> new SegmentLRU(capacity);
+      case LEAST_FREQUENTLY_USED -> new SegmentLFU(capacity);
+    };
+  }
+
+  /**
+   * Create a new cache.
+   *
+   * @param configuration The cache configuration
+   *
+   * @return A new cache
+   */
+
+  public static BodyMacroEstimateCache create(
+    final BodyMacroEstimateCacheConfiguration configuration)
+  {
+    return new BodyMacroEstimateCache(configuration);
+  }
+
+  /**
+   * @return The cache configuration
+   */
+
+  public BodyMacroEstimateCacheConfiguration configuration()
+  {
+    return this.configuration;
+  }
+
+  /**
+   * Estimate macronutrients for the given body, returning a cached estimate
+   * if one exists.
+   *
+   * @param body The body
+   *
+   * @return The estimated macronutrients
+   *
+   * @see BodyMacroEstimates#estimateFor(BodyDefinition, BodyMacroEstimateOptions)
+   */
+
+  public BodyMacros estimateFor(
+    final BodyDefinition body)
+  {
+    Objects.requireNonNull(body, "body");
+
+    final var key =
+      new Key(
+        body.gender(),
+        body.activity(),
+        body.bodyHeight().getValue().doubleValue(),
+        body.bodyWeight().getValue().doubleValue(),
+        body.age().getValue().doubleValue(),
+        body.bodyFatCoefficient().value(),
+        body.caloricAdjustment().value()
+      );
+
+    final var segment = this.segmentFor(key);
+    final var existing = segment.get(key);
+    if (existing != null) {
+      this.hits.increment();
+      return existing;
+    }
+
+    this.misses.increment();
+    return this.insert(
+      segment,
+      key,
+      BodyMacroEstimates.estimateFor(body, this.configuration.options()));
+  }
+
+  /**
+   * Estimate macronutrients for a body with the given values, returning a
+   * cached estimate if one exists. A body definition is only constructed
+   * if no estimate is cached.
+   *
+   * @param gender             The biological gender
+   * @param activity           The activity level
+   * @param height             The height in metres
+   * @param weight             The weight in kilograms
+   * @param age                The age in years
+   * @param bodyFatCoefficient The body fat coefficient
+   * @param caloricAdjustment  The caloric adjustment coefficient
+   *
+   * @return The estimated macronutrients
+   */
+
+  public BodyMacros estimateFor(
+    final BiologicalGender gender,
+    final ActivityCoefficient activity,
+    final double height,
+    final double weight,
+    final double age,
+    final double bodyFatCoefficient,
+    final double caloricAdjustment)
+  {
+    Objects.requireNonNull(gender, "gender");
+    Objects.requireNonNull(activity, "activity");
+
+    final var key =
+      new Key(
+        gender,
+        activity,
+        height,
+        weight,
+        age,
+        bodyFatCoefficient,
+        caloricAdjustment
+      );
+
+    final var segment = this.segmentFor(key);
+    final var existing = segment.get(key);
+    if (existing != null) {
+      this.hits.increment();
+      return existing;
+    }
+
+    this.misses.increment();
+
+    final var body =
+      BodyDefinition.builder()
+        .setGender(gender)
+        .setActivity(activity)
+        .setBodyHeight(Quantities.getQuantity(Double.valueOf(height), METRE))
+        .setBodyWeight(
+          Quantities.getQuantity(Double.valueOf(weight), KILOGRAM))
+        .setAge(Quantities.getQuantity(Double.valueOf(age), YEAR))
+        .setBodyFatCoefficient(NormalCoefficient.of(bodyFatCoefficient))
+        .setCaloricAdjustment(GeneralCoefficient.of(caloricAdjustment))
+        .build();
+
+    return this.insert(
+      segment,
+      key,
+      BodyMacroEstimates.estimateFor(body, this.configuration.options()));
+  }
+
+  private BodyMacros insert(
+    final Segment segment,
+    final Key key,
+    final BodyMacros macros)
+  {
+    final var result = segment.putIfAbsent(key, macros);
+    if (result.evicted) {
+      this.evictions.increment();
+    }
+    return result.value;
+  }
+
+  private Segment segmentFor(
+    final Key key)
+  {
+    /*
+     * Integer-valued doubles have mostly zero low bits, so the key hash is
+     * mixed thoroughly before selecting a segment.
+     */
+
+    int hash = key.hashCode();
+    hash = (hash ^ (hash >>> 16)) * 0x85ebca6b;
+    hash = (hash ^ (hash >>> 13)) * 0xc2b2ae35;
+    hash = hash ^ (hash >>> 16);
+    return this.segments[hash & this.segmentMask];
+  }
+
+  /**
+   * @return A snapshot of the cache statistics
+   */
+
+  public BodyMacroEstimateCacheStatistics statistics()
+  {
+    long size = 0L;
+    for (final var segment : this.segments) {
+      size += segment.size();
+    }
+
+    return BodyMacroEstimateCacheStatistics.builder()
+      .setHits(this.hits.sum())
+      .setMisses(this.misses.sum())
+      .setEvictions(this.evictions.sum())
+      .setSize(size)
+      .build();
+  }
+
+  /**
+   * Remove all cached estimates. The statistics are not reset.
+   */
+
+  public void clear()
+  {
+    for (final var segment : this.segments) {
+      segment.clear();
+    }
+  }
+
+  @Override
+  public String toString()
+  {
+    return String.format(
+      "[BodyMacroEstimateCache 0x%s]",
+      Long.toUnsignedString(System.identityHashCode(this), 16)
+    );
+  }
+
+  private static final class Key
+  {
+    private final int enums;
+    private final long height;
+    private final long weight;
+    private final long age;
+    private final long bodyFat;
+    private final long adjustment;
+    private final int hash;
+
+    Key(
+      final BiologicalGender gender,
+      final ActivityCoefficient activity,
+      final double inHeight,
+      final double inWeight,
+      final double inAge,
+      final double inBodyFat,
+      final double inAdjustment)
+    {
+      this.enums = (gender.ordinal() << 8) | activity.ordinal();
+      this.height = Double.doubleToLongBits(inHeight);
+      this.weight = Double.doubleToLongBits(inWeight);
+      this.age = Double.doubleToLongBits(inAge);
+      this.bodyFat = Double.doubleToLongBits(inBodyFat);
+      this.adjustment = Double.doubleToLongBits(inAdjustment);
+
+      int h = this.enums;
+      h = 31 * h + Long.hashCode(this.height);
+      h = 31 * h + Long.hashCode(this.weight);
+      h = 31 * h + Long.hashCode(this.age);
+      h = 31 * h + Long.hashCode(this.bodyFat);
+      h = 31 * h + Long.hashCode(this.adjustment);
+      this.hash = h;
+    }
+
+    @Override
+    public boolean equals(
+      final Object other)
+    {
+      if (this == other) {
+        return true;
+      }
+      if (!(other instanceof Key)) {
+        return false;
+      }
+      final var k = (Key) other;
+      return this.enums == k.enums
+             && this.sameNumbers(k);
+    }
+
+    private boolean sameNumbers(
+      final Key k)
+    {
+      if (this.height != k.height || this.weight != k.weight) {
+        return false;
+      }
+      return this.age == k.age
+             && this.bodyFat == k.bodyFat
+             && this.adjustment == k.adjustment;
+    }
+
+    @Override
+    public int hashCode()
+    {
+      return this.hash;
+    }
+  }
+
+  private static final class InsertResult
+  {
+    private final BodyMacros value;
+    private final boolean evicted;
+
+    InsertResult(
+      final BodyMacros inValue,
+      final boolean inEvicted)
+    {
+      this.value = inValue;
+      this.evicted = inEvicted;
+    }
+  }
+
+  private abstract static class Segment
+  {
+    Segment()
+    {
+
+    }
+
+    abstract BodyMacros get(Key key);
+
+    abstract InsertResult putIfAbsent(
+      Key key,
+      BodyMacros value);
+
+    abstract int size();
+
+    abstract void clear();
+  }
+
+  /**
+   * A segment that evicts the least recently used entry, using an
+   * access-ordered map.
+   */
+
+  private static final class SegmentLRU extends Segment
+  {
+    private final int capacity;
+    private final LinkedHashMap<Key, BodyMacros> entries;
+
+    SegmentLRU(
+      final int inCapacity)
+    {
+      this.capacity = inCapacity;
+      this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    @Override
+    synchronized BodyMacros get(
+      final Key key)
+    {
+      return this.entries.get(key);
+    }
+
+    @Override
+    synchronized InsertResult putIfAbsent(
+      final Key key,
+      final BodyMacros value)
+    {
+      final var existing = this.entries.get(key);
+      if (existing != null) {
+        return new InsertResult(existing, false);
+      }
+
+      boolean evicted = false;
+      if (this.entries.size() >= this.capacity) {
+        final var eldest = this.entries.keySet().iterator();
+        eldest.next();
+        eldest.remove();
+        evicted = true;
+      }
+
+      this.entries.put(key, value);
+      return new InsertResult(value, evicted);
+    }
+
+    @Override
+    synchronized int size()
+    {
+      return this.entries.size();
+    }
+
+    @Override
+    synchronized void clear()
+    {
+      this.entries.clear();
+    }
+  }
+
+  /**
+   * A segment that evicts infrequently used entries. Each entry carries a
+   * saturating use count and occupies a fixed slot. On eviction, a few slots
+   * spread evenly across the segment are sampled, starting at a clock hand
+   * that advances by one slot per eviction, and the sampled entry with the
+   * lowest count is evicted. The new entry takes over the evicted slot. All
+   * counts are halved periodically, so that entries that were popular long
+   * ago eventually become eligible for eviction.
+   */
+
+  private static final class SegmentLFU extends Segment
+  {
+    private static final int SAMPLES = 8;
+    private static final int MAXIMUM_FREQUENCY = 255;
+    private static final int AGING_PERIOD_PER_ENTRY = 8;
+
+    private final int capacity;
+    private final int samples;
+    private final int stride;
+    private final HashMap<Key, EntryLFU> entries;
+    private final ArrayList<EntryLFU> slots;
+    private final long agingPeriod;
+    private long operations;
+    private int hand;
+
+    SegmentLFU(
+      final int inCapacity)
+    {
+      this.capacity = inCapacity;
+      this.samples = Math.min(SAMPLES, inCapacity);
+      this.stride = inCapacity / this.samples;
+      this.entries = new HashMap<>();
+      this.slots = new ArrayList<>();
+      this.agingPeriod = (long) inCapacity * AGING_PERIOD_PER_ENTRY;
+    }
+
+    private void age()
+    {
+      ++this.operations;
+      if (this.operations >= this.agingPeriod) {
+        this.operations = 0L;
+        for (final var entry : this.slots) {
+          entry.frequency = entry.frequency >>> 1;
+        }
+      }
+    }
+
+    @Override
+    synchronized BodyMacros get(
+      final Key key)
+    {
+      this.age();
+
+      final var entry = this.entries.get(key);
+      if (entry == null) {
+        return null;
+      }
+      entry.frequency = Math.min(MAXIMUM_FREQUENCY, entry.frequency + 1);
+      return entry.value;
+    }
+
+    @Override
+    synchronized InsertResult putIfAbsent(
+      final Key key,
+      final BodyMacros value)
+    {
+      final var existing = this.entries.get(key);
+      if (existing != null) {
+        return new InsertResult(existing.value, false);
+      }
+
+      final var entry = new EntryLFU(key, value);
+      final boolean evicted = this.slots.size() >= this.capacity;
+      if (evicted) {
+        this.slots.set(this.evictOne(), entry);
+      } else {
+        this.slots.add(entry);
+      }
+
+      this.entries.put(key, entry);
+      return new InsertResult(value, evicted);
+    }
+
+    /**
+     * Sample slots spread across the whole segment, so that every entry is
+     * a candidate regardless of its age, and so that a hot set smaller than
+     * the sample count can never occupy every sampled slot.
+     *
+     * @return The index of the slot that was vacated
+     */
+
+    private int evictOne()
+    {
+      int victim = this.hand;
+      int position = this.hand;
+      for (int index = 1; index < this.samples; ++index) {
+        position += this.stride;
+        if (position >= this.capacity) {
+          position -= this.capacity;
+        }
+        if (this.slots.get(position).frequency
+            < this.slots.get(victim).frequency) {
+          victim = position;
+        }
+      }
+
+      this.hand = this.hand + 1 == this.capacity ? 0 : this.hand + 1;
+      this.entries.remove(this.slots.get(victim).key);
+      return victim;
+    }
+
+    @Override
+    synchronized int size()
+    {
+      return this.entries.size();
+    }
+
+    @Override
+    synchronized void clear()
+    {
+      this.entries.clear();
+      this.slots.clear();
+      this.hand = 0;
+    }
+  }
+
+  private static final class EntryLFU
+  {
+    private final Key key;
+    private final BodyMacros value;
+    private int frequency;
+
+    EntryLFU(
+      final Key inKey,
+      final BodyMacros inValue)
+    {
+      this.key = inKey;
+      this.value = inValue;
+      this.frequency = 0;
+    }
+  }
+}
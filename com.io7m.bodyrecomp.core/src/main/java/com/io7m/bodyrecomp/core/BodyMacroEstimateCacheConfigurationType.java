@@ -0,0 +1,93 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.bodyrecomp.core;
+
+import com.io7m.immutables.styles.ImmutablesStyleType;
+import com.io7m.jaffirm.core.Preconditions;
+import org.immutables.value.Value;
+
+/**
+ * The configuration of a {@link BodyMacroEstimateCache}.
+ */
+
+@ImmutablesStyleType
+@Value.Immutable
+public interface BodyMacroEstimateCacheConfigurationType
+{
+  /**
+   * @return The maximum number of cached estimates
+   */
+
+  @Value.Default
+  default int maximumSize()
+  {
+    return 4096;
+  }
+
+  /**
+   * @return The policy used to evict entries when the cache is full
+   */
+
+  @Value.Default
+  default BodyMacroEstimateCacheEvictionPolicy evictionPolicy()
+  {
+    return BodyMacroEstimateCacheEvictionPolicy.LEAST_RECENTLY_USED;
+  }
+
+  /**
+   * The cache is divided into independently locked segments, and the number
+   * of segments is the largest power of two no greater than both the
+   * concurrency level and {@link #maximumSize()}.
+   *
+   * @return The expected number of threads using the cache concurrently
+   */
+
+  @Value.Default
+  default int concurrencyLevel()
+  {
+    return 16;
+  }
+
+  /**
+   * @return The options used to produce estimates
+   */
+
+  @Value.Default
+  default BodyMacroEstimateOptions options()
+  {
+    return BodyMacroEstimateOptions.builder().build();
+  }
+
+  /**
+   * Check preconditions for the type.
+   */
+
+  @Value.Check
+  default void checkPreconditions()
+  {
+    Preconditions.checkPreconditionI(
+      this.maximumSize(),
+      this.maximumSize() > 0,
+      s -> "Maximum size must be positive"
+    );
+    Preconditions.checkPreconditionI(
+      this.concurrencyLevel(),
+      this.concurrencyLevel() > 0,
+      c -> "Concurrency level must be positive"
+    );
+  }
+}
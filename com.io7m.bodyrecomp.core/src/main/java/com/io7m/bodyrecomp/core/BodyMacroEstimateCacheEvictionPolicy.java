@@ -0,0 +1,40 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.bodyrecomp.core;
+
+/**
+ * The policy used to choose entries to evict from a full
+ * {@link BodyMacroEstimateCache}.
+ */
+
+public enum BodyMacroEstimateCacheEvictionPolicy
+{
+  /**
+   * Evict the entry that was least recently used.
+   */
+
+  LEAST_RECENTLY_USED,
+
+  /**
+   * Evict an entry that has been used infrequently. The cache samples a
+   * few entries spread across the cache and evicts the one with the lowest
+   * (decaying) use count, so entries that are requested repeatedly survive bursts of
+   * one-off requests that would flush a purely recency-based cache.
+   */
+
+  LEAST_FREQUENTLY_USED
+}
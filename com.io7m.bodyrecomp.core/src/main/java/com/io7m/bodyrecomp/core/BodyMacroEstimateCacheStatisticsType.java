@@ -0,0 +1,53 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.bodyrecomp.core;
+
+import com.io7m.immutables.styles.ImmutablesStyleType;
+import org.immutables.value.Value;
+
+/**
+ * A snapshot of the statistics of a {@link BodyMacroEstimateCache}.
+ */
+
+@ImmutablesStyleType
+@Value.Immutable
+public interface BodyMacroEstimateCacheStatisticsType
+{
+  /**
+   * @return The number of requests answered from the cache
+   */
+
+  long hits();
+
+  /**
+   * @return The number of requests that required a new estimate
+   */
+
+  long misses();
+
+  /**
+   * @return The number of entries evicted to make room for new entries
+   */
+
+  long evictions();
+
+  /**
+   * @return The number of entries in the cache
+   */
+
+  long size();
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.bodyrecomp.core;
+
+import com.io7m.immutables.styles.ImmutablesStyleType;
+import org.immutables.value.Value;
+
+/**
+ * Options that affect the estimation of macronutrients.
+ *
+ * @see BodyMacroEstimates#estimateFor(BodyDefinition, BodyMacroEstimateOptions)
+ */
+
+@ImmutablesStyleType
+@Value.Immutable
+public interface BodyMacroEstimateOptionsType
+{
+  /**
+   * Explanations are comparatively expensive to produce, and callers that
+   * only require the estimated values can disable them. If explanations are
+   * disabled, {@link BodyMacros#explanations()} will be empty.
+   *
+   * @return {@code true} if explanations should be produced
+   */
+
+  @Value.Default
+  default boolean explanations()
+  {
+    return true;
+  }
+}
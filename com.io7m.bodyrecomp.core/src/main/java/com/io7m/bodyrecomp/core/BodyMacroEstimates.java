@@ -16,23 +16,71 @@
 
 package com.io7m.bodyrecomp.core;
 
-import com.io7m.bodyrecomp.core.internal.BRCoreMessages;
+import com.io7m.bodyrecomp.core.internal.BREstimateEvent;
+import com.io7m.jaffirm.core.Preconditions;
+import jdk.jfr.FlightRecorder;
 import tech.units.indriya.quantity.Quantities;
 
-import javax.measure.Quantity;
-import javax.measure.quantity.Energy;
-import javax.measure.quantity.Mass;
-import java.util.ArrayList;
 import java.util.Objects;
+import java.util.Optional;
 
-import static tech.units.indriya.unit.Units.GRAM;
+import static com.io7m.bodyrecomp.core.BodyMacroStage.BASAL_METABOLIC_RATE;
+import static com.io7m.bodyrecomp.core.BodyMacroStage.EXPLANATIONS;
+import static com.io7m.bodyrecomp.core.BodyMacroStage.FAT_COEFFICIENT;
+import static com.io7m.bodyrecomp.core.BodyMacroStage.MAINTENANCE_CALORIES;
+import static com.io7m.bodyrecomp.core.BodyMacroStage.PROTEIN;
+import static com.io7m.bodyrecomp.core.BodyMacroStage.RESULT;
+import static com.io7m.bodyrecomp.core.BodyUnits.GRAM;
 
 /**
- * Functions to estimate macronutrients for a given body.
+ * Functions to estimate macronutrients for a given body. The stages of
+ * each estimate are reported to the installed
+ * {@link BodyMacroInstrumentation}, and estimates of {@link BodyDefinition}
+ * values emit the (disabled by default) {@code com.io7m.bodyrecomp.Estimate}
+ * flight recorder event.
  */
 
 public final class BodyMacroEstimates
 {
+  /**
+   * The offset of the total number of calories within the output of
+   * {@link #estimateFor(BiologicalGender, ActivityCoefficient, double, double, double, double, double, double[], int)}.
+   */
+
+  public static final int OUTPUT_CALORIES = 0;
+
+  /**
+   * The offset of the number of grams of protein within the output of
+   * {@link #estimateFor(BiologicalGender, ActivityCoefficient, double, double, double, double, double, double[], int)}.
+   */
+
+  public static final int OUTPUT_PROTEIN_GRAMS = 1;
+
+  /**
+   * The offset of the number of grams of fat within the output of
+   * {@link #estimateFor(BiologicalGender, ActivityCoefficient, double, double, double, double, double, double[], int)}.
+   */
+
+  public static final int OUTPUT_FAT_GRAMS = 2;
+
+  /**
+   * The offset of the number of grams of carbohydrates within the output of
+   * {@link #estimateFor(BiologicalGender, ActivityCoefficient, double, double, double, double, double, double[], int)}.
+   */
+
+  public static final int OUTPUT_CARBOHYDRATE_GRAMS = 3;
+
+  /**
+   * The number of values written by
+   * {@link #estimateFor(BiologicalGender, ActivityCoefficient, double, double, double, double, double, double[], int)}.
+   */
+
+  public static final int OUTPUT_SIZE = 4;
+
+  private static final BodyMacroEstimateOptions DEFAULT_OPTIONS =
+    BodyMacroEstimateOptions.builder()
+      .build();
+
   private BodyMacroEstimates()
   {
 
@@ -49,203 +97,397 @@ public final class BodyMacroEstimates
   public static BodyMacros estimateFor(
     final BodyDefinition body)
   {
-    Objects.requireNonNull(body, "body");
-
-    final var messages =
-      BRCoreMessages.create();
-    final var explanations =
-      new ArrayList<String>();
-
-    final var bmrInput =
-      MifflinStJeorInput.builder()
-        .setAge(body.age())
-        .setBodyWeight(body.bodyWeight())
-        .setGender(body.gender())
-        .setHeight(body.bodyHeight())
-        .build();
+    return estimateFor(body, DEFAULT_OPTIONS);
+  }
 
-    final Quantity<Energy> bmr =
-      MifflinStJeor.basalMetabolicRate(bmrInput);
+  /**
+   * Estimate the macronutrients required for the given body.
+   *
+   * @param body    The body
+   * @param options The estimation options
+   *
+   * @return The set of macronutrients
+   */
 
-    explainMifflinStJeor(messages, explanations, bmrInput, bmr);
+  public static BodyMacros estimateFor(
+    final BodyDefinition body,
+    final BodyMacroEstimateOptions options)
+  {
+    Objects.requireNonNull(body, "body");
+    Objects.requireNonNull(options, "options");
 
-    final Quantity<Energy> maintenanceCalories =
-      MaintenanceCalories.maintenanceEstimate(bmr, body.activity());
+    final var event = beginEvent();
 
-    explainMaintenanceCalories(
-      messages,
-      explanations,
-      body.activity(),
-      maintenanceCalories
-    );
+    final var gender =
+      body.gender();
+    final var activity =
+      body.activity();
+    final var caloricAdjustment =
+      body.caloricAdjustment();
+    final double heightMetres =
+      body.bodyHeight().getValue().doubleValue();
+    final double weightKilograms =
+      body.bodyWeight().getValue().doubleValue();
+    final double ageYears =
+      body.age().getValue().doubleValue();
+    final double bodyFatCoefficient =
+      body.bodyFatCoefficient().value();
+    final double bodyFatPercentage =
+      bodyFatCoefficient * 100.0;
 
-    final Quantity<Energy> recompCalories =
-      maintenanceCalories.multiply(
-        Double.valueOf(body.caloricAdjustment().value())
+    long stageStart = BodyMacroInstrumentation.start();
+    final double bmr =
+      MifflinStJeor.basalMetabolicRate(
+        gender,
+        heightMetres,
+        weightKilograms,
+        ageYears
       );
+    BodyMacroInstrumentation.finish(BASAL_METABOLIC_RATE, stageStart);
 
-    explainRecompCalories(
-      messages,
-      explanations,
-      recompCalories,
-      body.caloricAdjustment()
-    );
+    stageStart = BodyMacroInstrumentation.start();
+    final double maintenanceCalories =
+      MaintenanceCalories.maintenanceEstimate(bmr, activity.coefficient());
+    final double recompCalories =
+      maintenanceCalories * caloricAdjustment.value();
+    BodyMacroInstrumentation.finish(MAINTENANCE_CALORIES, stageStart);
 
-    final DietaryProteinEstimate protein =
-      DietaryProteinEstimates.estimateFor(body);
-    final Quantity<Energy> proteinCalories =
-      protein.proteinCalories();
-
-    final DietaryFatEstimate fat =
-      DietaryFatEstimates.estimateFor(body);
-    final Quantity<Energy> fatCalories =
-      recompCalories.multiply(Double.valueOf(fat.fatCoefficient().value()));
-    final Quantity<Mass> fatGrams =
-      Quantities.getQuantity(
-        Double.valueOf(fatCalories.getValue().doubleValue() / 9.0),
-        GRAM
+    stageStart = BodyMacroInstrumentation.start();
+    final double proteinGramsPerKilogram =
+      DietaryProteinEstimates.gramsPerKilogram(
+        DietaryProteinEstimates.gramsPerPound(gender, bodyFatPercentage)
       );
-
-    final Quantity<Energy> carbohydrateCalories =
-      recompCalories.subtract(proteinCalories.add(fatCalories));
-    final Quantity<Mass> carbohydrateGrams =
-      Quantities.getQuantity(
-        Double.valueOf(carbohydrateCalories.getValue().doubleValue() / 4.0),
-        GRAM
+    final double proteinGrams =
+      DietaryProteinEstimates.proteinGrams(
+        weightKilograms,
+        bodyFatCoefficient,
+        proteinGramsPerKilogram
       );
+    BodyMacroInstrumentation.finish(PROTEIN, stageStart);
 
-    explainMacros(
-      messages,
-      explanations,
-      recompCalories,
-      protein,
-      fatCalories,
-      fatGrams,
-      carbohydrateCalories,
-      carbohydrateGrams
-    );
+    stageStart = BodyMacroInstrumentation.start();
+    final double fatCoefficient =
+      DietaryFatEstimates.fatCoefficient(gender, bodyFatPercentage);
+    BodyMacroInstrumentation.finish(FAT_COEFFICIENT, stageStart);
+
+    final var divided = new BodyMacrosMutable();
+    divideCalories(recompCalories, proteinGrams, fatCoefficient, divided);
 
-    return BodyMacros.builder()
-      .setExplanations(explanations)
-      .setCalories(recompCalories)
-      .setProteinGrams(protein.proteinGrams())
-      .setCarbohydrateGrams(carbohydrateGrams)
-      .setFatGrams(fatGrams)
+    final BodyMacroExplanation explanation;
+    if (options.explanations()) {
+      stageStart = BodyMacroInstrumentation.start();
+      explanation =
+        explain(
+          body,
+          bmr,
+          maintenanceCalories,
+          recompCalories,
+          proteinGramsPerKilogram,
+          divided
+        );
+      BodyMacroInstrumentation.finish(EXPLANATIONS, stageStart);
+    } else {
+      explanation = null;
+    }
+
+    stageStart = BodyMacroInstrumentation.start();
+    final var macros = BodyMacros.builder()
+      .setExplanation(Optional.ofNullable(explanation))
+      .setCalories(Quantities.getQuantity(
+        Double.valueOf(recompCalories),
+        BodyUnits.FOOD_CALORIE))
+      .setProteinGrams(Quantities.getQuantity(
+        Double.valueOf(divided.proteinGrams()),
+        GRAM))
+      .setCarbohydrateGrams(Quantities.getQuantity(
+        Double.valueOf(divided.carbohydrateGrams()),
+        GRAM))
+      .setFatGrams(Quantities.getQuantity(
+        Double.valueOf(divided.fatGrams()),
+        GRAM))
       .build();
+    BodyMacroInstrumentation.finish(RESULT, stageStart);
+
+    if (event != null) {
+      event.end();
+      if (event.shouldCommit()) {
+        event.setInputs(
+          gender.name(),
+          activity.name(),
+          heightMetres,
+          weightKilograms,
+          ageYears,
+          bodyFatCoefficient,
+          caloricAdjustment.value()
+        );
+        event.setExplanations(macros.explanations());
+        event.commit();
+      }
+    }
+    return macros;
   }
 
-  private static void explainMacros(
-    final BRCoreMessages messages,
-    final ArrayList<String> explanations,
-    final Quantity<Energy> recompCalories,
-    final DietaryProteinEstimate protein,
-    final Quantity<Energy> fatCalories,
-    final Quantity<Mass> fatGrams,
-    final Quantity<Energy> carbohydrateCalories,
-    final Quantity<Mass> carbohydrateGrams)
+  private static BodyMacroExplanation explain(
+    final BodyDefinition body,
+    final double bmr,
+    final double maintenanceCalories,
+    final double recompCalories,
+    final double proteinGramsPerKilogram,
+    final BodyMacrosMutable divided)
   {
-    explanations.add(
-      messages.format(
-        "explainMacros",
-        Integer.valueOf(recompCalories.getValue().intValue()),
-        protein.gramsPerKilogram(),
-        Integer.valueOf(protein.proteinCalories().getValue().intValue()),
-        Integer.valueOf(protein.proteinGrams().getValue().intValue()),
-        Integer.valueOf(fatCalories.getValue().intValue()),
-        Integer.valueOf(fatGrams.getValue().intValue()),
-        Integer.valueOf(carbohydrateCalories.getValue().intValue()),
-        Integer.valueOf(carbohydrateGrams.getValue().intValue())
-      )
-    );
-
-    explanations.add(
-      messages.format(
-        "explainSummary",
-        Integer.valueOf(recompCalories.getValue().intValue()),
-        Integer.valueOf(protein.proteinGrams().getValue().intValue()),
-        Integer.valueOf(fatGrams.getValue().intValue()),
-        Integer.valueOf(carbohydrateGrams.getValue().intValue())
-      )
-    );
+    return BodyMacroExplanation.builder()
+      .setGender(body.gender())
+      .setActivity(body.activity())
+      .setCaloricAdjustment(body.caloricAdjustment())
+      .setAgeYears((int) body.age().getValue().doubleValue())
+      .setHeightMetres(body.bodyHeight().getValue().doubleValue())
+      .setWeightKilograms((int) body.bodyWeight().getValue().doubleValue())
+      .setBasalMetabolicRate((int) bmr)
+      .setMaintenanceCalories((int) maintenanceCalories)
+      .setRecompCalories((int) recompCalories)
+      .setProteinGramsPerKilogram(proteinGramsPerKilogram)
+      .setProteinCalories((int) divided.proteinCalories())
+      .setProteinGrams((int) divided.proteinGrams())
+      .setFatCalories((int) divided.fatCalories())
+      .setFatGrams((int) divided.fatGrams())
+      .setCarbohydrateCalories((int) divided.carbohydrateCalories())
+      .setCarbohydrateGrams((int) divided.carbohydrateGrams())
+      .build();
   }
 
-  private static void explainRecompCalories(
-    final BRCoreMessages messages,
-    final ArrayList<String> explanations,
-    final Quantity<Energy> recompCalories,
-    final GeneralCoefficient caloricAdjustment)
+  /*
+   * Loading an event class initializes the flight recorder's metadata
+   * repository, which costs far more than an estimate. Nothing can be
+   * recorded before the flight recorder has been initialized, so the event
+   * class is not loaded until then.
+   */
+
+  private static BREstimateEvent beginEvent()
   {
-    explanations.add(
-      messages.format(
-        "explainRecompCalories",
-        caloricAdjustmentName(messages, caloricAdjustment),
-        Integer.valueOf(recompCalories.getValue().intValue())
-      )
-    );
+    if (FlightRecorder.isInitialized()) {
+      final var event = new BREstimateEvent();
+      event.begin();
+      return event;
+    }
+    return null;
   }
 
-  private static String caloricAdjustmentName(
-    final BRCoreMessages messages,
-    final GeneralCoefficient caloricAdjustment)
+  /**
+   * Estimate the macronutrients required for the given body. This is the
+   * primitive form of {@link #estimateFor(BodyDefinition)}: It produces
+   * exactly the same values, but allocates nothing, does not produce
+   * explanations, and writes the results to the given array at offsets
+   * {@code outputOffset + OUTPUT_CALORIES},
+   * {@code outputOffset + OUTPUT_PROTEIN_GRAMS},
+   * {@code outputOffset + OUTPUT_FAT_GRAMS}, and
+   * {@code outputOffset + OUTPUT_CARBOHYDRATE_GRAMS}. Calories are given
+   * in food calories, and all masses are given in grams.
+   *
+   * @param gender             The biological gender of the body
+   * @param activity           The activity coefficient of the body
+   * @param heightMetres       The height of the body in metres
+   * @param weightKilograms    The weight of the body in kilograms
+   * @param ageYears           The age of the body in years
+   * @param bodyFatCoefficient The body fat coefficient in the range {@code [0, 1]}
+   * @param caloricAdjustment  The caloric adjustment coefficient in the range {@code [0, ∞]}
+   * @param output             The output array
+   * @param outputOffset       The offset of the first output value
+   *
+   * @see #OUTPUT_SIZE
+   */
+
+  public static void estimateFor(
+    final BiologicalGender gender,
+    final ActivityCoefficient activity,
+    final double heightMetres,
+    final double weightKilograms,
+    final double ageYears,
+    final double bodyFatCoefficient,
+    final double caloricAdjustment,
+    final double[] output,
+    final int outputOffset)
   {
-    final var values = CaloricAdjustment.values();
-    for (final var value : values) {
-      if (value.coefficient().equals(caloricAdjustment)) {
-        return value.toString();
-      }
-    }
+    Objects.requireNonNull(gender, "gender");
+    Objects.requireNonNull(activity, "activity");
+    Objects.requireNonNull(output, "output");
+    Objects.checkFromIndexSize(outputOffset, OUTPUT_SIZE, output.length);
 
-    if (caloricAdjustment.asPercent() > 100.0) {
-      return messages.format(
-        "surplus",
-        Double.valueOf(caloricAdjustment.asPercent())
-      );
-    }
+    checkPrimitiveInputs(bodyFatCoefficient, caloricAdjustment);
 
-    if (caloricAdjustment.asPercent() < 100.0) {
-      return messages.format(
-        "deficit",
-        Double.valueOf(caloricAdjustment.asPercent())
+    final double recompCalories =
+      recompCalories(
+        gender,
+        activity,
+        heightMetres,
+        weightKilograms,
+        ageYears,
+        caloricAdjustment
       );
-    }
-
-    return messages.format(
-      "maintain",
-      Double.valueOf(caloricAdjustment.asPercent())
+    divideCalories(
+      recompCalories,
+      proteinGrams(gender, weightKilograms, bodyFatCoefficient),
+      fatCoefficient(gender, bodyFatCoefficient),
+      (calories, protein, fat, carbohydrates) -> {
+        output[outputOffset + OUTPUT_CALORIES] = calories;
+        output[outputOffset + OUTPUT_PROTEIN_GRAMS] = protein;
+        output[outputOffset + OUTPUT_FAT_GRAMS] = fat;
+        output[outputOffset + OUTPUT_CARBOHYDRATE_GRAMS] = carbohydrates;
+      }
     );
   }
 
-  private static void explainMaintenanceCalories(
-    final BRCoreMessages messages,
-    final ArrayList<String> explanations,
+  /**
+   * Estimate the macronutrients required for the given body. This is
+   * identical to
+   * {@link #estimateFor(BiologicalGender, ActivityCoefficient, double, double, double, double, double, double[], int)}
+   * except that the results are delivered to the given sink. Passing a
+   * reused {@link BodyMacrosMutable} allows estimates to be produced
+   * without allocating anything.
+   *
+   * @param gender             The biological gender of the body
+   * @param activity           The activity coefficient of the body
+   * @param heightMetres       The height of the body in metres
+   * @param weightKilograms    The weight of the body in kilograms
+   * @param ageYears           The age of the body in years
+   * @param bodyFatCoefficient The body fat coefficient in the range {@code [0, 1]}
+   * @param caloricAdjustment  The caloric adjustment coefficient in the range {@code [0, ∞]}
+   * @param sink               The receiver of the results
+   */
+
+  public static void estimateFor(
+    final BiologicalGender gender,
     final ActivityCoefficient activity,
-    final Quantity<Energy> maintenanceCalories)
+    final double heightMetres,
+    final double weightKilograms,
+    final double ageYears,
+    final double bodyFatCoefficient,
+    final double caloricAdjustment,
+    final BodyMacroSinkType sink)
   {
-    explanations.add(
-      messages.format(
-        "explainMaintenance",
+    Objects.requireNonNull(gender, "gender");
+    Objects.requireNonNull(activity, "activity");
+    Objects.requireNonNull(sink, "sink");
+
+    checkPrimitiveInputs(bodyFatCoefficient, caloricAdjustment);
+
+    final double recompCalories =
+      recompCalories(
+        gender,
         activity,
-        Double.valueOf(activity.coefficient()),
-        Integer.valueOf(maintenanceCalories.getValue().intValue())
-      )
+        heightMetres,
+        weightKilograms,
+        ageYears,
+        caloricAdjustment
+      );
+    divideCalories(
+      recompCalories,
+      proteinGrams(gender, weightKilograms, bodyFatCoefficient),
+      fatCoefficient(gender, bodyFatCoefficient),
+      sink
     );
   }
 
-  private static void explainMifflinStJeor(
-    final BRCoreMessages messages,
-    final ArrayList<String> explanations,
-    final MifflinStJeorInput bmrInput,
-    final Quantity<Energy> bmr)
+  /**
+   * Divide the calories required for recomposition between the
+   * macronutrients, and deliver the results to the given sink. Every scalar
+   * estimation path finishes here, so that all of them agree exactly.
+   *
+   * @param recompCalories The calories required for recomposition
+   * @param proteinGrams   The grams of protein
+   * @param fatCoefficient The fraction of the calories provided by fat
+   * @param sink           The receiver of the results
+   */
+
+  static void divideCalories(
+    final double recompCalories,
+    final double proteinGrams,
+    final double fatCoefficient,
+    final BodyMacroSinkType sink)
   {
-    explanations.add(
-      messages.format(
-        "explainBMR",
-        Integer.valueOf(bmrInput.age().getValue().intValue()),
-        Double.valueOf(bmrInput.height().getValue().doubleValue()),
-        Integer.valueOf(bmrInput.bodyWeight().getValue().intValue()),
-        bmrInput.gender(),
-        Integer.valueOf(bmr.getValue().intValue())
-      )
+    final double fatCalories =
+      recompCalories * fatCoefficient;
+    final double carbohydrateCalories =
+      recompCalories - (proteinGrams * 4.0 + fatCalories);
+
+    sink.receive(
+      recompCalories,
+      proteinGrams,
+      fatCalories / 9.0,
+      carbohydrateCalories / 4.0
     );
   }
+
+  static void checkPrimitiveInputs(
+    final double bodyFatCoefficient,
+    final double caloricAdjustment)
+  {
+    Preconditions.checkPreconditionD(
+      bodyFatCoefficient,
+      bodyFatCoefficient >= 0.0 && bodyFatCoefficient <= 1.0,
+      x -> "Body fat coefficient must be in the range [0, 1]"
+    );
+    Preconditions.checkPreconditionD(
+      caloricAdjustment,
+      caloricAdjustment >= 0.0,
+      x -> "Caloric adjustment must be in the range [0, ∞]"
+    );
+  }
+
+  private static double recompCalories(
+    final BiologicalGender gender,
+    final ActivityCoefficient activity,
+    final double heightMetres,
+    final double weightKilograms,
+    final double ageYears,
+    final double caloricAdjustment)
+  {
+    long stageStart = BodyMacroInstrumentation.start();
+    final double bmr =
+      MifflinStJeor.basalMetabolicRate(
+        gender,
+        heightMetres,
+        weightKilograms,
+        ageYears
+      );
+    BodyMacroInstrumentation.finish(BASAL_METABOLIC_RATE, stageStart);
+
+    stageStart = BodyMacroInstrumentation.start();
+    final double maintenanceCalories =
+      MaintenanceCalories.maintenanceEstimate(bmr, activity.coefficient());
+    final double recompCalories =
+      maintenanceCalories * caloricAdjustment;
+    BodyMacroInstrumentation.finish(MAINTENANCE_CALORIES, stageStart);
+    return recompCalories;
+  }
+
+  private static double proteinGrams(
+    final BiologicalGender gender,
+    final double weightKilograms,
+    final double bodyFatCoefficient)
+  {
+    final long stageStart = BodyMacroInstrumentation.start();
+    final double proteinGrams =
+      DietaryProteinEstimates.proteinGrams(
+        weightKilograms,
+        bodyFatCoefficient,
+        DietaryProteinEstimates.gramsPerKilogram(
+          DietaryProteinEstimates.gramsPerPound(
+            gender,
+            bodyFatCoefficient * 100.0)
+        )
+      );
+    BodyMacroInstrumentation.finish(PROTEIN, stageStart);
+    return proteinGrams;
+  }
+
+  private static double fatCoefficient(
+    final BiologicalGender gender,
+    final double bodyFatCoefficient)
+  {
+    final long stageStart = BodyMacroInstrumentation.start();
+    final double fatCoefficient =
+      DietaryFatEstimates.fatCoefficient(gender, bodyFatCoefficient * 100.0);
+    BodyMacroInstrumentation.finish(FAT_COEFFICIENT, stageStart);
+    return fatCoefficient;
+  }
 }
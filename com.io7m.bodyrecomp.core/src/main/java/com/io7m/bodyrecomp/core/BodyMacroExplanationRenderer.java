@@ -0,0 +1,185 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.bodyrecomp.core;
+
+import com.io7m.bodyrecomp.core.internal.BRCoreMessages;
+import com.io7m.bodyrecomp.strings.api.BRStringsArguments;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import static com.io7m.bodyrecomp.core.internal.BRCoreMessageKey.DEFICIT;
+import static com.io7m.bodyrecomp.core.internal.BRCoreMessageKey.EXPLAIN_BMR;
+import static com.io7m.bodyrecomp.core.internal.BRCoreMessageKey.EXPLAIN_MACROS;
+import static com.io7m.bodyrecomp.core.internal.BRCoreMessageKey.EXPLAIN_MAINTENANCE;
+import static com.io7m.bodyrecomp.core.internal.BRCoreMessageKey.EXPLAIN_RECOMP_CALORIES;
+import static com.io7m.bodyrecomp.core.internal.BRCoreMessageKey.EXPLAIN_SUMMARY;
+import static com.io7m.bodyrecomp.core.internal.BRCoreMessageKey.MAINTAIN;
+import static com.io7m.bodyrecomp.core.internal.BRCoreMessageKey.SURPLUS;
+
+/**
+ * A renderer of estimate explanations. Explanations are appended directly to
+ * a caller-supplied builder with primitive arguments, so a renderer that is
+ * reused for many explanations neither boxes arguments nor allocates
+ * intermediate strings. Instances are not safe for use from multiple
+ * threads.
+ */
+
+final class BodyMacroExplanationRenderer
+{
+  private static final Map<GeneralCoefficient, CaloricAdjustment> ADJUSTMENTS =
+    adjustments();
+
+  private final BRCoreMessages messages;
+  private final BRStringsArguments arguments;
+  private final StringBuilder adjustmentName;
+
+  BodyMacroExplanationRenderer(
+    final BRCoreMessages inMessages)
+  {
+    this.messages =
+      Objects.requireNonNull(inMessages, "inMessages");
+    this.arguments =
+      BRStringsArguments.create();
+    this.adjustmentName =
+      new StringBuilder(64);
+  }
+
+  private static Map<GeneralCoefficient, CaloricAdjustment> adjustments()
+  {
+    final var values = CaloricAdjustment.values();
+    final var map = new HashMap<GeneralCoefficient, CaloricAdjustment>(values.length * 2);
+    for (final var value : values) {
+      map.putIfAbsent(value.coefficient(), value);
+    }
+    return Map.copyOf(map);
+  }
+
+  void explain(
+    final StringBuilder out,
+    final BodyMacroExplanationType explanation,
+    final BodyMacroExplanationStep step)
+  {
+    switch (step) {
+      case BASAL_METABOLIC_RATE -> this.explainMifflinStJeor(out, explanation);
+      case MAINTENANCE_CALORIES -> this.explainMaintenanceCalories(out, explanation);
+      case RECOMP_CALORIES -> this.explainRecompCalories(out, explanation);
+      case MACROS -> this.explainMacros(out, explanation);
+      case SUMMARY -> this.explainSummary(out, explanation);
+    }
+  }
+
+  private void explainMifflinStJeor(
+    final StringBuilder out,
+    final BodyMacroExplanationType explanation)
+  {
+    this.arguments.clear()
+      .addLong(explanation.ageYears())
+      .addDouble(explanation.heightMetres())
+      .addLong(explanation.weightKilograms())
+      .addObject(explanation.gender())
+      .addLong(explanation.basalMetabolicRate());
+    this.messages.formatTo(out, EXPLAIN_BMR, this.arguments);
+  }
+
+  private void explainMaintenanceCalories(
+    final StringBuilder out,
+    final BodyMacroExplanationType explanation)
+  {
+    final var activity = explanation.activity();
+    this.arguments.clear()
+      .addObject(activity)
+      .addDouble(activity.coefficient())
+      .addLong(explanation.maintenanceCalories());
+    this.messages.formatTo(out, EXPLAIN_MAINTENANCE, this.arguments);
+  }
+
+  private void explainRecompCalories(
+    final StringBuilder out,
+    final BodyMacroExplanationType explanation)
+  {
+    this.adjustmentName.setLength(0);
+    this.caloricAdjustmentName(this.adjustmentName, explanation.caloricAdjustment());
+
+    this.arguments.clear()
+      .addObject(this.adjustmentName)
+      .addLong(explanation.recompCalories());
+    this.messages.formatTo(out, EXPLAIN_RECOMP_CALORIES, this.arguments);
+  }
+
+  private void explainMacros(
+    final StringBuilder out,
+    final BodyMacroExplanationType explanation)
+  {
+    this.arguments.clear()
+      .addLong(explanation.recompCalories())
+      .addDouble(explanation.proteinGramsPerKilogram())
+      .addLong(explanation.proteinCalories())
+      .addLong(explanation.proteinGrams())
+      .addLong(explanation.fatCalories())
+      .addLong(explanation.fatGrams())
+      .addLong(explanation.carbohydrateCalories())
+      .addLong(explanation.carbohydrateGrams());
+    this.messages.formatTo(out, EXPLAIN_MACROS, this.arguments);
+  }
+
+  private void explainSummary(
+    final StringBuilder out,
+    final BodyMacroExplanationType explanation)
+  {
+    this.arguments.clear()
+      .addLong(explanation.recompCalories())
+      .addLong(explanation.proteinGrams())
+      .addLong(explanation.fatGrams())
+      .addLong(explanation.carbohydrateGrams());
+    this.messages.formatTo(out, EXPLAIN_SUMMARY, this.arguments);
+  }
+
+  private void caloricAdjustmentName(
+    final StringBuilder out,
+    final GeneralCoefficient caloricAdjustment)
+  {
+    final var named = ADJUSTMENTS.get(caloricAdjustment);
+    if (named != null) {
+      out.append(named);
+      return;
+    }
+
+    final double percent = caloricAdjustment.asPercent();
+    this.arguments.clear()
+      .addDouble(percent);
+
+    if (percent > 100.0) {
+      this.messages.formatTo(out, SURPLUS, this.arguments);
+    } else if (percent < 100.0) {
+      this.messages.formatTo(out, DEFICIT, this.arguments);
+    } else {
+      this.messages.formatTo(out, MAINTAIN, this.arguments);
+    }
+  }
+
+  @Override
+  public String toString()
+  {
+    return String.format(
+      "[BodyMacroExplanationRenderer 0x%s]",
+      Long.toUnsignedString(System.identityHashCode(this), 16)
+    );
+  }
+}
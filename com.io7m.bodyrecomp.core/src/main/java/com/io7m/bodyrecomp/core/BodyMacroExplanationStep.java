@@ -0,0 +1,58 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.bodyrecomp.core;
+
+/**
+ * The steps of a macronutrient estimate that are explained, in the order in
+ * which they are presented.
+ *
+ * @see BodyMacroExplanation
+ */
+
+public enum BodyMacroExplanationStep
+{
+  /**
+   * The calculation of the basal metabolic rate.
+   */
+
+  BASAL_METABOLIC_RATE,
+
+  /**
+   * The calculation of maintenance calories from the activity level.
+   */
+
+  MAINTENANCE_CALORIES,
+
+  /**
+   * The application of the caloric adjustment.
+   */
+
+  RECOMP_CALORIES,
+
+  /**
+   * The division of calories between protein, fat, and carbohydrates.
+   */
+
+  MACROS,
+
+  /**
+   * A summary of the resulting macronutrients.
+   */
+
+  SUMMARY
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.bodyrecomp.core;
+
+import com.io7m.bodyrecomp.core.internal.BRCoreMessages;
+import com.io7m.immutables.styles.ImmutablesStyleType;
+import org.immutables.value.Value;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * The explanation of a macronutrient estimate. An explanation holds only the
+ * values that are presented in each {@link BodyMacroExplanationStep}, as
+ * they are presented (calories and grams are truncated to whole numbers),
+ * and is rendered to text on demand in a chosen locale. This keeps the
+ * retained size of an explanation to a few dozen bytes regardless of the
+ * length of the text.
+ */
+
+@ImmutablesStyleType
+@Value.Immutable
+public interface BodyMacroExplanationType
+{
+  /**
+   * @return The biological gender of the body
+   */
+
+  BiologicalGender gender();
+
+  /**
+   * @return The activity coefficient of the body
+   */
+
+  ActivityCoefficient activity();
+
+  /**
+   * @return The caloric adjustment coefficient
+   */
+
+  GeneralCoefficient caloricAdjustment();
+
+  /**
+   * @return The age of the body in whole years
+   */
+
+  int ageYears();
+
+  /**
+   * @return The height of the body in metres
+   */
+
+  double heightMetres();
+
+  /**
+   * @return The weight of the body in whole kilograms
+   */
+
+  int weightKilograms();
+
+  /**
+   * @return The basal metabolic rate in whole calories
+   */
+
+  int basalMetabolicRate();
+
+  /**
+   * @return The maintenance calories
+   */
+
+  int maintenanceCalories();
+
+  /**
+   * @return The total calories after the caloric adjustment
+   */
+
+  int recompCalories();
+
+  /**
+   * @return The grams of protein per kilogram of body weight
+   */
+
+  double proteinGramsPerKilogram();
+
+  /**
+   * @return The calories for protein
+   */
+
+  int proteinCalories();
+
+  /**
+   * @return The grams of protein
+   */
+
+  int proteinGrams();
+
+  /**
+   * @return The calories for fat
+   */
+
+  int fatCalories();
+
+  /**
+   * @return The grams of fat
+   */
+
+  int fatGrams();
+
+  /**
+   * @return The calories for carbohydrates
+   */
+
+  int carbohydrateCalories();
+
+  /**
+   * @return The grams of carbohydrates
+   */
+
+  int carbohydrateGrams();
+
+  /**
+   * Render a single step of the explanation.
+   *
+   * @param out    The output
+   * @param step   The step
+   * @param locale The locale used to format the text
+   */
+
+  default void renderTo(
+    final StringBuilder out,
+    final BodyMacroExplanationStep step,
+    final Locale locale)
+  {
+    Objects.requireNonNull(out, "out");
+    Objects.requireNonNull(step, "step");
+    Objects.requireNonNull(locale, "locale");
+
+    new BodyMacroExplanationRenderer(BRCoreMessages.create(locale))
+      .explain(out, this, step);
+  }
+
+  /**
+   * Render every step of the explanation.
+   *
+   * @param locale The locale used to format the text
+   *
+   * @return The text of each step, in step order
+   */
+
+  default List<String> render(
+    final Locale locale)
+  {
+    Objects.requireNonNull(locale, "locale");
+
+    final var renderer =
+      new BodyMacroExplanationRenderer(BRCoreMessages.create(locale));
+    final var steps =
+      BodyMacroExplanationStep.values();
+    final var text =
+      new StringBuilder(1024);
+    final var lines =
+      new ArrayList<String>(steps.length);
+
+    for (final var step : steps) {
+      text.setLength(0);
+      renderer.explain(text, this, step);
+      lines.add(text.toString());
+    }
+    return List.copyOf(lines);
+  }
+}
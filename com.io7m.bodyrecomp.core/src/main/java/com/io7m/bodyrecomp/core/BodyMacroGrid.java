@@ -0,0 +1,239 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.bodyrecomp.core;
+
+import java.util.Objects;
+
+/**
+ * <p>A matrix of macronutrient estimates for a single body, containing one
+ * cell for every combination of {@link ActivityCoefficient} and
+ * {@link CaloricAdjustment}. Calories are given in food calories, and all
+ * masses are given in grams.</p>
+ *
+ * <p>A grid is mutable so that it can be reused across bodies without
+ * allocation; it is not thread-safe.</p>
+ *
+ * @see BodyMacroGridEstimates
+ */
+
+public final class BodyMacroGrid
+{
+  private static final ActivityCoefficient[] ACTIVITIES =
+    ActivityCoefficient.values();
+  private static final CaloricAdjustment[] ADJUSTMENTS =
+    CaloricAdjustment.values();
+
+  /**
+   * The number of cells in a grid.
+   */
+
+  public static final int SIZE = ACTIVITIES.length * ADJUSTMENTS.length;
+
+  private final double[] calories;
+  private final double[] fatGrams;
+  private final double[] carbohydrateGrams;
+  private final CellSink cellSink;
+  private double basalMetabolicRate;
+  private double proteinGramsPerKilogram;
+  private double proteinGrams;
+  private double fatCoefficient;
+
+  /**
+   * Construct an empty grid.
+   */
+
+  public BodyMacroGrid()
+  {
+    this.calories = new double[SIZE];
+    this.fatGrams = new double[SIZE];
+    this.carbohydrateGrams = new double[SIZE];
+    this.cellSink = new CellSink();
+  }
+
+  static int cellIndex(
+    final int activity,
+    final int adjustment)
+  {
+    return activity * ADJUSTMENTS.length + adjustment;
+  }
+
+  private static int cellIndex(
+    final ActivityCoefficient activity,
+    final CaloricAdjustment adjustment)
+  {
+    Objects.requireNonNull(activity, "activity");
+    Objects.requireNonNull(adjustment, "adjustment");
+    return cellIndex(activity.ordinal(), adjustment.ordinal());
+  }
+
+  void setShared(
+    final double inBasalMetabolicRate,
+    final double inProteinGramsPerKilogram,
+    final double inProteinGrams,
+    final double inFatCoefficient)
+  {
+    this.basalMetabolicRate = inBasalMetabolicRate;
+    this.proteinGramsPerKilogram = inProteinGramsPerKilogram;
+    this.proteinGrams = inProteinGrams;
+    this.fatCoefficient = inFatCoefficient;
+  }
+
+  BodyMacroSinkType cellSink(
+    final int index)
+  {
+    this.cellSink.index = index;
+    return this.cellSink;
+  }
+
+  /**
+   * @return The basal metabolic rate of the body, shared by all cells
+   */
+
+  public double basalMetabolicRate()
+  {
+    return this.basalMetabolicRate;
+  }
+
+  /**
+   * @return The grams of protein per kilogram of lean mass, shared by all cells
+   */
+
+  public double proteinGramsPerKilogram()
+  {
+    return this.proteinGramsPerKilogram;
+  }
+
+  /**
+   * @return The grams of protein, shared by all cells
+   */
+
+  public double proteinGrams()
+  {
+    return this.proteinGrams;
+  }
+
+  /**
+   * @return The proportion of calories dedicated to fat, shared by all cells
+   */
+
+  public double fatCoefficient()
+  {
+    return this.fatCoefficient;
+  }
+
+  /**
+   * @param activity   The activity coefficient
+   * @param adjustment The caloric adjustment
+   *
+   * @return The calories for the given cell
+   */
+
+  public double calories(
+    final ActivityCoefficient activity,
+    final CaloricAdjustment adjustment)
+  {
+    return this.calories[cellIndex(activity, adjustment)];
+  }
+
+  /**
+   * @param activity   The activity coefficient
+   * @param adjustment The caloric adjustment
+   *
+   * @return The grams of fat for the given cell
+   */
+
+  public double fatGrams(
+    final ActivityCoefficient activity,
+    final CaloricAdjustment adjustment)
+  {
+    return this.fatGrams[cellIndex(activity, adjustment)];
+  }
+
+  /**
+   * @param activity   The activity coefficient
+   * @param adjustment The caloric adjustment
+   *
+   * @return The grams of carbohydrates for the given cell
+   */
+
+  public double carbohydrateGrams(
+    final ActivityCoefficient activity,
+    final CaloricAdjustment adjustment)
+  {
+    return this.carbohydrateGrams[cellIndex(activity, adjustment)];
+  }
+
+  /**
+   * Deliver the estimates for the given cell to a sink.
+   *
+   * @param activity   The activity coefficient
+   * @param adjustment The caloric adjustment
+   * @param sink       The receiver of the results
+   */
+
+  public void cell(
+    final ActivityCoefficient activity,
+    final CaloricAdjustment adjustment,
+    final BodyMacroSinkType sink)
+  {
+    Objects.requireNonNull(sink, "sink");
+
+    final int index = cellIndex(activity, adjustment);
+    sink.receive(
+      this.calories[index],
+      this.proteinGrams,
+      this.fatGrams[index],
+      this.carbohydrateGrams[index]
+    );
+  }
+
+  @Override
+  public String toString()
+  {
+    return String.format(
+      "[BodyMacroGrid 0x%s]",
+      Long.toUnsignedString(System.identityHashCode(this), 16)
+    );
+  }
+
+  /**
+   * A sink that writes a single cell. The protein estimate is shared by all
+   * cells, and so is not stored per cell.
+   */
+
+  private final class CellSink implements BodyMacroSinkType
+  {
+    private int index;
+
+    CellSink()
+    {
+
+    }
+
+    @Override
+    public void receive(
+      final double inCalories,
+      final double inProteinGrams,
+      final double inFatGrams,
+      final double inCarbohydrateGrams)
+    {
+      BodyMacroGrid.this.calories[this.index] = inCalories;
+      BodyMacroGrid.this.fatGrams[this.index] = inFatGrams;
+      BodyMacroGrid.this.carbohydrateGrams[this.index] = inCarbohydrateGrams;
+    }
+  }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.bodyrecomp.core;
+
+import com.io7m.jaffirm.core.Preconditions;
+
+import java.util.Objects;
+
+import static com.io7m.bodyrecomp.core.internal.BodyMacroBatchSupport.ACTIVITY_COUNT;
+import static com.io7m.bodyrecomp.core.internal.BodyMacroBatchSupport.ADJUSTMENT_COUNT;
+import static com.io7m.bodyrecomp.core.internal.BodyMacroBatchSupport.activityCoefficient;
+import static com.io7m.bodyrecomp.core.internal.BodyMacroBatchSupport.adjustmentCoefficient;
+
+/**
+ * <p>Functions to estimate macronutrients for every combination of
+ * {@link ActivityCoefficient} and {@link CaloricAdjustment} at once.</p>
+ *
+ * <p>The basal metabolic rate, protein requirement, and fat coefficient of
+ * a body do not depend on activity level or caloric adjustment, and so are
+ * computed exactly once per body. Only the calories, fat, and carbohydrates
+ * are computed per cell. Each cell is identical to the estimate produced by
+ * {@link BodyMacroEstimates} for the same body, activity level, and caloric
+ * adjustment.</p>
+ *
+ * @see BodyMacroGrid
+ */
+
+public final class BodyMacroGridEstimates
+{
+  private BodyMacroGridEstimates()
+  {
+
+  }
+
+  /**
+   * Estimate the macronutrients for every cell of the grid for the given
+   * body. The activity level and caloric adjustment of the body are ignored.
+   *
+   * @param body The body
+   *
+   * @return A new grid of estimates
+   */
+
+  public static BodyMacroGrid estimateFor(
+    final BodyDefinition body)
+  {
+    Objects.requireNonNull(body, "body");
+
+    final var grid = new BodyMacroGrid();
+    estimateFor(
+      body.gender(),
+      body.bodyHeight().getValue().doubleValue(),
+      body.bodyWeight().getValue().doubleValue(),
+      body.age().getValue().doubleValue(),
+      body.bodyFatCoefficient().value(),
+      grid
+    );
+    return grid;
+  }
+
+  /**
+   * Estimate the macronutrients for every cell of the grid for the given
+   * body, writing the results into an existing grid. This function
+   * allocates nothing.
+   *
+   * @param gender             The biological gender of the body
+   * @param heightMetres       The height of the body in metres
+   * @param weightKilograms    The weight of the body in kilograms
+   * @param ageYears           The age of the body in years
+   * @param bodyFatCoefficient The body fat coefficient in the range {@code [0, 1]}
+   * @param grid               The output grid
+   */
+
+  public static void estimateFor(
+    final BiologicalGender gender,
+    final double heightMetres,
+    final double weightKilograms,
+    final double ageYears,
+    final double bodyFatCoefficient,
+    final BodyMacroGrid grid)
+  {
+    Objects.requireNonNull(gender, "gender");
+    Objects.requireNonNull(grid, "grid");
+
+    Preconditions.checkPreconditionD(
+      bodyFatCoefficient,
+      bodyFatCoefficient >= 0.0 && bodyFatCoefficient <= 1.0,
+      x -> "Body fat coefficient must be in the range [0, 1]"
+    );
+
+    final double bodyFatPercentage =
+      bodyFatCoefficient * 100.0;
+    final double bmr =
+      MifflinStJeor.basalMetabolicRate(
+        gender,
+        heightMetres,
+        weightKilograms,
+        ageYears
+      );
+    final double proteinGramsPerKilogram =
+      DietaryProteinEstimates.gramsPerKilogram(
+        DietaryProteinEstimates.gramsPerPound(gender, bodyFatPercentage)
+      );
+    final double proteinGrams =
+      DietaryProteinEstimates.proteinGrams(
+        weightKilograms,
+        bodyFatCoefficient,
+        proteinGramsPerKilogram
+      );
+    final double fatCoefficient =
+      DietaryFatEstimates.fatCoefficient(gender, bodyFatPercentage);
+
+    grid.setShared(bmr, proteinGramsPerKilogram, proteinGrams, fatCoefficient);
+
+    for (int a = 0; a < ACTIVITY_COUNT; ++a) {
+      final double maintenanceCalories =
+        MaintenanceCalories.maintenanceEstimate(bmr, activityCoefficient(a));
+
+      for (int c = 0; c < ADJUSTMENT_COUNT; ++c) {
+        BodyMacroEstimates.divideCalories(
+          maintenanceCalories * adjustmentCoefficient(c),
+          proteinGrams,
+          fatCoefficient,
+          grid.cellSink(BodyMacroGrid.cellIndex(a, c))
+        );
+      }
+    }
+  }
+}
@@ -0,0 +1,247 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.bodyrecomp.core;
+
+import java.util.Objects;
+
+/**
+ * <p>An estimator that remembers the inputs and intermediate results of the
+ * previous estimate it produced, and recomputes only the stages that depend
+ * on inputs that have changed since then.</p>
+ *
+ * <p>For example, changing only the caloric adjustment recomputes none of
+ * the stages in {@link BodyMacroStage}, changing only the activity
+ * coefficient recomputes only the maintenance calories, and changing only
+ * the age recomputes the basal metabolic rate and maintenance calories. The
+ * final division of calories into macronutrients is always performed, as it
+ * costs no more than checking whether it is needed. Inputs are compared
+ * exactly, and the results are identical to those produced by
+ * {@link BodyMacroEstimates}.</p>
+ *
+ * <p>Estimators allocate nothing, and are not thread-safe. The stages that
+ * are evaluated are reported to the installed
+ * {@link BodyMacroInstrumentation}.</p>
+ */
+
+public final class BodyMacroIncrementalEstimator
+{
+  private final long[] evaluations;
+  private boolean valid;
+  private BiologicalGender gender;
+  private ActivityCoefficient activity;
+  private double heightMetres;
+  private double weightKilograms;
+  private double ageYears;
+  private double bodyFatCoefficient;
+  private double bmr;
+  private double maintenanceCalories;
+  private double proteinGrams;
+  private double fatCoefficient;
+
+  /**
+   * Construct an estimator that has not yet produced an estimate.
+   */
+
+  public BodyMacroIncrementalEstimator()
+  {
+    this.evaluations = new long[BodyMacroStage.values().length];
+  }
+
+  private static boolean changed(
+    final double previous,
+    final double current)
+  {
+    return Double.doubleToRawLongBits(previous)
+           != Double.doubleToRawLongBits(current);
+  }
+
+  /**
+   * Estimate the macronutrients required for the given body.
+   *
+   * @param body The body
+   * @param sink The receiver of the results
+   *
+   * @see #estimateFor(BiologicalGender, ActivityCoefficient, double, double, double, double, double, BodyMacroSinkType)
+   */
+
+  public void estimateFor(
+    final BodyDefinition body,
+    final BodyMacroSinkType sink)
+  {
+    Objects.requireNonNull(body, "body");
+
+    this.estimateFor(
+      body.gender(),
+      body.activity(),
+      body.bodyHeight().getValue().doubleValue(),
+      body.bodyWeight().getValue().doubleValue(),
+      body.age().getValue().doubleValue(),
+      body.bodyFatCoefficient().value(),
+      body.caloricAdjustment().value(),
+      sink
+    );
+  }
+
+  /**
+   * Estimate the macronutrients required for the given body, recomputing
+   * only the stages whose inputs differ from those of the previous estimate.
+   *
+   * @param inGender             The biological gender of the body
+   * @param inActivity           The activity coefficient of the body
+   * @param inHeightMetres       The height of the body in metres
+   * @param inWeightKilograms    The weight of the body in kilograms
+   * @param inAgeYears           The age of the body in years
+   * @param inBodyFatCoefficient The body fat coefficient in the range {@code [0, 1]}
+   * @param caloricAdjustment    The caloric adjustment coefficient in the range {@code [0, ∞]}
+   * @param sink                 The receiver of the results
+   *
+   * @see BodyMacroEstimates
+   */
+
+  public void estimateFor(
+    final BiologicalGender inGender,
+    final ActivityCoefficient inActivity,
+    final double inHeightMetres,
+    final double inWeightKilograms,
+    final double inAgeYears,
+    final double inBodyFatCoefficient,
+    final double caloricAdjustment,
+    final BodyMacroSinkType sink)
+  {
+    Objects.requireNonNull(inGender, "gender");
+    Objects.requireNonNull(inActivity, "activity");
+    Objects.requireNonNull(sink, "sink");
+
+    BodyMacroEstimates.checkPrimitiveInputs(
+      inBodyFatCoefficient,
+      caloricAdjustment
+    );
+
+    final boolean bodyChanged =
+      !this.valid || this.gender != inGender;
+    final boolean weightChanged =
+      bodyChanged || changed(this.weightKilograms, inWeightKilograms);
+    final boolean fatChanged =
+      bodyChanged || changed(this.bodyFatCoefficient, inBodyFatCoefficient);
+    final boolean bmrChanged =
+      weightChanged
+      || changed(this.heightMetres, inHeightMetres)
+      || changed(this.ageYears, inAgeYears);
+
+    this.gender = inGender;
+    this.heightMetres = inHeightMetres;
+    this.weightKilograms = inWeightKilograms;
+    this.ageYears = inAgeYears;
+    this.bodyFatCoefficient = inBodyFatCoefficient;
+
+    if (bmrChanged) {
+      final long stageStart = BodyMacroInstrumentation.start();
+      this.bmr =
+        MifflinStJeor.basalMetabolicRate(
+          inGender,
+          inHeightMetres,
+          inWeightKilograms,
+          inAgeYears
+        );
+      this.count(BodyMacroStage.BASAL_METABOLIC_RATE, stageStart);
+    }
+
+    if (bmrChanged || this.activity != inActivity) {
+      final long stageStart = BodyMacroInstrumentation.start();
+      this.activity = inActivity;
+      this.maintenanceCalories =
+        MaintenanceCalories.maintenanceEstimate(
+          this.bmr,
+          inActivity.coefficient()
+        );
+      this.count(BodyMacroStage.MAINTENANCE_CALORIES, stageStart);
+    }
+
+    if (weightChanged || fatChanged) {
+      final long stageStart = BodyMacroInstrumentation.start();
+      this.proteinGrams =
+        DietaryProteinEstimates.proteinGrams(
+          inWeightKilograms,
+          inBodyFatCoefficient,
+          DietaryProteinEstimates.gramsPerKilogram(
+            DietaryProteinEstimates.gramsPerPound(
+              inGender,
+              inBodyFatCoefficient * 100.0)
+          )
+        );
+      this.count(BodyMacroStage.PROTEIN, stageStart);
+    }
+
+    if (fatChanged) {
+      final long stageStart = BodyMacroInstrumentation.start();
+      this.fatCoefficient =
+        DietaryFatEstimates.fatCoefficient(
+          inGender,
+          inBodyFatCoefficient * 100.0
+        );
+      this.count(BodyMacroStage.FAT_COEFFICIENT, stageStart);
+    }
+
+    this.valid = true;
+
+    BodyMacroEstimates.divideCalories(
+      this.maintenanceCalories * caloricAdjustment,
+      this.proteinGrams,
+      this.fatCoefficient,
+      sink
+    );
+  }
+
+  private void count(
+    final BodyMacroStage stage,
+    final long stageStart)
+  {
+    BodyMacroInstrumentation.finish(stage, stageStart);
+    ++this.evaluations[stage.ordinal()];
+  }
+
+  /**
+   * @param stage The stage
+   *
+   * @return The number of times the given stage has been evaluated
+   */
+
+  public long evaluations(
+    final BodyMacroStage stage)
+  {
+    return this.evaluations[Objects.requireNonNull(stage, "stage").ordinal()];
+  }
+
+  /**
+   * Forget the previous estimate, so that the next estimate evaluates every
+   * stage. The evaluation counts are not reset.
+   */
+
+  public void invalidate()
+  {
+    this.valid = false;
+  }
+
+  @Override
+  public String toString()
+  {
+    return String.format(
+      "[BodyMacroIncrementalEstimator 0x%s]",
+      Long.toUnsignedString(System.identityHashCode(this), 16)
+    );
+  }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.bodyrecomp.core;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * <p>Access to the installed {@link BodyMacroInstrumentationType}.</p>
+ *
+ * <p>An instrumentation may be installed exactly once with
+ * {@link #install(BodyMacroInstrumentationType)}, before the first estimate
+ * is produced. The instrumentation is fixed when the first estimate is
+ * produced, and is then held in a constant. When no instrumentation has been
+ * installed by then, {@link #isEnabled()} is a constant {@code false} and
+ * every timing call made by the estimators folds away to nothing.</p>
+ */
+
+public final class BodyMacroInstrumentation
+{
+  private static final AtomicReference<BodyMacroInstrumentationType> REQUESTED =
+    new AtomicReference<>();
+
+  private BodyMacroInstrumentation()
+  {
+
+  }
+
+  /**
+   * Install an instrumentation. This must be called at most once, and before
+   * the first estimate is produced.
+   *
+   * @param instrumentation The instrumentation
+   *
+   * @throws IllegalStateException If an instrumentation has already been
+   *                               installed, or an estimate has already been
+   *                               produced
+   */
+
+  public static void install(
+    final BodyMacroInstrumentationType instrumentation)
+    throws IllegalStateException
+  {
+    Objects.requireNonNull(instrumentation, "instrumentation");
+
+    if (!REQUESTED.compareAndSet(null, instrumentation)) {
+      throw new IllegalStateException(
+        "An instrumentation must be installed once, before the first estimate"
+      );
+    }
+  }
+
+  /*
+   * Fix the instrumentation, preventing any later installation.
+   */
+
+  private static BodyMacroInstrumentationType fix()
+  {
+    final var existing =
+      REQUESTED.compareAndExchange(null, NoOp.INSTANCE);
+    return existing == null ? NoOp.INSTANCE : existing;
+  }
+
+  /**
+   * Retrieve the installed instrumentation. This fixes the instrumentation
+   * as if an estimate had been produced.
+   *
+   * @return The installed instrumentation
+   */
+
+  public static BodyMacroInstrumentationType installed()
+  {
+    return Installed.INSTRUMENTATION;
+  }
+
+  /**
+   * Determine if an instrumentation is installed. This fixes the
+   * instrumentation as if an estimate had been produced.
+   *
+   * @return {@code true} if a (non-no-op) instrumentation is installed
+   */
+
+  public static boolean isEnabled()
+  {
+    return Installed.ENABLED;
+  }
+
+  static long start()
+  {
+    return Installed.ENABLED ? System.nanoTime() : 0L;
+  }
+
+  static void finish(
+    final BodyMacroStage stage,
+    final long startNanos)
+  {
+    if (Installed.ENABLED) {
+      Installed.INSTRUMENTATION.onStage(stage, startNanos, System.nanoTime());
+    }
+  }
+
+  /*
+   * The fixed instrumentation. This class is initialized by the first
+   * estimate, after which its fields are constants.
+   */
+
+  private static final class Installed
+  {
+    private static final BodyMacroInstrumentationType INSTRUMENTATION =
+      fix();
+
+    private static final boolean ENABLED =
+      INSTRUMENTATION != NoOp.INSTANCE;
+
+    private Installed()
+    {
+
+    }
+  }
+
+  private static final class NoOp implements BodyMacroInstrumentationType
+  {
+    private static final NoOp INSTANCE = new NoOp();
+
+    private NoOp()
+    {
+
+    }
+
+    @Override
+    public void onStage(
+      final BodyMacroStage stage,
+      final long startNanos,
+      final long endNanos)
+    {
+
+    }
+  }
+}
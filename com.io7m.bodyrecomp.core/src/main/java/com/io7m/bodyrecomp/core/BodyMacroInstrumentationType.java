@@ -0,0 +1,50 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.bodyrecomp.core;
+
+/**
+ * <p>A receiver of timings for the stages of macronutrient estimates.</p>
+ *
+ * <p>An implementation is installed with
+ * {@link BodyMacroInstrumentation#install(BodyMacroInstrumentationType)}
+ * before the first estimate is produced. If no implementation is installed,
+ * a no-op implementation is used and the stage timing code is removed
+ * entirely by the JIT compiler.</p>
+ *
+ * <p>Implementations are called on the estimating thread, potentially from
+ * many threads at once, and should therefore be thread-safe and very cheap;
+ * recording into a preallocated histogram is typical.</p>
+ *
+ * @see BodyMacroInstrumentation
+ */
+
+public interface BodyMacroInstrumentationType
+{
+  /**
+   * A stage of an estimate has completed. Each call represents a single
+   * evaluation of the stage.
+   *
+   * @param stage      The stage
+   * @param startNanos The value of {@link System#nanoTime()} at the start of the stage
+   * @param endNanos   The value of {@link System#nanoTime()} at the end of the stage
+   */
+
+  void onStage(
+    BodyMacroStage stage,
+    long startNanos,
+    long endNanos);
+}
@@ -0,0 +1,271 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.bodyrecomp.core;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * <p>Functions to estimate macronutrients for populations of bodies in
+ * parallel.</p>
+ *
+ * <p>Populations are recursively split into chunks that are processed by
+ * the work-stealing threads of a given {@link ForkJoinPool}. Results are
+ * always returned in the same order as the input. Any exception raised
+ * whilst estimating is propagated to the caller.</p>
+ */
+
+public final class BodyMacroParallelEstimates
+{
+  /*
+   * The smallest number of bodies that will be given to a single task. Below
+   * this, the cost of forking a task outweighs the work that it does.
+   */
+
+  private static final int MINIMUM_CHUNK_BODIES = 64;
+
+  /*
+   * The smallest number of bodies that will be given to a single task when
+   * estimating columns. Columnar estimation is considerably cheaper per body
+   * than object estimation, and the loops need long runs to vectorize well.
+   */
+
+  private static final int MINIMUM_CHUNK_COLUMNS = 4096;
+
+  /*
+   * The number of chunks to aim for per worker thread. Splitting into more
+   * chunks than threads gives idle threads something to steal when some
+   * chunks finish early.
+   */
+
+  private static final int CHUNKS_PER_THREAD = 8;
+
+  private BodyMacroParallelEstimates()
+  {
+
+  }
+
+  private static int chunkSize(
+    final ForkJoinPool pool,
+    final int size,
+    final int minimum)
+  {
+    final int chunks = pool.getParallelism() * CHUNKS_PER_THREAD;
+    return Math.max(minimum, (size + chunks - 1) / chunks);
+  }
+
+  /**
+   * Estimate the macronutrients required for each of the given bodies.
+   *
+   * @param pool    The pool that will execute the estimation
+   * @param bodies  The bodies
+   * @param options The estimation options
+   *
+   * @return The macronutrients for each body, in input order
+   */
+
+  public static List<BodyMacros> estimateFor(
+    final ForkJoinPool pool,
+    final List<BodyDefinition> bodies,
+    final BodyMacroEstimateOptions options)
+  {
+    Objects.requireNonNull(bodies, "bodies");
+
+    if (bodies instanceof RandomAccess) {
+      return estimateForList(pool, bodies, options);
+    }
+    return estimateFor(pool, bodies.toArray(new BodyDefinition[0]), options);
+  }
+
+  private static List<BodyMacros> estimateForList(
+    final ForkJoinPool pool,
+    final List<BodyDefinition> bodies,
+    final BodyMacroEstimateOptions options)
+  {
+    Objects.requireNonNull(pool, "pool");
+    Objects.requireNonNull(options, "options");
+
+    final var results = new BodyMacros[bodies.size()];
+    pool.invoke(new ObjectTask(
+      bodies,
+      options,
+      results,
+      0,
+      results.length,
+      chunkSize(pool, results.length, MINIMUM_CHUNK_BODIES)
+    ));
+    return Collections.unmodifiableList(Arrays.asList(results));
+  }
+
+  /**
+   * Estimate the macronutrients required for each of the given bodies.
+   *
+   * @param pool    The pool that will execute the estimation
+   * @param bodies  The bodies
+   * @param options The estimation options
+   *
+   * @return The macronutrients for each body, in input order
+   */
+
+  public static List<BodyMacros> estimateFor(
+    final ForkJoinPool pool,
+    final BodyDefinition[] bodies,
+    final BodyMacroEstimateOptions options)
+  {
+    Objects.requireNonNull(bodies, "bodies");
+    return estimateForList(pool, Arrays.asList(bodies), options);
+  }
+
+  /**
+   * Estimate the macronutrients required for every body in {@code input},
+   * writing the results to the same indices in {@code output}.
+   *
+   * @param pool   The pool that will execute the estimation
+   * @param kernel The batch kernel used to estimate each chunk
+   * @param input  The bodies
+   * @param output The output estimates
+   *
+   * @see BodyMacroBatchKernels
+   */
+
+  public static void estimateFor(
+    final ForkJoinPool pool,
+    final BodyMacroBatchKernelType kernel,
+    final BodyDefinitionColumns input,
+    final BodyMacrosColumns output)
+  {
+    Objects.requireNonNull(pool, "pool");
+    Objects.requireNonNull(kernel, "kernel");
+    Objects.requireNonNull(input, "input");
+    Objects.requireNonNull(output, "output");
+
+    final int size = input.size();
+    Objects.checkFromIndexSize(0, size, output.size());
+
+    pool.invoke(new ColumnTask(
+      kernel,
+      input,
+      output,
+      0,
+      size,
+      chunkSize(pool, size, MINIMUM_CHUNK_COLUMNS)
+    ));
+  }
+
+  private static final class ObjectTask extends RecursiveAction
+  {
+    private static final long serialVersionUID = 1L;
+
+    private final transient List<BodyDefinition> bodies;
+    private final transient BodyMacroEstimateOptions options;
+    private final transient BodyMacros[] results;
+    private final int start;
+    private final int end;
+    private final int chunk;
+
+    ObjectTask(
+      final List<BodyDefinition> inBodies,
+      final BodyMacroEstimateOptions inOptions,
+      final BodyMacros[] inResults,
+      final int inStart,
+      final int inEnd,
+      final int inChunk)
+    {
+      this.bodies = inBodies;
+      this.options = inOptions;
+      this.results = inResults;
+      this.start = inStart;
+      this.end = inEnd;
+      this.chunk = inChunk;
+    }
+
+    @Override
+    protected void compute()
+    {
+      if (this.end - this.start <= this.chunk) {
+        for (int index = this.start; index < this.end; ++index) {
+          this.results[index] =
+            BodyMacroEstimates.estimateFor(this.bodies.get(index), this.options);
+        }
+        return;
+      }
+
+      final int middle = (this.start + this.end) >>> 1;
+      invokeAll(
+        new ObjectTask(
+          this.bodies, this.options, this.results, this.start, middle, this.chunk),
+        new ObjectTask(
+          this.bodies, this.options, this.results, middle, this.end, this.chunk)
+      );
+    }
+  }
+
+  private static final class ColumnTask extends RecursiveAction
+  {
+    private static final long serialVersionUID = 1L;
+
+    private final transient BodyMacroBatchKernelType kernel;
+    private final transient BodyDefinitionColumns input;
+    private final transient BodyMacrosColumns output;
+    private final int start;
+    private final int end;
+    private final int chunk;
+
+    ColumnTask(
+      final BodyMacroBatchKernelType inKernel,
+      final BodyDefinitionColumns inInput,
+      final BodyMacrosColumns inOutput,
+      final int inStart,
+      final int inEnd,
+      final int inChunk)
+    {
+      this.kernel = inKernel;
+      this.input = inInput;
+      this.output = inOutput;
+      this.start = inStart;
+      this.end = inEnd;
+      this.chunk = inChunk;
+    }
+
+    @Override
+    protected void compute()
+    {
+      if (this.end - this.start <= this.chunk) {
+        this.kernel.estimateFor(
+          this.input,
+          this.output,
+          this.start,
+          this.end - this.start
+        );
+        return;
+      }
+
+      final int middle = (this.start + this.end) >>> 1;
+      invokeAll(
+        new ColumnTask(
+          this.kernel, this.input, this.output, this.start, middle, this.chunk),
+        new ColumnTask(
+          this.kernel, this.input, this.output, middle, this.end, this.chunk)
+      );
+    }
+  }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.bodyrecomp.core;
+
+/**
+ * A batch kernel that delegates to {@link BodyMacroBatchEstimates}.
+ */
+
+final class BodyMacroScalarBatchKernel implements BodyMacroBatchKernelType
+{
+  static final BodyMacroScalarBatchKernel INSTANCE =
+    new BodyMacroScalarBatchKernel();
+
+  private BodyMacroScalarBatchKernel()
+  {
+
+  }
+
+  @Override
+  public String name()
+  {
+    return "scalar";
+  }
+
+  @Override
+  public void estimateFor(
+    final BodyDefinitionColumns input,
+    final BodyMacrosColumns output,
+    final int offset,
+    final int count)
+  {
+    BodyMacroBatchEstimates.estimateFor(input, output, offset, count);
+  }
+
+  @Override
+  public String toString()
+  {
+    return "[BodyMacroScalarBatchKernel]";
+  }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.bodyrecomp.core;
+
+/**
+ * A receiver of estimated macronutrients. Sinks allow estimates to be
+ * delivered without allocating a result object per estimate.
+ *
+ * @see BodyMacroEstimates
+ * @see BodyMacrosMutable
+ */
+
+public interface BodyMacroSinkType
+{
+  /**
+   * Receive an estimate. Calories are given in food calories, and all
+   * masses are given in grams.
+   *
+   * @param calories          The total calories
+   * @param proteinGrams      The grams of protein
+   * @param fatGrams          The grams of fat
+   * @param carbohydrateGrams The grams of carbohydrates
+   */
+
+  void receive(
+    double calories,
+    double proteinGrams,
+    double fatGrams,
+    double carbohydrateGrams);
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.bodyrecomp.core;
+
+/**
+ * The stages of a macronutrient estimate.
+ */
+
+public enum BodyMacroStage
+{
+  /**
+   * The calculation of the basal metabolic rate. This depends on the gender,
+   * height, weight, and age of the body.
+   *
+   * @see MifflinStJeor
+   */
+
+  BASAL_METABOLIC_RATE,
+
+  /**
+   * The calculation of maintenance calories. This depends on the basal
+   * metabolic rate and the activity coefficient of the body.
+   *
+   * @see MaintenanceCalories
+   */
+
+  MAINTENANCE_CALORIES,
+
+  /**
+   * The calculation of dietary protein. This depends on the gender, weight,
+   * and body fat coefficient of the body.
+   *
+   * @see DietaryProteinEstimates
+   */
+
+  PROTEIN,
+
+  /**
+   * The calculation of the dietary fat coefficient. This depends on the
+   * gender and body fat coefficient of the body.
+   *
+   * @see DietaryFatEstimates
+   */
+
+  FAT_COEFFICIENT,
+
+  /**
+   * The recording of the explanation, when explanations are requested.
+   * Explanations are rendered to text later, on demand.
+   *
+   * @see BodyMacroEstimateOptionsType#explanations()
+   */
+
+  EXPLANATIONS,
+
+  /**
+   * The construction and validation of the resulting {@link BodyMacros}
+   * value.
+   */
+
+  RESULT
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.bodyrecomp.core;
+
+import java.util.Objects;
+
+/**
+ * A set of macronutrient estimates stored as parallel primitive arrays.
+ * The arrays are used directly and are not copied. Calories are given in
+ * food calories, and all masses are given in grams.
+ *
+ * @see BodyMacroBatchEstimates
+ */
+
+public final class BodyMacrosColumns
+{
+  private final double[] calories;
+  private final double[] proteinGrams;
+  private final double[] fatGrams;
+  private final double[] carbohydrateGrams;
+
+  /**
+   * Construct a set of columns from existing arrays. All arrays must be
+   * the same length.
+   *
+   * @param inCalories          The calories
+   * @param inProteinGrams      The grams of protein
+   * @param inFatGrams          The grams of fat
+   * @param inCarbohydrateGrams The grams of carbohydrates
+   */
+
+  public BodyMacrosColumns(
+    final double[] inCalories,
+    final double[] inProteinGrams,
+    final double[] inFatGrams,
+    final double[] inCarbohydrateGrams)
+  {
+    this.calories =
+      Objects.requireNonNull(inCalories, "calories");
+    this.proteinGrams =
+      Objects.requireNonNull(inProteinGrams, "proteinGrams");
+    this.fatGrams =
+      Objects.requireNonNull(inFatGrams, "fatGrams");
+    this.carbohydrateGrams =
+      Objects.requireNonNull(inCarbohydrateGrams, "carbohydrateGrams");
+
+    final int size = this.calories.length;
+    if (this.proteinGrams.length != size
+      || this.fatGrams.length != size
+      || this.carbohydrateGrams.length != size) {
+      throw new IllegalArgumentException("All columns must be the same length");
+    }
+  }
+
+  /**
+   * Allocate a new set of columns.
+   *
+   * @param size The number of estimates
+   *
+   * @return A set of columns
+   */
+
+  public static BodyMacrosColumns create(
+    final int size)
+  {
+    return new BodyMacrosColumns(
+      new double[size],
+      new double[size],
+      new double[size],
+      new double[size]
+    );
+  }
+
+  /**
+   * @return The number of estimates
+   */
+
+  public int size()
+  {
+    return this.calories.length;
+  }
+
+  /**
+   * @return The calories
+   */
+
+  public double[] calories()
+  {
+    return this.calories;
+  }
+
+  /**
+   * @return The grams of protein
+   */
+
+  public double[] proteinGrams()
+  {
+    return this.proteinGrams;
+  }
+
+  /**
+   * @return The grams of fat
+   */
+
+  public double[] fatGrams()
+  {
+    return this.fatGrams;
+  }
+
+  /**
+   * @return The grams of carbohydrates
+   */
+
+  public double[] carbohydrateGrams()
+  {
+    return this.carbohydrateGrams;
+  }
+
+  @Override
+  public String toString()
+  {
+    return String.format(
+      "[BodyMacrosColumns 0x%s %d]",
+      Long.toUnsignedString(System.identityHashCode(this), 16),
+      Integer.valueOf(this.size())
+    );
+  }
+}
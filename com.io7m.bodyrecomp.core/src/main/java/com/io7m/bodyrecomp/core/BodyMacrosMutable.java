@@ -0,0 +1,132 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.bodyrecomp.core;
+
+/**
+ * <p>A mutable, reusable holder of estimated macronutrients.</p>
+ *
+ * <p>This is the mutable counterpart of {@link BodyMacros}, intended for
+ * hot loops that estimate many bodies: A single instance (per thread) can
+ * be filled repeatedly without allocating. Instances are not thread-safe.
+ * Calories are given in food calories, and all masses are given in
+ * grams.</p>
+ */
+
+public final class BodyMacrosMutable implements BodyMacroSinkType
+{
+  private double calories;
+  private double proteinGrams;
+  private double fatGrams;
+  private double carbohydrateGrams;
+
+  /**
+   * Construct a holder. All values are initially zero.
+   */
+
+  public BodyMacrosMutable()
+  {
+
+  }
+
+  @Override
+  public void receive(
+    final double inCalories,
+    final double inProteinGrams,
+    final double inFatGrams,
+    final double inCarbohydrateGrams)
+  {
+    this.calories = inCalories;
+    this.proteinGrams = inProteinGrams;
+    this.fatGrams = inFatGrams;
+    this.carbohydrateGrams = inCarbohydrateGrams;
+  }
+
+  /**
+   * @return The total calories
+   */
+
+  public double calories()
+  {
+    return this.calories;
+  }
+
+  /**
+   * @return The grams of protein
+   */
+
+  public double proteinGrams()
+  {
+    return this.proteinGrams;
+  }
+
+  /**
+   * @return The grams of fat
+   */
+
+  public double fatGrams()
+  {
+    return this.fatGrams;
+  }
+
+  /**
+   * @return The grams of carbohydrates
+   */
+
+  public double carbohydrateGrams()
+  {
+    return this.carbohydrateGrams;
+  }
+
+  /**
+   * @return The calories provided by protein
+   */
+
+  public double proteinCalories()
+  {
+    return this.proteinGrams * 4.0;
+  }
+
+  /**
+   * @return The calories provided by fat
+   */
+
+  public double fatCalories()
+  {
+    return this.fatGrams * 9.0;
+  }
+
+  /**
+   * @return The calories provided by carbohydrates
+   */
+
+  public double carbohydrateCalories()
+  {
+    return this.carbohydrateGrams * 4.0;
+  }
+
+  @Override
+  public String toString()
+  {
+    return String.format(
+      "[BodyMacrosMutable %f kcal, %f g protein, %f g fat, %f g carbohydrate]",
+      Double.valueOf(this.calories),
+      Double.valueOf(this.proteinGrams),
+      Double.valueOf(this.fatGrams),
+      Double.valueOf(this.carbohydrateGrams)
+    );
+  }
+}
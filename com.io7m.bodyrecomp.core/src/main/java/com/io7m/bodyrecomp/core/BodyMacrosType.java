@@ -19,13 +19,14 @@ package com.io7m.bodyrecomp.core;
 import com.io7m.immutables.styles.ImmutablesStyleType;
 import com.io7m.jaffirm.core.Preconditions;
 import org.immutables.value.Value;
-import systems.uom.unicode.CLDR;
 import tech.units.indriya.quantity.Quantities;
 
 import javax.measure.Quantity;
 import javax.measure.quantity.Energy;
 import javax.measure.quantity.Mass;
 import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
 
 /**
  * Macronutrients for a body, along with the reasons for the values.
@@ -36,10 +37,44 @@ import java.util.List;
 public interface BodyMacrosType
 {
   /**
+   * @return The explanation of the calculated values, if explanations were
+   * requested
+   *
+   * @see BodyMacroEstimateOptionsType#explanations()
+   */
+
+  Optional<BodyMacroExplanation> explanation();
+
+  /**
+   * Render the explanation of the calculated values in the default
+   * formatting locale. The text is produced each time this method is called.
+   *
+   * @return The list of explanations for the calculated values
+   *
+   * @see BodyMacroExplanationType#render(Locale)
+   */
+
+  default List<String> explanations()
+  {
+    return this.explanations(Locale.getDefault(Locale.Category.FORMAT));
+  }
+
+  /**
+   * Render the explanation of the calculated values in the given locale.
+   * The text is produced each time this method is called.
+   *
+   * @param locale The locale used to format the text
+   *
    * @return The list of explanations for the calculated values
    */
 
-  List<String> explanations();
+  default List<String> explanations(
+    final Locale locale)
+  {
+    return this.explanation()
+      .map(e -> e.render(locale))
+      .orElse(List.of());
+  }
 
   /**
    * @return The number of calories
@@ -75,7 +110,7 @@ public interface BodyMacrosType
   {
     return Quantities.getQuantity(
       Double.valueOf(this.proteinGrams().getValue().doubleValue() * 4.0),
-      CLDR.FOODCALORIE
+      BodyUnits.FOOD_CALORIE
     );
   }
 
@@ -89,7 +124,7 @@ public interface BodyMacrosType
   {
     return Quantities.getQuantity(
       Double.valueOf(this.fatGrams().getValue().doubleValue() * 9.0),
-      CLDR.FOODCALORIE
+      BodyUnits.FOOD_CALORIE
     );
   }
 
@@ -103,7 +138,7 @@ public interface BodyMacrosType
   {
     return Quantities.getQuantity(
       Double.valueOf(this.carbohydrateGrams().getValue().doubleValue() * 4.0),
-      CLDR.FOODCALORIE
+      BodyUnits.FOOD_CALORIE
     );
   }
 
@@ -118,14 +153,20 @@ public interface BodyMacrosType
     cals += this.proteinCalories().getValue().doubleValue();
     cals += this.carbohydrateCalories().getValue().doubleValue();
     cals += this.fatCalories().getValue().doubleValue();
-    cals = Math.ceil(cals);
+
+    /*
+     * The sum is compared with a tolerance of less than one calorie rather
+     * than by rounding both values up: a total that is a rounding error
+     * above a whole number would otherwise be rounded up to the next
+     * calorie while the sum of the macronutrients is not.
+     */
 
     final var expected =
-      Math.ceil(this.calories().getValue().doubleValue());
+      this.calories().getValue().doubleValue();
 
     Preconditions.checkPreconditionD(
       cals,
-      cals == expected,
+      Math.abs(cals - expected) < 1.0,
       x -> String.format(
         "Macronutrient calories must sum to %f", Double.valueOf(expected)
       )
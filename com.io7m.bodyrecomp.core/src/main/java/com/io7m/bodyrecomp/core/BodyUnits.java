@@ -0,0 +1,106 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.bodyrecomp.core;
+
+import tech.units.indriya.function.MultiplyConverter;
+import tech.units.indriya.unit.AlternateUnit;
+import tech.units.indriya.unit.BaseUnit;
+import tech.units.indriya.unit.TransformedUnit;
+import tech.units.indriya.unit.UnitDimension;
+
+import javax.measure.MetricPrefix;
+import javax.measure.Unit;
+import javax.measure.quantity.Energy;
+import javax.measure.quantity.Force;
+import javax.measure.quantity.Length;
+import javax.measure.quantity.Mass;
+import javax.measure.quantity.Time;
+
+/**
+ * The units used by the estimators.
+ *
+ * The units are constructed directly rather than being taken from a system
+ * of units such as {@code tech.units.indriya.unit.Units} or
+ * {@code systems.uom.unicode.CLDR}; initializing those systems constructs
+ * hundreds of units that are never used here. Each unit is defined in the
+ * same way as the corresponding unit of those systems, and so is equal to it.
+ */
+
+public final class BodyUnits
+{
+  /**
+   * The metre; equal to {@code Units.METRE}.
+   */
+
+  public static final Unit<Length> METRE =
+    new BaseUnit<>("m", "Metre", UnitDimension.LENGTH);
+
+  /**
+   * The centimetre; equal to {@code CGS.CENTIMETRE}.
+   */
+
+  public static final Unit<Length> CENTIMETRE =
+    METRE.prefix(MetricPrefix.CENTI);
+
+  /**
+   * The kilogram; equal to {@code Units.KILOGRAM}.
+   */
+
+  public static final Unit<Mass> KILOGRAM =
+    new BaseUnit<>("kg", "Kilogram", UnitDimension.MASS);
+
+  /**
+   * The gram; equal to {@code Units.GRAM}.
+   */
+
+  public static final Unit<Mass> GRAM =
+    KILOGRAM.divide(1000.0);
+
+  private static final Unit<Time> SECOND =
+    new BaseUnit<>("s", "Second", UnitDimension.TIME);
+
+  private static final Unit<Time> DAY =
+    new TransformedUnit<>(
+      "d", "Day", SECOND, SECOND, MultiplyConverter.ofRational(86400L, 1L));
+
+  /**
+   * The (Gregorian) year; equal to {@code Units.YEAR}.
+   */
+
+  public static final Unit<Time> YEAR =
+    DAY.multiply(365.2425);
+
+  private static final Unit<Force> NEWTON =
+    new AlternateUnit<Force>(
+      METRE.multiply(KILOGRAM).divide(SECOND.pow(2)), "N");
+
+  private static final Unit<Energy> JOULE =
+    new AlternateUnit<Energy>(NEWTON.multiply(METRE), "J");
+
+  /**
+   * The food calorie (kilocalorie); equal to {@code CLDR.FOODCALORIE}.
+   */
+
+  public static final Unit<Energy> FOOD_CALORIE =
+    JOULE.multiply(4186.8);
+
+  private BodyUnits()
+  {
+
+  }
+}
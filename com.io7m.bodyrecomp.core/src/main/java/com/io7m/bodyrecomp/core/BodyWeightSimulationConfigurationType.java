@@ -0,0 +1,124 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.bodyrecomp.core;
+
+import com.io7m.immutables.styles.ImmutablesStyleType;
+import com.io7m.jaffirm.core.Preconditions;
+import org.immutables.value.Value;
+
+/**
+ * The configuration of a body weight simulation.
+ *
+ * @see BodyWeightSimulations
+ */
+
+@ImmutablesStyleType
+@Value.Immutable
+public interface BodyWeightSimulationConfigurationType
+{
+  /**
+   * @return The energy stored in a kilogram of fat tissue, in food calories
+   */
+
+  @Value.Default
+  default double fatEnergyDensity()
+  {
+    return 9440.0;
+  }
+
+  /**
+   * @return The energy stored in a kilogram of lean tissue, in food calories
+   */
+
+  @Value.Default
+  default double leanEnergyDensity()
+  {
+    return 1816.0;
+  }
+
+  /**
+   * The constant {@code C} of Forbes' rule, which partitions each day's
+   * energy imbalance between lean and fat tissue: A body with fat mass
+   * {@code F} kilograms gains or loses lean tissue in proportion
+   * {@code C / (C + F)} of the imbalance, and fat tissue in proportion
+   * {@code F / (C + F)}.
+   *
+   * @return The Forbes constant in kilograms
+   */
+
+  @Value.Default
+  default double forbesConstant()
+  {
+    return 10.4;
+  }
+
+  /**
+   * If {@code true}, each body's daily intake is re-estimated every day
+   * from the body's current state, modelling someone who follows a
+   * continuously updated plan. If {@code false}, each body's intake is
+   * fixed at the estimate for the initial state of the body.
+   *
+   * @return {@code true} if intake is re-estimated daily
+   */
+
+  @Value.Default
+  default boolean intakeRecomputedDaily()
+  {
+    return true;
+  }
+
+  /**
+   * @return The number of simulated days between observations
+   *
+   * @see BodyWeightSimulationObserverType
+   */
+
+  @Value.Default
+  default int observationIntervalDays()
+  {
+    return 7;
+  }
+
+  /**
+   * Check preconditions for the type.
+   */
+
+  @Value.Check
+  default void checkPreconditions()
+  {
+    Preconditions.checkPreconditionD(
+      this.fatEnergyDensity(),
+      this.fatEnergyDensity() > 0.0,
+      x -> "Fat energy density must be positive"
+    );
+    Preconditions.checkPreconditionD(
+      this.leanEnergyDensity(),
+      this.leanEnergyDensity() > 0.0,
+      x -> "Lean energy density must be positive"
+    );
+    Preconditions.checkPreconditionD(
+      this.forbesConstant(),
+      this.forbesConstant() > 0.0,
+      x -> "Forbes constant must be positive"
+    );
+    Preconditions.checkPreconditionI(
+      this.observationIntervalDays(),
+      this.observationIntervalDays() > 0,
+      x -> "Observation interval must be positive"
+    );
+  }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.bodyrecomp.core;
+
+/**
+ * A receiver of the intermediate states of a body weight simulation.
+ *
+ * @see BodyWeightSimulations
+ */
+
+public interface BodyWeightSimulationObserverType
+{
+  /**
+   * The bodies in the range {@code [offset, offset + count)} have been
+   * simulated up to and including the given day. The weights, ages, and
+   * body fat coefficients in {@code bodies} reflect the state of those
+   * bodies at the end of that day, and must not be modified. When a
+   * simulation is executed in parallel, this method is called concurrently
+   * for disjoint ranges of bodies.
+   *
+   * @param day    The number of days simulated so far
+   * @param bodies The bodies
+   * @param offset The index of the first body
+   * @param count  The number of bodies
+   */
+
+  void onObservation(
+    int day,
+    BodyDefinitionColumns bodies,
+    int offset,
+    int count);
+}
@@ -0,0 +1,413 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.bodyrecomp.core;
+
+import com.io7m.jaffirm.core.Preconditions;
+
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import static com.io7m.bodyrecomp.core.internal.BodyMacroBatchSupport.activityCoefficient;
+import static com.io7m.bodyrecomp.core.internal.BodyMacroBatchSupport.genderConstant;
+
+/**
+ * <p>Functions to simulate the change in weight and body composition of
+ * many bodies over time.</p>
+ *
+ * <p>Each body is stepped forward one day at a time. On each day, the
+ * body's energy expenditure is its maintenance calories, computed from the
+ * {@link MifflinStJeor} basal metabolic rate of its current weight and age
+ * and its activity coefficient. Its intake is its maintenance calories
+ * multiplied by its caloric adjustment (either re-estimated daily or fixed
+ * at the initial estimate, depending on the configuration). The difference
+ * between intake and expenditure is divided between lean and fat tissue
+ * according to Forbes' rule, and converted to mass using the configured
+ * energy densities. Ages advance by one day per day.</p>
+ *
+ * <p>Simulations operate in place on the weights, ages, and body fat
+ * coefficients of a set of {@link BodyDefinitionColumns}. Bodies are
+ * simulated in small blocks whose working state stays in the L1 cache for
+ * the whole simulation, and each day is a single vectorizable pass over the
+ * block.</p>
+ */
+
+public final class BodyWeightSimulations
+{
+  /*
+   * The number of bodies simulated together between observations. The
+   * per-block working state must fit comfortably in the L1 or L2 cache.
+   */
+
+  private static final int BLOCK_SIZE = 256;
+
+  /*
+   * The smallest number of bodies that will be given to a single parallel
+   * task, and the number of chunks to aim for per worker thread.
+   */
+
+  private static final int MINIMUM_CHUNK_BODIES = 4096;
+  private static final int CHUNKS_PER_THREAD = 8;
+
+  private static final double YEARS_PER_DAY = 1.0 / 365.25;
+
+  private BodyWeightSimulations()
+  {
+
+  }
+
+  /**
+   * Simulate the bodies in the range {@code [offset, offset + count)} for
+   * the given number of days on the current thread. The observer is called
+   * every {@link BodyWeightSimulationConfigurationType#observationIntervalDays()}
+   * days, and after the last day. If {@code days} is zero, the bodies are
+   * left unchanged and the observer is never called.
+   *
+   * @param configuration The simulation configuration
+   * @param bodies        The bodies, updated in place
+   * @param offset        The index of the first body
+   * @param count         The number of bodies
+   * @param days          The number of days to simulate
+   * @param observer      The observer of intermediate states
+   */
+
+  public static void simulate(
+    final BodyWeightSimulationConfiguration configuration,
+    final BodyDefinitionColumns bodies,
+    final int offset,
+    final int count,
+    final int days,
+    final BodyWeightSimulationObserverType observer)
+  {
+    Objects.requireNonNull(configuration, "configuration");
+    Objects.requireNonNull(bodies, "bodies");
+    Objects.requireNonNull(observer, "observer");
+    Objects.checkFromIndexSize(offset, count, bodies.size());
+
+    Preconditions.checkPreconditionI(
+      days,
+      days >= 0,
+      x -> "Days must be non-negative"
+    );
+
+    new Simulation(configuration, bodies, observer)
+      .simulate(offset, count, days);
+  }
+
+  /**
+   * Simulate all of the given bodies for the given number of days, dividing
+   * the bodies between the threads of the given pool. The results are
+   * identical to those of a sequential simulation. The observer is called
+   * concurrently for disjoint ranges of bodies. If {@code days} is zero, the
+   * bodies are left unchanged and the observer is never called.
+   *
+   * @param pool          The pool that will execute the simulation
+   * @param configuration The simulation configuration
+   * @param bodies        The bodies, updated in place
+   * @param days          The number of days to simulate
+   * @param observer      The observer of intermediate states
+   */
+
+  public static void simulate(
+    final ForkJoinPool pool,
+    final BodyWeightSimulationConfiguration configuration,
+    final BodyDefinitionColumns bodies,
+    final int days,
+    final BodyWeightSimulationObserverType observer)
+  {
+    Objects.requireNonNull(pool, "pool");
+    Objects.requireNonNull(configuration, "configuration");
+    Objects.requireNonNull(bodies, "bodies");
+    Objects.requireNonNull(observer, "observer");
+
+    Preconditions.checkPreconditionI(
+      days,
+      days >= 0,
+      x -> "Days must be non-negative"
+    );
+
+    final int size = bodies.size();
+    final int chunks = pool.getParallelism() * CHUNKS_PER_THREAD;
+    final int chunk =
+      Math.max(MINIMUM_CHUNK_BODIES, (size + chunks - 1) / chunks);
+
+    pool.invoke(new SimulationTask(
+      new Simulation(configuration, bodies, observer),
+      0,
+      size,
+      days,
+      chunk
+    ));
+  }
+
+  private static final class Simulation
+  {
+    private final BodyDefinitionColumns bodies;
+    private final BodyWeightSimulationObserverType observer;
+    private final boolean intakeDaily;
+    private final double forbes;
+    private final double leanPerCalorie;
+    private final double fatPerCalorie;
+    private final int interval;
+
+    Simulation(
+      final BodyWeightSimulationConfiguration configuration,
+      final BodyDefinitionColumns inBodies,
+      final BodyWeightSimulationObserverType inObserver)
+    {
+      this.bodies = inBodies;
+      this.observer = inObserver;
+      this.intakeDaily = configuration.intakeRecomputedDaily();
+      this.forbes = configuration.forbesConstant();
+      this.leanPerCalorie = 1.0 / configuration.leanEnergyDensity();
+      this.fatPerCalorie = 1.0 / configuration.fatEnergyDensity();
+      this.interval = configuration.observationIntervalDays();
+    }
+
+    void simulate(
+      final int offset,
+      final int count,
+      final int days)
+    {
+      final var block = new Block(Math.min(BLOCK_SIZE, count));
+      final int end = offset + count;
+      for (int start = offset; start < end; start += block.lean.length) {
+        final int size = Math.min(block.lean.length, end - start);
+        this.simulateBlock(block, start, size, days);
+      }
+    }
+
+    private void simulateBlock(
+      final Block block,
+      final int offset,
+      final int count,
+      final int days)
+    {
+      this.load(block, offset, count);
+
+      int day = 0;
+      while (day < days) {
+        final int span = Math.min(this.interval, days - day);
+        for (int step = 0; step < span; ++step) {
+          if (this.intakeDaily) {
+            this.stepDailyIntake(block, count);
+          } else {
+            this.stepFixedIntake(block, count);
+          }
+        }
+        day += span;
+
+        this.store(block, offset, count);
+        this.observer.onObservation(day, this.bodies, offset, count);
+      }
+    }
+
+    private void load(
+      final Block block,
+      final int offset,
+      final int count)
+    {
+      final byte[] genders = this.bodies.genders();
+      final byte[] activities = this.bodies.activities();
+      final double[] heights = this.bodies.heightMetres();
+      final double[] weights = this.bodies.weightKilograms();
+      final double[] ages = this.bodies.ageYears();
+      final double[] fats = this.bodies.bodyFatCoefficients();
+      final double[] adjustments = this.bodies.caloricAdjustments();
+
+      for (int index = 0; index < count; ++index) {
+        final int body = offset + index;
+        final double weight = weights[body];
+        final double constant =
+          genderConstant(genders[body]);
+        final double activity =
+          activityCoefficient(activities[body]);
+        final double maintenance =
+          MifflinStJeor.basalMetabolicRate(
+            constant, heights[body], weight, ages[body]) * activity;
+
+        block.fat[index] = weight * fats[body];
+        block.lean[index] = weight - block.fat[index];
+        block.age[index] = ages[body];
+        block.height[index] = heights[body];
+        block.constant[index] = constant;
+        block.activity[index] = activity;
+        block.intake[index] =
+          this.intakeDaily
+            ? adjustments[body] - 1.0
+            : maintenance * adjustments[body];
+      }
+    }
+
+    private void store(
+      final Block block,
+      final int offset,
+      final int count)
+    {
+      final double[] weights = this.bodies.weightKilograms();
+      final double[] ages = this.bodies.ageYears();
+      final double[] fats = this.bodies.bodyFatCoefficients();
+
+      for (int index = 0; index < count; ++index) {
+        final int body = offset + index;
+        final double weight = block.lean[index] + block.fat[index];
+        weights[body] = weight;
+        fats[body] = block.fat[index] / weight;
+        ages[body] = block.age[index];
+      }
+    }
+
+    /*
+     * The daily steps iterate over bodies rather than days in the inner
+     * loop, so that each iteration is independent of the last and the
+     * loop can be vectorized; stepping one body through many days would
+     * instead be bound by the latency of the division in Forbes' rule.
+     * When intake is re-estimated daily, the intake array holds the
+     * caloric adjustment minus one, as the imbalance is then simply that
+     * fraction of the expenditure.
+     */
+
+    private void stepDailyIntake(
+      final Block block,
+      final int count)
+    {
+      final double[] lean = block.lean;
+      final double[] fat = block.fat;
+      final double[] age = block.age;
+      final double[] height = block.height;
+      final double[] constant = block.constant;
+      final double[] activity = block.activity;
+      final double[] surplus = block.intake;
+
+      for (int index = 0; index < count; ++index) {
+        final double f = fat[index];
+        final double bmr =
+          MifflinStJeor.basalMetabolicRate(
+            constant[index], height[index], lean[index] + f, age[index]);
+        final double imbalance =
+          (bmr * activity[index]) * surplus[index];
+        final double leanShare =
+          this.forbes / (this.forbes + f);
+
+        lean[index] += (leanShare * imbalance) * this.leanPerCalorie;
+        fat[index] = f + ((1.0 - leanShare) * imbalance) * this.fatPerCalorie;
+        age[index] += YEARS_PER_DAY;
+      }
+    }
+
+    private void stepFixedIntake(
+      final Block block,
+      final int count)
+    {
+      final double[] lean = block.lean;
+      final double[] fat = block.fat;
+      final double[] age = block.age;
+      final double[] height = block.height;
+      final double[] constant = block.constant;
+      final double[] activity = block.activity;
+      final double[] intake = block.intake;
+
+      for (int index = 0; index < count; ++index) {
+        final double f = fat[index];
+        final double bmr =
+          MifflinStJeor.basalMetabolicRate(
+            constant[index], height[index], lean[index] + f, age[index]);
+        final double imbalance =
+          intake[index] - bmr * activity[index];
+        final double leanShare =
+          this.forbes / (this.forbes + f);
+
+        lean[index] += (leanShare * imbalance) * this.leanPerCalorie;
+        fat[index] = f + ((1.0 - leanShare) * imbalance) * this.fatPerCalorie;
+        age[index] += YEARS_PER_DAY;
+      }
+    }
+  }
+
+  /*
+   * The working state of a block of bodies.
+   */
+
+  private static final class Block
+  {
+    private final double[] lean;
+    private final double[] fat;
+    private final double[] age;
+    private final double[] height;
+    private final double[] constant;
+    private final double[] activity;
+    private final double[] intake;
+
+    Block(
+      final int size)
+    {
+      this.lean = new double[size];
+      this.fat = new double[size];
+      this.age = new double[size];
+      this.height = new double[size];
+      this.constant = new double[size];
+      this.activity = new double[size];
+      this.intake = new double[size];
+    }
+  }
+
+  private static final class SimulationTask extends RecursiveAction
+  {
+    private static final long serialVersionUID = 1L;
+
+    private final transient Simulation simulation;
+    private final int start;
+    private final int end;
+    private final int days;
+    private final int chunk;
+
+    SimulationTask(
+      final Simulation inSimulation,
+      final int inStart,
+      final int inEnd,
+      final int inDays,
+      final int inChunk)
+    {
+      this.simulation = inSimulation;
+      this.start = inStart;
+      this.end = inEnd;
+      this.days = inDays;
+      this.chunk = inChunk;
+    }
+
+    @Override
+    protected void compute()
+    {
+      if (this.end - this.start <= this.chunk) {
+        this.simulation.simulate(
+          this.start,
+          this.end - this.start,
+          this.days
+        );
+        return;
+      }
+
+      final int middle = (this.start + this.end) >>> 1;
+      invokeAll(
+        new SimulationTask(
+          this.simulation, this.start, middle, this.days, this.chunk),
+        new SimulationTask(
+          this.simulation, middle, this.end, this.days, this.chunk)
+      );
+    }
+  }
+}
@@ -16,8 +16,6 @@
 
 package com.io7m.bodyrecomp.core;
 
-import com.io7m.bodyrecomp.core.internal.Clamp;
-
 import java.util.Objects;
 
 /**
@@ -26,6 +24,74 @@ import java.util.Objects;
 
 public final class DietaryFatEstimates
 {
+  /**
+   * The lowest proportion of calories dedicated to dietary fat.
+   */
+
+  public static final double FAT_COEFFICIENT_LOW = 0.2;
+
+  /**
+   * The highest proportion of calories dedicated to dietary fat.
+   */
+
+  public static final double FAT_COEFFICIENT_HIGH = 0.35;
+
+  /**
+   * The body fat percentage at or below which male bodies receive the lowest
+   * fat coefficient.
+   */
+
+  public static final double MALE_BODY_FAT_LOW = 5.0;
+
+  /**
+   * The body fat percentage at or above which male bodies receive the highest
+   * fat coefficient.
+   */
+
+  public static final double MALE_BODY_FAT_HIGH = 25.0;
+
+  /**
+   * The body fat percentage at or below which female bodies receive the lowest
+   * fat coefficient.
+   */
+
+  public static final double FEMALE_BODY_FAT_LOW = 10.0;
+
+  /**
+   * The body fat percentage at or above which female bodies receive the highest
+   * fat coefficient.
+   */
+
+  public static final double FEMALE_BODY_FAT_HIGH = 40.0;
+
+  /**
+   * The curve mapping body fat percentages to dietary fat coefficients for
+   * male bodies.
+   */
+
+  public static final PiecewiseLinearCurve MALE_FAT_COEFFICIENT =
+    PiecewiseLinearCurve.ofSegment(
+      MALE_BODY_FAT_LOW,
+      MALE_BODY_FAT_HIGH,
+      FAT_COEFFICIENT_LOW,
+      FAT_COEFFICIENT_HIGH,
+      PiecewiseLinearCurveExtrapolation.CLAMP
+    );
+
+  /**
+   * The curve mapping body fat percentages to dietary fat coefficients for
+   * female bodies.
+   */
+
+  public static final PiecewiseLinearCurve FEMALE_FAT_COEFFICIENT =
+    PiecewiseLinearCurve.ofSegment(
+      FEMALE_BODY_FAT_LOW,
+      FEMALE_BODY_FAT_HIGH,
+      FAT_COEFFICIENT_LOW,
+      FAT_COEFFICIENT_HIGH,
+      PiecewiseLinearCurveExtrapolation.CLAMP
+    );
+
   private DietaryFatEstimates()
   {
 
@@ -44,39 +110,50 @@ public final class DietaryFatEstimates
   {
     Objects.requireNonNull(body, "body");
 
-    final double rawEstimate =
-      estimateActual(body);
     final var coefficient =
-      NormalCoefficient.of(Clamp.clamp(0.2, 0.35, rawEstimate));
+      NormalCoefficient.of(
+        fatCoefficient(body.gender(), body.bodyFatPercentage())
+      );
 
     return DietaryFatEstimate.builder()
       .setFatCoefficient(coefficient)
       .build();
   }
 
-  private static double estimateActual(
-    final BodyDefinition body)
+  /**
+   * Estimate the proportion of total calories that should be dedicated to
+   * dietary fat.
+   *
+   * @param gender            The biological gender of the body
+   * @param bodyFatPercentage The body fat percentage
+   *
+   * @return The dietary fat coefficient in the range {@code [0.2, 0.35]}
+   */
+
+  public static double fatCoefficient(
+    final BiologicalGender gender,
+    final double bodyFatPercentage)
+  {
+    return fatCoefficientCurve(gender).evaluate(bodyFatPercentage);
+  }
+
+  /**
+   * @param gender The biological gender of the body
+   *
+   * @return The curve mapping body fat percentages to dietary fat coefficients
+   *
+   * @see #MALE_FAT_COEFFICIENT
+   * @see #FEMALE_FAT_COEFFICIENT
+   */
+
+  public static PiecewiseLinearCurve fatCoefficientCurve(
+    final BiologicalGender gender)
   {
-    switch (body.gender()) {
-      case MALE: {
-        return
-          NormalCoefficients.mapIntoRange(
-            5.0,
-            25.0,
-            0.2,
-            0.35,
-            body.bodyFatPercentage()
-          );
-      }
-      case FEMALE: {
-        return NormalCoefficients.mapIntoRange(
-          10.0,
-          40.0,
-          0.2,
-          0.35,
-          body.bodyFatPercentage()
-        );
-      }
+    switch (gender) {
+      case MALE:
+        return MALE_FAT_COEFFICIENT;
+      case FEMALE:
+        return FEMALE_FAT_COEFFICIENT;
       default:
         throw new IllegalStateException();
     }
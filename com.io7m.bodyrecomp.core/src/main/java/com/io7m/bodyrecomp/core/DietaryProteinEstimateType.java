@@ -19,7 +19,6 @@ package com.io7m.bodyrecomp.core;
 import com.io7m.immutables.styles.ImmutablesStyleType;
 import com.io7m.jaffirm.core.Preconditions;
 import org.immutables.value.Value;
-import systems.uom.unicode.CLDR;
 import tech.units.indriya.quantity.Quantities;
 
 import javax.measure.Quantity;
@@ -27,7 +26,7 @@ import javax.measure.quantity.Energy;
 import javax.measure.quantity.Mass;
 import java.util.Objects;
 
-import static tech.units.indriya.unit.Units.GRAM;
+import static com.io7m.bodyrecomp.core.BodyUnits.GRAM;
 
 /**
  * An estimate of the required dietary protein.
@@ -65,7 +64,7 @@ public interface DietaryProteinEstimateType
   {
     return Quantities.getQuantity(
       Double.valueOf(this.proteinGrams().getValue().doubleValue() * 4.0),
-      CLDR.FOODCALORIE
+      BodyUnits.FOOD_CALORIE
     );
   }
 
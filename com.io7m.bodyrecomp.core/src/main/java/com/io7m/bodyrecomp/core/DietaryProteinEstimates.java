@@ -16,9 +16,7 @@
 
 package com.io7m.bodyrecomp.core;
 
-import com.io7m.jaffirm.core.Invariants;
 import tech.units.indriya.quantity.Quantities;
-import tech.units.indriya.unit.Units;
 
 import javax.measure.Quantity;
 import javax.measure.quantity.Mass;
@@ -30,6 +28,78 @@ import java.util.Objects;
 
 public final class DietaryProteinEstimates
 {
+  /**
+   * The grams of protein per pound of body weight at the lowest body fat
+   * percentages.
+   */
+
+  public static final double GRAMS_PER_POUND_LOW = 1.6;
+
+  /**
+   * The grams of protein per pound of body weight at the highest body fat
+   * percentages.
+   */
+
+  public static final double GRAMS_PER_POUND_HIGH = 1.2;
+
+  /**
+   * The lowest body fat percentage considered for male bodies.
+   */
+
+  public static final double MALE_BODY_FAT_LOW = 5.0;
+
+  /**
+   * The highest body fat percentage considered for male bodies.
+   */
+
+  public static final double MALE_BODY_FAT_HIGH = 30.0;
+
+  /**
+   * The lowest body fat percentage considered for female bodies.
+   */
+
+  public static final double FEMALE_BODY_FAT_LOW = 8.0;
+
+  /**
+   * The highest body fat percentage considered for female bodies.
+   */
+
+  public static final double FEMALE_BODY_FAT_HIGH = 40.0;
+
+  /**
+   * The (approximate) number of pounds in a kilogram.
+   */
+
+  public static final double POUNDS_PER_KILOGRAM = 2.2;
+
+  /**
+   * The curve mapping body fat percentages to grams of protein per pound of
+   * body weight for male bodies.
+   */
+
+  public static final PiecewiseLinearCurve MALE_GRAMS_PER_POUND =
+    PiecewiseLinearCurve.ofSegment(
+      MALE_BODY_FAT_LOW,
+      MALE_BODY_FAT_HIGH,
+      GRAMS_PER_POUND_LOW,
+      GRAMS_PER_POUND_HIGH,
+      PiecewiseLinearCurveExtrapolation.LINEAR
+    );
+
+  /**
+   * The curve mapping body fat percentages to grams of protein per pound of
+   * body weight for female bodies.
+   */
+
+  public static final PiecewiseLinearCurve FEMALE_GRAMS_PER_POUND =
+    PiecewiseLinearCurve.ofSegment(
+      FEMALE_BODY_FAT_LOW,
+      FEMALE_BODY_FAT_HIGH,
+      GRAMS_PER_POUND_LOW,
+      GRAMS_PER_POUND_HIGH,
+      PiecewiseLinearCurveExtrapolation.LINEAR
+    );
+
   private DietaryProteinEstimates()
   {
 
@@ -48,78 +118,109 @@ public final class DietaryProteinEstimates
   {
     Objects.requireNonNull(body, "body");
 
-    final Quantity<Mass> gramsPerPound =
-      proteinGramsPerPound(body);
+    final double gramsPerPound =
+      gramsPerPound(body.gender(), body.bodyFatPercentage());
+    final double gramsPerKilogram =
+      gramsPerKilogram(gramsPerPound);
+    final double proteinGrams =
+      proteinGrams(
+        body.bodyWeight().getValue().doubleValue(),
+        body.bodyFatCoefficient().value(),
+        gramsPerKilogram
+      );
 
-    Invariants.checkInvariant(
-      Objects.equals(gramsPerPound.getUnit(), Units.GRAM),
-      "Value must be in grams"
-    );
+    return DietaryProteinEstimate.builder()
+      .setGramsPerKilogram(grams(gramsPerKilogram))
+      .setGramsPerPound(grams(gramsPerPound))
+      .setProteinGrams(grams(proteinGrams))
+      .build();
+  }
 
-    final Quantity<Mass> gramsPerKilo =
-      gramsPerPound.multiply(Double.valueOf(2.2));
+  private static Quantity<Mass> grams(
+    final double x)
+  {
+    return Quantities.getQuantity(Double.valueOf(x), BodyUnits.GRAM);
+  }
 
-    Invariants.checkInvariant(
-      Objects.equals(gramsPerKilo.getUnit(), Units.GRAM),
-      "Value must be in grams"
-    );
+  /**
+   * Estimate the number of grams of protein required for each kilogram of
+   * body weight.
+   *
+   * @param gramsPerPound The number of grams per pound of body weight
+   *
+   * @return The number of grams per kilogram of body weight
+   *
+   * @see #gramsPerPound(BiologicalGender, double)
+   */
 
-    final double leanMassKilos =
-      body.leanMassWeight()
-        .to(Units.KILOGRAM)
-        .getValue()
-        .doubleValue();
+  public static double gramsPerKilogram(
+    final double gramsPerPound)
+  {
+    return gramsPerPound * POUNDS_PER_KILOGRAM;
+  }
+
+  /**
+   * Estimate the total number of grams of protein required for a body. The
+   * protein is calculated with respect to the lean mass of the body, and is
+   * rounded up to the nearest gram.
+   *
+   * @param weightKilograms    The weight of the body in kilograms
+   * @param bodyFatCoefficient The body fat coefficient in the range {@code [0,
+   * 1]}
+   * @param gramsPerKilogram   The number of grams per kilogram of lean mass
+   *
+   * @return The number of grams of protein
+   *
+   * @see #gramsPerKilogram(double)
+   */
 
-    final double totalRaw =
-      leanMassKilos * gramsPerKilo.getValue().doubleValue();
+  public static double proteinGrams(
+    final double weightKilograms,
+    final double bodyFatCoefficient,
+    final double gramsPerKilogram)
+  {
+    final double leanMassKilograms =
+      weightKilograms * (1.0 - bodyFatCoefficient);
+    return Math.ceil(leanMassKilograms * gramsPerKilogram);
+  }
 
-    final var totalGrams =
-      Quantities.getQuantity(
-        Double.valueOf(Math.ceil(totalRaw)),
-        Units.GRAM
-      );
+  /**
+   * Estimate the number of grams of protein required for each pound of
+   * body weight.
+   *
+   * @param gender            The biological gender of the body
+   * @param bodyFatPercentage The body fat percentage
+   *
+   * @return The number of grams per pound of body weight
+   */
 
-    return DietaryProteinEstimate.builder()
-      .setGramsPerKilogram(gramsPerKilo)
-      .setGramsPerPound(gramsPerPound)
-      .setProteinGrams(totalGrams)
-      .build();
+  public static double gramsPerPound(
+    final BiologicalGender gender,
+    final double bodyFatPercentage)
+  {
+    return gramsPerPoundCurve(gender).evaluate(bodyFatPercentage);
   }
 
-  private static Quantity<Mass> proteinGramsPerPound(
-    final BodyDefinition body)
+  /**
+   * @param gender The biological gender of the body
+   *
+   * @return The curve mapping body fat percentages to grams of protein per
+   * pound of body weight
+   *
+   * @see #MALE_GRAMS_PER_POUND
+   * @see #FEMALE_GRAMS_PER_POUND
+   */
+
+  public static PiecewiseLinearCurve gramsPerPoundCurve(
+    final BiologicalGender gender)
   {
-    final var gramsPerPoundLow = 1.6;
-    final var gramsPerPoundHigh = 1.2;
-
-    final double gramsPerPound;
-    switch (body.gender()) {
-      case MALE: {
-        gramsPerPound =
-          NormalCoefficients.mapIntoRange(
-            5.0,
-            30.0,
-            gramsPerPoundLow,
-            gramsPerPoundHigh,
-            body.bodyFatPercentage()
-          );
-        break;
-      }
-      case FEMALE: {
-        gramsPerPound =
-          NormalCoefficients.mapIntoRange(
-            8.0,
-            40.0,
-            gramsPerPoundLow,
-            gramsPerPoundHigh,
-            body.bodyFatPercentage()
-          );
-        break;
-      }
+    switch (gender) {
+      case MALE:
+        return MALE_GRAMS_PER_POUND;
+      case FEMALE:
+        return FEMALE_GRAMS_PER_POUND;
       default:
         throw new IllegalStateException();
     }
-
-    return Quantities.getQuantity(Double.valueOf(gramsPerPound), Units.GRAM);
   }
 }
@@ -16,6 +16,8 @@
 
 package com.io7m.bodyrecomp.core;
 
+import tech.units.indriya.quantity.Quantities;
+
 import javax.measure.Quantity;
 import javax.measure.quantity.Energy;
 
@@ -59,6 +61,26 @@ public final class MaintenanceCalories
     final Quantity<Energy> bmr,
     final double activity)
   {
-    return bmr.multiply(Double.valueOf(activity));
+    return Quantities.getQuantity(
+      Double.valueOf(
+        maintenanceEstimate(bmr.getValue().doubleValue(), activity)),
+      bmr.getUnit()
+    );
+  }
+
+  /**
+   * Estimate calories for the given basal metabolic rate and activity coefficient.
+   *
+   * @param bmr      The basal metabolic rate
+   * @param activity The activity coefficient
+   *
+   * @return The calorie estimate, in the same units as {@code bmr}
+   */
+
+  public static double maintenanceEstimate(
+    final double bmr,
+    final double activity)
+  {
+    return bmr * activity;
   }
 }
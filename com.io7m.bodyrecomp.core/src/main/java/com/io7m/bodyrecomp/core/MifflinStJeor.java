@@ -16,15 +16,12 @@
 
 package com.io7m.bodyrecomp.core;
 
-import systems.uom.unicode.CLDR;
 import tech.units.indriya.quantity.Quantities;
 
 import javax.measure.Quantity;
 import javax.measure.quantity.Energy;
 import java.util.Objects;
 
-import static systems.uom.common.historic.CGS.CENTIMETRE;
-
 /**
  * The Mifflin St. Jeor BMR estimation.
  *
@@ -33,6 +30,18 @@ import static systems.uom.common.historic.CGS.CENTIMETRE;
 
 public final class MifflinStJeor
 {
+  /**
+   * The constant term added to the BMR of male bodies.
+   */
+
+  public static final double MALE_CONSTANT = 5.0;
+
+  /**
+   * The constant term added to the BMR of female bodies.
+   */
+
+  public static final double FEMALE_CONSTANT = -161.0;
+
   private MifflinStJeor()
   {
 
@@ -51,33 +60,85 @@ public final class MifflinStJeor
   {
     Objects.requireNonNull(input, "input");
 
-    final double k =
-      input.bodyWeight()
-        .getValue()
-        .doubleValue() * 10.0;
+    final double raw =
+      basalMetabolicRate(
+        input.gender(),
+        input.height().getValue().doubleValue(),
+        input.bodyWeight().getValue().doubleValue(),
+        input.age().getValue().doubleValue()
+      );
+
+    return Quantities.getQuantity(Double.valueOf(raw), BodyUnits.FOOD_CALORIE);
+  }
+
+  /**
+   * Calculate the BMR, in food calories, for the given input.
+   *
+   * @param gender          The biological gender of the body
+   * @param heightMetres    The height of the body in metres
+   * @param weightKilograms The weight of the body in kilograms
+   * @param ageYears        The age of the body in years
+   *
+   * @return The BMR
+   */
+
+  public static double basalMetabolicRate(
+    final BiologicalGender gender,
+    final double heightMetres,
+    final double weightKilograms,
+    final double ageYears)
+  {
+    return basalMetabolicRate(
+      genderConstant(gender),
+      heightMetres,
+      weightKilograms,
+      ageYears
+    );
+  }
 
-    final double j =
-      input.height()
-        .to(CENTIMETRE)
-        .getValue()
-        .doubleValue() * 6.25;
+  /**
+   * Calculate the BMR, in food calories, for the given input. This is the
+   * form of the calculation used by functions that process many bodies at
+   * once, and that select the gender constant without branching.
+   *
+   * @param genderConstant  The gender constant of the body
+   * @param heightMetres    The height of the body in metres
+   * @param weightKilograms The weight of the body in kilograms
+   * @param ageYears        The age of the body in years
+   *
+   * @return The BMR
+   *
+   * @see #genderConstant(BiologicalGender)
+   */
 
-    final double m =
-      input.age().getValue().doubleValue() * 5.0;
+  public static double basalMetabolicRate(
+    final double genderConstant,
+    final double heightMetres,
+    final double weightKilograms,
+    final double ageYears)
+  {
+    final double k = weightKilograms * 10.0;
+    final double j = (heightMetres * 100.0) * 6.25;
+    final double m = ageYears * 5.0;
+    return ((k + j) - m) + genderConstant;
+  }
+
+  /**
+   * @param gender The biological gender of a body
+   *
+   * @return The constant term added to the BMR of the body
+   */
 
-    final double n;
-    switch (input.gender()) {
+  public static double genderConstant(
+    final BiologicalGender gender)
+  {
+    switch (gender) {
       case MALE:
-        n = 5.0;
-        break;
+        return MALE_CONSTANT;
       case FEMALE:
-        n = -161.0;
-        break;
+        return FEMALE_CONSTANT;
       default:
         throw new IllegalStateException();
     }
-
-    final var raw = ((k + j) - m) + n;
-    return Quantities.getQuantity(Double.valueOf(raw), CLDR.FOODCALORIE);
   }
 }
@@ -19,7 +19,6 @@ package com.io7m.bodyrecomp.core;
 import com.io7m.immutables.styles.ImmutablesStyleType;
 import com.io7m.jaffirm.core.Preconditions;
 import org.immutables.value.Value;
-import si.uom.SI;
 
 import javax.measure.Quantity;
 import javax.measure.quantity.Length;
@@ -69,15 +68,15 @@ public interface MifflinStJeorInputType
   default void checkPreconditions()
   {
     Preconditions.checkPrecondition(
-      Objects.equals(this.height().getUnit(), SI.METRE),
+      Objects.equals(this.height().getUnit(), BodyUnits.METRE),
       "Body height must be in meters"
     );
     Preconditions.checkPrecondition(
-      Objects.equals(this.age().getUnit(), SI.YEAR),
+      Objects.equals(this.age().getUnit(), BodyUnits.YEAR),
       "Age must be in years"
     );
     Preconditions.checkPrecondition(
-      Objects.equals(this.bodyWeight().getUnit(), SI.KILOGRAM),
+      Objects.equals(this.bodyWeight().getUnit(), BodyUnits.KILOGRAM),
       "Body weight must be in kilograms"
     );
   }
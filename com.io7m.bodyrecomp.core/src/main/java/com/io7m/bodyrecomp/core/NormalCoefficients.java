@@ -43,21 +43,4 @@ public final class NormalCoefficients
     Objects.requireNonNull(proportion, "proportion");
     return NormalCoefficient.of(1.0 - proportion.value());
   }
-
-  static double mapIntoRange(
-    final double inputLow,
-    final double inputHigh,
-    final double outputLow,
-    final double outputUpper,
-    final double x)
-  {
-    final double rangeUpper =
-      outputUpper - outputLow;
-    final double rangeLower =
-      inputHigh - inputLow;
-    final double result =
-      outputLow + (rangeUpper / rangeLower) * (x - inputLow);
-
-    return result;
-  }
 }
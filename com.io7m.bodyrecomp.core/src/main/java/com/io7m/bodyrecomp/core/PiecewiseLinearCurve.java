@@ -0,0 +1,293 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.bodyrecomp.core;
+
+import com.io7m.bodyrecomp.core.internal.Clamp;
+import com.io7m.jaffirm.core.Preconditions;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * <p>An immutable piecewise-linear curve defined by a list of breakpoints.</p>
+ *
+ * <p>The slope of each segment is computed once when the curve is created,
+ * and so evaluating the curve consists of a short branch-free binary search
+ * for the segment containing the input followed by a single multiply-add.
+ * A segment between breakpoints {@code (x0, y0)} and {@code (x1, y1)}
+ * evaluates {@code y0 + ((y1 - y0) / (x1 - x0)) * (x - x0)}, exactly as a
+ * direct linear interpolation between the two breakpoints would.</p>
+ *
+ * <p>Curves are immutable and may be freely shared between threads.</p>
+ */
+
+public final class PiecewiseLinearCurve
+{
+  private final double[] inputs;
+  private final double[] outputs;
+  private final double[] slopes;
+  private final PiecewiseLinearCurveExtrapolation extrapolation;
+  private final double outputLowest;
+  private final double outputHighest;
+
+  private PiecewiseLinearCurve(
+    final double[] inInputs,
+    final double[] inOutputs,
+    final PiecewiseLinearCurveExtrapolation inExtrapolation)
+  {
+    this.inputs = inInputs;
+    this.outputs = inOutputs;
+    this.extrapolation = inExtrapolation;
+    this.slopes = new double[inInputs.length - 1];
+
+    double lowest = inOutputs[0];
+    double highest = inOutputs[0];
+    for (int index = 0; index < this.slopes.length; ++index) {
+      this.slopes[index] =
+        (inOutputs[index + 1] - inOutputs[index])
+          / (inInputs[index + 1] - inInputs[index]);
+      lowest = Math.min(lowest, inOutputs[index + 1]);
+      highest = Math.max(highest, inOutputs[index + 1]);
+    }
+
+    this.outputLowest = lowest;
+    this.outputHighest = highest;
+  }
+
+  /**
+   * Create a new curve. The arrays are copied and may be safely modified
+   * after this method returns.
+   *
+   * @param inputs        The input values of the breakpoints, in strictly
+   *                      ascending order
+   * @param outputs       The output values of the breakpoints
+   * @param extrapolation The behaviour for inputs outside of the breakpoints
+   *
+   * @return A new curve
+   */
+
+  public static PiecewiseLinearCurve of(
+    final double[] inputs,
+    final double[] outputs,
+    final PiecewiseLinearCurveExtrapolation extrapolation)
+  {
+    Objects.requireNonNull(inputs, "inputs");
+    Objects.requireNonNull(outputs, "outputs");
+    Objects.requireNonNull(extrapolation, "extrapolation");
+
+    Preconditions.checkPreconditionI(
+      inputs.length,
+      inputs.length >= 2,
+      n -> "At least two breakpoints are required"
+    );
+    Preconditions.checkPreconditionI(
+      outputs.length,
+      outputs.length == inputs.length,
+      n -> "Output count must match input count " + inputs.length
+    );
+
+    for (int index = 0; index < inputs.length; ++index) {
+      checkBreakpoint(inputs, outputs, index);
+    }
+
+    return new PiecewiseLinearCurve(
+      inputs.clone(),
+      outputs.clone(),
+      extrapolation
+    );
+  }
+
+  /**
+   * Create a new curve consisting of a single segment.
+   *
+   * @param inputLow      The input value of the first breakpoint
+   * @param inputHigh     The input value of the second breakpoint
+   * @param outputLow     The output value of the first breakpoint
+   * @param outputHigh    The output value of the second breakpoint
+   * @param extrapolation The behaviour for inputs outside of the breakpoints
+   *
+   * @return A new curve
+   */
+
+  public static PiecewiseLinearCurve ofSegment(
+    final double inputLow,
+    final double inputHigh,
+    final double outputLow,
+    final double outputHigh,
+    final PiecewiseLinearCurveExtrapolation extrapolation)
+  {
+    return of(
+      new double[]{inputLow, inputHigh},
+      new double[]{outputLow, outputHigh},
+      extrapolation
+    );
+  }
+
+  private static void checkBreakpoint(
+    final double[] inputs,
+    final double[] outputs,
+    final int index)
+  {
+    Preconditions.checkPreconditionD(
+      inputs[index],
+      Double.isFinite(inputs[index]),
+      x -> "Breakpoint input " + index + " must be finite"
+    );
+    Preconditions.checkPreconditionD(
+      outputs[index],
+      Double.isFinite(outputs[index]),
+      y -> "Breakpoint output " + index + " must be finite"
+    );
+    if (index > 0) {
+      Preconditions.checkPreconditionD(
+        inputs[index],
+        inputs[index] > inputs[index - 1],
+        x -> "Breakpoint inputs must be strictly ascending (at " + index + ")"
+      );
+    }
+  }
+
+  /**
+   * @return The number of breakpoints in the curve
+   */
+
+  public int breakpointCount()
+  {
+    return this.inputs.length;
+  }
+
+  /**
+   * @param index The breakpoint index
+   *
+   * @return The input value of the given breakpoint
+   */
+
+  public double breakpointInput(
+    final int index)
+  {
+    return this.inputs[index];
+  }
+
+  /**
+   * @param index The breakpoint index
+   *
+   * @return The output value of the given breakpoint
+   */
+
+  public double breakpointOutput(
+    final int index)
+  {
+    return this.outputs[index];
+  }
+
+  /**
+   * @return The behaviour for inputs outside of the breakpoints
+   */
+
+  public PiecewiseLinearCurveExtrapolation extrapolation()
+  {
+    return this.extrapolation;
+  }
+
+  /**
+   * Evaluate the curve.
+   *
+   * @param x The input value
+   *
+   * @return The output value of the curve at {@code x}
+   */
+
+  public double evaluate(
+    final double x)
+  {
+    final double[] xs = this.inputs;
+    final int last = xs.length - 1;
+
+    if (this.extrapolation == PiecewiseLinearCurveExtrapolation.CLAMP) {
+      if (x <= xs[0]) {
+        return this.outputs[0];
+      }
+      if (x >= xs[last]) {
+        return this.outputs[last];
+      }
+      return Clamp.clamp(
+        this.outputLowest,
+        this.outputHighest,
+        this.evaluateSegment(x)
+      );
+    }
+    return this.evaluateSegment(x);
+  }
+
+  private double evaluateSegment(
+    final double x)
+  {
+    final double[] xs = this.inputs;
+
+    /*
+     * Find the last segment whose starting breakpoint is not greater than x,
+     * or the first segment if there is no such segment. The loop always runs
+     * for exactly ceil(log2(segments)) iterations and the selection within it
+     * compiles to a conditional move.
+     */
+
+    int base = 0;
+    int length = this.slopes.length;
+    while (length > 1) {
+      final int half = length >>> 1;
+      base = xs[base + half] <= x ? base + half : base;
+      length -= half;
+    }
+
+    return this.outputs[base] + this.slopes[base] * (x - xs[base]);
+  }
+
+  @Override
+  public boolean equals(
+    final Object other)
+  {
+    if (this == other) {
+      return true;
+    }
+    if (!(other instanceof PiecewiseLinearCurve)) {
+      return false;
+    }
+    final var c = (PiecewiseLinearCurve) other;
+    return this.extrapolation == c.extrapolation
+           && Arrays.equals(this.inputs, c.inputs)
+           && Arrays.equals(this.outputs, c.outputs);
+  }
+
+  @Override
+  public int hashCode()
+  {
+    return Objects.hash(
+      Integer.valueOf(Arrays.hashCode(this.inputs)),
+      Integer.valueOf(Arrays.hashCode(this.outputs)),
+      this.extrapolation
+    );
+  }
+
+  @Override
+  public String toString()
+  {
+    return String.format(
+      "[PiecewiseLinearCurve 0x%s]",
+      Long.toUnsignedString(System.identityHashCode(this), 16)
+    );
+  }
+}
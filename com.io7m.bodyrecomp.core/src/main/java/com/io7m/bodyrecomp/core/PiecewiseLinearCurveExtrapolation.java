@@ -0,0 +1,40 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.bodyrecomp.core;
+
+/**
+ * The behaviour of a {@link PiecewiseLinearCurve} for inputs that lie outside
+ * of the range of its breakpoints.
+ */
+
+public enum PiecewiseLinearCurveExtrapolation
+{
+  /**
+   * Inputs outside of the range of the breakpoints are mapped by extending
+   * the first or last segment of the curve.
+   */
+
+  LINEAR,
+
+  /**
+   * Inputs outside of the range of the breakpoints are mapped to the value
+   * of the first or last breakpoint, and no output of the curve is ever
+   * outside of the range of the breakpoint values.
+   */
+
+  CLAMP
+}
@@ -17,32 +17,75 @@
 package com.io7m.bodyrecomp.core.internal;
 
 import com.io7m.bodyrecomp.strings.api.BRAbstractStrings;
+import com.io7m.bodyrecomp.strings.api.BRStringsCatalog;
+import jdk.jfr.FlightRecorder;
 
-import java.util.ResourceBundle;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * String resources.
+ * String resources. Message patterns are compiled from {@code Messages.xml}
+ * into {@link BRCoreMessageKey} at build time; instances are created once per
+ * locale and shared between threads.
  */
 
-public final class BRCoreMessages extends BRAbstractStrings
+@BRStringsCatalog(
+  resource = "/com/io7m/bodyrecomp/core/internal/Messages.xml",
+  keyType = "BRCoreMessageKey")
+public final class BRCoreMessages extends BRAbstractStrings<BRCoreMessageKey>
 {
+  private static final ConcurrentHashMap<Locale, BRCoreMessages> INSTANCES =
+    new ConcurrentHashMap<>();
+
   private BRCoreMessages(
-    final ResourceBundle inResources)
+    final Locale inLocale)
   {
-    super(inResources);
+    super(inLocale);
   }
 
   /**
-   * @return The string resources.
+   * @return The string resources for the default formatting locale
    */
 
   public static BRCoreMessages create()
   {
-    return new BRCoreMessages(
-      ofXMLResource(
-        BRCoreMessages.class,
-        "/com/io7m/bodyrecomp/core/internal/Messages.xml")
-    );
+    return create(Locale.getDefault(Locale.Category.FORMAT));
+  }
+
+  /**
+   * @param locale The locale used to format messages
+   *
+   * @return The string resources for the given locale
+   */
+
+  public static BRCoreMessages create(
+    final Locale locale)
+  {
+    Objects.requireNonNull(locale, "locale");
+
+    final BRCoreMessagesCreateEvent event;
+    if (FlightRecorder.isInitialized()) {
+      event = new BRCoreMessagesCreateEvent();
+      event.begin();
+    } else {
+      event = null;
+    }
+
+    var messages = INSTANCES.get(locale);
+    final boolean loaded = messages == null;
+    if (loaded) {
+      messages = INSTANCES.computeIfAbsent(locale, BRCoreMessages::new);
+    }
+
+    if (event != null) {
+      event.end();
+      if (event.shouldCommit()) {
+        event.set(locale.toLanguageTag(), loaded);
+        event.commit();
+      }
+    }
+    return messages;
   }
 
   @Override
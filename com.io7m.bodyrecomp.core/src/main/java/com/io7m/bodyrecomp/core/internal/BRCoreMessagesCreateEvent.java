@@ -0,0 +1,61 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.bodyrecomp.core.internal;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A flight recorder event describing a request for core string resources.
+ * The event is disabled by default.
+ */
+
+@Name(BRCoreMessagesCreateEvent.NAME)
+@Label("Core Messages Request")
+@Description("A request for the core string resources of a locale.")
+@Category("bodyrecomp")
+@Enabled(false)
+@StackTrace(false)
+final class BRCoreMessagesCreateEvent extends Event
+{
+  static final String NAME = "com.io7m.bodyrecomp.CoreMessagesCreate";
+
+  @Label("Locale")
+  private String locale;
+
+  @Label("Loaded")
+  @Description("True if the resources were loaded, rather than found in the cache.")
+  private boolean loaded;
+
+  BRCoreMessagesCreateEvent()
+  {
+
+  }
+
+  void set(
+    final String inLocale,
+    final boolean inLoaded)
+  {
+    this.locale = inLocale;
+    this.loaded = inLoaded;
+  }
+}
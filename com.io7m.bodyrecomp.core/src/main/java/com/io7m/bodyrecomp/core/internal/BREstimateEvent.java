@@ -0,0 +1,163 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.bodyrecomp.core.internal;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.util.List;
+
+/**
+ * A flight recorder event describing a single macronutrient estimate. The
+ * event is disabled by default.
+ */
+
+@Name(BREstimateEvent.NAME)
+@Label("Macronutrient Estimate")
+@Description("A macronutrient estimate produced for a body definition.")
+@Category("bodyrecomp")
+@Enabled(false)
+@StackTrace(false)
+public final class BREstimateEvent extends Event
+{
+  /**
+   * The name of the event type.
+   */
+
+  public static final String NAME = "com.io7m.bodyrecomp.Estimate";
+
+  @Label("Gender")
+  private String gender;
+
+  @Label("Activity")
+  private String activity;
+
+  @Label("Height (Metres)")
+  private double heightMetres;
+
+  @Label("Weight (Kilograms)")
+  private double weightKilograms;
+
+  @Label("Age (Years)")
+  private double ageYears;
+
+  @Label("Body Fat Coefficient")
+  private double bodyFatCoefficient;
+
+  @Label("Caloric Adjustment")
+  private double caloricAdjustment;
+
+  @Label("Explanation Count")
+  private int explanationCount;
+
+  @Label("Explanation Size")
+  @Description("The total size of the explanations encoded as UTF-8.")
+  @DataAmount
+  private long explanationBytes;
+
+  /**
+   * Construct an event.
+   */
+
+  public BREstimateEvent()
+  {
+
+  }
+
+  /**
+   * Set the inputs of the estimate.
+   *
+   * @param inGender             The gender
+   * @param inActivity           The activity level
+   * @param inHeightMetres       The height in metres
+   * @param inWeightKilograms    The weight in kilograms
+   * @param inAgeYears           The age in years
+   * @param inBodyFatCoefficient The body fat coefficient
+   * @param inCaloricAdjustment  The caloric adjustment coefficient
+   */
+
+  public void setInputs(
+    final String inGender,
+    final String inActivity,
+    final double inHeightMetres,
+    final double inWeightKilograms,
+    final double inAgeYears,
+    final double inBodyFatCoefficient,
+    final double inCaloricAdjustment)
+  {
+    this.gender = inGender;
+    this.activity = inActivity;
+    this.heightMetres = inHeightMetres;
+    this.weightKilograms = inWeightKilograms;
+    this.ageYears = inAgeYears;
+    this.bodyFatCoefficient = inBodyFatCoefficient;
+    this.caloricAdjustment = inCaloricAdjustment;
+  }
+
+  /**
+   * Set the explanations produced by the estimate.
+   *
+   * @param explanations The explanations
+   */
+
+  public void setExplanations(
+    final List<String> explanations)
+  {
+    long bytes = 0L;
+    for (final var explanation : explanations) {
+      bytes += utf8Length(explanation);
+    }
+    this.explanationCount = explanations.size();
+    this.explanationBytes = bytes;
+  }
+
+  /**
+   * @param text The text
+   *
+   * @return The size of the text encoded as UTF-8, in bytes
+   */
+
+  public static long utf8Length(
+    final String text)
+  {
+    long bytes = 0L;
+    final int length = text.length();
+    for (int index = 0; index < length; ++index) {
+      /*
+       * A surrogate pair is encoded as four bytes; two for each half.
+       */
+
+      final char c = text.charAt(index);
+      if (c < 0x80) {
+        bytes += 1L;
+      } else if (c < 0x800) {
+        bytes += 2L;
+      } else if (Character.isSurrogate(c)) {
+        bytes += 2L;
+      } else {
+        bytes += 3L;
+      }
+    }
+    return bytes;
+  }
+}
@@ -0,0 +1,244 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.bodyrecomp.core.internal;
+
+import com.io7m.bodyrecomp.core.ActivityCoefficient;
+import com.io7m.bodyrecomp.core.BiologicalGender;
+import com.io7m.bodyrecomp.core.BodyDefinitionColumns;
+import com.io7m.bodyrecomp.core.BodyMacrosColumns;
+import com.io7m.bodyrecomp.core.CaloricAdjustment;
+import com.io7m.bodyrecomp.core.DietaryFatEstimates;
+import com.io7m.bodyrecomp.core.DietaryProteinEstimates;
+import com.io7m.bodyrecomp.core.MifflinStJeor;
+import com.io7m.bodyrecomp.core.PiecewiseLinearCurveExtrapolation;
+import com.io7m.jaffirm.core.Preconditions;
+
+import java.util.Objects;
+
+/**
+ * <p>The input decoding and coefficient tables shared by the batch
+ * estimation functions and kernels.</p>
+ *
+ * @see com.io7m.bodyrecomp.core.BodyMacroBatchEstimates
+ * @see com.io7m.bodyrecomp.core.BodyMacroBatchKernelType
+ */
+
+public final class BodyMacroBatchSupport
+{
+  /**
+   * The segment of the {@link DietaryProteinEstimates#gramsPerPoundCurve}
+   * for male bodies.
+   */
+
+  public static final BodyMacroCurveSegment GRAMS_PER_POUND_MALE =
+    BodyMacroCurveSegment.of(
+      DietaryProteinEstimates.gramsPerPoundCurve(BiologicalGender.MALE),
+      PiecewiseLinearCurveExtrapolation.LINEAR);
+
+  /**
+   * The segment of the {@link DietaryProteinEstimates#gramsPerPoundCurve}
+   * for female bodies.
+   */
+
+  public static final BodyMacroCurveSegment GRAMS_PER_POUND_FEMALE =
+    BodyMacroCurveSegment.of(
+      DietaryProteinEstimates.gramsPerPoundCurve(BiologicalGender.FEMALE),
+      PiecewiseLinearCurveExtrapolation.LINEAR);
+
+  /**
+   * The segment of the {@link DietaryFatEstimates#fatCoefficientCurve}
+   * for male bodies.
+   */
+
+  public static final BodyMacroCurveSegment FAT_COEFFICIENT_MALE =
+    BodyMacroCurveSegment.of(
+      DietaryFatEstimates.fatCoefficientCurve(BiologicalGender.MALE),
+      PiecewiseLinearCurveExtrapolation.CLAMP);
+
+  /**
+   * The segment of the {@link DietaryFatEstimates#fatCoefficientCurve}
+   * for female bodies.
+   */
+
+  public static final BodyMacroCurveSegment FAT_COEFFICIENT_FEMALE =
+    BodyMacroCurveSegment.of(
+      DietaryFatEstimates.fatCoefficientCurve(BiologicalGender.FEMALE),
+      PiecewiseLinearCurveExtrapolation.CLAMP);
+
+  /**
+   * The number of {@link ActivityCoefficient} values.
+   */
+
+  public static final int ACTIVITY_COUNT =
+    ActivityCoefficient.values().length;
+
+  /**
+   * The number of {@link CaloricAdjustment} values.
+   */
+
+  public static final int ADJUSTMENT_COUNT =
+    CaloricAdjustment.values().length;
+
+  /*
+   * The coefficients of each ActivityCoefficient and CaloricAdjustment, and
+   * the MifflinStJeor constant of each BiologicalGender, indexed by ordinal.
+   */
+
+  private static final double[] ACTIVITY_COEFFICIENTS =
+    activityCoefficientTable();
+  private static final double[] ADJUSTMENT_COEFFICIENTS =
+    adjustmentCoefficientTable();
+  private static final double[] GENDER_CONSTANTS =
+    genderConstantTable();
+
+  private BodyMacroBatchSupport()
+  {
+
+  }
+
+  private static double[] activityCoefficientTable()
+  {
+    final var values = ActivityCoefficient.values();
+    final var results = new double[values.length];
+    for (int index = 0; index < values.length; ++index) {
+      results[index] = values[index].coefficient();
+    }
+    return results;
+  }
+
+  private static double[] genderConstantTable()
+  {
+    final var values = BiologicalGender.values();
+    final var results = new double[values.length];
+    for (int index = 0; index < values.length; ++index) {
+      results[index] = MifflinStJeor.genderConstant(values[index]);
+    }
+    return results;
+  }
+
+  private static double[] adjustmentCoefficientTable()
+  {
+    final var values = CaloricAdjustment.values();
+    final var results = new double[values.length];
+    for (int index = 0; index < values.length; ++index) {
+      results[index] = values[index].coefficient().value();
+    }
+    return results;
+  }
+
+  /**
+   * @param ordinal The ordinal of an {@link ActivityCoefficient}
+   *
+   * @return The coefficient of the activity level
+   */
+
+  public static double activityCoefficient(
+    final int ordinal)
+  {
+    return ACTIVITY_COEFFICIENTS[ordinal];
+  }
+
+  /**
+   * @param ordinal The ordinal of a {@link CaloricAdjustment}
+   *
+   * @return The coefficient of the caloric adjustment
+   */
+
+  public static double adjustmentCoefficient(
+    final int ordinal)
+  {
+    return ADJUSTMENT_COEFFICIENTS[ordinal];
+  }
+
+  /**
+   * @param ordinal The ordinal of a {@link BiologicalGender}
+   *
+   * @return The {@link MifflinStJeor} constant of the gender
+   */
+
+  public static double genderConstant(
+    final int ordinal)
+  {
+    return GENDER_CONSTANTS[ordinal];
+  }
+
+  /**
+   * Check the {@code count} bodies in {@code input} starting at
+   * {@code offset}, and decode their activity coefficients and genders into
+   * the calorie and fat columns of {@code output} respectively. The remaining
+   * passes of a batch kernel then use those columns as scratch space, which
+   * keeps the passes free of narrow integer conversions and table lookups,
+   * both of which prevent vectorization.
+   *
+   * @param input  The bodies
+   * @param output The output estimates
+   * @param offset The index of the first body
+   * @param count  The number of bodies
+   */
+
+  public static void decodeAndCheck(
+    final BodyDefinitionColumns input,
+    final BodyMacrosColumns output,
+    final int offset,
+    final int count)
+  {
+    Objects.requireNonNull(input, "input");
+    Objects.requireNonNull(output, "output");
+    Objects.checkFromIndexSize(offset, count, input.size());
+    Objects.checkFromIndexSize(offset, count, output.size());
+
+    final double[] activity = output.calories();
+    final double[] gendersDecoded = output.fatGrams();
+    final byte[] genders = input.genders();
+    final byte[] activities = input.activities();
+    final double[] fat = input.bodyFatCoefficients();
+    final double[] adjustments = input.caloricAdjustments();
+    final int genderCount = BiologicalGender.values().length;
+
+    final int end = offset + count;
+    for (int index = offset; index < end; ++index) {
+      final int gender = genders[index];
+      final int activityIndex = activities[index];
+      final double bodyFat = fat[index];
+      final double adjustment = adjustments[index];
+
+      Preconditions.checkPreconditionI(
+        gender,
+        gender >= 0 && gender < genderCount,
+        g -> "Gender must be a valid BiologicalGender ordinal"
+      );
+      Preconditions.checkPreconditionI(
+        activityIndex,
+        activityIndex >= 0 && activityIndex < ACTIVITY_COUNT,
+        a -> "Activity must be a valid ActivityCoefficient ordinal"
+      );
+      Preconditions.checkPreconditionD(
+        bodyFat,
+        bodyFat >= 0.0 && bodyFat <= 1.0,
+        f -> "Body fat coefficient must be in the range [0, 1]"
+      );
+      Preconditions.checkPreconditionD(
+        adjustment,
+        adjustment >= 0.0,
+        a -> "Caloric adjustment must be non-negative"
+      );
+      activity[index] = ACTIVITY_COEFFICIENTS[activityIndex];
+      gendersDecoded[index] = gender;
+    }
+  }
+}
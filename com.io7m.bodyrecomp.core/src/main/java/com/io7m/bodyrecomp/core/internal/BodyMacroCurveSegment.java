@@ -0,0 +1,178 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.bodyrecomp.core.internal;
+
+import com.io7m.bodyrecomp.core.PiecewiseLinearCurve;
+import com.io7m.bodyrecomp.core.PiecewiseLinearCurveExtrapolation;
+import com.io7m.jaffirm.core.Preconditions;
+
+import java.util.Objects;
+
+/**
+ * <p>The single segment of a {@link PiecewiseLinearCurve}, as evaluated by
+ * the batch kernels.</p>
+ *
+ * <p>The batch kernels evaluate each curve inline as
+ * {@code output + slope * (x - start)}, followed by a clamp to the output
+ * bounds for clamped curves. This is only equivalent to
+ * {@link PiecewiseLinearCurve#evaluate(double)} for curves with exactly one
+ * segment, and so a segment can only be obtained from such a curve, with
+ * the extrapolation that the kernel implements. If a curve ever gains a
+ * breakpoint, the kernels fail when they are initialized rather than
+ * silently producing different results.</p>
+ */
+
+public final class BodyMacroCurveSegment
+{
+  private final double start;
+  private final double output;
+  private final double slope;
+  private final double lowest;
+  private final double highest;
+
+  private BodyMacroCurveSegment(
+    final double inStart,
+    final double inOutput,
+    final double inSlope,
+    final double inLowest,
+    final double inHighest)
+  {
+    this.start = inStart;
+    this.output = inOutput;
+    this.slope = inSlope;
+    this.lowest = inLowest;
+    this.highest = inHighest;
+  }
+
+  /**
+   * Obtain the segment of a curve.
+   *
+   * @param curve         The curve
+   * @param extrapolation The extrapolation that the kernel implements
+   *
+   * @return The segment
+   *
+   * @throws com.io7m.jaffirm.core.PreconditionViolationException If the
+   *   curve does not have exactly one segment, does not use the given
+   *   extrapolation, or if clamping the segment does not reproduce the
+   *   curve's value beyond its last breakpoint
+   */
+
+  public static BodyMacroCurveSegment of(
+    final PiecewiseLinearCurve curve,
+    final PiecewiseLinearCurveExtrapolation extrapolation)
+  {
+    Objects.requireNonNull(curve, "curve");
+    Objects.requireNonNull(extrapolation, "extrapolation");
+
+    Preconditions.checkPreconditionI(
+      curve.breakpointCount(),
+      curve.breakpointCount() == 2,
+      n -> "Batch kernels require curves with exactly one segment"
+    );
+    Preconditions.checkPrecondition(
+      curve.extrapolation(),
+      curve.extrapolation() == extrapolation,
+      e -> "Batch kernels require curves with " + extrapolation + " extrapolation"
+    );
+
+    final double x0 = curve.breakpointInput(0);
+    final double x1 = curve.breakpointInput(1);
+    final double y0 = curve.breakpointOutput(0);
+    final double y1 = curve.breakpointOutput(1);
+    final double slope = (y1 - y0) / (x1 - x0);
+
+    if (extrapolation == PiecewiseLinearCurveExtrapolation.LINEAR) {
+      return new BodyMacroCurveSegment(
+        x0, y0, slope, -Double.MAX_VALUE, Double.MAX_VALUE);
+    }
+
+    /*
+     * A clamped curve returns its breakpoint outputs for inputs outside of
+     * the breakpoints, whereas the kernels clamp the segment. The segment
+     * is exactly y0 at x0, and rounding is monotonic, so the two agree
+     * everywhere if the segment reaches the bound at x1.
+     */
+
+    final double lowest = Math.min(y0, y1);
+    final double highest = Math.max(y0, y1);
+    final double end = y0 + slope * (x1 - x0);
+    Preconditions.checkPreconditionD(
+      end,
+      y1 >= y0 ? end >= highest : end <= lowest,
+      v -> "The clamped segment must reach its last breakpoint output " + y1
+    );
+    return new BodyMacroCurveSegment(x0, y0, slope, lowest, highest);
+  }
+
+  /**
+   * @return The input value at the start of the segment
+   */
+
+  public double start()
+  {
+    return this.start;
+  }
+
+  /**
+   * @return The output value at the start of the segment
+   */
+
+  public double output()
+  {
+    return this.output;
+  }
+
+  /**
+   * @return The slope of the segment
+   */
+
+  public double slope()
+  {
+    return this.slope;
+  }
+
+  /**
+   * @return The lowest output of the curve, or {@code -Double.MAX_VALUE} for
+   *   curves that are not clamped
+   */
+
+  public double lowest()
+  {
+    return this.lowest;
+  }
+
+  /**
+   * @return The highest output of the curve, or {@code Double.MAX_VALUE} for
+   *   curves that are not clamped
+   */
+
+  public double highest()
+  {
+    return this.highest;
+  }
+
+  @Override
+  public String toString()
+  {
+    return String.format(
+      "[BodyMacroCurveSegment 0x%s]",
+      Long.toUnsignedString(System.identityHashCode(this), 16)
+    );
+  }
+}
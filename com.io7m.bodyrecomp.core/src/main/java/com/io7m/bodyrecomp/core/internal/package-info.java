@@ -16,6 +16,14 @@
 
 /**
  * Tools for body recomposition (Core internal classes)
+ *
+ * <p>The package is not part of the public API. It is exported only to the
+ * bundles that provide batch kernels, which share the kernel internals.</p>
  */
 
+@Export(attribute = "x-friends:=com.io7m.bodyrecomp.vector")
+@Version("1.0.0")
 package com.io7m.bodyrecomp.core.internal;
+
+import org.osgi.annotation.bundle.Export;
+import org.osgi.annotation.versioning.Version;
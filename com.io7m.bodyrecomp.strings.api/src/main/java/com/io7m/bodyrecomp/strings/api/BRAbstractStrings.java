@@ -16,99 +16,153 @@
 
 package com.io7m.bodyrecomp.strings.api;
 
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.UncheckedIOException;
-import java.text.MessageFormat;
-import java.util.Collections;
-import java.util.Enumeration;
+import jdk.jfr.FlightRecorder;
+
+import java.util.Locale;
 import java.util.Objects;
-import java.util.Properties;
-import java.util.ResourceBundle;
-import java.util.Set;
 
 /**
  * An abstract implementation of the {@link BRStringsType} interface.
+ *
+ * <p>Message patterns are generated from XML message files at build time
+ * (see {@link BRStringsCatalog}) and are carried by the keys themselves, so
+ * no resources are loaded or parsed at run time. Instances are safe to share
+ * between threads.</p>
+ *
+ * <p>Each formatted message emits the (disabled by default)
+ * {@code com.io7m.bodyrecomp.MessageFormat} flight recorder event.</p>
+ *
+ * @param <K> The type of message keys
  */
 
-public abstract class BRAbstractStrings implements BRStringsType
+public abstract class BRAbstractStrings<K extends Enum<K> & BRStringsKeyType>
+  implements BRStringsType<K>
 {
-  private final ResourceBundle resources;
+  private final Locale locale;
+  private final BRStringsNumbers numbers;
+
+  protected BRAbstractStrings()
+  {
+    this(Locale.getDefault(Locale.Category.FORMAT));
+  }
 
   protected BRAbstractStrings(
-    final ResourceBundle inResources)
+    final Locale inLocale)
   {
-    this.resources = Objects.requireNonNull(inResources, "inResources");
+    this.locale =
+      Objects.requireNonNull(inLocale, "inLocale");
+    this.numbers =
+      BRStringsNumbers.of(this.locale);
   }
 
-  protected static ResourceBundle ofXML(
-    final InputStream stream)
+  @Override
+  public final Locale locale()
   {
-    try {
-      return new XMLResourceBundle(
-        Objects.requireNonNull(stream, "stream")
-      );
-    } catch (final IOException e) {
-      throw new UncheckedIOException(e);
-    }
+    return this.locale;
   }
 
-  protected static ResourceBundle ofXMLResource(
-    final Class<?> clazz,
-    final String resource)
+  /**
+   * @return The number formatting used for the locale of these strings
+   */
+
+  public final BRStringsNumbers numbers()
   {
-    try (var stream = clazz.getResourceAsStream(resource)) {
-      return ofXML(stream);
-    } catch (final IOException e) {
-      throw new UncheckedIOException(e);
-    }
+    return this.numbers;
   }
 
   @Override
-  public final ResourceBundle resources()
+  public final String format(
+    final K key,
+    final Object... args)
   {
-    return this.resources;
+    Objects.requireNonNull(key, "key");
+    Objects.requireNonNull(args, "args");
+
+    final var text =
+      new StringBuilder(key.pattern().literalLength() + args.length * 8);
+    this.formatTo(text, key, args);
+    return text.toString();
   }
 
   @Override
-  public final String format(
-    final String id,
+  public final void formatTo(
+    final StringBuilder out,
+    final K key,
     final Object... args)
   {
-    Objects.requireNonNull(id, "id");
     Objects.requireNonNull(args, "args");
-    return MessageFormat.format(this.resources.getString(id), args);
+    this.formatTo(out, key, new ObjectArguments(args));
+  }
+
+  @Override
+  public final void formatTo(
+    final StringBuilder out,
+    final K key,
+    final BRStringsArgumentsType args)
+  {
+    Objects.requireNonNull(out, "out");
+    Objects.requireNonNull(key, "key");
+    Objects.requireNonNull(args, "args");
+
+    final BRStringsFormatEvent event;
+    if (FlightRecorder.isInitialized()) {
+      event = new BRStringsFormatEvent();
+      event.begin();
+    } else {
+      event = null;
+    }
+
+    final int start = out.length();
+    final var pattern = key.pattern();
+    final int count = pattern.argumentCount();
+    final int size = args.size();
+    for (int index = 0; index < count; ++index) {
+      out.append(pattern.literal(index));
+
+      final int argument = pattern.argument(index);
+      if (argument >= size) {
+        out.append('{');
+        out.append(argument);
+        out.append('}');
+      } else {
+        args.appendTo(out, this.numbers, argument);
+      }
+    }
+    out.append(pattern.literal(count));
+
+    if (event != null) {
+      event.end();
+      if (event.shouldCommit()) {
+        event.set(key.id(), size, out.substring(start));
+        event.commit();
+      }
+    }
   }
 
-  private static final class XMLResourceBundle extends ResourceBundle
+  private static final class ObjectArguments
+    implements BRStringsArgumentsType
   {
-    private final Properties props;
+    private final Object[] args;
 
-    XMLResourceBundle(
-      final InputStream stream)
-      throws IOException
+    ObjectArguments(
+      final Object[] inArgs)
     {
-      this.props = new Properties();
-      this.props.loadFromXML(
-        Objects.requireNonNull(stream, "stream")
-      );
+      this.args = inArgs;
     }
 
     @Override
-    protected Object handleGetObject(
-      final String key)
+    public int size()
     {
-      return this.props.getProperty(
-        Objects.requireNonNull(key, "key")
-      );
+      return this.args.length;
     }
 
     @Override
-    public Enumeration<String> getKeys()
+    public void appendTo(
+      final StringBuilder out,
+      final BRStringsNumbers numbers,
+      final int index)
     {
-      final Set<String> handleKeys = this.props.stringPropertyNames();
-      return Collections.enumeration(handleKeys);
+      BRStringsArguments.appendObject(out, numbers, this.args[index]);
     }
   }
 }
-
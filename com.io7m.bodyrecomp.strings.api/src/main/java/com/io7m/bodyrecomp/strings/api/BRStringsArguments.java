@@ -0,0 +1,198 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.bodyrecomp.strings.api;
+
+import java.text.DateFormat;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Objects;
+
+/**
+ * A reusable list of message arguments. Numeric arguments are held as
+ * primitive values, so a list that is cleared and refilled for each message
+ * formats messages without boxing or allocating. Arguments are formatted
+ * exactly as {@link java.text.MessageFormat} formats plain argument
+ * references. Instances are not safe for use from multiple threads.
+ */
+
+public final class BRStringsArguments implements BRStringsArgumentsType
+{
+  private static final byte KIND_LONG = 0;
+  private static final byte KIND_DOUBLE = 1;
+  private static final byte KIND_OBJECT = 2;
+
+  private byte[] kinds;
+  private long[] longs;
+  private double[] doubles;
+  private Object[] objects;
+  private int size;
+
+  private BRStringsArguments(
+    final int capacity)
+  {
+    this.kinds = new byte[capacity];
+    this.longs = new long[capacity];
+    this.doubles = new double[capacity];
+    this.objects = new Object[capacity];
+    this.size = 0;
+  }
+
+  /**
+   * @return An empty argument list
+   */
+
+  public static BRStringsArguments create()
+  {
+    return new BRStringsArguments(8);
+  }
+
+  /**
+   * Append an argument to the given output in the way
+   * {@link java.text.MessageFormat} would.
+   *
+   * @param out     The output
+   * @param numbers The number formatting for the message locale
+   * @param value   The argument
+   */
+
+  public static void appendObject(
+    final StringBuilder out,
+    final BRStringsNumbers numbers,
+    final Object value)
+  {
+    if (value instanceof Number) {
+      numbers.appendNumber(out, (Number) value);
+    } else if (value instanceof Date) {
+      out.append(
+        DateFormat.getDateTimeInstance(
+          DateFormat.SHORT, DateFormat.SHORT, numbers.locale()).format(value));
+    } else if (value instanceof CharSequence) {
+      out.append((CharSequence) value);
+    } else {
+      out.append(value);
+    }
+  }
+
+  /**
+   * Remove all arguments.
+   *
+   * @return this
+   */
+
+  public BRStringsArguments clear()
+  {
+    Arrays.fill(this.objects, 0, this.size, null);
+    this.size = 0;
+    return this;
+  }
+
+  /**
+   * Add an integer argument.
+   *
+   * @param value The value
+   *
+   * @return this
+   */
+
+  public BRStringsArguments addLong(
+    final long value)
+  {
+    final int index = this.reserve(KIND_LONG);
+    this.longs[index] = value;
+    return this;
+  }
+
+  /**
+   * Add a floating point argument.
+   *
+   * @param value The value
+   *
+   * @return this
+   */
+
+  public BRStringsArguments addDouble(
+    final double value)
+  {
+    final int index = this.reserve(KIND_DOUBLE);
+    this.doubles[index] = value;
+    return this;
+  }
+
+  /**
+   * Add an argument. Character sequences are appended without being
+   * converted to strings.
+   *
+   * @param value The value
+   *
+   * @return this
+   */
+
+  public BRStringsArguments addObject(
+    final Object value)
+  {
+    final int index = this.reserve(KIND_OBJECT);
+    this.objects[index] = value;
+    return this;
+  }
+
+  private int reserve(
+    final byte kind)
+  {
+    if (this.size == this.kinds.length) {
+      final int capacity = this.size * 2;
+      this.kinds = Arrays.copyOf(this.kinds, capacity);
+      this.longs = Arrays.copyOf(this.longs, capacity);
+      this.doubles = Arrays.copyOf(this.doubles, capacity);
+      this.objects = Arrays.copyOf(this.objects, capacity);
+    }
+    final int index = this.size;
+    this.kinds[index] = kind;
+    ++this.size;
+    return index;
+  }
+
+  @Override
+  public int size()
+  {
+    return this.size;
+  }
+
+  @Override
+  public void appendTo(
+    final StringBuilder out,
+    final BRStringsNumbers numbers,
+    final int index)
+  {
+    Objects.checkIndex(index, this.size);
+
+    switch (this.kinds[index]) {
+      case KIND_LONG -> numbers.appendLong(out, this.longs[index]);
+      case KIND_DOUBLE -> numbers.appendDouble(out, this.doubles[index]);
+      default -> appendObject(out, numbers, this.objects[index]);
+    }
+  }
+
+  @Override
+  public String toString()
+  {
+    return String.format(
+      "[BRStringsArguments 0x%s]",
+      Long.toUnsignedString(System.identityHashCode(this), 16)
+    );
+  }
+}
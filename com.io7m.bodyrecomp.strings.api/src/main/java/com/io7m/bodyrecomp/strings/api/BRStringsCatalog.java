@@ -0,0 +1,58 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.bodyrecomp.strings.api;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Generate a message catalog from an XML message file at build time.
+ *
+ * <p>The message file is a {@link java.util.Properties} XML file in the
+ * resources of the module being compiled; the annotation processor in the
+ * {@code com.io7m.bodyrecomp.strings.processor} module must be placed on the
+ * module's annotation processor path. An enum named
+ * {@link #keyType()} is generated in the package of the annotated type,
+ * with one constant for each message. The constant names are the message
+ * keys converted to upper case with underscores separating words (so
+ * {@code explainBMR} becomes {@code EXPLAIN_BMR}), and each constant
+ * carries its message pattern, already split into literal text and
+ * argument references. Malformed or unsupported patterns are rejected at
+ * compile time.</p>
+ */
+
+@Documented
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface BRStringsCatalog
+{
+  /**
+   * @return The absolute resource name of the message file
+   */
+
+  String resource();
+
+  /**
+   * @return The simple name of the generated key enum
+   */
+
+  String keyType();
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.bodyrecomp.strings.api;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A flight recorder event describing the formatting of a single message.
+ * The event is disabled by default.
+ */
+
+@Name(BRStringsFormatEvent.NAME)
+@Label("Message Format")
+@Description("A message formatted from a string resource.")
+@Category("bodyrecomp")
+@Enabled(false)
+@StackTrace(false)
+final class BRStringsFormatEvent extends Event
+{
+  static final String NAME = "com.io7m.bodyrecomp.MessageFormat";
+
+  @Label("Key")
+  private String key;
+
+  @Label("Argument Count")
+  private int argumentCount;
+
+  @Label("Size")
+  @Description("The size of the formatted message encoded as UTF-8.")
+  @DataAmount
+  private long bytes;
+
+  BRStringsFormatEvent()
+  {
+
+  }
+
+  void set(
+    final String inKey,
+    final int inArgumentCount,
+    final String result)
+  {
+    this.key = inKey;
+    this.argumentCount = inArgumentCount;
+    this.bytes = result.getBytes(StandardCharsets.UTF_8).length;
+  }
+}
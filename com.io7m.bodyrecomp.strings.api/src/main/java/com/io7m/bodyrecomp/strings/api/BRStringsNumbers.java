@@ -0,0 +1,304 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.bodyrecomp.strings.api;
+
+import java.math.RoundingMode;
+import java.text.DecimalFormat;
+import java.text.NumberFormat;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Locale-specific number formatting that appends directly to a
+ * {@link StringBuilder}.
+ *
+ * <p>The output is exactly that of {@link NumberFormat#getInstance(Locale)},
+ * which is how {@link java.text.MessageFormat} formats numeric arguments.
+ * Integers, and floating point values that need no more fraction digits than
+ * the locale's format shows, are written digit by digit from the locale's
+ * symbols without allocating. Everything else is delegated to a per-thread
+ * copy of the locale's format. Instances are cached per locale and are safe
+ * to share between threads.</p>
+ */
+
+public final class BRStringsNumbers
+{
+  private static final ConcurrentHashMap<Locale, BRStringsNumbers> INSTANCES =
+    new ConcurrentHashMap<>();
+
+  /*
+   * Below this magnitude, adjacent doubles are closer together than the
+   * smallest fraction digit shown (at most 10^-6), so a double that equals a
+   * scaled integer divided by the scale is exactly the decimal that the
+   * format would produce.
+   */
+
+  private static final double DIRECT_LIMIT = 1.0e9;
+  private static final int DIRECT_MAXIMUM_FRACTION_DIGITS = 6;
+
+  private static final long[] POWERS_OF_TEN = {
+    1L,
+    10L,
+    100L,
+    1_000L,
+    10_000L,
+    100_000L,
+    1_000_000L,
+    10_000_000L,
+    100_000_000L,
+    1_000_000_000L,
+    10_000_000_000L,
+    100_000_000_000L,
+    1_000_000_000_000L,
+    10_000_000_000_000L,
+    100_000_000_000_000L,
+    1_000_000_000_000_000L,
+    10_000_000_000_000_000L,
+    100_000_000_000_000_000L,
+    1_000_000_000_000_000_000L,
+  };
+
+  private final Locale locale;
+  private final ThreadLocal<NumberFormat> formats;
+  private final boolean direct;
+  private final String positivePrefix;
+  private final String positiveSuffix;
+  private final String negativePrefix;
+  private final String negativeSuffix;
+  private final char zeroDigit;
+  private final char groupingSeparator;
+  private final char decimalSeparator;
+  private final int groupingSize;
+  private final int fractionDigits;
+
+  private BRStringsNumbers(
+    final Locale inLocale)
+  {
+    this.locale =
+      Objects.requireNonNull(inLocale, "inLocale");
+
+    final var prototype = NumberFormat.getInstance(inLocale);
+    this.formats =
+      ThreadLocal.withInitial(() -> (NumberFormat) prototype.clone());
+
+    if (prototype instanceof DecimalFormat && isDirect((DecimalFormat) prototype)) {
+      final var format = (DecimalFormat) prototype;
+      final var symbols = format.getDecimalFormatSymbols();
+      this.direct = true;
+      this.positivePrefix = format.getPositivePrefix();
+      this.positiveSuffix = format.getPositiveSuffix();
+      this.negativePrefix = format.getNegativePrefix();
+      this.negativeSuffix = format.getNegativeSuffix();
+      this.zeroDigit = symbols.getZeroDigit();
+      this.groupingSeparator = symbols.getGroupingSeparator();
+      this.decimalSeparator = symbols.getDecimalSeparator();
+      this.groupingSize = format.isGroupingUsed() ? format.getGroupingSize() : 0;
+      this.fractionDigits = format.getMaximumFractionDigits();
+    } else {
+      this.direct = false;
+      this.positivePrefix = "";
+      this.positiveSuffix = "";
+      this.negativePrefix = "";
+      this.negativeSuffix = "";
+      this.zeroDigit = '0';
+      this.groupingSeparator = ',';
+      this.decimalSeparator = '.';
+      this.groupingSize = 0;
+      this.fractionDigits = 0;
+    }
+  }
+
+  private static boolean isDirect(
+    final DecimalFormat format)
+  {
+    final boolean integers =
+      format.getMinimumIntegerDigits() == 1
+        && format.getMaximumIntegerDigits() >= POWERS_OF_TEN.length
+        && format.getMultiplier() == 1;
+    final boolean fractions =
+      format.getMinimumFractionDigits() == 0
+        && format.getMaximumFractionDigits() <= DIRECT_MAXIMUM_FRACTION_DIGITS
+        && !format.isDecimalSeparatorAlwaysShown();
+    return integers
+      && fractions
+      && format.getRoundingMode() == RoundingMode.HALF_EVEN;
+  }
+
+  /**
+   * @param locale The locale
+   *
+   * @return The number formatting for the given locale
+   */
+
+  public static BRStringsNumbers of(
+    final Locale locale)
+  {
+    Objects.requireNonNull(locale, "locale");
+
+    final var numbers = INSTANCES.get(locale);
+    if (numbers != null) {
+      return numbers;
+    }
+    return INSTANCES.computeIfAbsent(locale, BRStringsNumbers::new);
+  }
+
+  /**
+   * @return The locale used to format numbers
+   */
+
+  public Locale locale()
+  {
+    return this.locale;
+  }
+
+  /**
+   * Append an integer.
+   *
+   * @param out   The output
+   * @param value The value
+   */
+
+  public void appendLong(
+    final StringBuilder out,
+    final long value)
+  {
+    if (!this.direct || value == Long.MIN_VALUE) {
+      out.append(this.formats.get().format(value));
+      return;
+    }
+
+    if (value < 0L) {
+      out.append(this.negativePrefix);
+      this.appendDigits(out, -value);
+      out.append(this.negativeSuffix);
+    } else {
+      out.append(this.positivePrefix);
+      this.appendDigits(out, value);
+      out.append(this.positiveSuffix);
+    }
+  }
+
+  /**
+   * Append a floating point value.
+   *
+   * @param out   The output
+   * @param value The value
+   */
+
+  public void appendDouble(
+    final StringBuilder out,
+    final double value)
+  {
+    final double magnitude = Math.abs(value);
+    if (!this.direct || !(magnitude < DIRECT_LIMIT)) {
+      out.append(this.formats.get().format(value));
+      return;
+    }
+
+    final long scale = POWERS_OF_TEN[this.fractionDigits];
+    final long scaled = Math.round(magnitude * (double) scale);
+    if ((double) scaled / (double) scale != magnitude) {
+      out.append(this.formats.get().format(value));
+      return;
+    }
+
+    /*
+     * The format keeps the sign of negative zero.
+     */
+
+    final boolean negative = Double.doubleToRawLongBits(value) < 0L;
+    out.append(negative ? this.negativePrefix : this.positivePrefix);
+    this.appendDigits(out, scaled / scale);
+
+    long fraction = scaled % scale;
+    if (fraction != 0L) {
+      out.append(this.decimalSeparator);
+      int digits = this.fractionDigits;
+      while (fraction % 10L == 0L) {
+        fraction /= 10L;
+        --digits;
+      }
+      for (int index = digits - 1; index >= 0; --index) {
+        out.append(this.digit(fraction / POWERS_OF_TEN[index]));
+        fraction %= POWERS_OF_TEN[index];
+      }
+    }
+    out.append(negative ? this.negativeSuffix : this.positiveSuffix);
+  }
+
+  /**
+   * Append a number in the same way as {@link NumberFormat#format(Object)}.
+   *
+   * @param out   The output
+   * @param value The value
+   */
+
+  public void appendNumber(
+    final StringBuilder out,
+    final Number value)
+  {
+    Objects.requireNonNull(value, "value");
+
+    if (value instanceof Integer
+      || value instanceof Long
+      || value instanceof Short
+      || value instanceof Byte) {
+      this.appendLong(out, value.longValue());
+    } else if (value instanceof Double || value instanceof Float) {
+      this.appendDouble(out, value.doubleValue());
+    } else {
+      out.append(this.formats.get().format(value));
+    }
+  }
+
+  private char digit(
+    final long value)
+  {
+    return (char) (this.zeroDigit + (int) value);
+  }
+
+  private void appendDigits(
+    final StringBuilder out,
+    final long value)
+  {
+    int count = 1;
+    while (count < POWERS_OF_TEN.length && value >= POWERS_OF_TEN[count]) {
+      ++count;
+    }
+
+    long remaining = value;
+    for (int index = count - 1; index >= 0; --index) {
+      final long power = POWERS_OF_TEN[index];
+      out.append(this.digit(remaining / power));
+      remaining %= power;
+      if (this.groupingSize > 0 && index > 0 && index % this.groupingSize == 0) {
+        out.append(this.groupingSeparator);
+      }
+    }
+  }
+
+  @Override
+  public String toString()
+  {
+    return String.format(
+      "[BRStringsNumbers 0x%s]",
+      Long.toUnsignedString(System.identityHashCode(this), 16)
+    );
+  }
+}
@@ -0,0 +1,255 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.bodyrecomp.strings.api;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A message pattern split into literal text and argument references.
+ *
+ * <p>A pattern with {@code n} argument references consists of {@code n + 1}
+ * literal segments interleaved with the references: {@code literal(0)},
+ * {@code argument(0)}, {@code literal(1)}, ..., {@code argument(n - 1)},
+ * {@code literal(n)}. Literal segments may be empty.</p>
+ *
+ * <p>Patterns use the {@link java.text.MessageFormat} syntax restricted to
+ * plain argument references such as {@code {0}}; quoting with {@code '} is
+ * supported, but format types and styles such as {@code {0,number}} are
+ * not.</p>
+ */
+
+public final class BRStringsPattern
+{
+  private final String[] literals;
+  private final int[] arguments;
+  private final int literalLength;
+
+  private BRStringsPattern(
+    final String[] inLiterals,
+    final int[] inArguments)
+  {
+    this.literals = inLiterals;
+    this.arguments = inArguments;
+
+    int length = 0;
+    for (final var literal : inLiterals) {
+      length += literal.length();
+    }
+    this.literalLength = length;
+  }
+
+  /**
+   * Create a pattern from already split segments.
+   *
+   * @param literals  The literal segments
+   * @param arguments The argument references
+   *
+   * @return A pattern
+   */
+
+  public static BRStringsPattern of(
+    final String[] literals,
+    final int[] arguments)
+  {
+    Objects.requireNonNull(literals, "literals");
+    Objects.requireNonNull(arguments, "arguments");
+
+    if (literals.length != arguments.length + 1) {
+      throw new IllegalArgumentException(
+        String.format(
+          "Expected %d literal segments, but received %d",
+          Integer.valueOf(arguments.length + 1),
+          Integer.valueOf(literals.length))
+      );
+    }
+    for (final var literal : literals) {
+      Objects.requireNonNull(literal, "literal");
+    }
+    for (final int argument : arguments) {
+      if (argument < 0) {
+        throw new IllegalArgumentException(
+          "Argument references must be non-negative");
+      }
+    }
+    return new BRStringsPattern(literals.clone(), arguments.clone());
+  }
+
+  /**
+   * Parse a pattern.
+   *
+   * @param pattern The pattern text
+   *
+   * @return A pattern
+   *
+   * @throws IllegalArgumentException If the pattern is malformed or uses
+   *                                  unsupported syntax
+   */
+
+  public static BRStringsPattern parse(
+    final String pattern)
+    throws IllegalArgumentException
+  {
+    Objects.requireNonNull(pattern, "pattern");
+
+    final var literals = new ArrayList<String>();
+    final var arguments = new ArrayList<Integer>();
+    final var literal = new StringBuilder(pattern.length());
+
+    boolean quoted = false;
+    int index = 0;
+    while (index < pattern.length()) {
+      final char c = pattern.charAt(index);
+      if (c == '\'') {
+        if (index + 1 < pattern.length() && pattern.charAt(index + 1) == '\'') {
+          literal.append('\'');
+          index += 2;
+        } else {
+          quoted = !quoted;
+          ++index;
+        }
+      } else if (c == '{' && !quoted) {
+        final int end = pattern.indexOf('}', index);
+        if (end < 0) {
+          throw new IllegalArgumentException(
+            "Unmatched braces in the pattern at offset " + index);
+        }
+        arguments.add(Integer.valueOf(parseArgument(pattern, index + 1, end)));
+        literals.add(literal.toString());
+        literal.setLength(0);
+        index = end + 1;
+      } else {
+        literal.append(c);
+        ++index;
+      }
+    }
+    literals.add(literal.toString());
+
+    final var argumentArray = new int[arguments.size()];
+    for (int argument = 0; argument < argumentArray.length; ++argument) {
+      argumentArray[argument] = arguments.get(argument).intValue();
+    }
+    return new BRStringsPattern(
+      literals.toArray(new String[0]),
+      argumentArray
+    );
+  }
+
+  private static int parseArgument(
+    final String pattern,
+    final int start,
+    final int end)
+  {
+    final var text = pattern.substring(start, end);
+    if (text.isEmpty()) {
+      throw new IllegalArgumentException(
+        "Empty argument reference in the pattern at offset " + start);
+    }
+    for (int index = 0; index < text.length(); ++index) {
+      final char c = text.charAt(index);
+      if (c < '0' || c > '9') {
+        throw new IllegalArgumentException(
+          String.format(
+            "Unsupported argument reference '{%s}' in the pattern at offset %d "
+              + "(only plain argument numbers are supported)",
+            text,
+            Integer.valueOf(start))
+        );
+      }
+    }
+    try {
+      return Integer.parseInt(text);
+    } catch (final NumberFormatException e) {
+      throw new IllegalArgumentException(
+        "Argument reference out of range in the pattern at offset " + start, e);
+    }
+  }
+
+  /**
+   * @return The number of argument references in the pattern
+   */
+
+  public int argumentCount()
+  {
+    return this.arguments.length;
+  }
+
+  /**
+   * @param index The index of the reference, in {@code [0, argumentCount())}
+   *
+   * @return The index of the argument referenced by the given reference
+   */
+
+  public int argument(
+    final int index)
+  {
+    return this.arguments[index];
+  }
+
+  /**
+   * @param index The index of the segment, in {@code [0, argumentCount()]}
+   *
+   * @return The literal segment at the given index
+   */
+
+  public String literal(
+    final int index)
+  {
+    return this.literals[index];
+  }
+
+  /**
+   * @return The total length of all literal segments
+   */
+
+  public int literalLength()
+  {
+    return this.literalLength;
+  }
+
+  @Override
+  public boolean equals(
+    final Object other)
+  {
+    if (this == other) {
+      return true;
+    }
+    if (!(other instanceof BRStringsPattern)) {
+      return false;
+    }
+    final var that = (BRStringsPattern) other;
+    return Arrays.equals(this.literals, that.literals)
+           && Arrays.equals(this.arguments, that.arguments);
+  }
+
+  @Override
+  public int hashCode()
+  {
+    return 31 * Arrays.hashCode(this.literals) + Arrays.hashCode(this.arguments);
+  }
+
+  @Override
+  public String toString()
+  {
+    return String.format(
+      "[BRStringsPattern 0x%s]",
+      Long.toUnsignedString(System.identityHashCode(this), 16)
+    );
+  }
+}
@@ -14,41 +14,66 @@
  * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
  */
 
+
 package com.io7m.bodyrecomp.strings.api;
 
-import java.text.MessageFormat;
-import java.util.Objects;
-import java.util.ResourceBundle;
+import java.util.Locale;
 
 /**
  * A provider of string resources.
+ *
+ * @param <K> The type of message keys
  */
 
-public interface BRStringsType
+public interface BRStringsType<K extends Enum<K> & BRStringsKeyType>
 {
   /**
-   * @return The underlying resource bundle
+   * @return The locale used to format messages
    */
 
-  ResourceBundle resources();
+  Locale locale();
 
   /**
-   * Format a message.
+   * Format a message. Arguments are formatted in the same way as
+   * {@link java.text.MessageFormat} formats plain argument references.
    *
-   * @param id   The string resource ID
+   * @param key  The message key
    * @param args Any required string format arguments
    *
    * @return A formatted string
+   */
+
+  String format(
+    K key,
+    Object... args);
+
+  /**
+   * Format a message, appending the result to the given output.
+   *
+   * @param out  The output
+   * @param key  The message key
+   * @param args Any required string format arguments
+   *
+   * @see #format(Enum, Object...)
+   */
+
+  void formatTo(
+    StringBuilder out,
+    K key,
+    Object... args);
+
+  /**
+   * Format a message, appending the result to the given output.
+   *
+   * @param out  The output
+   * @param key  The message key
+   * @param args The message arguments
    *
-   * @see MessageFormat
+   * @see BRStringsArguments
    */
 
-  default String format(
-    final String id,
-    final Object... args)
-  {
-    Objects.requireNonNull(id, "id");
-    Objects.requireNonNull(args, "args");
-    return MessageFormat.format(this.resources().getString(id), args);
-  }
+  void formatTo(
+    StringBuilder out,
+    K key,
+    BRStringsArgumentsType args);
 }
@@ -0,0 +1,317 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.bodyrecomp.strings.processor;
+
+import com.io7m.bodyrecomp.strings.api.BRStringsCatalog;
+import com.io7m.bodyrecomp.strings.api.BRStringsPattern;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.StandardLocation;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * An annotation processor that compiles XML message files into key enums.
+ *
+ * <p>For each type annotated with {@link BRStringsCatalog}, the named message
+ * file is read from the first of the directories named by the
+ * {@value #OPTION_RESOURCES} option that contains it (typically the module's
+ * {@code src/main/resources}), or from the source path if the option is not
+ * given. Every pattern is parsed with
+ * {@link BRStringsPattern#parse(String)}, and an enum implementing
+ * {@link com.io7m.bodyrecomp.strings.api.BRStringsKeyType} is written to the
+ * annotated type's package. Malformed patterns and clashing constant names
+ * are reported as compilation errors.</p>
+ */
+
+@SupportedAnnotationTypes("com.io7m.bodyrecomp.strings.api.BRStringsCatalog")
+@SupportedOptions(BRStringsCatalogProcessor.OPTION_RESOURCES)
+public final class BRStringsCatalogProcessor extends AbstractProcessor
+{
+  /**
+   * The processor option that lists the directories (separated by the
+   * platform path separator) searched for message files.
+   */
+
+  public static final String OPTION_RESOURCES =
+    "com.io7m.bodyrecomp.strings.resources";
+
+  /**
+   * Construct a processor.
+   */
+
+  public BRStringsCatalogProcessor()
+  {
+
+  }
+
+  /**
+   * Convert a message key to the name of an enum constant.
+   *
+   * @param id The message key (such as {@code errorHTTPMethod})
+   *
+   * @return The constant name (such as {@code ERROR_HTTP_METHOD})
+   */
+
+  public static String constantName(
+    final String id)
+  {
+    final var text = new StringBuilder(id.length() + 8);
+    for (int index = 0; index < id.length(); ++index) {
+      final char c = id.charAt(index);
+      if (index > 0 && Character.isUpperCase(c) && startsWord(id, index)) {
+        text.append('_');
+      }
+      if (Character.isJavaIdentifierPart(c)) {
+        text.append(Character.toUpperCase(c));
+      } else {
+        text.append('_');
+      }
+    }
+    return text.toString();
+  }
+
+  private static boolean startsWord(
+    final String id,
+    final int index)
+  {
+    final char previous = id.charAt(index - 1);
+    if (!Character.isUpperCase(previous)) {
+      return previous != '_';
+    }
+    final int next = index + 1;
+    return next < id.length() && Character.isLowerCase(id.charAt(next));
+  }
+
+  private static String quote(
+    final String text)
+  {
+    final var result = new StringBuilder(text.length() + 2);
+    result.append('"');
+    for (int index = 0; index < text.length(); ++index) {
+      final char c = text.charAt(index);
+      switch (c) {
+        case '"' -> result.append("\\\"");
+        case '\\' -> result.append("\\\\");
+        case '\n' -> result.append("\\n");
+        case '\r' -> result.append("\\r");
+        case '\t' -> result.append("\\t");
+        default -> {
+          if (c < 0x20 || c > 0x7e) {
+            result.append(String.format("\\u%04x", Integer.valueOf(c)));
+          } else {
+            result.append(c);
+          }
+        }
+      }
+    }
+    result.append('"');
+    return result.toString();
+  }
+
+  @Override
+  public SourceVersion getSupportedSourceVersion()
+  {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(
+    final Set<? extends TypeElement> annotations,
+    final RoundEnvironment roundEnv)
+  {
+    for (final var element : roundEnv.getElementsAnnotatedWith(BRStringsCatalog.class)) {
+      final var catalog = element.getAnnotation(BRStringsCatalog.class);
+      try {
+        this.processCatalog(element, catalog);
+      } catch (final IOException e) {
+        this.error(element, "Unable to read %s: %s", catalog.resource(), e.getMessage());
+      }
+    }
+    return true;
+  }
+
+  private void error(
+    final Element element,
+    final String format,
+    final Object... args)
+  {
+    this.processingEnv.getMessager()
+      .printMessage(Diagnostic.Kind.ERROR, String.format(format, args), element);
+  }
+
+  private void processCatalog(
+    final Element element,
+    final BRStringsCatalog catalog)
+    throws IOException
+  {
+    final var resource = catalog.resource().replaceFirst("^/", "");
+    final var properties = new Properties();
+    try (var stream = this.openResource(resource)) {
+      properties.loadFromXML(stream);
+    }
+
+    final var patterns = new TreeMap<String, BRStringsPattern>();
+    final var names = new HashMap<String, String>();
+    boolean failed = false;
+    for (final var id : properties.stringPropertyNames()) {
+      final var name = constantName(id);
+      final var existing = names.put(name, id);
+      if (existing != null) {
+        this.error(element, "%s: keys %s and %s both map to %s", resource, existing, id, name);
+        failed = true;
+        continue;
+      }
+      try {
+        patterns.put(id, BRStringsPattern.parse(properties.getProperty(id)));
+      } catch (final IllegalArgumentException e) {
+        this.error(element, "%s: key %s: %s", resource, id, e.getMessage());
+        failed = true;
+      }
+    }
+
+    if (!failed) {
+      this.writeEnum(element, catalog, patterns);
+    }
+  }
+
+  private InputStream openResource(
+    final String resource)
+    throws IOException
+  {
+    final var directories =
+      this.processingEnv.getOptions().get(OPTION_RESOURCES);
+
+    if (directories == null) {
+      return this.processingEnv.getFiler()
+        .getResource(StandardLocation.SOURCE_PATH, "", resource)
+        .openInputStream();
+    }
+
+    for (final var directory : directories.split(File.pathSeparator)) {
+      final var file = Path.of(directory).resolve(resource);
+      if (Files.isRegularFile(file)) {
+        return Files.newInputStream(file);
+      }
+    }
+    throw new IOException(
+      String.format("Not found in any of %s: %s", OPTION_RESOURCES, directories));
+  }
+
+  private void writeEnum(
+    final Element element,
+    final BRStringsCatalog catalog,
+    final Map<String, BRStringsPattern> patterns)
+    throws IOException
+  {
+    final var elements = this.processingEnv.getElementUtils();
+    final PackageElement packageElement = elements.getPackageOf(element);
+    final var packageName = packageElement.getQualifiedName().toString();
+    final var typeName = catalog.keyType();
+    final var qualified =
+      packageElement.isUnnamed() ? typeName : packageName + "." + typeName;
+
+    final var source =
+      this.processingEnv.getFiler().createSourceFile(qualified, element);
+
+    try (var writer = new PrintWriter(source.openWriter())) {
+      if (!packageElement.isUnnamed()) {
+        writer.printf("package %s;%n%n", packageName);
+      }
+      writer.printf("/**%n");
+      writer.printf(" * Message keys generated from {@code %s}.%n", catalog.resource());
+      writer.printf(" */%n%n");
+      writer.printf("@javax.annotation.processing.Generated(%s)%n", quote(this.getClass().getName()));
+      writer.printf(
+        "public enum %s implements com.io7m.bodyrecomp.strings.api.BRStringsKeyType%n",
+        typeName);
+      writer.printf("{%n");
+
+      final var iterator = patterns.entrySet().iterator();
+      while (iterator.hasNext()) {
+        final var entry = iterator.next();
+        writeConstant(writer, entry.getKey(), entry.getValue());
+        writer.printf(iterator.hasNext() ? ",%n%n" : ";%n%n");
+      }
+
+      writer.printf("  private final String id;%n");
+      writer.printf("  private final com.io7m.bodyrecomp.strings.api.BRStringsPattern pattern;%n%n");
+      writer.printf("  %s(%n", typeName);
+      writer.printf("    final String inId,%n");
+      writer.printf("    final com.io7m.bodyrecomp.strings.api.BRStringsPattern inPattern)%n");
+      writer.printf("  {%n");
+      writer.printf("    this.id = inId;%n");
+      writer.printf("    this.pattern = inPattern;%n");
+      writer.printf("  }%n%n");
+      writer.printf("  @Override%n");
+      writer.printf("  public String id()%n");
+      writer.printf("  {%n");
+      writer.printf("    return this.id;%n");
+      writer.printf("  }%n%n");
+      writer.printf("  @Override%n");
+      writer.printf("  public com.io7m.bodyrecomp.strings.api.BRStringsPattern pattern()%n");
+      writer.printf("  {%n");
+      writer.printf("    return this.pattern;%n");
+      writer.printf("  }%n");
+      writer.printf("}%n");
+    }
+  }
+
+  private static void writeConstant(
+    final PrintWriter writer,
+    final String id,
+    final BRStringsPattern pattern)
+  {
+    final int count = pattern.argumentCount();
+
+    writer.printf("  /**%n");
+    writer.printf("   * Key {@code %s}.%n", id);
+    writer.printf("   */%n%n");
+    writer.printf("  %s(%n", constantName(id));
+    writer.printf("    %s,%n", quote(id));
+    writer.printf("    com.io7m.bodyrecomp.strings.api.BRStringsPattern.of(%n");
+    writer.printf("      new String[] {%n");
+    for (int index = 0; index <= count; ++index) {
+      writer.printf("        %s%s%n", quote(pattern.literal(index)), index < count ? "," : "");
+    }
+    writer.printf("      },%n");
+    writer.printf("      new int[] {");
+    for (int index = 0; index < count; ++index) {
+      writer.printf("%s%d", index > 0 ? ", " : "", Integer.valueOf(pattern.argument(index)));
+    }
+    writer.printf("})%n");
+    writer.printf("  )");
+  }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.bodyrecomp.tests;
+
+import com.io7m.bodyrecomp.cmdline.Main;
+import com.io7m.bodyrecomp.cmdline.internal.BRFastMacros;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+public final class BRCommandShellTest
+{
+  private static final String BODY =
+    "--gender FEMALE --height-cm 167 --weight-kg 63 --age 29 --body-fat-percent 24"
+      + " --activity-level LIGHTLY_ACTIVE --caloric-adjustment MAINTENANCE";
+
+  private static List<String> runShell(
+    final String input,
+    final String... options)
+  {
+    final var command = new String[options.length + 1];
+    command[0] = "shell";
+    System.arraycopy(options, 0, command, 1, options.length);
+
+    final var bytes = new ByteArrayOutputStream();
+    final var savedIn = System.in;
+    final var savedOut = System.out;
+    System.setIn(new ByteArrayInputStream(input.getBytes(Charset.defaultCharset())));
+    System.setOut(new PrintStream(bytes, true, StandardCharsets.UTF_8));
+    try {
+      final var main = new Main(command);
+      main.run();
+      Assertions.assertEquals(0, main.exitCode());
+    } finally {
+      System.setIn(savedIn);
+      System.setOut(savedOut);
+    }
+    return bytes.toString(StandardCharsets.UTF_8).lines().toList();
+  }
+
+  private static String runMacros(
+    final String options)
+  {
+    final var bytes = new ByteArrayOutputStream();
+    final var out = new PrintStream(bytes, true, StandardCharsets.UTF_8);
+    Assertions.assertTrue(
+      BRFastMacros.execute(("macros " + options).split(" "), out));
+    return bytes.toString(StandardCharsets.UTF_8).strip();
+  }
+
+  @Test
+  public void testResponsesMatchMacros()
+  {
+    final var lines =
+      runShell(String.join(
+        "\n",
+        BODY + " --summary-only",
+        "macros " + BODY,
+        "",
+        BODY + " --format CSV",
+        ""
+      ));
+
+    Assertions.assertEquals(3, lines.size());
+    Assertions.assertEquals(
+      runMacros(BODY + " --format JSON --summary-only"), lines.get(0));
+    Assertions.assertEquals(
+      runMacros(BODY + " --format JSON"), lines.get(1));
+    Assertions.assertEquals(
+      runMacros(BODY + " --format CSV").lines().toList().get(1), lines.get(2));
+  }
+
+  @Test
+  public void testDefaultFormat()
+  {
+    final var lines = runShell(BODY + "\n", "--format", "CSV");
+    Assertions.assertEquals(1, lines.size());
+    Assertions.assertEquals(
+      runMacros(BODY + " --format CSV").lines().toList().get(1), lines.get(0));
+  }
+
+  @Test
+  public void testErrorsContinue()
+  {
+    final var lines =
+      runShell(String.join(
+        "\n",
+        "--gender FEMALE",
+        BODY.replace("--body-fat-percent 24", "--body-fat-percent 101"),
+        BODY + " --grid",
+        BODY + " --format TEXT",
+        BODY + " --summary-only"
+      ));
+
+    Assertions.assertEquals(5, lines.size());
+    for (int index = 0; index < 4; ++index) {
+      Assertions.assertTrue(
+        lines.get(index).startsWith("{\"error\":"), lines.get(index));
+    }
+    Assertions.assertTrue(lines.get(4).startsWith("{\"calories\":"));
+  }
+
+  @Test
+  public void testErrorsUseRequestFormat()
+  {
+    final var lines =
+      runShell(
+        String.join(
+          "\n",
+          "--gender FEMALE",
+          BODY + " --format JSON --grid",
+          BODY + " --format TEXT",
+          BODY + " --format CSV --grid"
+        ),
+        "--format",
+        "CSV"
+      );
+
+    Assertions.assertEquals(4, lines.size());
+    Assertions.assertTrue(lines.get(0).startsWith("error,"), lines.get(0));
+    Assertions.assertTrue(lines.get(1).startsWith("{\"error\":"), lines.get(1));
+
+    final var expected =
+      "error,\"The shell only supports single-line output: "
+        + "the CSV or JSON format, without --grid.\"";
+    Assertions.assertEquals(expected, lines.get(2));
+    Assertions.assertEquals(expected, lines.get(3));
+  }
+
+  @Test
+  public void testNoArgumentFiles(
+    final @TempDir Path directory)
+    throws IOException
+  {
+    final var file = directory.resolve("request.txt");
+    Files.writeString(file, BODY.replace(' ', '\n'));
+
+    final var lines = runShell("@" + file + "\n");
+    Assertions.assertEquals(1, lines.size());
+    Assertions.assertTrue(
+      lines.get(0).startsWith("{\"error\":"), lines.get(0));
+  }
+
+  @Test
+  public void testCommandWithoutOptions()
+  {
+    final var lines =
+      runShell(String.join(
+        "\n",
+        "macros",
+        "  ",
+        "  macros  ",
+        BODY + " --summary-only"
+      ));
+
+    Assertions.assertEquals(3, lines.size());
+    for (int index = 0; index < 2; ++index) {
+      Assertions.assertTrue(
+        lines.get(index).startsWith("{\"error\":"), lines.get(index));
+    }
+    Assertions.assertTrue(lines.get(2).startsWith("{\"calories\":"));
+  }
+}
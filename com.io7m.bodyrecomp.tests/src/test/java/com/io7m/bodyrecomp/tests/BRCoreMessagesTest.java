@@ -0,0 +1,99 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.bodyrecomp.tests;
+
+import com.io7m.bodyrecomp.core.internal.BRCoreMessageKey;
+import com.io7m.bodyrecomp.core.internal.BRCoreMessages;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+
+public final class BRCoreMessagesTest
+{
+  @Test
+  public void testSharedPerLocale()
+  {
+    Assertions.assertSame(
+      BRCoreMessages.create(Locale.UK),
+      BRCoreMessages.create(Locale.UK)
+    );
+    Assertions.assertNotSame(
+      BRCoreMessages.create(Locale.UK),
+      BRCoreMessages.create(Locale.GERMANY)
+    );
+    Assertions.assertEquals(
+      Locale.GERMANY,
+      BRCoreMessages.create(Locale.GERMANY).locale()
+    );
+  }
+
+  @Test
+  public void testLocaleFormatting()
+  {
+    final var args = new Object[]{
+      Integer.valueOf(2567),
+      Integer.valueOf(141),
+      Integer.valueOf(78),
+      Integer.valueOf(324),
+    };
+
+    Assertions.assertTrue(
+      BRCoreMessages.create(Locale.UK)
+        .format(BRCoreMessageKey.EXPLAIN_SUMMARY, args)
+        .contains("Total calories : 2,567")
+    );
+    Assertions.assertTrue(
+      BRCoreMessages.create(Locale.GERMANY)
+        .format(BRCoreMessageKey.EXPLAIN_SUMMARY, args)
+        .contains("Total calories : 2.567")
+    );
+  }
+
+  @Test
+  public void testMissingArguments()
+  {
+    Assertions.assertEquals(
+      "increasing your body weight with a {0}% surplus",
+      BRCoreMessages.create(Locale.UK).format(BRCoreMessageKey.SURPLUS)
+    );
+  }
+
+  @Test
+  public void testConcurrentFormatting()
+    throws Exception
+  {
+    final var messages =
+      BRCoreMessages.create(Locale.UK);
+    final var expected =
+      messages.format(BRCoreMessageKey.SURPLUS, Double.valueOf(110.5));
+
+    final var tasks = new ArrayList<Callable<String>>();
+    for (int index = 0; index < 1000; ++index) {
+      tasks.add(() -> messages.format(BRCoreMessageKey.SURPLUS, Double.valueOf(110.5)));
+    }
+
+    try (var executor = Executors.newFixedThreadPool(8)) {
+      for (final var future : executor.invokeAll(tasks)) {
+        Assertions.assertEquals(expected, future.get());
+      }
+    }
+  }
+}
@@ -0,0 +1,288 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.bodyrecomp.tests;
+
+import com.io7m.bodyrecomp.cmdline.internal.BREstimationServer;
+import com.io7m.bodyrecomp.cmdline.internal.BRJSON;
+import com.io7m.bodyrecomp.cmdline.internal.BRJSONException;
+import com.io7m.bodyrecomp.cmdline.internal.BRMessages;
+import com.io7m.bodyrecomp.core.ActivityCoefficient;
+import com.io7m.bodyrecomp.core.BiologicalGender;
+import com.io7m.bodyrecomp.core.BodyMacroEstimates;
+import com.io7m.bodyrecomp.core.CaloricAdjustment;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Map;
+
+import static com.io7m.bodyrecomp.core.BodyMacroEstimates.OUTPUT_CALORIES;
+import static com.io7m.bodyrecomp.core.BodyMacroEstimates.OUTPUT_CARBOHYDRATE_GRAMS;
+import static com.io7m.bodyrecomp.core.BodyMacroEstimates.OUTPUT_FAT_GRAMS;
+import static com.io7m.bodyrecomp.core.BodyMacroEstimates.OUTPUT_PROTEIN_GRAMS;
+import static com.io7m.bodyrecomp.core.BodyMacroEstimates.OUTPUT_SIZE;
+
+public final class BREstimationServerTest
+{
+  private static final String BODY =
+    "{\"gender\":\"MALE\",\"activity\":\"SEDENTARY\",\"height_cm\":180,"
+      + "\"weight_kg\":80,\"age\":30,\"body_fat_percent\":20,"
+      + "\"caloric_adjustment\":\"MAINTENANCE\"";
+
+  private BREstimationServer server;
+  private HttpClient client;
+  private URI uri;
+
+  @BeforeEach
+  public void setup()
+    throws IOException
+  {
+    this.server =
+      BREstimationServer.create(
+        BRMessages.create(),
+        new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+        0,
+        128
+      );
+    this.client = HttpClient.newHttpClient();
+    this.uri =
+      URI.create(String.format(
+        "http://localhost:%d%s",
+        Integer.valueOf(this.server.address().getPort()),
+        BREstimationServer.PATH));
+  }
+
+  @AfterEach
+  public void tearDown()
+  {
+    this.client.close();
+    this.server.close();
+  }
+
+  private HttpResponse<String> post(
+    final String text)
+    throws IOException, InterruptedException
+  {
+    return this.client.send(
+      HttpRequest.newBuilder(this.uri)
+        .POST(HttpRequest.BodyPublishers.ofString(text))
+        .build(),
+      HttpResponse.BodyHandlers.ofString()
+    );
+  }
+
+  @Test
+  public void testEstimate()
+    throws Exception
+  {
+    final var response = this.post(BODY + "}");
+    Assertions.assertEquals(200, response.statusCode());
+
+    final var expected = new double[OUTPUT_SIZE];
+    BodyMacroEstimates.estimateFor(
+      BiologicalGender.MALE,
+      ActivityCoefficient.SEDENTARY,
+      1.8,
+      80.0,
+      30.0,
+      0.2,
+      CaloricAdjustment.MAINTENANCE.coefficient().value(),
+      expected,
+      0
+    );
+
+    final var text = response.body();
+    Assertions.assertTrue(
+      text.contains("\"calories\":" + expected[OUTPUT_CALORIES]), text);
+    Assertions.assertTrue(
+      text.contains("\"protein_grams\":" + expected[OUTPUT_PROTEIN_GRAMS]), text);
+    Assertions.assertTrue(
+      text.contains("\"fat_grams\":" + expected[OUTPUT_FAT_GRAMS]), text);
+    Assertions.assertTrue(
+      text.contains("\"carbohydrate_grams\":" + expected[OUTPUT_CARBOHYDRATE_GRAMS]), text);
+    Assertions.assertFalse(text.contains("explanations"), text);
+
+    this.post(BODY + "}");
+    final var statistics =
+      this.server.cacheWithoutExplanations().statistics();
+    Assertions.assertEquals(1L, statistics.hits());
+    Assertions.assertEquals(1L, statistics.misses());
+  }
+
+  @Test
+  public void testExplanations()
+    throws Exception
+  {
+    final var response = this.post(BODY + ",\"explanations\":true}");
+    Assertions.assertEquals(200, response.statusCode());
+    Assertions.assertTrue(
+      response.body().contains("\"explanations\":[\"The first step"),
+      response.body());
+  }
+
+  @Test
+  public void testMissingField()
+    throws Exception
+  {
+    final var response = this.post("{\"gender\":\"MALE\"}");
+    Assertions.assertEquals(400, response.statusCode());
+    Assertions.assertTrue(response.body().startsWith("{\"error\":"));
+  }
+
+  @Test
+  public void testBadEnum()
+    throws Exception
+  {
+    final var response =
+      this.post(BODY.replace("SEDENTARY", "SLOTHFUL") + "}");
+    Assertions.assertEquals(400, response.statusCode());
+    Assertions.assertTrue(response.body().contains("HIGHLY_ACTIVE"));
+  }
+
+  @Test
+  public void testEnumCaseSensitive()
+    throws Exception
+  {
+    final var response =
+      this.post(BODY.replace("SEDENTARY", "sedentary") + "}");
+    Assertions.assertEquals(400, response.statusCode());
+    Assertions.assertTrue(response.body().contains("HIGHLY_ACTIVE"));
+  }
+
+  @Test
+  public void testBadBodyFat()
+    throws Exception
+  {
+    final var response =
+      this.post(BODY.replace(":20,", ":200,") + "}");
+    Assertions.assertEquals(400, response.statusCode());
+  }
+
+  @Test
+  public void testBadNumbers()
+    throws Exception
+  {
+    final var fields = Map.of(
+      "height_cm", "\"height_cm\":180",
+      "weight_kg", "\"weight_kg\":80",
+      "age", "\"age\":30"
+    );
+
+    for (final var entry : fields.entrySet()) {
+      for (final var value : new String[]{"1e400", "-1e400", "1e300", "-80", "0"}) {
+        final var body =
+          BODY.replace(
+            entry.getValue(),
+            "\"" + entry.getKey() + "\":" + value);
+        final var response = this.post(body + "}");
+        Assertions.assertEquals(400, response.statusCode(), body);
+        Assertions.assertTrue(
+          response.body().contains(entry.getKey()), response.body());
+      }
+    }
+  }
+
+  @Test
+  public void testNumberBounds()
+    throws Exception
+  {
+    final var bodies = new String[]{
+      BODY.replace(":180,", ":300,").replace(":80,", ":1000,").replace(":30,", ":150,"),
+      BODY.replace(":180,", ":1e-300,").replace(":80,", ":1e-300,").replace(":30,", ":1e-300,"),
+      BODY.replace(":180,", ":1e-300,").replace(":80,", ":1e-300,").replace(":30,", ":150,"),
+    };
+
+    for (final var body : bodies) {
+      for (final var tail : new String[]{"}", ",\"explanations\":true}"}) {
+        final var response = this.post(body + tail);
+        Assertions.assertEquals(200, response.statusCode(), response.body());
+      }
+    }
+  }
+
+  @Test
+  public void testBadSyntax()
+    throws Exception
+  {
+    final var response = this.post(BODY);
+    Assertions.assertEquals(400, response.statusCode());
+    Assertions.assertTrue(response.body().contains("Invalid JSON"));
+  }
+
+  @Test
+  public void testMethod()
+    throws Exception
+  {
+    final var response =
+      this.client.send(
+        HttpRequest.newBuilder(this.uri).GET().build(),
+        HttpResponse.BodyHandlers.ofString()
+      );
+    Assertions.assertEquals(405, response.statusCode());
+  }
+
+  @Test
+  public void testJSONParse()
+    throws Exception
+  {
+    final var members =
+      BRJSON.parseFlatObject(
+        " { \"a\" : \"x\\\"y\\u0041\", \"b\": -1.5e2, \"c\": true, \"d\": null } ");
+
+    Assertions.assertEquals(
+      Map.of("a", "x\"yA", "b", Double.valueOf(-150.0), "c", Boolean.TRUE),
+      Map.of("a", members.get("a"), "b", members.get("b"), "c", members.get("c")));
+    Assertions.assertTrue(members.containsKey("d"));
+    Assertions.assertNull(members.get("d"));
+  }
+
+  @Test
+  public void testJSONErrors()
+  {
+    for (final var text : new String[]{
+      "",
+      "{",
+      "{\"a\":[1]}",
+      "{\"a\":{}}",
+      "{\"a\":1,\"a\":2}",
+      "{\"a\":1} x",
+      "{\"a\":tru}",
+      "{\"a\":\"\\q\"}",
+      "{a:1}",
+    }) {
+      Assertions.assertThrows(BRJSONException.class, () -> {
+        BRJSON.parseFlatObject(text);
+      }, text);
+    }
+  }
+
+  @Test
+  public void testJSONAppendString()
+  {
+    Assertions.assertEquals(
+      "\"a\\\"b\\\\c\\nd\\u0001\"",
+      BRJSON.appendString(new StringBuilder(), "a\"b\\c\nd\u0001").toString());
+  }
+}
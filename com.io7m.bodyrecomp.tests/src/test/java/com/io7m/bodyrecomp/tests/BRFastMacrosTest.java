@@ -0,0 +1,206 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.bodyrecomp.tests;
+
+import com.io7m.bodyrecomp.cmdline.Main;
+import com.io7m.bodyrecomp.cmdline.internal.BRFastMacros;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+public final class BRFastMacrosTest
+{
+  private static final List<String> BODY =
+    List.of(
+      "macros",
+      "--gender", "FEMALE",
+      "--height-cm", "167",
+      "--weight-kg", "63",
+      "--age", "29",
+      "--body-fat-percent", "24"
+    );
+
+  private static String[] args(
+    final String... extra)
+  {
+    final var result = new ArrayList<>(BODY);
+    result.addAll(List.of(extra));
+    return result.toArray(new String[0]);
+  }
+
+  private static String runFast(
+    final String[] args,
+    final boolean expected)
+  {
+    final var bytes = new ByteArrayOutputStream();
+    final var out = new PrintStream(bytes, true, StandardCharsets.UTF_8);
+    Assertions.assertEquals(
+      Boolean.valueOf(expected),
+      Boolean.valueOf(BRFastMacros.execute(args, out)));
+    return bytes.toString(StandardCharsets.UTF_8);
+  }
+
+  /*
+   * Run the command through the full command line parser; the extra
+   * option is declined by the fast path.
+   */
+
+  private static String runFull(
+    final String[] args)
+  {
+    final var withVerbose = new ArrayList<>(List.of(args));
+    withVerbose.add("--verbose");
+    withVerbose.add("info");
+
+    final var bytes = new ByteArrayOutputStream();
+    final var saved = System.out;
+    System.setOut(new PrintStream(bytes, true, StandardCharsets.UTF_8));
+    try {
+      final var main = new Main(withVerbose.toArray(new String[0]));
+      main.run();
+      Assertions.assertEquals(0, main.exitCode());
+    } finally {
+      System.setOut(saved);
+    }
+    return bytes.toString(StandardCharsets.UTF_8);
+  }
+
+  @Test
+  public void testExplanationsMatchFullParser()
+  {
+    final var args =
+      args("--activity-level", "HIGHLY_ACTIVE", "--caloric-adjustment", "SMALL_DEFICIT");
+    final var fast = runFast(args, true);
+    Assertions.assertFalse(fast.isEmpty());
+    Assertions.assertEquals(runFull(args), fast);
+  }
+
+  @Test
+  public void testGridMatchesFullParser()
+  {
+    final var args = args("--grid");
+    final var fast = runFast(args, true);
+    Assertions.assertFalse(fast.isEmpty());
+    Assertions.assertEquals(runFull(args), fast);
+  }
+
+  @Test
+  public void testDeclined()
+  {
+    final var declined = List.of(
+      new String[0],
+      new String[]{"version"},
+      new String[]{"macros", "--help"},
+      args(),
+      args("--activity-level", "HIGHLY_ACTIVE"),
+      args("--activity-level", "NOT_A_LEVEL", "--caloric-adjustment", "SMALL_DEFICIT"),
+      args("--activity-level", "HIGHLY_ACTIVE", "--caloric-adjustment"),
+      args("--grid", "--grid"),
+      args("--grid", "--age", "30"),
+      args("--grid", "--verbose", "trace"),
+      args("--grid", "--format", "CSV"),
+      args("--grid", "--format", "TEXT", "--format", "TEXT"),
+      args("--grid", "--summary-only", "--summary-only"),
+      args("--activity-level", "HIGHLY_ACTIVE", "--caloric-adjustment", "SMALL_DEFICIT", "--format", "XML"),
+      new String[]{
+        "macros",
+        "--gender", "MALE",
+        "--height-cm", "180",
+        "--weight-kg", "80",
+        "--age", "30",
+        "--body-fat-percent", "101",
+        "--grid"
+      },
+      new String[]{
+        "macros",
+        "--gender", "MALE",
+        "--height-cm", "x",
+        "--weight-kg", "80",
+        "--age", "30",
+        "--body-fat-percent", "20",
+        "--grid"
+      }
+    );
+
+    for (final var args : declined) {
+      Assertions.assertEquals("", runFast(args, false), List.of(args).toString());
+    }
+  }
+
+  @Test
+  public void testSummaryOnlyMatchesFullParser()
+  {
+    final var args =
+      args("--activity-level", "SEDENTARY", "--caloric-adjustment", "MAINTENANCE", "--summary-only");
+    final var fast = runFast(args, true);
+    Assertions.assertTrue(fast.startsWith("Summary"), fast);
+    Assertions.assertFalse(fast.contains("basal metabolic rate"), fast);
+    Assertions.assertEquals(runFull(args), fast);
+
+    final var full =
+      runFast(args("--activity-level", "SEDENTARY", "--caloric-adjustment", "MAINTENANCE"), true);
+    Assertions.assertTrue(full.endsWith(fast), full);
+  }
+
+  @Test
+  public void testCSVMatchesFullParser()
+  {
+    final var args =
+      args("--activity-level", "SEDENTARY", "--caloric-adjustment", "MAINTENANCE", "--format", "CSV");
+    final var fast = runFast(args, true);
+    final var lines = fast.split(System.lineSeparator());
+    Assertions.assertEquals(2, lines.length, fast);
+    Assertions.assertEquals("calories,protein_grams,fat_grams,carbohydrate_grams", lines[0]);
+    Assertions.assertEquals(4, lines[1].split(",").length, lines[1]);
+    Assertions.assertEquals(runFull(args), fast);
+  }
+
+  @Test
+  public void testJSONMatchesFullParser()
+  {
+    final var args =
+      args("--activity-level", "SEDENTARY", "--caloric-adjustment", "MAINTENANCE", "--format", "JSON");
+    final var fast = runFast(args, true);
+    Assertions.assertTrue(fast.startsWith("{\"calories\":"), fast);
+    Assertions.assertTrue(fast.contains("\"explanations\":[\"The first step"), fast);
+    Assertions.assertEquals(runFull(args), fast);
+
+    final var summaryArgs =
+      args("--activity-level", "SEDENTARY", "--caloric-adjustment", "MAINTENANCE", "--format", "JSON", "--summary-only");
+    final var summary = runFast(summaryArgs, true);
+    Assertions.assertFalse(summary.contains("explanations"), summary);
+    Assertions.assertEquals(runFull(summaryArgs), summary);
+  }
+
+  @Test
+  public void testGridRejectsFormat()
+  {
+    final var withVerbose = new ArrayList<>(List.of(args("--grid", "--format", "JSON")));
+    withVerbose.add("--verbose");
+    withVerbose.add("info");
+
+    final var main = new Main(withVerbose.toArray(new String[0]));
+    main.run();
+    Assertions.assertNotEquals(0, main.exitCode());
+  }
+}
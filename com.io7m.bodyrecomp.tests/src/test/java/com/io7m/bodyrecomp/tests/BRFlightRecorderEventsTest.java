@@ -0,0 +1,149 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.bodyrecomp.tests;
+
+import com.io7m.bodyrecomp.cmdline.Main;
+import com.io7m.bodyrecomp.cmdline.internal.BRCommandEvent;
+import com.io7m.bodyrecomp.core.BodyMacroEstimates;
+import com.io7m.bodyrecomp.core.internal.BRCoreMessages;
+import com.io7m.bodyrecomp.core.internal.BREstimateEvent;
+import jdk.jfr.EventType;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+
+import static com.io7m.bodyrecomp.tests.ExamplePeople.ANDRE;
+
+public final class BRFlightRecorderEventsTest
+{
+  private static final String FORMAT_EVENT =
+    "com.io7m.bodyrecomp.MessageFormat";
+  private static final String MESSAGES_EVENT =
+    "com.io7m.bodyrecomp.CoreMessagesCreate";
+
+  private static List<RecordedEvent> record(
+    final Path directory,
+    final Runnable action)
+    throws Exception
+  {
+    final var file = directory.resolve("recording.jfr");
+    try (var recording = new Recording()) {
+      recording.enable(BREstimateEvent.NAME);
+      recording.enable(BRCommandEvent.NAME);
+      recording.enable(FORMAT_EVENT);
+      recording.enable(MESSAGES_EVENT);
+      recording.start();
+      action.run();
+      recording.stop();
+      recording.dump(file);
+    }
+    return RecordingFile.readAllEvents(file);
+  }
+
+  private static List<RecordedEvent> named(
+    final List<RecordedEvent> events,
+    final String name)
+  {
+    return events.stream()
+      .filter(e -> e.getEventType().getName().equals(name))
+      .toList();
+  }
+
+  @Test
+  public void testDisabledByDefault()
+  {
+    Assertions.assertFalse(
+      EventType.getEventType(BREstimateEvent.class).isEnabled());
+    Assertions.assertFalse(
+      EventType.getEventType(BRCommandEvent.class).isEnabled());
+  }
+
+  @Test
+  public void testEstimateEvents(
+    final @TempDir Path directory)
+    throws Exception
+  {
+    final var macros = new Object[1];
+    final var events = record(directory, () -> {
+      macros[0] = BodyMacroEstimates.estimateFor(ANDRE);
+    });
+
+    final var estimates = named(events, BREstimateEvent.NAME);
+    Assertions.assertEquals(1, estimates.size());
+
+    final var estimate = estimates.get(0);
+    Assertions.assertEquals(ANDRE.gender().name(), estimate.getString("gender"));
+    Assertions.assertEquals(
+      ANDRE.bodyWeight().getValue().doubleValue(),
+      estimate.getDouble("weightKilograms"));
+    Assertions.assertTrue(estimate.getInt("explanationCount") > 0);
+    Assertions.assertTrue(estimate.getLong("explanationBytes") > 0L);
+    Assertions.assertFalse(estimate.getDuration().isNegative());
+
+    final var formats = named(events, FORMAT_EVENT);
+    Assertions.assertEquals(
+      estimate.getInt("explanationCount"),
+      formats.size());
+    final long formatBytes =
+      formats.stream().mapToLong(e -> e.getLong("bytes")).sum();
+    Assertions.assertEquals(estimate.getLong("explanationBytes"), formatBytes);
+
+    Assertions.assertEquals(1, named(events, MESSAGES_EVENT).size());
+  }
+
+  @Test
+  public void testMessagesEvents(
+    final @TempDir Path directory)
+    throws Exception
+  {
+    final var locale = Locale.forLanguageTag("en-x-jfrtest");
+    final var events = record(directory, () -> {
+      BRCoreMessages.create(locale);
+      BRCoreMessages.create(locale);
+    });
+
+    final var creates = named(events, MESSAGES_EVENT);
+    Assertions.assertEquals(2, creates.size());
+    Assertions.assertTrue(creates.get(0).getBoolean("loaded"));
+    Assertions.assertFalse(creates.get(1).getBoolean("loaded"));
+    Assertions.assertEquals(
+      locale.toLanguageTag(),
+      creates.get(0).getString("locale"));
+  }
+
+  @Test
+  public void testCommandEvents(
+    final @TempDir Path directory)
+    throws Exception
+  {
+    final var events = record(directory, () -> {
+      new Main(new String[]{"version"}).run();
+    });
+
+    final var commands = named(events, BRCommandEvent.NAME);
+    Assertions.assertEquals(1, commands.size());
+    Assertions.assertEquals("version", commands.get(0).getString("command"));
+    Assertions.assertEquals(0, commands.get(0).getInt("exitCode"));
+  }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.bodyrecomp.tests;
+
+import com.io7m.bodyrecomp.cmdline.internal.BRMacrosCSVException;
+import com.io7m.bodyrecomp.cmdline.internal.BRMacrosCSVProcessor;
+import com.io7m.bodyrecomp.cmdline.internal.BRMessages;
+import com.io7m.bodyrecomp.core.ActivityCoefficient;
+import com.io7m.bodyrecomp.core.BiologicalGender;
+import com.io7m.bodyrecomp.core.BodyMacroBatchKernels;
+import com.io7m.bodyrecomp.core.BodyMacroEstimates;
+import com.io7m.bodyrecomp.core.CaloricAdjustment;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.io7m.bodyrecomp.core.BodyMacroEstimates.OUTPUT_CALORIES;
+import static com.io7m.bodyrecomp.core.BodyMacroEstimates.OUTPUT_CARBOHYDRATE_GRAMS;
+import static com.io7m.bodyrecomp.core.BodyMacroEstimates.OUTPUT_FAT_GRAMS;
+import static com.io7m.bodyrecomp.core.BodyMacroEstimates.OUTPUT_PROTEIN_GRAMS;
+import static com.io7m.bodyrecomp.core.BodyMacroEstimates.OUTPUT_SIZE;
+
+public final class BRMacrosCSVProcessorTest
+{
+  private static String process(
+    final String text,
+    final int batchSize,
+    final ArrayList<Long> batches)
+    throws IOException
+  {
+    final var processor =
+      new BRMacrosCSVProcessor(
+        BRMessages.create(),
+        BodyMacroBatchKernels.scalar(),
+        batchSize);
+
+    final var writer = new StringWriter();
+    processor.process(
+      new BufferedReader(new StringReader(text)),
+      writer,
+      rows -> batches.add(Long.valueOf(rows)));
+    return writer.toString();
+  }
+
+  @Test
+  public void testRowsMatchScalar()
+    throws IOException
+  {
+    final var text = new StringBuilder(4096);
+    text.append("id,caloric_adjustment,gender,activity,height_cm,weight_kg,age,body_fat_percent\n");
+    final var genders = BiologicalGender.values();
+    final var activities = ActivityCoefficient.values();
+    final var adjustments = CaloricAdjustment.values();
+    for (int index = 0; index < 25; ++index) {
+      text.append(index)
+        .append(',')
+        .append(adjustments[index % adjustments.length])
+        .append(',')
+        .append(genders[index % genders.length])
+        .append(',')
+        .append(activities[index % activities.length])
+        .append(',')
+        .append(160 + index)
+        .append(',')
+        .append(60 + index)
+        .append(',')
+        .append(20 + index)
+        .append(',')
+        .append(10 + index)
+        .append('\n');
+    }
+
+    final var batches = new ArrayList<Long>();
+    final var lines =
+      process(text.toString(), 10, batches).split(System.lineSeparator());
+
+    Assertions.assertEquals(
+      "id,caloric_adjustment,gender,activity,height_cm,weight_kg,age,"
+        + "body_fat_percent,calories,protein_grams,fat_grams,carbohydrate_grams",
+      lines[0]);
+    Assertions.assertEquals(26, lines.length);
+    Assertions.assertEquals(
+      List.of(Long.valueOf(10L), Long.valueOf(20L), Long.valueOf(25L)),
+      batches);
+
+    final var expected = new double[OUTPUT_SIZE];
+    for (int index = 0; index < 25; ++index) {
+      BodyMacroEstimates.estimateFor(
+        genders[index % genders.length],
+        activities[index % activities.length],
+        (160 + index) / 100.0,
+        60 + index,
+        20 + index,
+        (10 + index) / 100.0,
+        adjustments[index % adjustments.length].coefficient().value(),
+        expected,
+        0
+      );
+
+      final var fields = lines[index + 1].split(",");
+      Assertions.assertEquals(12, fields.length);
+      Assertions.assertEquals(String.valueOf(index), fields[0]);
+      Assertions.assertEquals(
+        expected[OUTPUT_CALORIES], Double.parseDouble(fields[8]));
+      Assertions.assertEquals(
+        expected[OUTPUT_PROTEIN_GRAMS], Double.parseDouble(fields[9]));
+      Assertions.assertEquals(
+        expected[OUTPUT_FAT_GRAMS], Double.parseDouble(fields[10]));
+      Assertions.assertEquals(
+        expected[OUTPUT_CARBOHYDRATE_GRAMS], Double.parseDouble(fields[11]));
+    }
+  }
+
+  @Test
+  public void testMissingColumn()
+  {
+    final var ex =
+      Assertions.assertThrows(IllegalArgumentException.class, () -> {
+        process("gender,age\nMALE,30\n", 10, new ArrayList<>());
+      });
+    Assertions.assertTrue(ex.getMessage().contains("activity"));
+  }
+
+  @Test
+  public void testEmpty()
+  {
+    Assertions.assertThrows(IllegalArgumentException.class, () -> {
+      process("", 10, new ArrayList<>());
+    });
+  }
+
+  @Test
+  public void testBadRowReportsLine()
+  {
+    final var ex =
+      Assertions.assertThrows(BRMacrosCSVException.class, () -> {
+        process(
+          "gender,activity,height_cm,weight_kg,age,body_fat_percent,caloric_adjustment\n"
+            + "MALE,SEDENTARY,180,80,30,20,MAINTENANCE\n"
+            + "\n"
+            + "MALE,SLOTHFUL,180,80,30,20,MAINTENANCE\n",
+          10,
+          new ArrayList<>());
+      });
+    Assertions.assertTrue(ex.getMessage().startsWith("Line 4:"));
+  }
+
+  @Test
+  public void testBadFieldCount()
+  {
+    Assertions.assertThrows(BRMacrosCSVException.class, () -> {
+      process(
+        "gender,activity,height_cm,weight_kg,age,body_fat_percent,caloric_adjustment\n"
+          + "MALE,SEDENTARY,180,80,30,20\n",
+        10,
+        new ArrayList<>());
+    });
+  }
+
+  @Test
+  public void testBodyFatOutOfRange()
+  {
+    Assertions.assertThrows(BRMacrosCSVException.class, () -> {
+      process(
+        "gender,activity,height_cm,weight_kg,age,body_fat_percent,caloric_adjustment\n"
+          + "MALE,SEDENTARY,180,80,30,101,MAINTENANCE\n",
+        10,
+        new ArrayList<>());
+    });
+  }
+}
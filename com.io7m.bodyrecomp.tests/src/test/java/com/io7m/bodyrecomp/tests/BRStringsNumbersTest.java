@@ -0,0 +1,169 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.bodyrecomp.tests;
+
+import com.io7m.bodyrecomp.core.internal.BRCoreMessageKey;
+import com.io7m.bodyrecomp.core.internal.BRCoreMessages;
+import com.io7m.bodyrecomp.strings.api.BRStringsArguments;
+import com.io7m.bodyrecomp.strings.api.BRStringsNumbers;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.text.NumberFormat;
+import java.util.Locale;
+
+public final class BRStringsNumbersTest
+{
+  private static final long[] LONGS = {
+    0L,
+    1L,
+    -1L,
+    7L,
+    999L,
+    1000L,
+    -1000L,
+    2567L,
+    123456789L,
+    -987654321012L,
+    Long.MAX_VALUE,
+    Long.MIN_VALUE,
+  };
+
+  private static final double[] DOUBLES = {
+    0.0,
+    -0.0,
+    1.0,
+    1.35,
+    1.65,
+    1.83,
+    2.2,
+    -2.5,
+    110.5,
+    0.1,
+    0.125,
+    0.0005,
+    0.0015,
+    1.0E-7,
+    -1.0E-7,
+    1234.5678,
+    12345678.125,
+    999999999.999,
+    1.0E12,
+    1.0E300,
+    Double.MIN_VALUE,
+    Double.NaN,
+    Double.POSITIVE_INFINITY,
+    Double.NEGATIVE_INFINITY,
+  };
+
+  @Test
+  public void testAllLocales()
+  {
+    final var text = new StringBuilder();
+    for (final var locale : Locale.getAvailableLocales()) {
+      final var numbers = BRStringsNumbers.of(locale);
+      final var format = NumberFormat.getInstance(locale);
+
+      for (final long value : LONGS) {
+        text.setLength(0);
+        numbers.appendLong(text, value);
+        Assertions.assertEquals(format.format(value), text.toString(), locale.toString());
+      }
+      for (final double value : DOUBLES) {
+        text.setLength(0);
+        numbers.appendDouble(text, value);
+        Assertions.assertEquals(format.format(value), text.toString(), locale.toString());
+      }
+    }
+  }
+
+  @Test
+  public void testNumbers()
+  {
+    final var numbers = BRStringsNumbers.of(Locale.GERMANY);
+    final var format = NumberFormat.getInstance(Locale.GERMANY);
+    final var values = new Number[]{
+      Integer.valueOf(-12345),
+      Short.valueOf((short) 1234),
+      Byte.valueOf((byte) -12),
+      Float.valueOf(0.1f),
+      Double.valueOf(1234.5),
+      new BigDecimal("12345.678901"),
+    };
+
+    final var text = new StringBuilder();
+    for (final var value : values) {
+      text.setLength(0);
+      numbers.appendNumber(text, value);
+      Assertions.assertEquals(format.format(value), text.toString());
+    }
+  }
+
+  @Test
+  public void testShared()
+  {
+    Assertions.assertSame(
+      BRStringsNumbers.of(Locale.UK),
+      BRStringsNumbers.of(Locale.UK)
+    );
+  }
+
+  @Test
+  public void testArgumentsMatchObjects()
+  {
+    final var messages = BRCoreMessages.create(Locale.GERMANY);
+    final var arguments = BRStringsArguments.create();
+    for (int round = 0; round < 3; ++round) {
+      arguments.clear()
+        .addLong(2567L)
+        .addDouble(1.83)
+        .addLong(78L)
+        .addObject(new StringBuilder("MALE"))
+        .addLong(1800L);
+
+      final var text = new StringBuilder("prefix:");
+      messages.formatTo(text, BRCoreMessageKey.EXPLAIN_BMR, arguments);
+      Assertions.assertEquals(
+        "prefix:" + messages.format(
+          BRCoreMessageKey.EXPLAIN_BMR,
+          Integer.valueOf(2567),
+          Double.valueOf(1.83),
+          Integer.valueOf(78),
+          "MALE",
+          Integer.valueOf(1800)),
+        text.toString()
+      );
+    }
+  }
+
+  @Test
+  public void testArgumentsGrow()
+  {
+    final var arguments = BRStringsArguments.create();
+    for (int index = 0; index < 100; ++index) {
+      arguments.addLong(index);
+    }
+    Assertions.assertEquals(100, arguments.size());
+
+    final var text = new StringBuilder();
+    arguments.appendTo(text, BRStringsNumbers.of(Locale.UK), 99);
+    Assertions.assertEquals("99", text.toString());
+    Assertions.assertEquals(0, arguments.clear().size());
+  }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.bodyrecomp.tests;
+
+import com.io7m.bodyrecomp.cmdline.internal.BRMessageKey;
+import com.io7m.bodyrecomp.cmdline.internal.BRMessages;
+import com.io7m.bodyrecomp.core.internal.BRCoreMessageKey;
+import com.io7m.bodyrecomp.core.internal.BRCoreMessages;
+import com.io7m.bodyrecomp.strings.api.BRStringsKeyType;
+import com.io7m.bodyrecomp.strings.api.BRStringsPattern;
+import com.io7m.bodyrecomp.strings.processor.BRStringsCatalogProcessor;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.text.MessageFormat;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.function.BiFunction;
+
+public final class BRStringsPatternTest
+{
+  private static Properties load(
+    final Class<?> clazz,
+    final String name)
+    throws IOException
+  {
+    final var properties = new Properties();
+    try (var stream = clazz.getResourceAsStream(name)) {
+      properties.loadFromXML(stream);
+    }
+    return properties;
+  }
+
+  private static Object[] arguments(
+    final BRStringsPattern pattern)
+  {
+    int count = 0;
+    for (int index = 0; index < pattern.argumentCount(); ++index) {
+      count = Math.max(count, pattern.argument(index) + 1);
+    }
+    final var args = new Object[count];
+    for (int index = 0; index < count; ++index) {
+      args[index] = (index % 2 == 0)
+        ? Integer.valueOf(1234 + index)
+        : Double.valueOf(0.125 + index);
+    }
+    return args;
+  }
+
+  private static <K extends Enum<K> & BRStringsKeyType> void checkCatalog(
+    final Properties properties,
+    final K[] keys,
+    final Locale locale,
+    final BiFunction<K, Object[], String> format)
+  {
+    Assertions.assertEquals(properties.size(), keys.length);
+    for (final var key : keys) {
+      final var args = arguments(key.pattern());
+      Assertions.assertEquals(
+        new MessageFormat(properties.getProperty(key.id()), locale).format(args),
+        format.apply(key, args),
+        key.id()
+      );
+    }
+  }
+
+  @Test
+  public void testCoreCatalog()
+    throws IOException
+  {
+    final var messages = BRCoreMessages.create(Locale.UK);
+    checkCatalog(
+      load(BRCoreMessages.class, "/com/io7m/bodyrecomp/core/internal/Messages.xml"),
+      BRCoreMessageKey.values(),
+      Locale.UK,
+      messages::format
+    );
+  }
+
+  @Test
+  public void testCommandLineCatalog()
+    throws IOException
+  {
+    final var messages = BRMessages.create();
+    checkCatalog(
+      load(BRMessages.class, "/com/io7m/bodyrecomp/cmdline/internal/Messages.xml"),
+      BRMessageKey.values(),
+      messages.locale(),
+      messages::format
+    );
+  }
+
+  @Test
+  public void testParseMatchesMessageFormat()
+  {
+    final var texts = new String[]{
+      "",
+      "plain",
+      "{0}",
+      "a {0} b {1} c",
+      "{1}{0}{1}",
+      "it''s {0}",
+      "'{'{0}'}'",
+      "'quoted {0} text' {0}",
+      "stray }",
+      "{12}",
+      "trailing quote'",
+    };
+    for (final var text : texts) {
+      checkParse(text);
+    }
+  }
+
+  private static void checkParse(
+    final String text)
+  {
+    final var pattern = BRStringsPattern.parse(text);
+    final var result = new StringBuilder();
+    for (int index = 0; index < pattern.argumentCount(); ++index) {
+      result.append(pattern.literal(index));
+      result.append('<');
+      result.append(pattern.argument(index));
+      result.append('>');
+    }
+    result.append(pattern.literal(pattern.argumentCount()));
+
+    final var args = new Object[13];
+    for (int index = 0; index < args.length; ++index) {
+      args[index] = "<" + index + ">";
+    }
+    Assertions.assertEquals(new MessageFormat(text).format(args), result.toString());
+  }
+
+  @Test
+  public void testParseRejected()
+  {
+    final var texts = new String[]{
+      "{",
+      "{ 0 }",
+      "{}",
+      "{x}",
+      "{0,number}",
+      "{0",
+    };
+    for (final var text : texts) {
+      Assertions.assertThrows(IllegalArgumentException.class, () -> {
+        BRStringsPattern.parse(text);
+      }, text);
+    }
+  }
+
+  @Test
+  public void testOfValidation()
+  {
+    Assertions.assertThrows(IllegalArgumentException.class, () -> {
+      BRStringsPattern.of(new String[]{"a"}, new int[]{0});
+    });
+    Assertions.assertThrows(IllegalArgumentException.class, () -> {
+      BRStringsPattern.of(new String[]{"a", "b"}, new int[]{-1});
+    });
+    Assertions.assertEquals(
+      BRStringsPattern.parse("a {0} b"),
+      BRStringsPattern.of(new String[]{"a ", " b"}, new int[]{0})
+    );
+  }
+
+  @Test
+  public void testConstantNames()
+  {
+    Assertions.assertEquals("EXPLAIN_BMR", BRStringsCatalogProcessor.constantName("explainBMR"));
+    Assertions.assertEquals("ERROR_HTTP_METHOD", BRStringsCatalogProcessor.constantName("errorHTTPMethod"));
+    Assertions.assertEquals("SURPLUS", BRStringsCatalogProcessor.constantName("surplus"));
+    Assertions.assertEquals("HELP_CMD_MACROS", BRStringsCatalogProcessor.constantName("helpCmdMacros"));
+  }
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.bodyrecomp.tests;
+
+import com.io7m.bodyrecomp.core.BodyDefinitionColumns;
+import com.io7m.bodyrecomp.core.BodyDefinitionFileFormat;
+import com.io7m.bodyrecomp.core.BodyDefinitionFileReader;
+import com.io7m.bodyrecomp.core.BodyDefinitionFileWriter;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static com.io7m.bodyrecomp.tests.ExamplePeople.ANDRE;
+
+public final class BodyDefinitionFilesTest
+{
+  private static void checkEqual(
+    final BodyDefinitionColumns expected,
+    final int expectedOffset,
+    final BodyDefinitionColumns received,
+    final int receivedOffset,
+    final int count)
+  {
+    for (int index = 0; index < count; ++index) {
+      final int e = expectedOffset + index;
+      final int r = receivedOffset + index;
+      Assertions.assertEquals(
+        expected.genders()[e], received.genders()[r]);
+      Assertions.assertEquals(
+        expected.activities()[e], received.activities()[r]);
+      Assertions.assertEquals(
+        expected.heightMetres()[e], received.heightMetres()[r]);
+      Assertions.assertEquals(
+        expected.weightKilograms()[e], received.weightKilograms()[r]);
+      Assertions.assertEquals(
+        expected.ageYears()[e], received.ageYears()[r]);
+      Assertions.assertEquals(
+        expected.bodyFatCoefficients()[e], received.bodyFatCoefficients()[r]);
+      Assertions.assertEquals(
+        expected.caloricAdjustments()[e], received.caloricAdjustments()[r]);
+    }
+  }
+
+  @Test
+  public void testRoundTrip(
+    final @TempDir Path directory)
+    throws IOException
+  {
+    final var file = directory.resolve("population.bin");
+    final var input = ExampleColumns.random(1000);
+
+    try (var writer = BodyDefinitionFileWriter.create(file, 1000L)) {
+      Assertions.assertEquals(1000L, writer.size());
+      writer.write(0L, input, 0, 1000);
+    }
+
+    Assertions.assertEquals(
+      BodyDefinitionFileFormat.fileSize(1000L),
+      Files.size(file));
+
+    final var reader = BodyDefinitionFileReader.open(file);
+    Assertions.assertEquals(1000L, reader.size());
+
+    final var output = BodyDefinitionColumns.create(1000);
+    reader.read(0L, output, 0, 1000);
+    checkEqual(input, 0, output, 0, 1000);
+  }
+
+  @Test
+  public void testRandomAccess(
+    final @TempDir Path directory)
+    throws IOException
+  {
+    final var file = directory.resolve("population.bin");
+    final var input = ExampleColumns.random(1000);
+
+    try (var writer = BodyDefinitionFileWriter.create(file, 1000L)) {
+      writer.write(500L, input, 500, 500);
+      writer.write(0L, input, 0, 500);
+    }
+
+    final var reader = BodyDefinitionFileReader.open(file);
+    final var output = BodyDefinitionColumns.create(100);
+    reader.read(317L, output, 10, 90);
+    checkEqual(input, 317, output, 10, 90);
+
+    Assertions.assertThrows(IndexOutOfBoundsException.class, () -> {
+      reader.read(950L, output, 0, 51);
+    });
+    Assertions.assertThrows(IndexOutOfBoundsException.class, () -> {
+      reader.read(0L, output, 50, 51);
+    });
+  }
+
+  @Test
+  public void testSingleRecord(
+    final @TempDir Path directory)
+    throws IOException
+  {
+    final var file = directory.resolve("population.bin");
+    final var expected = BodyDefinitionColumns.create(1);
+    expected.set(0, ANDRE);
+
+    try (var writer = BodyDefinitionFileWriter.create(file, 3L)) {
+      writer.write(
+        2L,
+        ANDRE.gender(),
+        ANDRE.activity(),
+        expected.heightMetres()[0],
+        expected.weightKilograms()[0],
+        expected.ageYears()[0],
+        expected.bodyFatCoefficients()[0],
+        expected.caloricAdjustments()[0]
+      );
+      Assertions.assertThrows(IndexOutOfBoundsException.class, () -> {
+        writer.write(
+          3L,
+          ANDRE.gender(),
+          ANDRE.activity(),
+          1.0,
+          1.0,
+          1.0,
+          1.0,
+          1.0
+        );
+      });
+    }
+
+    final var reader = BodyDefinitionFileReader.open(file);
+    final var output = BodyDefinitionColumns.create(1);
+    reader.read(2L, output, 0, 1);
+    checkEqual(expected, 0, output, 0, 1);
+  }
+
+  @Test
+  public void testEmpty(
+    final @TempDir Path directory)
+    throws IOException
+  {
+    final var file = directory.resolve("population.bin");
+    BodyDefinitionFileWriter.create(file, 0L).close();
+
+    final var reader = BodyDefinitionFileReader.open(file);
+    Assertions.assertEquals(0L, reader.size());
+  }
+
+  @Test
+  public void testHeader(
+    final @TempDir Path directory)
+    throws IOException
+  {
+    final var file = directory.resolve("population.bin");
+    BodyDefinitionFileWriter.create(file, 23L).close();
+
+    final var header =
+      ByteBuffer.wrap(Arrays.copyOf(Files.readAllBytes(file), 32))
+        .order(ByteOrder.LITTLE_ENDIAN);
+
+    Assertions.assertEquals(BodyDefinitionFileFormat.MAGIC, header.getInt(0));
+    Assertions.assertEquals(BodyDefinitionFileFormat.VERSION, header.getInt(4));
+    Assertions.assertEquals(
+      BodyDefinitionFileFormat.RECORD_SIZE, header.getInt(8));
+    Assertions.assertEquals(23L, header.getLong(16));
+  }
+
+  @Test
+  public void testBadMagic(
+    final @TempDir Path directory)
+    throws IOException
+  {
+    final var file = directory.resolve("population.bin");
+    Files.write(file, new byte[64]);
+
+    final var ex =
+      Assertions.assertThrows(IOException.class, () -> {
+        BodyDefinitionFileReader.open(file);
+      });
+    Assertions.assertTrue(ex.getMessage().contains("magic"));
+  }
+
+  @Test
+  public void testShort(
+    final @TempDir Path directory)
+    throws IOException
+  {
+    final var file = directory.resolve("population.bin");
+    Files.write(file, new byte[8]);
+
+    Assertions.assertThrows(IOException.class, () -> {
+      BodyDefinitionFileReader.open(file);
+    });
+  }
+
+  @Test
+  public void testTruncated(
+    final @TempDir Path directory)
+    throws IOException
+  {
+    final var file = directory.resolve("population.bin");
+    BodyDefinitionFileWriter.create(file, 10L).close();
+
+    try (var channel =
+           FileChannel.open(file, StandardOpenOption.WRITE)) {
+      channel.truncate(BodyDefinitionFileFormat.fileSize(9L));
+    }
+
+    final var ex =
+      Assertions.assertThrows(IOException.class, () -> {
+        BodyDefinitionFileReader.open(file);
+      });
+    Assertions.assertTrue(ex.getMessage().contains("truncated"));
+  }
+}
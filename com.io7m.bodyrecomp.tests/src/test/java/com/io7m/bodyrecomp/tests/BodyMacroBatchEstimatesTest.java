@@ -0,0 +1,188 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.bodyrecomp.tests;
+
+import com.io7m.bodyrecomp.core.ActivityCoefficient;
+import com.io7m.bodyrecomp.core.BiologicalGender;
+import com.io7m.bodyrecomp.core.BodyDefinitionColumns;
+import com.io7m.bodyrecomp.core.BodyMacroBatchEstimates;
+import com.io7m.bodyrecomp.core.BodyMacroEstimates;
+import com.io7m.bodyrecomp.core.BodyMacrosColumns;
+import com.io7m.jaffirm.core.PreconditionViolationException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import static com.io7m.bodyrecomp.core.BodyMacroEstimates.OUTPUT_CALORIES;
+import static com.io7m.bodyrecomp.core.BodyMacroEstimates.OUTPUT_CARBOHYDRATE_GRAMS;
+import static com.io7m.bodyrecomp.core.BodyMacroEstimates.OUTPUT_FAT_GRAMS;
+import static com.io7m.bodyrecomp.core.BodyMacroEstimates.OUTPUT_PROTEIN_GRAMS;
+import static com.io7m.bodyrecomp.core.BodyMacroEstimates.OUTPUT_SIZE;
+import static com.io7m.bodyrecomp.tests.ExamplePeople.ANDRE;
+import static com.io7m.bodyrecomp.tests.ExamplePeople.BILL;
+import static com.io7m.bodyrecomp.tests.ExamplePeople.HELGA;
+import static com.io7m.bodyrecomp.tests.ExamplePeople.SALLY;
+
+public final class BodyMacroBatchEstimatesTest
+{
+  private static void checkIdentical(
+    final BodyDefinitionColumns input,
+    final BodyMacrosColumns output,
+    final int index)
+  {
+    final var expected = new double[OUTPUT_SIZE];
+    BodyMacroEstimates.estimateFor(
+      BiologicalGender.values()[input.genders()[index]],
+      ActivityCoefficient.values()[input.activities()[index]],
+      input.heightMetres()[index],
+      input.weightKilograms()[index],
+      input.ageYears()[index],
+      input.bodyFatCoefficients()[index],
+      input.caloricAdjustments()[index],
+      expected,
+      0
+    );
+
+    Assertions.assertEquals(
+      expected[OUTPUT_CALORIES],
+      output.calories()[index]);
+    Assertions.assertEquals(
+      expected[OUTPUT_PROTEIN_GRAMS],
+      output.proteinGrams()[index]);
+    Assertions.assertEquals(
+      expected[OUTPUT_FAT_GRAMS],
+      output.fatGrams()[index]);
+    Assertions.assertEquals(
+      expected[OUTPUT_CARBOHYDRATE_GRAMS],
+      output.carbohydrateGrams()[index]);
+  }
+
+  @Test
+  public void testExamplePeopleIdentical()
+  {
+    final var input = BodyDefinitionColumns.create(4);
+    input.set(0, ANDRE);
+    input.set(1, BILL);
+    input.set(2, HELGA);
+    input.set(3, SALLY);
+
+    final var output = BodyMacrosColumns.create(4);
+    BodyMacroBatchEstimates.estimateFor(input, output);
+
+    for (int index = 0; index < input.size(); ++index) {
+      checkIdentical(input, output, index);
+    }
+  }
+
+  @Test
+  public void testRandomIdentical()
+  {
+    final var input = ExampleColumns.random(10_000);
+    final var output = BodyMacrosColumns.create(input.size());
+    BodyMacroBatchEstimates.estimateFor(input, output);
+
+    for (int index = 0; index < input.size(); ++index) {
+      checkIdentical(input, output, index);
+    }
+  }
+
+  @Test
+  public void testSubrange()
+  {
+    final var input = ExampleColumns.random(100);
+    final var output = BodyMacrosColumns.create(input.size());
+    BodyMacroBatchEstimates.estimateFor(input, output, 10, 20);
+
+    for (int index = 0; index < input.size(); ++index) {
+      if (index >= 10 && index < 30) {
+        checkIdentical(input, output, index);
+      } else {
+        Assertions.assertEquals(0.0, output.calories()[index]);
+        Assertions.assertEquals(0.0, output.proteinGrams()[index]);
+        Assertions.assertEquals(0.0, output.fatGrams()[index]);
+        Assertions.assertEquals(0.0, output.carbohydrateGrams()[index]);
+      }
+    }
+  }
+
+  @Test
+  public void testOutputTooSmall()
+  {
+    Assertions.assertThrows(IndexOutOfBoundsException.class, () -> {
+      BodyMacroBatchEstimates.estimateFor(
+        ExampleColumns.random(10),
+        BodyMacrosColumns.create(9)
+      );
+    });
+  }
+
+  @Test
+  public void testColumnsMismatched()
+  {
+    Assertions.assertThrows(IllegalArgumentException.class, () -> {
+      new BodyMacrosColumns(
+        new double[2],
+        new double[2],
+        new double[1],
+        new double[2]
+      );
+    });
+  }
+
+  @Test
+  public void testGenderInvalid()
+  {
+    final var input = ExampleColumns.random(10);
+    input.genders()[3] = 7;
+
+    Assertions.assertThrows(PreconditionViolationException.class, () -> {
+      BodyMacroBatchEstimates.estimateFor(input, BodyMacrosColumns.create(10));
+    });
+  }
+
+  @Test
+  public void testActivityInvalid()
+  {
+    final var input = ExampleColumns.random(10);
+    input.activities()[3] = -1;
+
+    Assertions.assertThrows(PreconditionViolationException.class, () -> {
+      BodyMacroBatchEstimates.estimateFor(input, BodyMacrosColumns.create(10));
+    });
+  }
+
+  @Test
+  public void testBodyFatOutOfRange()
+  {
+    final var input = ExampleColumns.random(10);
+    input.bodyFatCoefficients()[3] = 1.2;
+
+    Assertions.assertThrows(PreconditionViolationException.class, () -> {
+      BodyMacroBatchEstimates.estimateFor(input, BodyMacrosColumns.create(10));
+    });
+  }
+
+  @Test
+  public void testCaloricAdjustmentOutOfRange()
+  {
+    final var input = ExampleColumns.random(10);
+    input.caloricAdjustments()[3] = -1.0;
+
+    Assertions.assertThrows(PreconditionViolationException.class, () -> {
+      BodyMacroBatchEstimates.estimateFor(input, BodyMacrosColumns.create(10));
+    });
+  }
+}
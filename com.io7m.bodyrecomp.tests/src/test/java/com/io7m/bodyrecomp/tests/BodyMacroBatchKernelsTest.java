@@ -0,0 +1,146 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.bodyrecomp.tests;
+
+import com.io7m.bodyrecomp.core.BodyDefinitionColumns;
+import com.io7m.bodyrecomp.core.BodyMacroBatchEstimates;
+import com.io7m.bodyrecomp.core.BodyMacroBatchKernelType;
+import com.io7m.bodyrecomp.core.BodyMacroBatchKernels;
+import com.io7m.bodyrecomp.core.BodyMacrosColumns;
+import com.io7m.bodyrecomp.vector.BodyMacroVectorKernelProvider;
+import com.io7m.jaffirm.core.PreconditionViolationException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+
+public final class BodyMacroBatchKernelsTest
+{
+  private static BodyMacroBatchKernelType vectorKernel()
+  {
+    Assumptions.assumeTrue(
+      BodyMacroVectorKernelProvider.isVectorModulePresent(),
+      "jdk.incubator.vector is not present"
+    );
+
+    final var kernel = new BodyMacroVectorKernelProvider().create();
+    Assumptions.assumeTrue(
+      kernel.isPresent(),
+      "The vector kernel is not supported on this platform"
+    );
+    return kernel.get();
+  }
+
+  private static void checkIdentical(
+    final BodyMacroBatchKernelType kernel,
+    final BodyDefinitionColumns input,
+    final int offset,
+    final int count)
+  {
+    final var expected = BodyMacrosColumns.create(input.size());
+    BodyMacroBatchEstimates.estimateFor(input, expected, offset, count);
+
+    final var received = BodyMacrosColumns.create(input.size());
+    kernel.estimateFor(input, received, offset, count);
+
+    Assertions.assertArrayEquals(expected.calories(), received.calories());
+    Assertions.assertArrayEquals(
+      expected.proteinGrams(), received.proteinGrams());
+    Assertions.assertArrayEquals(
+      expected.fatGrams(), received.fatGrams());
+    Assertions.assertArrayEquals(
+      expected.carbohydrateGrams(), received.carbohydrateGrams());
+  }
+
+  @Test
+  public void testScalarIdentical()
+  {
+    final var input = ExampleColumns.random(1000);
+    checkIdentical(BodyMacroBatchKernels.scalar(), input, 0, input.size());
+    checkIdentical(BodyMacroBatchKernels.scalar(), input, 3, 501);
+  }
+
+  @Test
+  public void testBestIsVector()
+  {
+    final var kernel = vectorKernel();
+    Assertions.assertEquals(
+      kernel.getClass(),
+      BodyMacroBatchKernels.best().getClass()
+    );
+  }
+
+  @Test
+  public void testVectorIdentical()
+  {
+    final var kernel = vectorKernel();
+    final var input = ExampleColumns.random(10_003);
+    checkIdentical(kernel, input, 0, input.size());
+  }
+
+  @Test
+  public void testVectorIdenticalSubranges()
+  {
+    final var kernel = vectorKernel();
+    final var input = ExampleColumns.random(100);
+
+    for (int offset = 0; offset < 10; ++offset) {
+      for (int count = 0; count < 30; ++count) {
+        checkIdentical(kernel, input, offset, count);
+      }
+    }
+  }
+
+  @Test
+  public void testVectorIdenticalUnusualWeights()
+  {
+    final var kernel = vectorKernel();
+    final var input = ExampleColumns.random(64);
+    final var weights = input.weightKilograms();
+    weights[0] = 0.0;
+    weights[1] = -0.0;
+    weights[2] = -80.0;
+    weights[3] = 1.0e20;
+    weights[4] = Double.NaN;
+    weights[5] = 0.25;
+    input.bodyFatCoefficients()[6] = 1.0;
+    input.bodyFatCoefficients()[7] = 0.0;
+
+    checkIdentical(kernel, input, 0, input.size());
+  }
+
+  @Test
+  public void testVectorBodyFatOutOfRange()
+  {
+    final var kernel = vectorKernel();
+    final var input = ExampleColumns.random(64);
+    input.bodyFatCoefficients()[3] = 1.2;
+
+    Assertions.assertThrows(PreconditionViolationException.class, () -> {
+      kernel.estimateFor(input, BodyMacrosColumns.create(64));
+    });
+  }
+
+  @Test
+  public void testVectorOutputTooSmall()
+  {
+    final var kernel = vectorKernel();
+
+    Assertions.assertThrows(IndexOutOfBoundsException.class, () -> {
+      kernel.estimateFor(ExampleColumns.random(64), BodyMacrosColumns.create(63));
+    });
+  }
+}
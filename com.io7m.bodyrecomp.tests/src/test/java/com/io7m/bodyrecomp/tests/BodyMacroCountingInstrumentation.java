@@ -0,0 +1,68 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.bodyrecomp.tests;
+
+import com.io7m.bodyrecomp.core.BodyMacroInstrumentationType;
+import com.io7m.bodyrecomp.core.BodyMacroStage;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * An instrumentation that counts stage evaluations and accumulates their
+ * durations. It is installed only within the isolated class loaders used by
+ * {@link BodyMacroInstrumentationTest}, and allocates nothing.
+ */
+
+public final class BodyMacroCountingInstrumentation
+  implements BodyMacroInstrumentationType
+{
+  private static final AtomicLongArray COUNTS =
+    new AtomicLongArray(BodyMacroStage.values().length);
+  private static final AtomicLongArray NANOS =
+    new AtomicLongArray(BodyMacroStage.values().length);
+
+  /**
+   * Construct an instrumentation.
+   */
+
+  public BodyMacroCountingInstrumentation()
+  {
+
+  }
+
+  static long count(
+    final BodyMacroStage stage)
+  {
+    return COUNTS.get(stage.ordinal());
+  }
+
+  static long nanos(
+    final BodyMacroStage stage)
+  {
+    return NANOS.get(stage.ordinal());
+  }
+
+  @Override
+  public void onStage(
+    final BodyMacroStage stage,
+    final long startNanos,
+    final long endNanos)
+  {
+    COUNTS.incrementAndGet(stage.ordinal());
+    NANOS.addAndGet(stage.ordinal(), endNanos - startNanos);
+  }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.bodyrecomp.tests;
+
+import com.io7m.bodyrecomp.core.BiologicalGender;
+import com.io7m.bodyrecomp.core.internal.BodyMacroCurveSegment;
+import com.io7m.bodyrecomp.core.DietaryFatEstimates;
+import com.io7m.bodyrecomp.core.DietaryProteinEstimates;
+import com.io7m.bodyrecomp.core.PiecewiseLinearCurve;
+import com.io7m.bodyrecomp.core.internal.Clamp;
+import com.io7m.jaffirm.core.PreconditionViolationException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import static com.io7m.bodyrecomp.core.PiecewiseLinearCurveExtrapolation.CLAMP;
+import static com.io7m.bodyrecomp.core.PiecewiseLinearCurveExtrapolation.LINEAR;
+
+public final class BodyMacroCurveSegmentTest
+{
+  /*
+   * Evaluate a segment in the same steps as the batch kernels.
+   */
+
+  private static double evaluate(
+    final BodyMacroCurveSegment segment,
+    final double x)
+  {
+    return Clamp.clamp(
+      segment.lowest(),
+      segment.highest(),
+      segment.output() + segment.slope() * (x - segment.start())
+    );
+  }
+
+  private static void checkIdentical(
+    final PiecewiseLinearCurve curve,
+    final BodyMacroCurveSegment segment)
+  {
+    for (int step = -1000; step <= 11000; ++step) {
+      final double x = step / 100.0;
+      Assertions.assertEquals(
+        Double.doubleToRawLongBits(curve.evaluate(x)),
+        Double.doubleToRawLongBits(evaluate(segment, x)),
+        () -> "At " + x
+      );
+    }
+  }
+
+  /**
+   * The batch kernels only support the shipped curves for as long as they
+   * consist of a single segment.
+   */
+
+  @Test
+  public void testShippedCurves()
+  {
+    for (final var gender : BiologicalGender.values()) {
+      final var protein = DietaryProteinEstimates.gramsPerPoundCurve(gender);
+      Assertions.assertEquals(2, protein.breakpointCount());
+      Assertions.assertEquals(LINEAR, protein.extrapolation());
+      checkIdentical(protein, BodyMacroCurveSegment.of(protein, LINEAR));
+
+      final var fat = DietaryFatEstimates.fatCoefficientCurve(gender);
+      Assertions.assertEquals(2, fat.breakpointCount());
+      Assertions.assertEquals(CLAMP, fat.extrapolation());
+      checkIdentical(fat, BodyMacroCurveSegment.of(fat, CLAMP));
+    }
+  }
+
+  @Test
+  public void testFallingClamped()
+  {
+    final var curve =
+      PiecewiseLinearCurve.ofSegment(8.0, 40.0, 1.6, 1.2, CLAMP);
+    checkIdentical(curve, BodyMacroCurveSegment.of(curve, CLAMP));
+  }
+
+  @Test
+  public void testRejectsBreakpoints()
+  {
+    final var curve =
+      PiecewiseLinearCurve.of(
+        new double[]{5.0, 20.0, 33.3},
+        new double[]{0.2, 0.3, 0.35},
+        CLAMP
+      );
+    Assertions.assertThrows(
+      PreconditionViolationException.class,
+      () -> BodyMacroCurveSegment.of(curve, CLAMP));
+  }
+
+  @Test
+  public void testRejectsExtrapolation()
+  {
+    final var curve =
+      PiecewiseLinearCurve.ofSegment(5.0, 25.0, 0.2, 0.35, LINEAR);
+    Assertions.assertThrows(
+      PreconditionViolationException.class,
+      () -> BodyMacroCurveSegment.of(curve, CLAMP));
+  }
+}
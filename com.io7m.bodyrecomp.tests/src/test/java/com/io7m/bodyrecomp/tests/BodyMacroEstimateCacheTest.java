@@ -0,0 +1,298 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.bodyrecomp.tests;
+
+import com.io7m.bodyrecomp.core.ActivityCoefficient;
+import com.io7m.bodyrecomp.core.BiologicalGender;
+import com.io7m.bodyrecomp.core.BodyMacroEstimateCache;
+import com.io7m.bodyrecomp.core.BodyMacroEstimateCacheConfiguration;
+import com.io7m.bodyrecomp.core.BodyMacroEstimateCacheEvictionPolicy;
+import com.io7m.bodyrecomp.core.BodyMacroEstimateOptions;
+import com.io7m.bodyrecomp.core.BodyMacroEstimates;
+import com.io7m.bodyrecomp.core.BodyMacros;
+import com.io7m.jaffirm.core.PreconditionViolationException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.io7m.bodyrecomp.core.BodyMacroEstimateCacheEvictionPolicy.LEAST_FREQUENTLY_USED;
+import static com.io7m.bodyrecomp.core.BodyMacroEstimateCacheEvictionPolicy.LEAST_RECENTLY_USED;
+import static com.io7m.bodyrecomp.tests.ExamplePeople.ANDRE;
+import static com.io7m.bodyrecomp.tests.ExamplePeople.BILL;
+import static com.io7m.bodyrecomp.tests.ExamplePeople.HELGA;
+
+public final class BodyMacroEstimateCacheTest
+{
+  private static BodyMacroEstimateCache cache(
+    final int size,
+    final BodyMacroEstimateCacheEvictionPolicy policy)
+  {
+    return BodyMacroEstimateCache.create(
+      BodyMacroEstimateCacheConfiguration.builder()
+        .setMaximumSize(size)
+        .setConcurrencyLevel(1)
+        .setEvictionPolicy(policy)
+        .build()
+    );
+  }
+
+  private static BodyMacros estimate(
+    final BodyMacroEstimateCache cache,
+    final double weight)
+  {
+    return cache.estimateFor(
+      BiologicalGender.MALE,
+      ActivityCoefficient.SEDENTARY,
+      1.8,
+      weight,
+      30.0,
+      0.2,
+      1.0
+    );
+  }
+
+  @Test
+  public void testHitsAndMisses()
+  {
+    final var cache =
+      BodyMacroEstimateCache.create(
+        BodyMacroEstimateCacheConfiguration.builder()
+          .build());
+
+    final var m0 = cache.estimateFor(BILL);
+    final var m1 = cache.estimateFor(BILL);
+    final var m2 = cache.estimateFor(HELGA);
+
+    Assertions.assertSame(m0, m1);
+    Assertions.assertEquals(BodyMacroEstimates.estimateFor(BILL), m0);
+    Assertions.assertEquals(BodyMacroEstimates.estimateFor(HELGA), m2);
+
+    final var statistics = cache.statistics();
+    Assertions.assertEquals(1L, statistics.hits());
+    Assertions.assertEquals(2L, statistics.misses());
+    Assertions.assertEquals(0L, statistics.evictions());
+    Assertions.assertEquals(2L, statistics.size());
+  }
+
+  @Test
+  public void testPrimitiveSharesKeys()
+  {
+    final var cache =
+      BodyMacroEstimateCache.create(
+        BodyMacroEstimateCacheConfiguration.builder()
+          .build());
+
+    final var m0 = cache.estimateFor(ANDRE);
+    final var m1 =
+      cache.estimateFor(
+        ANDRE.gender(),
+        ANDRE.activity(),
+        ANDRE.bodyHeight().getValue().doubleValue(),
+        ANDRE.bodyWeight().getValue().doubleValue(),
+        ANDRE.age().getValue().doubleValue(),
+        ANDRE.bodyFatCoefficient().value(),
+        ANDRE.caloricAdjustment().value()
+      );
+
+    Assertions.assertSame(m0, m1);
+    Assertions.assertEquals(1L, cache.statistics().hits());
+  }
+
+  @Test
+  public void testPrimitiveMatchesUncached()
+  {
+    final var cache = cache(16, LEAST_RECENTLY_USED);
+    final var received = estimate(cache, 80);
+    final var expected = estimate(cache(16, LEAST_RECENTLY_USED), 80);
+    Assertions.assertEquals(expected, received);
+    Assertions.assertFalse(received.explanations().isEmpty());
+  }
+
+  @Test
+  public void testOptions()
+  {
+    final var cache =
+      BodyMacroEstimateCache.create(
+        BodyMacroEstimateCacheConfiguration.builder()
+          .setOptions(
+            BodyMacroEstimateOptions.builder()
+              .setExplanations(false)
+              .build())
+          .build());
+
+    Assertions.assertTrue(cache.estimateFor(BILL).explanations().isEmpty());
+  }
+
+  @Test
+  public void testEvictLeastRecentlyUsed()
+  {
+    final var cache = cache(2, LEAST_RECENTLY_USED);
+
+    final var a = estimate(cache, 60);
+    estimate(cache, 70);
+    Assertions.assertSame(a, estimate(cache, 60));
+    estimate(cache, 80);
+
+    var statistics = cache.statistics();
+    Assertions.assertEquals(1L, statistics.evictions());
+    Assertions.assertEquals(2L, statistics.size());
+
+    /*
+     * 70 was the least recently used entry, and so was evicted.
+     */
+
+    Assertions.assertSame(a, estimate(cache, 60));
+    statistics = cache.statistics();
+    Assertions.assertEquals(2L, statistics.hits());
+
+    estimate(cache, 70);
+    statistics = cache.statistics();
+    Assertions.assertEquals(4L, statistics.misses());
+    Assertions.assertEquals(2L, statistics.evictions());
+  }
+
+  @Test
+  public void testEvictLeastFrequentlyUsed()
+  {
+    final var cache = cache(4, LEAST_FREQUENTLY_USED);
+
+    final var popular = estimate(cache, 60);
+    for (int index = 0; index < 10; ++index) {
+      Assertions.assertSame(popular, estimate(cache, 60));
+    }
+
+    /*
+     * A burst of one-off requests does not evict the popular entry.
+     */
+
+    for (int weight = 100; weight < 120; ++weight) {
+      estimate(cache, weight);
+    }
+
+    final var statistics = cache.statistics();
+    Assertions.assertEquals(4L, statistics.size());
+    Assertions.assertEquals(17L, statistics.evictions());
+    Assertions.assertSame(popular, estimate(cache, 60));
+  }
+
+  @Test
+  public void testLeastFrequentlyUsedKeepsHotSet()
+  {
+    final var cache = cache(64, LEAST_FREQUENTLY_USED);
+
+    final var hot = new ArrayList<BodyMacros>();
+    for (int index = 0; index < 16; ++index) {
+      hot.add(estimate(cache, 60 + index));
+    }
+
+    /*
+     * A long stream of one-off requests passes through the cache, while the
+     * hot set is requested repeatedly. The hot set is both the oldest and
+     * the most frequently used part of the cache, and must survive.
+     */
+
+    for (int index = 0; index < 4000; ++index) {
+      estimate(cache, 100.0 + index * 0.01);
+      if (index % 8 == 0) {
+        for (int hotIndex = 0; hotIndex < 16; ++hotIndex) {
+          Assertions.assertSame(
+            hot.get(hotIndex),
+            estimate(cache, 60 + hotIndex));
+        }
+      }
+    }
+
+    final var statistics = cache.statistics();
+    Assertions.assertEquals(64L, statistics.size());
+    Assertions.assertEquals(16L + 4000L, statistics.misses());
+    Assertions.assertEquals(16L + 4000L - 64L, statistics.evictions());
+  }
+
+  @Test
+  public void testClear()
+  {
+    final var cache = cache(4, LEAST_RECENTLY_USED);
+    estimate(cache, 60);
+    cache.clear();
+    Assertions.assertEquals(0L, cache.statistics().size());
+    estimate(cache, 60);
+    Assertions.assertEquals(2L, cache.statistics().misses());
+  }
+
+  @Test
+  public void testInvalidConfiguration()
+  {
+    Assertions.assertThrows(PreconditionViolationException.class, () -> {
+      BodyMacroEstimateCacheConfiguration.builder()
+        .setMaximumSize(0)
+        .build();
+    });
+    Assertions.assertThrows(PreconditionViolationException.class, () -> {
+      BodyMacroEstimateCacheConfiguration.builder()
+        .setConcurrencyLevel(0)
+        .build();
+    });
+  }
+
+  @Test
+  public void testConcurrent()
+    throws InterruptedException, ExecutionException
+  {
+    for (final var policy : BodyMacroEstimateCacheEvictionPolicy.values()) {
+      final var cache =
+        BodyMacroEstimateCache.create(
+          BodyMacroEstimateCacheConfiguration.builder()
+            .setMaximumSize(64)
+            .setEvictionPolicy(policy)
+            .build());
+
+      final var executor = Executors.newFixedThreadPool(4);
+      try {
+        final var tasks = new ArrayList<Callable<Boolean>>();
+        for (int thread = 0; thread < 4; ++thread) {
+          tasks.add(() -> {
+            for (int index = 0; index < 2000; ++index) {
+              final int weight = 50 + (index * 7) % 100;
+              final var macros = estimate(cache, weight);
+              final var expected =
+                estimate(cache(1, LEAST_RECENTLY_USED), weight);
+              if (!expected.equals(macros)) {
+                return Boolean.FALSE;
+              }
+            }
+            return Boolean.TRUE;
+          });
+        }
+
+        for (final Future<Boolean> future : executor.invokeAll(tasks)) {
+          Assertions.assertTrue(future.get().booleanValue());
+        }
+      } finally {
+        executor.shutdown();
+      }
+
+      final var statistics = cache.statistics();
+      Assertions.assertEquals(8000L, statistics.hits() + statistics.misses());
+      Assertions.assertTrue(statistics.size() <= 64L);
+    }
+  }
+}
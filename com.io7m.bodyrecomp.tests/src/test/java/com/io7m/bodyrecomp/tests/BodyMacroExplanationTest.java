@@ -0,0 +1,130 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.bodyrecomp.tests;
+
+import com.io7m.bodyrecomp.core.BodyDefinition;
+import com.io7m.bodyrecomp.core.BodyMacroEstimateOptions;
+import com.io7m.bodyrecomp.core.BodyMacroEstimates;
+import com.io7m.bodyrecomp.core.BodyMacroExplanationStep;
+import com.io7m.bodyrecomp.core.GeneralCoefficient;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Locale;
+
+import static com.io7m.bodyrecomp.tests.ExamplePeople.ANDRE;
+import static com.io7m.bodyrecomp.tests.ExamplePeople.HELGA;
+
+public final class BodyMacroExplanationTest
+{
+  @Test
+  public void testStepsRenderInOrder()
+  {
+    final var macros = BodyMacroEstimates.estimateFor(ANDRE);
+    final var explanation = macros.explanation().orElseThrow();
+    final var lines = explanation.render(Locale.UK);
+
+    final var steps = BodyMacroExplanationStep.values();
+    Assertions.assertEquals(steps.length, lines.size());
+
+    final var text = new StringBuilder();
+    for (int index = 0; index < steps.length; ++index) {
+      text.setLength(0);
+      explanation.renderTo(text, steps[index], Locale.UK);
+      Assertions.assertEquals(lines.get(index), text.toString());
+    }
+
+    Assertions.assertTrue(lines.get(0).startsWith("The first step"));
+    Assertions.assertTrue(lines.get(4).contains("Total calories : "));
+  }
+
+  @Test
+  public void testRenderedPerLocale()
+  {
+    final var macros = BodyMacroEstimates.estimateFor(HELGA);
+    final var explanation = macros.explanation().orElseThrow();
+    final var calories =
+      (int) macros.calories().getValue().doubleValue();
+
+    Assertions.assertTrue(calories >= 1000);
+    Assertions.assertTrue(
+      explanation.render(Locale.UK)
+        .get(4)
+        .contains(String.format(Locale.UK, "Total calories : %,d", Integer.valueOf(calories))));
+    Assertions.assertTrue(
+      explanation.render(Locale.GERMANY)
+        .get(4)
+        .contains(String.format(Locale.GERMANY, "Total calories : %,d", Integer.valueOf(calories))));
+    Assertions.assertEquals(
+      explanation.render(Locale.GERMANY),
+      macros.explanations(Locale.GERMANY)
+    );
+  }
+
+  @Test
+  public void testCustomAdjustment()
+  {
+    final var body =
+      BodyDefinition.builder()
+        .from(ANDRE)
+        .setCaloricAdjustment(GeneralCoefficient.of(1.05))
+        .build();
+
+    final var lines =
+      BodyMacroEstimates.estimateFor(body)
+        .explanations(Locale.UK);
+
+    Assertions.assertTrue(
+      lines.get(2).contains("increasing your body weight with a 105% surplus"),
+      lines.get(2));
+  }
+
+  @Test
+  public void testValues()
+  {
+    final var macros = BodyMacroEstimates.estimateFor(ANDRE);
+    final var explanation = macros.explanation().orElseThrow();
+
+    Assertions.assertEquals(ANDRE.gender(), explanation.gender());
+    Assertions.assertEquals(ANDRE.activity(), explanation.activity());
+    Assertions.assertEquals(
+      (int) macros.calories().getValue().doubleValue(),
+      explanation.recompCalories());
+    Assertions.assertEquals(
+      (int) macros.proteinGrams().getValue().doubleValue(),
+      explanation.proteinGrams());
+    Assertions.assertEquals(
+      explanation,
+      BodyMacroEstimates.estimateFor(ANDRE).explanation().orElseThrow());
+  }
+
+  @Test
+  public void testWithoutExplanations()
+  {
+    final var macros =
+      BodyMacroEstimates.estimateFor(
+        ANDRE,
+        BodyMacroEstimateOptions.builder()
+          .setExplanations(false)
+          .build()
+      );
+
+    Assertions.assertTrue(macros.explanation().isEmpty());
+    Assertions.assertTrue(macros.explanations().isEmpty());
+  }
+}
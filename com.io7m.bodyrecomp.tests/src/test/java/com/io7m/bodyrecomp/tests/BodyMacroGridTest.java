@@ -0,0 +1,151 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.bodyrecomp.tests;
+
+import com.io7m.bodyrecomp.core.ActivityCoefficient;
+import com.io7m.bodyrecomp.core.BodyDefinition;
+import com.io7m.bodyrecomp.core.BodyMacroEstimates;
+import com.io7m.bodyrecomp.core.BodyMacroGrid;
+import com.io7m.bodyrecomp.core.BodyMacroGridEstimates;
+import com.io7m.bodyrecomp.core.BodyMacrosMutable;
+import com.io7m.bodyrecomp.core.CaloricAdjustment;
+import com.io7m.bodyrecomp.core.MifflinStJeor;
+import com.io7m.jaffirm.core.PreconditionViolationException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import static com.io7m.bodyrecomp.tests.ExamplePeople.ANDRE;
+import static com.io7m.bodyrecomp.tests.ExamplePeople.BILL;
+import static com.io7m.bodyrecomp.tests.ExamplePeople.HELGA;
+import static com.io7m.bodyrecomp.tests.ExamplePeople.JUNIOR;
+import static com.io7m.bodyrecomp.tests.ExamplePeople.NB;
+import static com.io7m.bodyrecomp.tests.ExamplePeople.SALLY;
+
+public final class BodyMacroGridTest
+{
+  private static void checkIdentical(
+    final BodyDefinition body)
+  {
+    final var grid = BodyMacroGridEstimates.estimateFor(body);
+    final var expected = new BodyMacrosMutable();
+    final var received = new BodyMacrosMutable();
+
+    final double heightMetres = body.bodyHeight().getValue().doubleValue();
+    final double weightKilograms = body.bodyWeight().getValue().doubleValue();
+    final double ageYears = body.age().getValue().doubleValue();
+
+    Assertions.assertEquals(
+      MifflinStJeor.basalMetabolicRate(
+        body.gender(),
+        heightMetres,
+        weightKilograms,
+        ageYears),
+      grid.basalMetabolicRate()
+    );
+
+    for (final var activity : ActivityCoefficient.values()) {
+      for (final var adjustment : CaloricAdjustment.values()) {
+        BodyMacroEstimates.estimateFor(
+          body.gender(),
+          activity,
+          heightMetres,
+          weightKilograms,
+          ageYears,
+          body.bodyFatCoefficient().value(),
+          adjustment.coefficient().value(),
+          expected
+        );
+        grid.cell(activity, adjustment, received);
+
+        Assertions.assertEquals(expected.calories(), received.calories());
+        Assertions.assertEquals(
+          expected.proteinGrams(), received.proteinGrams());
+        Assertions.assertEquals(expected.fatGrams(), received.fatGrams());
+        Assertions.assertEquals(
+          expected.carbohydrateGrams(), received.carbohydrateGrams());
+
+        Assertions.assertEquals(
+          expected.calories(), grid.calories(activity, adjustment));
+        Assertions.assertEquals(
+          expected.fatGrams(), grid.fatGrams(activity, adjustment));
+        Assertions.assertEquals(
+          expected.carbohydrateGrams(),
+          grid.carbohydrateGrams(activity, adjustment));
+      }
+    }
+  }
+
+  @Test
+  public void testIdentical()
+  {
+    checkIdentical(ANDRE);
+    checkIdentical(BILL);
+    checkIdentical(HELGA);
+    checkIdentical(JUNIOR);
+    checkIdentical(NB);
+    checkIdentical(SALLY);
+  }
+
+  @Test
+  public void testReused()
+  {
+    final var grid = new BodyMacroGrid();
+    final var fresh = BodyMacroGridEstimates.estimateFor(SALLY);
+
+    BodyMacroGridEstimates.estimateFor(
+      ANDRE.gender(),
+      ANDRE.bodyHeight().getValue().doubleValue(),
+      ANDRE.bodyWeight().getValue().doubleValue(),
+      ANDRE.age().getValue().doubleValue(),
+      ANDRE.bodyFatCoefficient().value(),
+      grid
+    );
+    BodyMacroGridEstimates.estimateFor(
+      SALLY.gender(),
+      SALLY.bodyHeight().getValue().doubleValue(),
+      SALLY.bodyWeight().getValue().doubleValue(),
+      SALLY.age().getValue().doubleValue(),
+      SALLY.bodyFatCoefficient().value(),
+      grid
+    );
+
+    Assertions.assertEquals(fresh.proteinGrams(), grid.proteinGrams());
+    Assertions.assertEquals(fresh.fatCoefficient(), grid.fatCoefficient());
+    for (final var activity : ActivityCoefficient.values()) {
+      for (final var adjustment : CaloricAdjustment.values()) {
+        Assertions.assertEquals(
+          fresh.calories(activity, adjustment),
+          grid.calories(activity, adjustment));
+      }
+    }
+  }
+
+  @Test
+  public void testInvalidBodyFat()
+  {
+    Assertions.assertThrows(PreconditionViolationException.class, () -> {
+      BodyMacroGridEstimates.estimateFor(
+        ANDRE.gender(),
+        1.8,
+        80.0,
+        30.0,
+        1.5,
+        new BodyMacroGrid()
+      );
+    });
+  }
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.bodyrecomp.tests;
+
+import com.io7m.bodyrecomp.core.ActivityCoefficient;
+import com.io7m.bodyrecomp.core.BiologicalGender;
+import com.io7m.bodyrecomp.core.BodyMacroEstimates;
+import com.io7m.bodyrecomp.core.BodyMacroIncrementalEstimator;
+import com.io7m.bodyrecomp.core.BodyMacroStage;
+import com.io7m.bodyrecomp.core.BodyMacrosMutable;
+import com.io7m.jaffirm.core.PreconditionViolationException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static com.io7m.bodyrecomp.core.BodyMacroStage.BASAL_METABOLIC_RATE;
+import static com.io7m.bodyrecomp.core.BodyMacroStage.FAT_COEFFICIENT;
+import static com.io7m.bodyrecomp.core.BodyMacroStage.MAINTENANCE_CALORIES;
+import static com.io7m.bodyrecomp.core.BodyMacroStage.PROTEIN;
+import static com.io7m.bodyrecomp.tests.ExamplePeople.ANDRE;
+
+public final class BodyMacroIncrementalEstimatorTest
+{
+  private BodyMacroIncrementalEstimator estimator;
+  private BodyMacrosMutable sink;
+
+  private void checkEvaluations(
+    final long bmr,
+    final long maintenance,
+    final long protein,
+    final long fat)
+  {
+    Assertions.assertEquals(
+      bmr, this.estimator.evaluations(BASAL_METABOLIC_RATE));
+    Assertions.assertEquals(
+      maintenance, this.estimator.evaluations(MAINTENANCE_CALORIES));
+    Assertions.assertEquals(
+      protein, this.estimator.evaluations(PROTEIN));
+    Assertions.assertEquals(
+      fat, this.estimator.evaluations(FAT_COEFFICIENT));
+  }
+
+  private void estimate(
+    final ActivityCoefficient activity,
+    final double weight,
+    final double age,
+    final double bodyFat,
+    final double adjustment)
+  {
+    this.estimator.estimateFor(
+      BiologicalGender.MALE,
+      activity,
+      1.8,
+      weight,
+      age,
+      bodyFat,
+      adjustment,
+      this.sink
+    );
+  }
+
+  @BeforeEach
+  public void setup()
+  {
+    this.estimator = new BodyMacroIncrementalEstimator();
+    this.sink = new BodyMacrosMutable();
+  }
+
+  @Test
+  public void testStagesRecomputed()
+  {
+    final var sedentary = ActivityCoefficient.SEDENTARY;
+    final var active = ActivityCoefficient.HIGHLY_ACTIVE;
+
+    this.estimate(sedentary, 80.0, 30.0, 0.2, 1.0);
+    this.checkEvaluations(1L, 1L, 1L, 1L);
+
+    this.estimate(sedentary, 80.0, 30.0, 0.2, 1.0);
+    this.checkEvaluations(1L, 1L, 1L, 1L);
+
+    this.estimate(sedentary, 80.0, 30.0, 0.2, 0.8);
+    this.checkEvaluations(1L, 1L, 1L, 1L);
+
+    this.estimate(active, 80.0, 30.0, 0.2, 0.8);
+    this.checkEvaluations(1L, 2L, 1L, 1L);
+
+    this.estimate(active, 80.0, 31.0, 0.2, 0.8);
+    this.checkEvaluations(2L, 3L, 1L, 1L);
+
+    this.estimate(active, 80.0, 31.0, 0.18, 0.8);
+    this.checkEvaluations(2L, 3L, 2L, 2L);
+
+    this.estimate(active, 79.0, 31.0, 0.18, 0.8);
+    this.checkEvaluations(3L, 4L, 3L, 2L);
+
+    this.estimator.invalidate();
+    this.estimate(active, 79.0, 31.0, 0.18, 0.8);
+    this.checkEvaluations(4L, 5L, 4L, 3L);
+  }
+
+  @Test
+  public void testIdenticalRandomChanges()
+  {
+    final var rng = new Random(0x15L);
+    final var expected = new BodyMacrosMutable();
+    final var activities = ActivityCoefficient.values();
+    final var genders = BiologicalGender.values();
+
+    var gender = BiologicalGender.MALE;
+    var activity = ActivityCoefficient.SEDENTARY;
+    double height = 1.8;
+    double weight = 80.0;
+    double age = 30.0;
+    double bodyFat = 0.2;
+    double adjustment = 1.0;
+
+    for (int index = 0; index < 10_000; ++index) {
+      switch (rng.nextInt(7)) {
+        case 0 -> gender = genders[rng.nextInt(genders.length)];
+        case 1 -> activity = activities[rng.nextInt(activities.length)];
+        case 2 -> height = 1.5 + rng.nextDouble() * 0.5;
+        case 3 -> weight = 50.0 + rng.nextDouble() * 70.0;
+        case 4 -> age = 18.0 + rng.nextInt(60);
+        case 5 -> bodyFat = 0.05 + rng.nextDouble() * 0.35;
+        default -> adjustment = 0.8 + rng.nextInt(5) * 0.1;
+      }
+
+      BodyMacroEstimates.estimateFor(
+        gender, activity, height, weight, age, bodyFat, adjustment, expected);
+      this.estimator.estimateFor(
+        gender, activity, height, weight, age, bodyFat, adjustment, this.sink);
+
+      Assertions.assertEquals(expected.calories(), this.sink.calories());
+      Assertions.assertEquals(
+        expected.proteinGrams(), this.sink.proteinGrams());
+      Assertions.assertEquals(expected.fatGrams(), this.sink.fatGrams());
+      Assertions.assertEquals(
+        expected.carbohydrateGrams(), this.sink.carbohydrateGrams());
+    }
+
+    final long evaluations =
+      this.estimator.evaluations(BodyMacroStage.BASAL_METABOLIC_RATE);
+    Assertions.assertTrue(evaluations < 10_000L);
+  }
+
+  @Test
+  public void testBodyDefinition()
+  {
+    final var expected = new BodyMacrosMutable();
+    this.estimator.estimateFor(ANDRE, this.sink);
+    BodyMacroEstimates.estimateFor(
+      ANDRE.gender(),
+      ANDRE.activity(),
+      ANDRE.bodyHeight().getValue().doubleValue(),
+      ANDRE.bodyWeight().getValue().doubleValue(),
+      ANDRE.age().getValue().doubleValue(),
+      ANDRE.bodyFatCoefficient().value(),
+      ANDRE.caloricAdjustment().value(),
+      expected
+    );
+    Assertions.assertEquals(expected.calories(), this.sink.calories());
+  }
+
+  @Test
+  public void testInvalidLeavesStateUnchanged()
+  {
+    this.estimate(ActivityCoefficient.SEDENTARY, 80.0, 30.0, 0.2, 1.0);
+    final double calories = this.sink.calories();
+
+    Assertions.assertThrows(PreconditionViolationException.class, () -> {
+      this.estimate(ActivityCoefficient.SEDENTARY, 80.0, 30.0, 1.2, 1.0);
+    });
+
+    this.estimate(ActivityCoefficient.SEDENTARY, 80.0, 30.0, 0.2, 1.0);
+    Assertions.assertEquals(calories, this.sink.calories());
+    this.checkEvaluations(1L, 1L, 1L, 1L);
+  }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.bodyrecomp.tests;
+
+import com.io7m.bodyrecomp.core.BodyMacroEstimateOptions;
+import com.io7m.bodyrecomp.core.BodyMacroEstimates;
+import com.io7m.bodyrecomp.core.BodyMacroIncrementalEstimator;
+import com.io7m.bodyrecomp.core.BodyMacroInstrumentation;
+import com.io7m.bodyrecomp.core.BodyMacroStage;
+import com.io7m.bodyrecomp.core.BodyMacrosMutable;
+
+import java.util.function.Function;
+
+import static com.io7m.bodyrecomp.tests.ExamplePeople.ANDRE;
+
+/**
+ * The scenarios exercised by {@link BodyMacroInstrumentationTest}. Each
+ * instance is loaded into its own class loader, so that the instrumentation
+ * can be installed before the first estimate without affecting any other
+ * test. Each scenario returns the number of evaluations of each stage,
+ * indexed by ordinal, or for the {@code "installed"} scenario, whether the
+ * instrumentation is enabled and is the counting instrumentation.
+ */
+
+public final class BodyMacroInstrumentationScenarios
+  implements Function<String, long[]>
+{
+  /**
+   * Construct the scenarios.
+   */
+
+  public BodyMacroInstrumentationScenarios()
+  {
+
+  }
+
+  private static long[] counts()
+  {
+    final var stages = BodyMacroStage.values();
+    final var results = new long[stages.length];
+    for (final var stage : stages) {
+      results[stage.ordinal()] = BodyMacroCountingInstrumentation.count(stage);
+    }
+    return results;
+  }
+
+  private static long flag(
+    final boolean value)
+  {
+    return value ? 1L : 0L;
+  }
+
+  @Override
+  public long[] apply(
+    final String scenario)
+  {
+    switch (scenario) {
+      case "install": {
+        BodyMacroInstrumentation.install(new BodyMacroCountingInstrumentation());
+        return new long[0];
+      }
+      case "installed": {
+        return new long[]{
+          flag(BodyMacroInstrumentation.isEnabled()),
+          flag(BodyMacroInstrumentation.installed()
+                 instanceof BodyMacroCountingInstrumentation),
+        };
+      }
+      case "object": {
+        BodyMacroEstimates.estimateFor(ANDRE);
+        return counts();
+      }
+      case "objectWithoutExplanations": {
+        BodyMacroEstimates.estimateFor(
+          ANDRE,
+          BodyMacroEstimateOptions.builder()
+            .setExplanations(false)
+            .build()
+        );
+        return counts();
+      }
+      case "primitive": {
+        BodyMacroEstimates.estimateFor(
+          ANDRE.gender(),
+          ANDRE.activity(),
+          1.8,
+          80.0,
+          30.0,
+          0.2,
+          1.0,
+          new BodyMacrosMutable()
+        );
+        return counts();
+      }
+      case "incremental": {
+        return incremental();
+      }
+      default: {
+        throw new IllegalArgumentException(scenario);
+      }
+    }
+  }
+
+  private static long[] incremental()
+  {
+    final var estimator = new BodyMacroIncrementalEstimator();
+    final var sink = new BodyMacrosMutable();
+
+    estimator.estimateFor(ANDRE, sink);
+    final var before = counts();
+    estimator.estimateFor(
+      ANDRE.gender(),
+      ANDRE.activity(),
+      ANDRE.bodyHeight().getValue().doubleValue(),
+      ANDRE.bodyWeight().getValue().doubleValue(),
+      ANDRE.age().getValue().doubleValue() + 1.0,
+      ANDRE.bodyFatCoefficient().value(),
+      ANDRE.caloricAdjustment().value(),
+      sink
+    );
+
+    final var after = counts();
+    for (int index = 0; index < after.length; ++index) {
+      after[index] -= before[index];
+    }
+    return after;
+  }
+}
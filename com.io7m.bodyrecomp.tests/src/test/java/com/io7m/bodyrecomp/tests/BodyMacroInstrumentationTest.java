@@ -0,0 +1,204 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.bodyrecomp.tests;
+
+import com.io7m.bodyrecomp.core.BodyMacroStage;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Function;
+
+import static com.io7m.bodyrecomp.core.BodyMacroStage.BASAL_METABOLIC_RATE;
+import static com.io7m.bodyrecomp.core.BodyMacroStage.EXPLANATIONS;
+import static com.io7m.bodyrecomp.core.BodyMacroStage.FAT_COEFFICIENT;
+import static com.io7m.bodyrecomp.core.BodyMacroStage.MAINTENANCE_CALORIES;
+import static com.io7m.bodyrecomp.core.BodyMacroStage.PROTEIN;
+import static com.io7m.bodyrecomp.core.BodyMacroStage.RESULT;
+
+public final class BodyMacroInstrumentationTest
+{
+  /**
+   * The installed instrumentation is fixed for the lifetime of the classes
+   * that use it, so each test loads its own copy of the bodyrecomp classes
+   * and the instrumentation never leaks into the rest of the suite.
+   */
+
+  @SuppressWarnings("unchecked")
+  private static Function<String, long[]> isolated()
+    throws Exception
+  {
+    final var loader =
+      new IsolatingClassLoader(BodyMacroInstrumentationTest.class.getClassLoader());
+    final var type =
+      loader.loadClass(BodyMacroInstrumentationScenarios.class.getName());
+    return (Function<String, long[]>) type.getConstructor().newInstance();
+  }
+
+  private static Function<String, long[]> installed()
+    throws Exception
+  {
+    final var scenarios = isolated();
+    scenarios.apply("install");
+    return scenarios;
+  }
+
+  private static long count(
+    final long[] counts,
+    final BodyMacroStage stage)
+  {
+    return counts[stage.ordinal()];
+  }
+
+  @Test
+  public void testInstalled()
+    throws Exception
+  {
+    Assertions.assertArrayEquals(
+      new long[]{1L, 1L},
+      installed().apply("installed")
+    );
+  }
+
+  @Test
+  public void testNotInstalled()
+    throws Exception
+  {
+    Assertions.assertArrayEquals(
+      new long[]{0L, 0L},
+      isolated().apply("installed")
+    );
+  }
+
+  @Test
+  public void testInstallAfterEstimate()
+    throws Exception
+  {
+    final var scenarios = isolated();
+    scenarios.apply("object");
+    Assertions.assertThrows(
+      IllegalStateException.class,
+      () -> scenarios.apply("install"));
+  }
+
+  @Test
+  public void testInstallTwice()
+    throws Exception
+  {
+    final var scenarios = installed();
+    Assertions.assertThrows(
+      IllegalStateException.class,
+      () -> scenarios.apply("install"));
+  }
+
+  @Test
+  public void testObjectStages()
+    throws Exception
+  {
+    final var counts = installed().apply("object");
+    for (final var stage : BodyMacroStage.values()) {
+      Assertions.assertEquals(1L, count(counts, stage), stage.name());
+    }
+  }
+
+  @Test
+  public void testObjectStagesWithoutExplanations()
+    throws Exception
+  {
+    final var counts = installed().apply("objectWithoutExplanations");
+    Assertions.assertEquals(0L, count(counts, EXPLANATIONS));
+    Assertions.assertEquals(1L, count(counts, RESULT));
+    Assertions.assertEquals(1L, count(counts, BASAL_METABOLIC_RATE));
+  }
+
+  @Test
+  public void testPrimitiveStages()
+    throws Exception
+  {
+    final var counts = installed().apply("primitive");
+    Assertions.assertEquals(1L, count(counts, BASAL_METABOLIC_RATE));
+    Assertions.assertEquals(1L, count(counts, MAINTENANCE_CALORIES));
+    Assertions.assertEquals(1L, count(counts, PROTEIN));
+    Assertions.assertEquals(1L, count(counts, FAT_COEFFICIENT));
+    Assertions.assertEquals(0L, count(counts, EXPLANATIONS));
+    Assertions.assertEquals(0L, count(counts, RESULT));
+  }
+
+  @Test
+  public void testIncrementalStages()
+    throws Exception
+  {
+    final var counts = installed().apply("incremental");
+    Assertions.assertEquals(1L, count(counts, BASAL_METABOLIC_RATE));
+    Assertions.assertEquals(1L, count(counts, MAINTENANCE_CALORIES));
+    Assertions.assertEquals(0L, count(counts, PROTEIN));
+    Assertions.assertEquals(0L, count(counts, FAT_COEFFICIENT));
+  }
+
+  /**
+   * A class loader that defines its own copies of the bodyrecomp classes
+   * and delegates everything else to its parent.
+   */
+
+  private static final class IsolatingClassLoader extends ClassLoader
+  {
+    IsolatingClassLoader(
+      final ClassLoader parent)
+    {
+      super(parent);
+    }
+
+    @Override
+    protected Class<?> loadClass(
+      final String name,
+      final boolean resolve)
+      throws ClassNotFoundException
+    {
+      if (!name.startsWith("com.io7m.bodyrecomp.")) {
+        return super.loadClass(name, resolve);
+      }
+
+      synchronized (this.getClassLoadingLock(name)) {
+        var type = this.findLoadedClass(name);
+        if (type == null) {
+          type = this.define(name);
+        }
+        if (resolve) {
+          this.resolveClass(type);
+        }
+        return type;
+      }
+    }
+
+    private Class<?> define(
+      final String name)
+      throws ClassNotFoundException
+    {
+      final var resource = name.replace('.', '/') + ".class";
+      try (var stream = this.getParent().getResourceAsStream(resource)) {
+        if (stream == null) {
+          throw new ClassNotFoundException(name);
+        }
+        final var bytes = stream.readAllBytes();
+        return this.defineClass(name, bytes, 0, bytes.length);
+      } catch (final IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+}
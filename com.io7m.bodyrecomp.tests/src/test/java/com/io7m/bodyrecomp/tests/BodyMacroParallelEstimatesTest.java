@@ -0,0 +1,240 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.bodyrecomp.tests;
+
+import com.io7m.bodyrecomp.core.ActivityCoefficient;
+import com.io7m.bodyrecomp.core.BiologicalGender;
+import com.io7m.bodyrecomp.core.BodyDefinition;
+import com.io7m.bodyrecomp.core.BodyDefinitionColumns;
+import com.io7m.bodyrecomp.core.BodyMacroBatchEstimates;
+import com.io7m.bodyrecomp.core.BodyMacroBatchKernels;
+import com.io7m.bodyrecomp.core.BodyMacroEstimateOptions;
+import com.io7m.bodyrecomp.core.BodyMacroEstimates;
+import com.io7m.bodyrecomp.core.BodyMacroParallelEstimates;
+import com.io7m.bodyrecomp.core.BodyMacrosColumns;
+import com.io7m.bodyrecomp.core.CaloricAdjustment;
+import com.io7m.bodyrecomp.core.NormalCoefficient;
+import com.io7m.jaffirm.core.PreconditionViolationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tech.units.indriya.quantity.Quantities;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static tech.units.indriya.unit.Units.KILOGRAM;
+import static tech.units.indriya.unit.Units.METRE;
+import static tech.units.indriya.unit.Units.YEAR;
+
+public final class BodyMacroParallelEstimatesTest
+{
+  private ForkJoinPool pool;
+
+  private static List<BodyDefinition> randomBodies(
+    final int size)
+  {
+    final var random = new Random(0x5eedL);
+    final var genders = BiologicalGender.values();
+    final var activities = ActivityCoefficient.values();
+    final var adjustments = CaloricAdjustment.values();
+
+    final var bodies = new ArrayList<BodyDefinition>(size);
+    for (int index = 0; index < size; ++index) {
+      bodies.add(
+        BodyDefinition.builder()
+          .setGender(genders[random.nextInt(genders.length)])
+          .setActivity(activities[random.nextInt(activities.length)])
+          .setCaloricAdjustment(
+            adjustments[random.nextInt(adjustments.length)].coefficient())
+          .setAge(Quantities.getQuantity(
+            Integer.valueOf(18 + random.nextInt(60)), YEAR))
+          .setBodyHeight(Quantities.getQuantity(
+            Double.valueOf(1.5 + random.nextInt(50) / 100.0), METRE))
+          .setBodyFatCoefficient(
+            NormalCoefficient.of(0.08 + random.nextInt(30) / 100.0))
+          .setBodyWeight(Quantities.getQuantity(
+            Double.valueOf(50.0 + random.nextInt(70)), KILOGRAM))
+          .build()
+      );
+    }
+    return bodies;
+  }
+
+  @BeforeEach
+  public void setup()
+  {
+    this.pool = new ForkJoinPool(4);
+  }
+
+  @AfterEach
+  public void tearDown()
+  {
+    this.pool.shutdown();
+  }
+
+  @Test
+  public void testListInOrder()
+  {
+    final var options =
+      BodyMacroEstimateOptions.builder()
+        .setExplanations(false)
+        .build();
+
+    final var bodies = randomBodies(1000);
+    final var results =
+      BodyMacroParallelEstimates.estimateFor(this.pool, bodies, options);
+
+    Assertions.assertEquals(bodies.size(), results.size());
+    for (int index = 0; index < bodies.size(); ++index) {
+      Assertions.assertEquals(
+        BodyMacroEstimates.estimateFor(bodies.get(index), options),
+        results.get(index)
+      );
+    }
+  }
+
+  @Test
+  public void testLinkedListInOrder()
+  {
+    final var options =
+      BodyMacroEstimateOptions.builder()
+        .build();
+
+    final var bodies = new LinkedList<>(randomBodies(200));
+    final var results =
+      BodyMacroParallelEstimates.estimateFor(this.pool, bodies, options);
+
+    Assertions.assertEquals(bodies.size(), results.size());
+    for (int index = 0; index < bodies.size(); ++index) {
+      Assertions.assertEquals(
+        BodyMacroEstimates.estimateFor(bodies.get(index), options),
+        results.get(index)
+      );
+    }
+  }
+
+  @Test
+  public void testArrayInOrder()
+  {
+    final var options =
+      BodyMacroEstimateOptions.builder()
+        .setExplanations(false)
+        .build();
+
+    final var bodies = randomBodies(300).toArray(new BodyDefinition[0]);
+    final var results =
+      BodyMacroParallelEstimates.estimateFor(this.pool, bodies, options);
+
+    Assertions.assertEquals(bodies.length, results.size());
+    for (int index = 0; index < bodies.length; ++index) {
+      Assertions.assertEquals(
+        BodyMacroEstimates.estimateFor(bodies[index], options),
+        results.get(index)
+      );
+    }
+  }
+
+  @Test
+  public void testEmpty()
+  {
+    final var results =
+      BodyMacroParallelEstimates.estimateFor(
+        this.pool,
+        List.of(),
+        BodyMacroEstimateOptions.builder().build()
+      );
+    Assertions.assertEquals(List.of(), results);
+  }
+
+  @Test
+  public void testResultsUnmodifiable()
+  {
+    final var results =
+      BodyMacroParallelEstimates.estimateFor(
+        this.pool,
+        randomBodies(10),
+        BodyMacroEstimateOptions.builder().build()
+      );
+
+    Assertions.assertThrows(UnsupportedOperationException.class, () -> {
+      results.set(0, results.get(1));
+    });
+  }
+
+  @Test
+  public void testColumnsIdentical()
+  {
+    final var bodies = randomBodies(50_000);
+    final var input = BodyDefinitionColumns.create(bodies.size());
+    for (int index = 0; index < bodies.size(); ++index) {
+      input.set(index, bodies.get(index));
+    }
+
+    final var expected = BodyMacrosColumns.create(input.size());
+    BodyMacroBatchEstimates.estimateFor(input, expected);
+
+    final var received = BodyMacrosColumns.create(input.size());
+    BodyMacroParallelEstimates.estimateFor(
+      this.pool,
+      BodyMacroBatchKernels.best(),
+      input,
+      received
+    );
+
+    Assertions.assertArrayEquals(expected.calories(), received.calories());
+    Assertions.assertArrayEquals(
+      expected.proteinGrams(), received.proteinGrams());
+    Assertions.assertArrayEquals(
+      expected.fatGrams(), received.fatGrams());
+    Assertions.assertArrayEquals(
+      expected.carbohydrateGrams(), received.carbohydrateGrams());
+  }
+
+  @Test
+  public void testColumnsFailurePropagates()
+  {
+    final var input = BodyDefinitionColumns.create(50_000);
+    input.bodyFatCoefficients()[49_999] = 2.0;
+
+    Assertions.assertThrows(PreconditionViolationException.class, () -> {
+      BodyMacroParallelEstimates.estimateFor(
+        this.pool,
+        BodyMacroBatchKernels.scalar(),
+        input,
+        BodyMacrosColumns.create(50_000)
+      );
+    });
+  }
+
+  @Test
+  public void testColumnsOutputTooSmall()
+  {
+    Assertions.assertThrows(IndexOutOfBoundsException.class, () -> {
+      BodyMacroParallelEstimates.estimateFor(
+        this.pool,
+        BodyMacroBatchKernels.scalar(),
+        BodyDefinitionColumns.create(10),
+        BodyMacrosColumns.create(9)
+      );
+    });
+  }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.bodyrecomp.tests;
+
+import com.io7m.bodyrecomp.core.ActivityCoefficient;
+import com.io7m.bodyrecomp.core.BiologicalGender;
+import com.io7m.bodyrecomp.core.BodyDefinition;
+import com.io7m.bodyrecomp.core.BodyMacroEstimates;
+import com.io7m.bodyrecomp.core.BodyMacrosMutable;
+import com.io7m.bodyrecomp.core.CaloricAdjustment;
+import com.io7m.jaffirm.core.PreconditionViolationException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static com.io7m.bodyrecomp.core.BodyMacroEstimates.OUTPUT_CALORIES;
+import static com.io7m.bodyrecomp.core.BodyMacroEstimates.OUTPUT_CARBOHYDRATE_GRAMS;
+import static com.io7m.bodyrecomp.core.BodyMacroEstimates.OUTPUT_FAT_GRAMS;
+import static com.io7m.bodyrecomp.core.BodyMacroEstimates.OUTPUT_PROTEIN_GRAMS;
+import static com.io7m.bodyrecomp.core.BodyMacroEstimates.OUTPUT_SIZE;
+import static com.io7m.bodyrecomp.tests.ExamplePeople.ANDRE;
+import static com.io7m.bodyrecomp.tests.ExamplePeople.BILL;
+import static com.io7m.bodyrecomp.tests.ExamplePeople.HELGA;
+import static com.io7m.bodyrecomp.tests.ExamplePeople.JUNIOR;
+import static com.io7m.bodyrecomp.tests.ExamplePeople.NB;
+import static com.io7m.bodyrecomp.tests.ExamplePeople.SALLY;
+
+public final class BodyMacrosMutableTest
+{
+  private static final ActivityCoefficient[] ACTIVITIES =
+    ActivityCoefficient.values();
+  private static final CaloricAdjustment[] ADJUSTMENTS =
+    CaloricAdjustment.values();
+
+  private static void checkIdentical(
+    final BodyDefinition body)
+  {
+    final var macros = BodyMacroEstimates.estimateFor(body);
+    final var output = new double[OUTPUT_SIZE];
+    final var sink = new BodyMacrosMutable();
+
+    BodyMacroEstimates.estimateFor(
+      body.gender(),
+      body.activity(),
+      body.bodyHeight().getValue().doubleValue(),
+      body.bodyWeight().getValue().doubleValue(),
+      body.age().getValue().doubleValue(),
+      body.bodyFatCoefficient().value(),
+      body.caloricAdjustment().value(),
+      output,
+      0
+    );
+    BodyMacroEstimates.estimateFor(
+      body.gender(),
+      body.activity(),
+      body.bodyHeight().getValue().doubleValue(),
+      body.bodyWeight().getValue().doubleValue(),
+      body.age().getValue().doubleValue(),
+      body.bodyFatCoefficient().value(),
+      body.caloricAdjustment().value(),
+      sink
+    );
+
+    Assertions.assertEquals(output[OUTPUT_CALORIES], sink.calories());
+    Assertions.assertEquals(output[OUTPUT_PROTEIN_GRAMS], sink.proteinGrams());
+    Assertions.assertEquals(output[OUTPUT_FAT_GRAMS], sink.fatGrams());
+    Assertions.assertEquals(
+      output[OUTPUT_CARBOHYDRATE_GRAMS], sink.carbohydrateGrams());
+
+    Assertions.assertEquals(
+      macros.calories().getValue().doubleValue(),
+      sink.calories());
+    Assertions.assertEquals(
+      macros.proteinCalories().getValue().doubleValue(),
+      sink.proteinCalories());
+    Assertions.assertEquals(
+      macros.fatCalories().getValue().doubleValue(),
+      sink.fatCalories());
+    Assertions.assertEquals(
+      macros.carbohydrateCalories().getValue().doubleValue(),
+      sink.carbohydrateCalories());
+  }
+
+  @Test
+  public void testIdentical()
+  {
+    checkIdentical(ANDRE);
+    checkIdentical(BILL);
+    checkIdentical(HELGA);
+    checkIdentical(JUNIOR);
+    checkIdentical(NB);
+    checkIdentical(SALLY);
+  }
+
+  @Test
+  public void testInvalid()
+  {
+    final var sink = new BodyMacrosMutable();
+    Assertions.assertThrows(PreconditionViolationException.class, () -> {
+      BodyMacroEstimates.estimateFor(
+        BiologicalGender.MALE,
+        ActivityCoefficient.SEDENTARY,
+        1.8,
+        80.0,
+        30.0,
+        1.5,
+        1.0,
+        sink
+      );
+    });
+  }
+
+  private static double estimateMany(
+    final BodyMacrosMutable sink,
+    final int count)
+  {
+    double sum = 0.0;
+    for (int index = 0; index < count; ++index) {
+      BodyMacroEstimates.estimateFor(
+        (index & 1) == 0 ? BiologicalGender.MALE : BiologicalGender.FEMALE,
+        ACTIVITIES[index % ACTIVITIES.length],
+        1.5 + (index % 50) / 100.0,
+        50.0 + index % 70,
+        18.0 + index % 60,
+        (index % 40) / 100.0,
+        ADJUSTMENTS[index % ADJUSTMENTS.length].coefficient().value(),
+        sink
+      );
+      sum += sink.calories();
+    }
+    return sum;
+  }
+
+  /**
+   * Estimating into a reused sink allocates nothing.
+   */
+
+  @Test
+  public void testNoAllocation()
+  {
+    final var bean = ManagementFactory.getThreadMXBean();
+    Assumptions.assumeTrue(
+      bean instanceof com.sun.management.ThreadMXBean);
+
+    final var threads = (com.sun.management.ThreadMXBean) bean;
+    Assumptions.assumeTrue(threads.isThreadAllocatedMemorySupported());
+    threads.setThreadAllocatedMemoryEnabled(true);
+
+    final var sink = new BodyMacrosMutable();
+    final long thread = Thread.currentThread().threadId();
+
+    /*
+     * Warm up, and make sure that all classes involved are loaded and
+     * initialized before measuring.
+     */
+
+    estimateMany(sink, 100_000);
+    threads.getThreadAllocatedBytes(thread);
+
+    final int count = 1_000_000;
+    final long before = threads.getThreadAllocatedBytes(thread);
+    final double sum = estimateMany(sink, count);
+    final long after = threads.getThreadAllocatedBytes(thread);
+
+    Assertions.assertTrue(sum > 0.0);
+
+    /*
+     * Reading the counter may itself allocate a few bytes; anything less
+     * than one byte per estimate means that estimates do not allocate.
+     */
+
+    final long allocated = after - before;
+    Assertions.assertTrue(
+      allocated < count,
+      String.format("Allocated %d bytes for %d estimates", allocated, count));
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.bodyrecomp.tests;
+
+import com.io7m.bodyrecomp.core.BodyDefinition;
+import com.io7m.bodyrecomp.core.BodyMacroEstimateOptions;
+import com.io7m.bodyrecomp.core.BodyMacroEstimates;
+import com.io7m.bodyrecomp.core.BodyMacros;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.io7m.bodyrecomp.tests.ExamplePeople.ANDRE;
+import static com.io7m.bodyrecomp.tests.ExamplePeople.BILL;
+import static com.io7m.bodyrecomp.tests.ExamplePeople.FEMALE_LOWER_FAT;
+import static com.io7m.bodyrecomp.tests.ExamplePeople.FEMALE_UPPER_FAT;
+import static com.io7m.bodyrecomp.tests.ExamplePeople.HELGA;
+import static com.io7m.bodyrecomp.tests.ExamplePeople.JUNIOR;
+import static com.io7m.bodyrecomp.tests.ExamplePeople.MALE_LOWER_FAT;
+import static com.io7m.bodyrecomp.tests.ExamplePeople.MALE_UPPER_FAT;
+import static com.io7m.bodyrecomp.tests.ExamplePeople.NB;
+import static com.io7m.bodyrecomp.tests.ExamplePeople.SALLY;
+
+public final class BodyMacrosOptionsTest
+{
+  private static final List<BodyDefinition> PEOPLE =
+    List.of(
+      BILL,
+      JUNIOR,
+      HELGA,
+      SALLY,
+      FEMALE_LOWER_FAT,
+      FEMALE_UPPER_FAT,
+      MALE_LOWER_FAT,
+      MALE_UPPER_FAT,
+      ANDRE,
+      NB
+    );
+
+  private static final BodyMacroEstimateOptions WITH_EXPLANATIONS =
+    BodyMacroEstimateOptions.builder()
+      .setExplanations(true)
+      .build();
+
+  private static final BodyMacroEstimateOptions WITHOUT_EXPLANATIONS =
+    BodyMacroEstimateOptions.builder()
+      .setExplanations(false)
+      .build();
+
+  private static void checkSameValues(
+    final BodyMacros expected,
+    final BodyMacros received)
+  {
+    Assertions.assertEquals(
+      expected.calories().getValue().doubleValue(),
+      received.calories().getValue().doubleValue());
+    Assertions.assertEquals(
+      expected.proteinGrams().getValue().doubleValue(),
+      received.proteinGrams().getValue().doubleValue());
+    Assertions.assertEquals(
+      expected.fatGrams().getValue().doubleValue(),
+      received.fatGrams().getValue().doubleValue());
+    Assertions.assertEquals(
+      expected.carbohydrateGrams().getValue().doubleValue(),
+      received.carbohydrateGrams().getValue().doubleValue());
+  }
+
+  @Test
+  public void testDefaultExplains()
+  {
+    Assertions.assertTrue(
+      BodyMacroEstimateOptions.builder().build().explanations());
+
+    for (final var body : PEOPLE) {
+      final var macros = BodyMacroEstimates.estimateFor(body);
+      Assertions.assertFalse(macros.explanations().isEmpty());
+    }
+  }
+
+  @Test
+  public void testWithoutExplanationsEmpty()
+  {
+    for (final var body : PEOPLE) {
+      final var macros =
+        BodyMacroEstimates.estimateFor(body, WITHOUT_EXPLANATIONS);
+      Assertions.assertEquals(List.of(), macros.explanations());
+    }
+  }
+
+  @Test
+  public void testWithoutExplanationsSameValues()
+  {
+    for (final var body : PEOPLE) {
+      final var explained =
+        BodyMacroEstimates.estimateFor(body, WITH_EXPLANATIONS);
+      final var unexplained =
+        BodyMacroEstimates.estimateFor(body, WITHOUT_EXPLANATIONS);
+
+      checkSameValues(explained, unexplained);
+      checkSameValues(BodyMacroEstimates.estimateFor(body), explained);
+      Assertions.assertEquals(
+        BodyMacroEstimates.estimateFor(body).explanations(),
+        explained.explanations());
+    }
+  }
+}
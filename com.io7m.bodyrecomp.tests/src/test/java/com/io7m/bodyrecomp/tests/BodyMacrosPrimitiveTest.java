@@ -0,0 +1,189 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.bodyrecomp.tests;
+
+import com.io7m.bodyrecomp.core.ActivityCoefficient;
+import com.io7m.bodyrecomp.core.BiologicalGender;
+import com.io7m.bodyrecomp.core.BodyDefinition;
+import com.io7m.bodyrecomp.core.BodyMacroEstimates;
+import com.io7m.bodyrecomp.core.CaloricAdjustment;
+import com.io7m.bodyrecomp.core.NormalCoefficient;
+import com.io7m.jaffirm.core.PreconditionViolationException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import tech.units.indriya.quantity.Quantities;
+
+import static com.io7m.bodyrecomp.core.BodyMacroEstimates.OUTPUT_CALORIES;
+import static com.io7m.bodyrecomp.core.BodyMacroEstimates.OUTPUT_CARBOHYDRATE_GRAMS;
+import static com.io7m.bodyrecomp.core.BodyMacroEstimates.OUTPUT_FAT_GRAMS;
+import static com.io7m.bodyrecomp.core.BodyMacroEstimates.OUTPUT_PROTEIN_GRAMS;
+import static com.io7m.bodyrecomp.core.BodyMacroEstimates.OUTPUT_SIZE;
+import static com.io7m.bodyrecomp.tests.ExamplePeople.ANDRE;
+import static com.io7m.bodyrecomp.tests.ExamplePeople.BILL;
+import static com.io7m.bodyrecomp.tests.ExamplePeople.FEMALE_LOWER_FAT;
+import static com.io7m.bodyrecomp.tests.ExamplePeople.FEMALE_UPPER_FAT;
+import static com.io7m.bodyrecomp.tests.ExamplePeople.HELGA;
+import static com.io7m.bodyrecomp.tests.ExamplePeople.JUNIOR;
+import static com.io7m.bodyrecomp.tests.ExamplePeople.MALE_LOWER_FAT;
+import static com.io7m.bodyrecomp.tests.ExamplePeople.MALE_UPPER_FAT;
+import static com.io7m.bodyrecomp.tests.ExamplePeople.NB;
+import static com.io7m.bodyrecomp.tests.ExamplePeople.SALLY;
+import static systems.uom.common.historic.CGS.CENTIMETRE;
+import static tech.units.indriya.unit.Units.KILOGRAM;
+import static tech.units.indriya.unit.Units.METRE;
+import static tech.units.indriya.unit.Units.YEAR;
+
+public final class BodyMacrosPrimitiveTest
+{
+  private static void checkIdentical(
+    final BodyDefinition body)
+  {
+    final var macros =
+      BodyMacroEstimates.estimateFor(body);
+
+    final var output = new double[OUTPUT_SIZE + 2];
+    BodyMacroEstimates.estimateFor(
+      body.gender(),
+      body.activity(),
+      body.bodyHeight().getValue().doubleValue(),
+      body.bodyWeight().getValue().doubleValue(),
+      body.age().getValue().doubleValue(),
+      body.bodyFatCoefficient().value(),
+      body.caloricAdjustment().value(),
+      output,
+      1
+    );
+
+    Assertions.assertEquals(0.0, output[0]);
+    Assertions.assertEquals(
+      macros.calories().getValue().doubleValue(),
+      output[1 + OUTPUT_CALORIES]);
+    Assertions.assertEquals(
+      macros.proteinGrams().getValue().doubleValue(),
+      output[1 + OUTPUT_PROTEIN_GRAMS]);
+    Assertions.assertEquals(
+      macros.fatGrams().getValue().doubleValue(),
+      output[1 + OUTPUT_FAT_GRAMS]);
+    Assertions.assertEquals(
+      macros.carbohydrateGrams().getValue().doubleValue(),
+      output[1 + OUTPUT_CARBOHYDRATE_GRAMS]);
+    Assertions.assertEquals(0.0, output[OUTPUT_SIZE + 1]);
+  }
+
+  @Test
+  public void testExamplePeopleIdentical()
+  {
+    checkIdentical(ANDRE);
+    checkIdentical(BILL);
+    checkIdentical(FEMALE_LOWER_FAT);
+    checkIdentical(FEMALE_UPPER_FAT);
+    checkIdentical(HELGA);
+    checkIdentical(JUNIOR);
+    checkIdentical(MALE_LOWER_FAT);
+    checkIdentical(MALE_UPPER_FAT);
+    checkIdentical(NB);
+    checkIdentical(SALLY);
+  }
+
+  @Test
+  public void testRangeIdentical()
+  {
+    for (final var heightCm : new int[]{150, 172, 195}) {
+      for (final var weightKg : new int[]{55, 81, 120}) {
+        for (final var age : new int[]{20, 35, 60}) {
+          for (final var bodyFat : new int[]{5, 20, 40}) {
+            for (final var gender : BiologicalGender.values()) {
+              for (final var activity : ActivityCoefficient.values()) {
+                for (final var adjustment : CaloricAdjustment.values()) {
+                  checkIdentical(
+                    BodyDefinition.builder()
+                      .setGender(gender)
+                      .setActivity(activity)
+                      .setCaloricAdjustment(adjustment.coefficient())
+                      .setAge(Quantities.getQuantity(age, YEAR))
+                      .setBodyHeight(
+                        Quantities.getQuantity(heightCm, CENTIMETRE)
+                          .to(METRE))
+                      .setBodyFatCoefficient(
+                        NormalCoefficient.of(bodyFat / 100.0))
+                      .setBodyWeight(
+                        Quantities.getQuantity(weightKg, KILOGRAM))
+                      .build()
+                  );
+                }
+              }
+            }
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testOutputTooSmall()
+  {
+    Assertions.assertThrows(IndexOutOfBoundsException.class, () -> {
+      BodyMacroEstimates.estimateFor(
+        BiologicalGender.MALE,
+        ActivityCoefficient.SEDENTARY,
+        1.72,
+        80.0,
+        35.0,
+        0.2,
+        1.0,
+        new double[OUTPUT_SIZE],
+        1
+      );
+    });
+  }
+
+  @Test
+  public void testBodyFatOutOfRange()
+  {
+    Assertions.assertThrows(PreconditionViolationException.class, () -> {
+      BodyMacroEstimates.estimateFor(
+        BiologicalGender.MALE,
+        ActivityCoefficient.SEDENTARY,
+        1.72,
+        80.0,
+        35.0,
+        1.2,
+        1.0,
+        new double[OUTPUT_SIZE],
+        0
+      );
+    });
+  }
+
+  @Test
+  public void testCaloricAdjustmentOutOfRange()
+  {
+    Assertions.assertThrows(PreconditionViolationException.class, () -> {
+      BodyMacroEstimates.estimateFor(
+        BiologicalGender.FEMALE,
+        ActivityCoefficient.SEDENTARY,
+        1.72,
+        80.0,
+        35.0,
+        0.2,
+        -1.0,
+        new double[OUTPUT_SIZE],
+        0
+      );
+    });
+  }
+}
@@ -16,16 +16,25 @@
 
 package com.io7m.bodyrecomp.tests;
 
+import com.io7m.bodyrecomp.core.BodyDefinition;
 import com.io7m.bodyrecomp.core.BodyMacroEstimates;
+import com.io7m.bodyrecomp.core.CaloricAdjustment;
+import com.io7m.bodyrecomp.core.NormalCoefficient;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import tech.units.indriya.quantity.Quantities;
 
+import static com.io7m.bodyrecomp.core.ActivityCoefficient.SEDENTARY;
+import static com.io7m.bodyrecomp.core.BiologicalGender.MALE;
 import static com.io7m.bodyrecomp.tests.ExamplePeople.ANDRE;
 import static com.io7m.bodyrecomp.tests.ExamplePeople.BILL;
 import static com.io7m.bodyrecomp.tests.ExamplePeople.NB;
 import static com.io7m.bodyrecomp.tests.ExamplePeople.SALLY;
+import static tech.units.indriya.unit.Units.KILOGRAM;
+import static tech.units.indriya.unit.Units.METRE;
+import static tech.units.indriya.unit.Units.YEAR;
 
 public final class BodyMacrosTest
 {
@@ -79,4 +88,30 @@ public final class BodyMacrosTest
     LOG.debug("protein grams {}", macros.proteinGrams());
     LOG.debug("carbohydrate grams {}", macros.carbohydrateGrams());
   }
+
+  /*
+   * The total calories for this body are a rounding error above a whole
+   * number, while the sum of the macronutrient calories is exact.
+   */
+
+  @Test
+  public void exampleRoundingError()
+  {
+    final var body =
+      BodyDefinition.builder()
+        .setGender(MALE)
+        .setActivity(SEDENTARY)
+        .setCaloricAdjustment(CaloricAdjustment.MAINTENANCE.coefficient())
+        .setAge(Quantities.getQuantity(19, YEAR))
+        .setBodyHeight(Quantities.getQuantity(1.68, METRE))
+        .setBodyFatCoefficient(NormalCoefficient.of(0.17))
+        .setBodyWeight(Quantities.getQuantity(50, KILOGRAM))
+        .build();
+
+    final var macros = BodyMacroEstimates.estimateFor(body);
+    Assertions.assertEquals(
+      1971.0,
+      macros.calories().getValue().doubleValue(),
+      1.0e-9);
+  }
 }
@@ -0,0 +1,79 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.bodyrecomp.tests;
+
+import com.io7m.bodyrecomp.core.BodyUnits;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import systems.uom.common.historic.CGS;
+import tech.units.indriya.quantity.Quantities;
+import tech.units.indriya.unit.Units;
+
+public final class BodyUnitsTest
+{
+  @Test
+  public void testEqualToUnitSystems()
+  {
+    Assertions.assertEquals(Units.METRE, BodyUnits.METRE);
+    Assertions.assertEquals(BodyUnits.METRE, Units.METRE);
+    Assertions.assertEquals(CGS.CENTIMETRE, BodyUnits.CENTIMETRE);
+    Assertions.assertEquals(BodyUnits.CENTIMETRE, CGS.CENTIMETRE);
+    Assertions.assertEquals(Units.KILOGRAM, BodyUnits.KILOGRAM);
+    Assertions.assertEquals(BodyUnits.KILOGRAM, Units.KILOGRAM);
+    Assertions.assertEquals(Units.GRAM, BodyUnits.GRAM);
+    Assertions.assertEquals(BodyUnits.GRAM, Units.GRAM);
+    Assertions.assertEquals(Units.YEAR, BodyUnits.YEAR);
+    Assertions.assertEquals(BodyUnits.YEAR, Units.YEAR);
+    Assertions.assertEquals(Units.YEAR.hashCode(), BodyUnits.YEAR.hashCode());
+
+    /*
+     * The CLDR food calorie is defined as 4186.8 joules.
+     */
+
+    final var foodCalorie = Units.JOULE.multiply(4186.8);
+    Assertions.assertEquals(foodCalorie, BodyUnits.FOOD_CALORIE);
+    Assertions.assertEquals(BodyUnits.FOOD_CALORIE, foodCalorie);
+  }
+
+  @Test
+  public void testConversions()
+  {
+    Assertions.assertEquals(
+      1.83,
+      Quantities.getQuantity(Integer.valueOf(183), BodyUnits.CENTIMETRE)
+        .to(BodyUnits.METRE)
+        .getValue()
+        .doubleValue()
+    );
+    Assertions.assertEquals(
+      2500.0,
+      Quantities.getQuantity(Double.valueOf(2.5), BodyUnits.KILOGRAM)
+        .to(BodyUnits.GRAM)
+        .getValue()
+        .doubleValue()
+    );
+    Assertions.assertEquals(
+      4186.8,
+      Quantities.getQuantity(Integer.valueOf(1), BodyUnits.FOOD_CALORIE)
+        .to(Units.JOULE)
+        .getValue()
+        .doubleValue(),
+      1.0e-9
+    );
+  }
+}
@@ -0,0 +1,244 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.bodyrecomp.tests;
+
+import com.io7m.bodyrecomp.core.ActivityCoefficient;
+import com.io7m.bodyrecomp.core.BiologicalGender;
+import com.io7m.bodyrecomp.core.BodyDefinitionColumns;
+import com.io7m.bodyrecomp.core.BodyWeightSimulationConfiguration;
+import com.io7m.bodyrecomp.core.BodyWeightSimulationObserverType;
+import com.io7m.bodyrecomp.core.BodyWeightSimulations;
+import com.io7m.bodyrecomp.core.MifflinStJeor;
+import com.io7m.jaffirm.core.PreconditionViolationException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+
+public final class BodyWeightSimulationsTest
+{
+  private static final BodyWeightSimulationObserverType IGNORE =
+    (day, bodies, offset, count) -> {
+    };
+
+  /**
+   * A direct day-by-day reference simulation of one body with fixed intake.
+   */
+
+  private static double[] reference(
+    final BiologicalGender gender,
+    final ActivityCoefficient activity,
+    final double height,
+    final double weight,
+    final double age,
+    final double bodyFat,
+    final double adjustment,
+    final int days)
+  {
+    final var configuration = BodyWeightSimulationConfiguration.builder().build();
+    final double intake =
+      MifflinStJeor.basalMetabolicRate(gender, height, weight, age)
+        * activity.coefficient() * adjustment;
+
+    double fat = weight * bodyFat;
+    double lean = weight - fat;
+    double currentAge = age;
+    for (int day = 0; day < days; ++day) {
+      final double expenditure =
+        MifflinStJeor.basalMetabolicRate(gender, height, lean + fat, currentAge)
+          * activity.coefficient();
+      final double imbalance = intake - expenditure;
+      final double leanShare =
+        configuration.forbesConstant() / (configuration.forbesConstant() + fat);
+      lean += leanShare * imbalance / configuration.leanEnergyDensity();
+      fat += (1.0 - leanShare) * imbalance / configuration.fatEnergyDensity();
+      currentAge += 1.0 / 365.25;
+    }
+    return new double[]{lean + fat, fat / (lean + fat), currentAge};
+  }
+
+  @Test
+  public void testMaintenanceUnchanged()
+  {
+    final var bodies = BodyDefinitionColumns.create(1);
+    bodies.set(
+      0,
+      BiologicalGender.FEMALE,
+      ActivityCoefficient.LIGHTLY_ACTIVE,
+      1.65,
+      65.0,
+      40.0,
+      0.3,
+      1.0
+    );
+
+    BodyWeightSimulations.simulate(
+      BodyWeightSimulationConfiguration.builder().build(),
+      bodies, 0, 1, 365, IGNORE);
+
+    Assertions.assertEquals(65.0, bodies.weightKilograms()[0], 1.0e-9);
+    Assertions.assertEquals(0.3, bodies.bodyFatCoefficients()[0], 1.0e-9);
+    Assertions.assertEquals(40.0 + 365.0 / 365.25, bodies.ageYears()[0], 1.0e-9);
+  }
+
+  @Test
+  public void testMatchesReference()
+  {
+    final var configuration =
+      BodyWeightSimulationConfiguration.builder()
+        .setIntakeRecomputedDaily(false)
+        .build();
+
+    final var bodies = BodyDefinitionColumns.create(2);
+    bodies.set(
+      0, BiologicalGender.MALE, ActivityCoefficient.SEDENTARY,
+      1.8, 100.0, 35.0, 0.3, 0.8);
+    bodies.set(
+      1, BiologicalGender.FEMALE, ActivityCoefficient.HIGHLY_ACTIVE,
+      1.6, 55.0, 25.0, 0.2, 1.2);
+
+    BodyWeightSimulations.simulate(configuration, bodies, 0, 2, 365, IGNORE);
+
+    final var male = reference(
+      BiologicalGender.MALE, ActivityCoefficient.SEDENTARY,
+      1.8, 100.0, 35.0, 0.3, 0.8, 365);
+    final var female = reference(
+      BiologicalGender.FEMALE, ActivityCoefficient.HIGHLY_ACTIVE,
+      1.6, 55.0, 25.0, 0.2, 1.2, 365);
+
+    Assertions.assertEquals(male[0], bodies.weightKilograms()[0], 1.0e-6);
+    Assertions.assertEquals(male[1], bodies.bodyFatCoefficients()[0], 1.0e-9);
+    Assertions.assertEquals(male[2], bodies.ageYears()[0], 1.0e-9);
+    Assertions.assertEquals(female[0], bodies.weightKilograms()[1], 1.0e-6);
+    Assertions.assertEquals(female[1], bodies.bodyFatCoefficients()[1], 1.0e-9);
+    Assertions.assertEquals(female[2], bodies.ageYears()[1], 1.0e-9);
+
+    Assertions.assertTrue(bodies.weightKilograms()[0] < 100.0);
+    Assertions.assertTrue(bodies.bodyFatCoefficients()[0] < 0.3);
+    Assertions.assertTrue(bodies.weightKilograms()[1] > 55.0);
+  }
+
+  @Test
+  public void testObservations()
+  {
+    final var bodies = ExampleColumns.random(3000);
+    final var days = new ArrayList<Integer>();
+    final var weights = new ArrayList<Double>();
+
+    BodyWeightSimulations.simulate(
+      BodyWeightSimulationConfiguration.builder().build(),
+      bodies,
+      0,
+      3000,
+      365,
+      (day, b, offset, count) -> {
+        if (offset == 0) {
+          days.add(Integer.valueOf(day));
+          weights.add(Double.valueOf(b.weightKilograms()[0]));
+        }
+      });
+
+    Assertions.assertEquals(53, days.size());
+    for (int index = 0; index < 52; ++index) {
+      Assertions.assertEquals((index + 1) * 7, days.get(index).intValue());
+    }
+    Assertions.assertEquals(365, days.get(52).intValue());
+    Assertions.assertEquals(
+      bodies.weightKilograms()[0],
+      weights.get(52).doubleValue());
+  }
+
+  @Test
+  public void testParallelIdentical()
+  {
+    final var configuration = BodyWeightSimulationConfiguration.builder().build();
+    final var sequential = ExampleColumns.random(20000);
+    final var parallel = ExampleColumns.random(20000);
+
+    BodyWeightSimulations.simulate(
+      configuration, sequential, 0, 20000, 60, IGNORE);
+    BodyWeightSimulations.simulate(
+      new ForkJoinPool(4), configuration, parallel, 60, IGNORE);
+
+    Assertions.assertArrayEquals(
+      sequential.weightKilograms(), parallel.weightKilograms());
+    Assertions.assertArrayEquals(
+      sequential.bodyFatCoefficients(), parallel.bodyFatCoefficients());
+    Assertions.assertArrayEquals(
+      sequential.ageYears(), parallel.ageYears());
+  }
+
+  @Test
+  public void testRangeOnly()
+  {
+    final var bodies = ExampleColumns.random(100);
+    final var original = ExampleColumns.random(100);
+
+    BodyWeightSimulations.simulate(
+      BodyWeightSimulationConfiguration.builder().build(),
+      bodies, 10, 20, 30, IGNORE);
+
+    for (int index = 0; index < 100; ++index) {
+      final boolean inside = index >= 10 && index < 30;
+      Assertions.assertEquals(
+        inside,
+        bodies.ageYears()[index] != original.ageYears()[index],
+        "Index " + index);
+    }
+  }
+
+  @Test
+  public void testZeroDays()
+  {
+    final var bodies = ExampleColumns.random(100);
+    final var original = ExampleColumns.random(100);
+    final var configuration = BodyWeightSimulationConfiguration.builder().build();
+    final BodyWeightSimulationObserverType fail =
+      (day, observed, offset, count) -> Assertions.fail("Observed day " + day);
+
+    BodyWeightSimulations.simulate(configuration, bodies, 0, 100, 0, fail);
+    BodyWeightSimulations.simulate(
+      ForkJoinPool.commonPool(), configuration, bodies, 0, fail);
+
+    Assertions.assertArrayEquals(
+      original.weightKilograms(), bodies.weightKilograms());
+    Assertions.assertArrayEquals(
+      original.ageYears(), bodies.ageYears());
+    Assertions.assertArrayEquals(
+      original.bodyFatCoefficients(), bodies.bodyFatCoefficients());
+  }
+
+  @Test
+  public void testInvalid()
+  {
+    final var configuration = BodyWeightSimulationConfiguration.builder().build();
+    final var bodies = ExampleColumns.random(10);
+
+    Assertions.assertThrows(PreconditionViolationException.class, () -> {
+      BodyWeightSimulations.simulate(configuration, bodies, 0, 10, -1, IGNORE);
+    });
+    Assertions.assertThrows(IndexOutOfBoundsException.class, () -> {
+      BodyWeightSimulations.simulate(configuration, bodies, 5, 10, 1, IGNORE);
+    });
+    Assertions.assertThrows(PreconditionViolationException.class, () -> {
+      BodyWeightSimulationConfiguration.builder()
+        .setObservationIntervalDays(0)
+        .build();
+    });
+  }
+}
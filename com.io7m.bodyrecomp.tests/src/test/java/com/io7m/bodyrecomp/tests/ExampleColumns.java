@@ -0,0 +1,63 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.bodyrecomp.tests;
+
+import com.io7m.bodyrecomp.core.ActivityCoefficient;
+import com.io7m.bodyrecomp.core.BiologicalGender;
+import com.io7m.bodyrecomp.core.BodyDefinitionColumns;
+import com.io7m.bodyrecomp.core.CaloricAdjustment;
+
+import java.util.Random;
+
+public final class ExampleColumns
+{
+  private ExampleColumns()
+  {
+
+  }
+
+  /**
+   * @param size The number of bodies
+   *
+   * @return Plausible random bodies, the same for every call with a given size
+   */
+
+  public static BodyDefinitionColumns random(
+    final int size)
+  {
+    final var random = new Random(0x5eedL);
+    final var genders = BiologicalGender.values();
+    final var activities = ActivityCoefficient.values();
+    final var adjustments = CaloricAdjustment.values();
+
+    final var columns = BodyDefinitionColumns.create(size);
+    for (int index = 0; index < size; ++index) {
+      columns.set(
+        index,
+        genders[random.nextInt(genders.length)],
+        activities[random.nextInt(activities.length)],
+        1.4 + random.nextDouble() * 0.7,
+        40.0 + random.nextDouble() * 100.0,
+        18.0 + random.nextDouble() * 60.0,
+        random.nextDouble() * 0.5,
+        adjustments[random.nextInt(adjustments.length)].coefficient().value()
+      );
+    }
+    return columns;
+  }
+}
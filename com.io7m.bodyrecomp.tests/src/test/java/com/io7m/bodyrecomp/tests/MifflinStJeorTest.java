@@ -16,14 +16,17 @@
 
 package com.io7m.bodyrecomp.tests;
 
+import com.io7m.bodyrecomp.core.BiologicalGender;
 import com.io7m.bodyrecomp.core.MifflinStJeor;
 import com.io7m.bodyrecomp.core.MifflinStJeorInput;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import tech.units.indriya.quantity.Quantities;
 import tech.units.indriya.unit.Units;
 
+import static com.io7m.bodyrecomp.core.BiologicalGender.FEMALE;
 import static com.io7m.bodyrecomp.core.BiologicalGender.MALE;
 
 public final class MifflinStJeorTest
@@ -45,4 +48,23 @@ public final class MifflinStJeorTest
     final var bmr = MifflinStJeor.basalMetabolicRate(input);
     LOG.debug("BMR: {}", bmr);
   }
+
+  @Test
+  public void testGenderConstantSame()
+  {
+    for (final var gender : BiologicalGender.values()) {
+      Assertions.assertEquals(
+        MifflinStJeor.basalMetabolicRate(gender, 1.72, 81.3, 35.0),
+        MifflinStJeor.basalMetabolicRate(
+          MifflinStJeor.genderConstant(gender), 1.72, 81.3, 35.0)
+      );
+    }
+
+    Assertions.assertEquals(
+      MifflinStJeor.MALE_CONSTANT,
+      MifflinStJeor.genderConstant(MALE));
+    Assertions.assertEquals(
+      MifflinStJeor.FEMALE_CONSTANT,
+      MifflinStJeor.genderConstant(FEMALE));
+  }
 }
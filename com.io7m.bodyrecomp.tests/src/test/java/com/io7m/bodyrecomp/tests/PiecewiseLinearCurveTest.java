@@ -0,0 +1,192 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.bodyrecomp.tests;
+
+import com.io7m.bodyrecomp.core.BiologicalGender;
+import com.io7m.bodyrecomp.core.DietaryFatEstimates;
+import com.io7m.bodyrecomp.core.DietaryProteinEstimates;
+import com.io7m.bodyrecomp.core.PiecewiseLinearCurve;
+import com.io7m.jaffirm.core.PreconditionViolationException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import static com.io7m.bodyrecomp.core.PiecewiseLinearCurveExtrapolation.CLAMP;
+import static com.io7m.bodyrecomp.core.PiecewiseLinearCurveExtrapolation.LINEAR;
+
+public final class PiecewiseLinearCurveTest
+{
+  private static double interpolate(
+    final double inputLow,
+    final double inputHigh,
+    final double outputLow,
+    final double outputHigh,
+    final double x)
+  {
+    return outputLow
+           + ((outputHigh - outputLow) / (inputHigh - inputLow)) * (x - inputLow);
+  }
+
+  @Test
+  public void testBreakpointsExact()
+  {
+    final var curve =
+      PiecewiseLinearCurve.of(
+        new double[]{0.0, 10.0, 20.0, 40.0},
+        new double[]{1.0, 3.0, 2.0, 2.0},
+        LINEAR
+      );
+
+    Assertions.assertEquals(4, curve.breakpointCount());
+    for (int index = 0; index < curve.breakpointCount(); ++index) {
+      Assertions.assertEquals(
+        curve.breakpointOutput(index),
+        curve.evaluate(curve.breakpointInput(index))
+      );
+    }
+  }
+
+  @Test
+  public void testSegmentsInterpolate()
+  {
+    final var curve =
+      PiecewiseLinearCurve.of(
+        new double[]{0.0, 10.0, 20.0, 40.0},
+        new double[]{1.0, 3.0, 2.0, 2.0},
+        LINEAR
+      );
+
+    Assertions.assertEquals(2.0, curve.evaluate(5.0));
+    Assertions.assertEquals(2.5, curve.evaluate(15.0));
+    Assertions.assertEquals(2.0, curve.evaluate(30.0));
+  }
+
+  @Test
+  public void testLinearExtrapolation()
+  {
+    final var curve =
+      PiecewiseLinearCurve.of(
+        new double[]{0.0, 10.0, 20.0},
+        new double[]{0.0, 10.0, 0.0},
+        LINEAR
+      );
+
+    Assertions.assertEquals(-5.0, curve.evaluate(-5.0));
+    Assertions.assertEquals(-5.0, curve.evaluate(25.0));
+  }
+
+  @Test
+  public void testClampExtrapolation()
+  {
+    final var curve =
+      PiecewiseLinearCurve.of(
+        new double[]{0.0, 10.0, 20.0},
+        new double[]{0.0, 10.0, 5.0},
+        CLAMP
+      );
+
+    Assertions.assertEquals(0.0, curve.evaluate(-5.0));
+    Assertions.assertEquals(5.0, curve.evaluate(25.0));
+    Assertions.assertEquals(5.0, curve.evaluate(5.0));
+  }
+
+  @Test
+  public void testArraysCopied()
+  {
+    final var inputs = new double[]{0.0, 1.0};
+    final var outputs = new double[]{0.0, 1.0};
+    final var curve = PiecewiseLinearCurve.of(inputs, outputs, LINEAR);
+    inputs[1] = 2.0;
+    outputs[1] = 4.0;
+
+    Assertions.assertEquals(1.0, curve.evaluate(1.0));
+    Assertions.assertEquals(
+      PiecewiseLinearCurve.ofSegment(0.0, 1.0, 0.0, 1.0, LINEAR),
+      curve
+    );
+  }
+
+  @Test
+  public void testInvalidTooFew()
+  {
+    Assertions.assertThrows(PreconditionViolationException.class, () -> {
+      PiecewiseLinearCurve.of(new double[]{0.0}, new double[]{0.0}, LINEAR);
+    });
+  }
+
+  @Test
+  public void testInvalidMismatched()
+  {
+    Assertions.assertThrows(PreconditionViolationException.class, () -> {
+      PiecewiseLinearCurve.of(
+        new double[]{0.0, 1.0},
+        new double[]{0.0, 1.0, 2.0},
+        LINEAR);
+    });
+  }
+
+  @Test
+  public void testInvalidNotAscending()
+  {
+    Assertions.assertThrows(PreconditionViolationException.class, () -> {
+      PiecewiseLinearCurve.of(
+        new double[]{0.0, 1.0, 1.0},
+        new double[]{0.0, 1.0, 2.0},
+        LINEAR);
+    });
+  }
+
+  @Test
+  public void testInvalidNotFinite()
+  {
+    Assertions.assertThrows(PreconditionViolationException.class, () -> {
+      PiecewiseLinearCurve.of(
+        new double[]{0.0, Double.NaN},
+        new double[]{0.0, 1.0},
+        LINEAR);
+    });
+  }
+
+  /**
+   * The dietary curves produce exactly the values of the original direct
+   * two-point interpolations.
+   */
+
+  @Test
+  public void testDietaryCurvesIdentical()
+  {
+    for (int index = 0; index <= 60_000; ++index) {
+      final double x = index / 1000.0;
+
+      Assertions.assertEquals(
+        interpolate(5.0, 30.0, 1.6, 1.2, x),
+        DietaryProteinEstimates.gramsPerPound(BiologicalGender.MALE, x)
+      );
+      Assertions.assertEquals(
+        interpolate(8.0, 40.0, 1.6, 1.2, x),
+        DietaryProteinEstimates.gramsPerPound(BiologicalGender.FEMALE, x)
+      );
+      Assertions.assertEquals(
+        Math.max(0.2, Math.min(0.35, interpolate(5.0, 25.0, 0.2, 0.35, x))),
+        DietaryFatEstimates.fatCoefficient(BiologicalGender.MALE, x)
+      );
+      Assertions.assertEquals(
+        Math.max(0.2, Math.min(0.35, interpolate(10.0, 40.0, 0.2, 0.35, x))),
+        DietaryFatEstimates.fatCoefficient(BiologicalGender.FEMALE, x)
+      );
+    }
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.bodyrecomp.vector;
+
+import com.io7m.bodyrecomp.core.BodyMacroBatchKernelProviderType;
+import com.io7m.bodyrecomp.core.BodyMacroBatchKernelType;
+import com.io7m.bodyrecomp.vector.internal.BodyMacroVectorKernel;
+
+import java.util.Optional;
+
+/**
+ * <p>A provider of batch kernels based on the (incubating) Vector API.</p>
+ *
+ * <p>The kernel is only available if the {@code jdk.incubator.vector} module
+ * has been added to the boot layer (typically with
+ * {@code --add-modules jdk.incubator.vector}), and if the platform has
+ * vector registers wide enough to hold more than one {@code double}.</p>
+ */
+
+public final class BodyMacroVectorKernelProvider
+  implements BodyMacroBatchKernelProviderType
+{
+  private static final String VECTOR_MODULE = "jdk.incubator.vector";
+
+  /**
+   * Construct a provider.
+   */
+
+  public BodyMacroVectorKernelProvider()
+  {
+
+  }
+
+  /**
+   * @return {@code true} if the Vector API module is present
+   */
+
+  public static boolean isVectorModulePresent()
+  {
+    return ModuleLayer.boot()
+      .findModule(VECTOR_MODULE)
+      .isPresent();
+  }
+
+  @Override
+  public Optional<BodyMacroBatchKernelType> create()
+  {
+    /*
+     * The kernel class must not be loaded unless the module is present,
+     * as it refers to Vector API classes in its static initializer.
+     */
+
+    if (!isVectorModulePresent()) {
+      return Optional.empty();
+    }
+    if (!BodyMacroVectorKernel.isUseful()) {
+      return Optional.empty();
+    }
+    return Optional.of(BodyMacroVectorKernel.create());
+  }
+
+  @Override
+  public String toString()
+  {
+    return "[BodyMacroVectorKernelProvider]";
+  }
+}
@@ -0,0 +1,315 @@
+/*
+ * Copyright © 2020 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.bodyrecomp.vector.internal;
+
+import com.io7m.bodyrecomp.core.BodyDefinitionColumns;
+import com.io7m.bodyrecomp.core.BodyMacroBatchEstimates;
+import com.io7m.bodyrecomp.core.BodyMacroBatchKernelType;
+import com.io7m.bodyrecomp.core.BodyMacrosColumns;
+import com.io7m.bodyrecomp.core.DietaryProteinEstimates;
+import com.io7m.bodyrecomp.core.MifflinStJeor;
+import com.io7m.bodyrecomp.core.internal.BodyMacroBatchSupport;
+import com.io7m.bodyrecomp.core.internal.BodyMacroCurveSegment;
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.util.Objects;
+
+import static com.io7m.bodyrecomp.core.BiologicalGender.FEMALE;
+import static jdk.incubator.vector.VectorOperators.EQ;
+import static jdk.incubator.vector.VectorOperators.GT;
+import static jdk.incubator.vector.VectorOperators.LT;
+
+/**
+ * <p>A batch kernel based on the Vector API.</p>
+ *
+ * <p>The kernel performs exactly the same IEEE 754 operations in the same
+ * order as {@link BodyMacroBatchEstimates}, and so produces bit-for-bit
+ * identical results. Gender-specific constants are selected with lane
+ * masks, and clamped curves are clamped with vector min/max operations.</p>
+ */
+
+public final class BodyMacroVectorKernel implements BodyMacroBatchKernelType
+{
+  private static final VectorSpecies<Double> SPECIES =
+    DoubleVector.SPECIES_PREFERRED;
+
+  /*
+   * Adding and then subtracting 2^52 rounds any value in [0, 2^52) to an
+   * integer, because the spacing between doubles in [2^52, 2^53) is exactly
+   * one.
+   */
+
+  private static final double TWO_POW_52 = 0x1p52;
+
+  private static final VectorMask<Double> ALL_LANES =
+    SPECIES.maskAll(true);
+
+  private static final DoubleVector ONE =
+    DoubleVector.broadcast(SPECIES, 1.0);
+  private static final DoubleVector BMR_MALE =
+    DoubleVector.broadcast(SPECIES, MifflinStJeor.MALE_CONSTANT);
+  private static final DoubleVector BMR_FEMALE =
+    DoubleVector.broadcast(SPECIES, MifflinStJeor.FEMALE_CONSTANT);
+
+  /*
+   * The segments of the curves are held in constant vectors. Vectors held
+   * in fields that are not constants are boxed, and so are comparatively
+   * slow.
+   */
+
+  private static final DoubleVector PROTEIN_START_MALE =
+    start(BodyMacroBatchSupport.GRAMS_PER_POUND_MALE);
+  private static final DoubleVector PROTEIN_START_FEMALE =
+    start(BodyMacroBatchSupport.GRAMS_PER_POUND_FEMALE);
+  private static final DoubleVector PROTEIN_OUTPUT_MALE =
+    output(BodyMacroBatchSupport.GRAMS_PER_POUND_MALE);
+  private static final DoubleVector PROTEIN_OUTPUT_FEMALE =
+    output(BodyMacroBatchSupport.GRAMS_PER_POUND_FEMALE);
+  private static final DoubleVector PROTEIN_SLOPE_MALE =
+    slope(BodyMacroBatchSupport.GRAMS_PER_POUND_MALE);
+  private static final DoubleVector PROTEIN_SLOPE_FEMALE =
+    slope(BodyMacroBatchSupport.GRAMS_PER_POUND_FEMALE);
+  private static final DoubleVector FAT_START_MALE =
+    start(BodyMacroBatchSupport.FAT_COEFFICIENT_MALE);
+  private static final DoubleVector FAT_START_FEMALE =
+    start(BodyMacroBatchSupport.FAT_COEFFICIENT_FEMALE);
+  private static final DoubleVector FAT_OUTPUT_MALE =
+    output(BodyMacroBatchSupport.FAT_COEFFICIENT_MALE);
+  private static final DoubleVector FAT_OUTPUT_FEMALE =
+    output(BodyMacroBatchSupport.FAT_COEFFICIENT_FEMALE);
+  private static final DoubleVector FAT_SLOPE_MALE =
+    slope(BodyMacroBatchSupport.FAT_COEFFICIENT_MALE);
+  private static final DoubleVector FAT_SLOPE_FEMALE =
+    slope(BodyMacroBatchSupport.FAT_COEFFICIENT_FEMALE);
+  private static final DoubleVector FAT_LOW_MALE =
+    lowest(BodyMacroBatchSupport.FAT_COEFFICIENT_MALE);
+  private static final DoubleVector FAT_LOW_FEMALE =
+    lowest(BodyMacroBatchSupport.FAT_COEFFICIENT_FEMALE);
+  private static final DoubleVector FAT_HIGH_MALE =
+    highest(BodyMacroBatchSupport.FAT_COEFFICIENT_MALE);
+  private static final DoubleVector FAT_HIGH_FEMALE =
+    highest(BodyMacroBatchSupport.FAT_COEFFICIENT_FEMALE);
+
+  private BodyMacroVectorKernel()
+  {
+
+  }
+
+  private static DoubleVector start(
+    final BodyMacroCurveSegment segment)
+  {
+    return DoubleVector.broadcast(SPECIES, segment.start());
+  }
+
+  private static DoubleVector output(
+    final BodyMacroCurveSegment segment)
+  {
+    return DoubleVector.broadcast(SPECIES, segment.output());
+  }
+
+  private static DoubleVector slope(
+    final BodyMacroCurveSegment segment)
+  {
+    return DoubleVector.broadcast(SPECIES, segment.slope());
+  }
+
+  private static DoubleVector lowest(
+    final BodyMacroCurveSegment segment)
+  {
+    return DoubleVector.broadcast(SPECIES, segment.lowest());
+  }
+
+  private static DoubleVector highest(
+    final BodyMacroCurveSegment segment)
+  {
+    return DoubleVector.broadcast(SPECIES, segment.highest());
+  }
+
+  /**
+   * @return {@code true} if the platform's vectors hold more than one lane
+   */
+
+  public static boolean isUseful()
+  {
+    return SPECIES.length() > 1;
+  }
+
+  /**
+   * @return A new kernel
+   */
+
+  public static BodyMacroBatchKernelType create()
+  {
+    return new BodyMacroVectorKernel();
+  }
+
+  @Override
+  public String name()
+  {
+    return String.format("vector (%d lanes)", Integer.valueOf(SPECIES.length()));
+  }
+
+  @Override
+  public void estimateFor(
+    final BodyDefinitionColumns input,
+    final BodyMacrosColumns output,
+    final int offset,
+    final int count)
+  {
+    Objects.requireNonNull(input, "input");
+    Objects.requireNonNull(output, "output");
+    Objects.checkFromIndexSize(offset, count, input.size());
+    Objects.checkFromIndexSize(offset, count, output.size());
+
+    BodyMacroBatchSupport.decodeAndCheck(input, output, offset, count);
+
+    /*
+     * Any trailing bodies that do not fill a vector are processed with
+     * a partial mask, rather than being passed to the scalar
+     * implementation. Calling the scalar implementation with tiny counts
+     * would pollute its loop profiles and prevent the JIT from
+     * vectorizing it elsewhere.
+     */
+
+    final int end = offset + count;
+    final int vectorEnd = offset + SPECIES.loopBound(count);
+    int index = offset;
+    for (; index < vectorEnd; index += SPECIES.length()) {
+      estimateVector(input, output, index, ALL_LANES);
+    }
+    if (index < end) {
+      estimateVector(input, output, index, SPECIES.indexInRange(index, end));
+    }
+  }
+
+  private static void estimateVector(
+    final BodyDefinitionColumns input,
+    final BodyMacrosColumns output,
+    final int index,
+    final VectorMask<Double> mask)
+  {
+    final var female =
+      load(output.fatGrams(), index, mask)
+        .compare(EQ, (double) FEMALE.ordinal());
+    final var activity =
+      load(output.calories(), index, mask);
+    final var height =
+      load(input.heightMetres(), index, mask);
+    final var weight =
+      load(input.weightKilograms(), index, mask);
+    final var age =
+      load(input.ageYears(), index, mask);
+    final var bodyFat =
+      load(input.bodyFatCoefficients(), index, mask);
+    final var adjustment =
+      load(input.caloricAdjustments(), index, mask);
+    final var bodyFatPercentage =
+      bodyFat.mul(100.0);
+
+    /*
+     * This is MifflinStJeor.basalMetabolicRate() with the gender constant,
+     * lane by lane.
+     */
+
+    final var bmr =
+      weight.mul(10.0)
+        .add(height.mul(100.0).mul(6.25))
+        .sub(age.mul(5.0))
+        .add(BMR_MALE.blend(BMR_FEMALE, female));
+    final var recomp =
+      bmr.mul(activity).mul(adjustment);
+
+    final var gramsPerPound =
+      PROTEIN_SLOPE_MALE.blend(PROTEIN_SLOPE_FEMALE, female)
+        .mul(bodyFatPercentage.sub(
+          PROTEIN_START_MALE.blend(PROTEIN_START_FEMALE, female)))
+        .add(PROTEIN_OUTPUT_MALE.blend(PROTEIN_OUTPUT_FEMALE, female));
+
+    final var proteinGrams =
+      ceil(
+        mask,
+        weight.mul(ONE.sub(bodyFat))
+          .mul(gramsPerPound.mul(DietaryProteinEstimates.POUNDS_PER_KILOGRAM))
+      );
+
+    final var fatCoefficient =
+      FAT_SLOPE_MALE.blend(FAT_SLOPE_FEMALE, female)
+        .mul(bodyFatPercentage.sub(
+          FAT_START_MALE.blend(FAT_START_FEMALE, female)))
+        .add(FAT_OUTPUT_MALE.blend(FAT_OUTPUT_FEMALE, female))
+        .min(FAT_HIGH_MALE.blend(FAT_HIGH_FEMALE, female))
+        .max(FAT_LOW_MALE.blend(FAT_LOW_FEMALE, female));
+
+    final var fatCalories = recomp.mul(fatCoefficient);
+
+    recomp.intoArray(output.calories(), index, mask);
+    proteinGrams.intoArray(output.proteinGrams(), index, mask);
+    fatCalories.div(9.0)
+      .intoArray(output.fatGrams(), index, mask);
+    recomp.sub(proteinGrams.mul(4.0).add(fatCalories))
+      .div(4.0)
+      .intoArray(output.carbohydrateGrams(), index, mask);
+  }
+
+  private static DoubleVector load(
+    final double[] array,
+    final int index,
+    final VectorMask<Double> mask)
+  {
+    return DoubleVector.fromArray(SPECIES, array, index, mask);
+  }
+
+  /*
+   * The Vector API has no ceiling operation. Values in the range (0, 2^52)
+   * are rounded to the nearest integer by the addition trick above, and then
+   * adjusted upwards if rounding went down. Any other values (zeroes, which
+   * may be signed, negative values, huge values, and NaN) are vanishingly
+   * rare in practice, and so are passed to Math.ceil() lane by lane.
+   */
+
+  private static DoubleVector ceil(
+    final VectorMask<Double> mask,
+    final DoubleVector x)
+  {
+    final VectorMask<Double> fast =
+      x.compare(GT, 0.0)
+        .and(x.compare(LT, TWO_POW_52))
+        .or(mask.not());
+
+    if (!fast.allTrue()) {
+      final double[] lanes = x.toArray();
+      for (int index = 0; index < lanes.length; ++index) {
+        lanes[index] = Math.ceil(lanes[index]);
+      }
+      return DoubleVector.fromArray(SPECIES, lanes, 0);
+    }
+
+    final var rounded = x.add(TWO_POW_52).sub(TWO_POW_52);
+    return rounded.add(1.0, rounded.compare(LT, x));
+  }
+
+  @Override
+  public String toString()
+  {
+    return String.format(
+      "[BodyMacroVectorKernel %d]",
+      Integer.valueOf(SPECIES.length())
+    );
+  }
+}